@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.kernels.Aggregations;
+
+/**
+ * Compares the {@link Aggregations} kernels with the equivalent Accessor.get
+ * loops.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AggregationBenchmark {
+
+	@Param({ "1000", "100000", "10000000" })
+	public int valueCount;
+
+	private BufferAllocator allocator;
+	private BigIntVector bigIntVector;
+	private Float8Vector float8Vector;
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		bigIntVector = new BigIntVector("BigIntAgg", allocator);
+		bigIntVector.allocateNew(valueCount);
+		float8Vector = new Float8Vector("Float8Agg", allocator);
+		float8Vector.allocateNew(valueCount);
+		for (int i = 0; i < valueCount; i++) {
+			bigIntVector.getMutator().set(i, i * 31L);
+			float8Vector.getMutator().set(i, i * 0.5);
+		}
+		bigIntVector.getMutator().setValueCount(valueCount);
+		float8Vector.getMutator().setValueCount(valueCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		bigIntVector.close();
+		float8Vector.close();
+		allocator.close();
+	}
+
+	@Benchmark
+	public long bigIntSumAccessor() {
+		BigIntVector.Accessor accessor = bigIntVector.getAccessor();
+		long sum = 0;
+		for (int i = 0; i < valueCount; i++) {
+			sum += accessor.get(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long bigIntSumKernel() {
+		return Aggregations.sum(bigIntVector);
+	}
+
+	@Benchmark
+	public long bigIntMaxAccessor() {
+		BigIntVector.Accessor accessor = bigIntVector.getAccessor();
+		long max = Long.MIN_VALUE;
+		for (int i = 0; i < valueCount; i++) {
+			max = Math.max(max, accessor.get(i));
+		}
+		return max;
+	}
+
+	@Benchmark
+	public long bigIntMaxKernel() {
+		return Aggregations.max(bigIntVector);
+	}
+
+	@Benchmark
+	public double float8SumAccessor() {
+		Float8Vector.Accessor accessor = float8Vector.getAccessor();
+		double sum = 0;
+		for (int i = 0; i < valueCount; i++) {
+			sum += accessor.get(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double float8SumKernel() {
+		return Aggregations.sum(float8Vector);
+	}
+}
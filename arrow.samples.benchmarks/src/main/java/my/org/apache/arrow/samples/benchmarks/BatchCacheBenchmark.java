@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.cache.BatchCache;
+import my.org.apache.arrow.samples.cache.CachedVector;
+import my.org.apache.arrow.samples.cache.EvictionPolicy;
+import my.org.apache.arrow.samples.compress.Codec;
+import my.org.apache.arrow.samples.compress.CompressedColumnReader;
+import my.org.apache.arrow.samples.compress.CompressedColumnWriter;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Sums one column over a sequence of batch reads from a compressed column
+ * file, decoding the column on every read or going through a batch cache
+ * holding a tenth of the batches. Four reads out of five go to a hot set of
+ * 5% of the batches, the others scan the whole file in order. The cache hits
+ * and misses are reported as secondary results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchCacheBenchmark {
+
+	/**
+	 * Hits and misses of the cached reads of an iteration.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class CacheCounters {
+		public long hits;
+		public long misses;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			hits = 0;
+			misses = 0;
+		}
+	}
+
+	@Param({ "LRU", "W_TINY_LFU" })
+	public EvictionPolicy policy;
+
+	private int batchCount = 200;
+	private int batchSize = 16384;
+	private int readCount = 1000;
+
+	private BufferAllocator allocator;
+	private Path file;
+	private CompressedColumnReader reader;
+	private BatchCache cache;
+	private int[] reads;
+
+	@Setup(Level.Trial)
+	public void init() throws IOException {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		file = Files.createTempFile("cache", ".arrowz");
+		Schema schema = new Schema(Arrays.asList(FixedWidthType.BIGINT.toField("value")));
+		Random random = new Random(42);
+		try (CompressedColumnWriter writer = CompressedColumnWriter.create(file, schema, allocator, Codec.DEFLATE)) {
+			for (int b = 0; b < batchCount; b++) {
+				BigIntVector values = new BigIntVector("value", allocator);
+				values.allocateNew(batchSize);
+				for (int i = 0; i < batchSize; i++) {
+					values.getMutator().set(i, random.nextInt(100000));
+				}
+				values.getMutator().setValueCount(batchSize);
+				try (ColumnBatch batch = new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(values))) {
+					writer.writeBatch(batch);
+				}
+			}
+		}
+		reader = CompressedColumnReader.open(file);
+		cache = new BatchCache(allocator, "benchmark", batchCount / 10 * batchSize * 8L, policy);
+		reads = new int[readCount];
+		int scan = 0;
+		for (int i = 0; i < readCount; i++) {
+			reads[i] = random.nextInt(5) != 0 ? random.nextInt(batchCount / 20) * 20 : scan++ % batchCount;
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() throws IOException {
+		cache.close();
+		reader.close();
+		Files.delete(file);
+		allocator.close();
+	}
+
+	@Benchmark
+	public long uncached() throws IOException {
+		long sum = 0;
+		for (int batch : reads) {
+			try (BigIntVector vector = (BigIntVector) reader.readColumn(batch, 0, allocator)) {
+				sum += Aggregations.sum(vector);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long cached(CacheCounters counters) throws IOException {
+		long hits = cache.getHitCount();
+		long misses = cache.getMissCount();
+		long sum = 0;
+		for (int batch : reads) {
+			try (CachedVector vector = cache.get(file, reader, batch, 0)) {
+				sum += Aggregations.sum(vector.getVector(BigIntVector.class));
+			}
+		}
+		counters.hits += cache.getHitCount() - hits;
+		counters.misses += cache.getMissCount() - misses;
+		return sum;
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.arrow.memory.AllocationListener;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+/**
+ * Creates the allocators used by the benchmarks. Every allocator shares one
+ * listener which counts the off-heap bytes handed out, so that
+ * {@link OffHeapAllocationProfiler} can report them per operation.
+ */
+public final class BenchmarkAllocators {
+
+	private static final AtomicLong allocatedBytes = new AtomicLong();
+
+	private static final AllocationListener COUNTING_LISTENER = new AllocationListener() {
+		@Override
+		public void onAllocation(long size) {
+			allocatedBytes.addAndGet(size);
+		}
+	};
+
+	private BenchmarkAllocators() {
+	}
+
+	/**
+	 * @return a root allocator without a practical limit whose allocations are
+	 *         counted
+	 */
+	public static BufferAllocator newRootAllocator() {
+		return new RootAllocator(COUNTING_LISTENER, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Runs per-invocation setup work without attributing its allocations to the
+	 * measured operation.
+	 */
+	public static void untracked(Runnable setup) {
+		long before = allocatedBytes.get();
+		setup.run();
+		allocatedBytes.addAndGet(before - allocatedBytes.get());
+	}
+
+	/**
+	 * @return total number of off-heap bytes allocated through
+	 *         {@link #newRootAllocator()} allocators since the JVM started
+	 */
+	public static long allocatedBytes() {
+		return allocatedBytes.get();
+	}
+}
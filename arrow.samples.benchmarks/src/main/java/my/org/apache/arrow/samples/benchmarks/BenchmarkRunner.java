@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts the usual JMH command line and
+ * always adds the heap ({@code gc}) and off-heap allocation profilers, so every
+ * result reports ns/op together with the bytes allocated per op.
+ *
+ * <pre>
+ * mvn -f arrow.samples/pom.xml install -DskipTests
+ * mvn -f arrow.samples.benchmarks/pom.xml package
+ * java -jar arrow.samples.benchmarks/target/benchmarks.jar IntVectorBenchmark -p valueCount=1000
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Arrow 0.5 reaches into java.nio through netty, which newer JDKs only
+	 * allow when the package is opened explicitly.
+	 */
+	private static final String[] MODULE_JVM_ARGS = { "--add-opens=java.base/java.nio=ALL-UNNAMED",
+			"-Dio.netty.tryReflectionSetAccessible=true" };
+
+	/**
+	 * Lets SimdKernels use the Vector API, incubating since JDK 16.
+	 */
+	private static final String VECTOR_API_JVM_ARG = "--add-modules=jdk.incubator.vector";
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.addProfiler(OffHeapAllocationProfiler.class);
+		if (!System.getProperty("java.specification.version").startsWith("1.")) {
+			if (Integer.parseInt(System.getProperty("java.specification.version")) >= 16) {
+				// jvmArgsAppend replaces the arguments of a previous call
+				String[] jvmArgs = Arrays.copyOf(MODULE_JVM_ARGS, MODULE_JVM_ARGS.length + 1);
+				jvmArgs[MODULE_JVM_ARGS.length] = VECTOR_API_JVM_ARG;
+				options.jvmArgsAppend(jvmArgs);
+			} else {
+				options.jvmArgsAppend(MODULE_JVM_ARGS);
+			}
+		}
+		Runner runner = new Runner(options.build());
+		if (commandLine.shouldList()) {
+			runner.list();
+		} else {
+			runner.run();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.expr.CompiledExpression;
+import my.org.apache.arrow.samples.expr.Expression;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Compares computing {@code (a * 2.0 + b) / c} row by row through the
+ * accessors and mutator with a {@link CompiledExpression}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+	@Param({ "1000000" })
+	public int valueCount;
+
+	private BufferAllocator allocator;
+	private ColumnBatch batch;
+	private Float8Vector a;
+	private Float4Vector b;
+	private IntVector c;
+	private Float8Vector result;
+	private CompiledExpression expression;
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		a = (Float8Vector) FixedWidthType.FLOAT8.allocateVector("a", allocator, valueCount);
+		b = (Float4Vector) FixedWidthType.FLOAT4.allocateVector("b", allocator, valueCount);
+		c = (IntVector) FixedWidthType.INT.allocateVector("c", allocator, valueCount);
+		for (int i = 0; i < valueCount; i++) {
+			a.getMutator().set(i, i * 0.5);
+			b.getMutator().set(i, i % 100);
+			c.getMutator().set(i, i % 7 + 1);
+		}
+		for (BaseDataValueVector column : Arrays.<BaseDataValueVector> asList(a, b, c)) {
+			column.getMutator().setValueCount(valueCount);
+		}
+		Schema schema = new Schema(Arrays.asList(FixedWidthType.FLOAT8.toField("a"),
+				FixedWidthType.FLOAT4.toField("b"), FixedWidthType.INT.toField("c")));
+		batch = new ColumnBatch(schema, Arrays.asList(a, b, c));
+		result = (Float8Vector) FixedWidthType.FLOAT8.allocateVector("result", allocator, valueCount);
+		expression = Expression.parse("(a * 2.0 + b) / c").compile(schema);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		batch.close();
+		result.close();
+		allocator.close();
+	}
+
+	@Benchmark
+	public double accessorMutator() {
+		Float8Vector.Accessor aValues = a.getAccessor();
+		Float4Vector.Accessor bValues = b.getAccessor();
+		IntVector.Accessor cValues = c.getAccessor();
+		Float8Vector.Mutator mutator = result.getMutator();
+		for (int i = 0; i < valueCount; i++) {
+			mutator.set(i, (aValues.get(i) * 2.0 + bValues.get(i)) / cValues.get(i));
+		}
+		mutator.setValueCount(valueCount);
+		return result.getAccessor().get(valueCount - 1);
+	}
+
+	@Benchmark
+	public double compiledExpression() {
+		expression.evaluate(batch, result);
+		return result.getAccessor().get(valueCount - 1);
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.FixedWidthVector;
+import org.apache.arrow.vector.util.TransferPair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Measures the paths of one fixed-width vector type exercised by its unit
+ * test. Every operation covers the whole vector, i.e. {@code valueCount}
+ * elements. Subclasses add the set, get and copyFrom loops, which go through
+ * the typed accessor and mutator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public abstract class FixedWidthVectorBenchmark<V extends BaseDataValueVector> {
+
+	@Param({ "10", "1000", "100000", "10000000" })
+	public int valueCount;
+
+	private final FixedWidthType type;
+	private BufferAllocator allocator;
+	protected V source;
+	protected V target;
+	private TransferPair transfer;
+
+	protected FixedWidthVectorBenchmark(FixedWidthType type) {
+		this.type = type;
+	}
+
+	/**
+	 * Sets every element of the vector to its index.
+	 */
+	protected abstract void fill(V vector);
+
+	@SuppressWarnings("unchecked")
+	private V allocate(String name) {
+		return (V) type.allocateVector(name, allocator, valueCount);
+	}
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		source = allocate("source");
+		fill(source);
+		source.getMutator().setValueCount(valueCount);
+
+		target = allocate("target");
+		transfer = source.makeTransferPair(target);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		source.close();
+		target.close();
+		allocator.close();
+	}
+
+	@Benchmark
+	public V splitAndTransferTo() {
+		transfer.splitAndTransfer(0, valueCount);
+		return target;
+	}
+
+	@Benchmark
+	public FixedWidthVector reAlloc(ReAllocState state) {
+		state.vector.reAlloc();
+		return state.vector;
+	}
+
+	/**
+	 * Provides a freshly allocated vector for every reAlloc call. The
+	 * per-invocation setup is excluded from the timing and from the off-heap
+	 * byte count, but it does make the smallest value counts noisy.
+	 *
+	 * JMH cannot hand the abstract benchmark to this state, so the vector type
+	 * and size are taken from the parameters of the running benchmark.
+	 */
+	@State(Scope.Thread)
+	public static class ReAllocState {
+
+		private BufferAllocator allocator;
+		private FixedWidthVector vector;
+		private int valueCount;
+
+		@Setup(Level.Trial)
+		public void init(BenchmarkParams params) throws ReflectiveOperationException {
+			String method = params.getBenchmark();
+			FixedWidthVectorBenchmark<?> benchmark = (FixedWidthVectorBenchmark<?>) Class
+					.forName(method.substring(0, method.lastIndexOf('.'))).getDeclaredConstructor().newInstance();
+			valueCount = Integer.parseInt(params.getParam("valueCount"));
+			allocator = BenchmarkAllocators.newRootAllocator();
+			vector = (FixedWidthVector) benchmark.type.newVector("reAlloc", allocator);
+		}
+
+		@Setup(Level.Invocation)
+		public void allocate() {
+			BenchmarkAllocators.untracked(() -> vector.allocateNew(valueCount));
+		}
+
+		@TearDown(Level.Trial)
+		public void terminate() {
+			vector.close();
+			allocator.close();
+		}
+	}
+}
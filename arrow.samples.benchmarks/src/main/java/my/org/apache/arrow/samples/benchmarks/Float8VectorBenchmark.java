@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.Float8Vector.Accessor;
+import org.apache.arrow.vector.Float8Vector.Mutator;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Measures the Float8Vector paths exercised by TestFloat8Vector. Every operation
+ * covers the whole vector, i.e. {@code valueCount} elements.
+ */
+public class Float8VectorBenchmark extends FixedWidthVectorBenchmark<Float8Vector> {
+
+	public Float8VectorBenchmark() {
+		super(FixedWidthType.FLOAT8);
+	}
+
+	@Override
+	protected void fill(Float8Vector vector) {
+		Mutator mutator = vector.getMutator();
+		for (int i = 0; i < valueCount; i++) {
+			mutator.set(i, i);
+		}
+	}
+
+	@Benchmark
+	public void set() {
+		fill(target);
+	}
+
+	@Benchmark
+	public double get() {
+		Accessor accessor = source.getAccessor();
+		double sum = 0;
+		for (int i = 0; i < valueCount; i++) {
+			sum += accessor.get(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void copyFrom() {
+		for (int i = 0; i < valueCount; i++) {
+			target.copyFrom(i, i, source);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.hash.Aggregate;
+import my.org.apache.arrow.samples.hash.HashAggregation;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Compares {@link HashAggregation} with a HashMap keyed by boxed longs, for a
+ * per-tenant sum and count over one batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GroupByBenchmark {
+
+	@Param({ "1000000" })
+	public int valueCount;
+
+	@Param({ "100", "10000", "1000000" })
+	public int groupCount;
+
+	private BufferAllocator allocator;
+	private BigIntVector keys;
+	private Float8Vector values;
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		keys = new BigIntVector("GroupKeys", allocator);
+		keys.allocateNew(valueCount);
+		values = new Float8Vector("GroupValues", allocator);
+		values.allocateNew(valueCount);
+		for (int i = 0; i < valueCount; i++) {
+			keys.getMutator().set(i, (i * 7919L) % groupCount);
+			values.getMutator().set(i, i * 0.5);
+		}
+		keys.getMutator().setValueCount(valueCount);
+		values.getMutator().setValueCount(valueCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		keys.close();
+		values.close();
+		allocator.close();
+	}
+
+	@Benchmark
+	public int hashMap() {
+		BigIntVector.Accessor keyAccessor = keys.getAccessor();
+		Float8Vector.Accessor valueAccessor = values.getAccessor();
+		Map<Long, double[]> groups = new HashMap<>();
+		for (int i = 0; i < valueCount; i++) {
+			double[] group = groups.get(keyAccessor.get(i));
+			if (group == null) {
+				group = new double[2];
+				groups.put(keyAccessor.get(i), group);
+			}
+			group[0] += valueAccessor.get(i);
+			group[1]++;
+		}
+		return groups.size();
+	}
+
+	@Benchmark
+	public int hashAggregation() {
+		try (HashAggregation aggregation = new HashAggregation(allocator, FixedWidthType.BIGINT,
+				Arrays.asList(Aggregate.sum("sum", 1), Aggregate.count("count")))) {
+			aggregation.add(keys, Arrays.asList(keys, values));
+			return aggregation.getGroupCount();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.ingest.ConcurrentBatchBuilder;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Ingests one batch of (timestamp, value) rows from several producer threads,
+ * either through mutators guarded by one lock or through a
+ * {@link ConcurrentBatchBuilder}. Producers hand over rows in messages of 256.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IngestBenchmark {
+
+	private static final int MESSAGE_SIZE = 256;
+
+	@Param({ "1000000" })
+	public int rowCount;
+
+	@Param({ "1", "4" })
+	public int producers;
+
+	private BufferAllocator allocator;
+	private ExecutorService executor;
+	private Schema schema;
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		executor = Executors.newFixedThreadPool(producers);
+		schema = new Schema(
+				Arrays.asList(FixedWidthType.BIGINT.toField("timestamp"), FixedWidthType.FLOAT8.toField("value")));
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		executor.shutdownNow();
+		allocator.close();
+	}
+
+	@Benchmark
+	public int synchronizedMutators() throws Exception {
+		final BigIntVector timestamps = new BigIntVector("timestamp", allocator);
+		final Float8Vector values = new Float8Vector("value", allocator);
+		timestamps.allocateNew(rowCount);
+		values.allocateNew(rowCount);
+		final int[] next = new int[1];
+		run(new Callable<Void>() {
+			@Override
+			public Void call() {
+				for (int m = 0; m < rowCount / producers / MESSAGE_SIZE; m++) {
+					long time = System.nanoTime();
+					synchronized (next) {
+						for (int i = 0; i < MESSAGE_SIZE; i++) {
+							timestamps.getMutator().set(next[0], time + i);
+							values.getMutator().set(next[0], i * 0.5);
+							next[0]++;
+						}
+					}
+				}
+				return null;
+			}
+		});
+		timestamps.getMutator().setValueCount(next[0]);
+		values.getMutator().setValueCount(next[0]);
+		try (ColumnBatch batch = new ColumnBatch(schema, Arrays.asList(timestamps, values))) {
+			return batch.getRowCount();
+		}
+	}
+
+	@Benchmark
+	public int concurrentBuilder() throws Exception {
+		try (final ConcurrentBatchBuilder builder = new ConcurrentBatchBuilder(allocator, schema, rowCount)) {
+			run(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int m = 0; m < rowCount / producers / MESSAGE_SIZE; m++) {
+						long time = System.nanoTime();
+						int first = builder.reserve(MESSAGE_SIZE);
+						for (int i = 0; i < MESSAGE_SIZE; i++) {
+							builder.setLong(0, first + i, time + i);
+							builder.setDouble(1, first + i, i * 0.5);
+						}
+						builder.commit(MESSAGE_SIZE);
+					}
+					return null;
+				}
+			});
+			try (ColumnBatch batch = builder.seal()) {
+				return batch.getRowCount();
+			}
+		}
+	}
+
+	private void run(Callable<Void> producer) throws Exception {
+		List<Future<Void>> futures = new ArrayList<>(producers);
+		for (int p = 0; p < producers; p++) {
+			futures.add(executor.submit(producer));
+		}
+		for (Future<Void> future : futures) {
+			future.get();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.NullableBigIntVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+
+/**
+ * Compares scanning a mostly null column with Accessor.isNull per row and
+ * with the kernels reading the validity bits a word at a time. Each value is
+ * null with probability nullPercent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NullableScanBenchmark {
+
+	@Param({ "1000000" })
+	public int valueCount;
+
+	/** Percentage of null values */
+	@Param({ "50", "95" })
+	public int nullPercent;
+
+	private BufferAllocator allocator;
+	private NullableBigIntVector vector;
+	private SelectionVector selection;
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		vector = new NullableBigIntVector("values", allocator);
+		vector.allocateNew(valueCount);
+		Random random = new Random(42);
+		for (int i = 0; i < valueCount; i++) {
+			if (random.nextInt(100) >= nullPercent) {
+				vector.getMutator().set(i, random.nextInt(1000));
+			}
+		}
+		vector.getMutator().setValueCount(valueCount);
+		selection = new SelectionVector(allocator);
+		selection.allocateNew(valueCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		vector.close();
+		selection.close();
+		allocator.close();
+	}
+
+	@Benchmark
+	public long sumIsNull() {
+		NullableBigIntVector.Accessor accessor = vector.getAccessor();
+		long sum = 0;
+		for (int i = 0; i < valueCount; i++) {
+			if (!accessor.isNull(i)) {
+				sum += accessor.get(i);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long sumWords() {
+		return Aggregations.sum(vector);
+	}
+
+	@Benchmark
+	public int countIsNull() {
+		NullableBigIntVector.Accessor accessor = vector.getAccessor();
+		int count = 0;
+		for (int i = 0; i < valueCount; i++) {
+			count += accessor.isNull(i) ? 0 : 1;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int countWords() {
+		return Aggregations.count(vector);
+	}
+
+	@Benchmark
+	public int filterIsNull() {
+		NullableBigIntVector.Accessor accessor = vector.getAccessor();
+		int selected = 0;
+		for (int i = 0; i < valueCount; i++) {
+			if (!accessor.isNull(i) && accessor.get(i) < 100) {
+				selection.setIndex(selected++, i);
+			}
+		}
+		selection.setCount(selected);
+		return selected;
+	}
+
+	@Benchmark
+	public int filterWords() {
+		return Filters.compare(vector, CompareOp.LT, 100, selection).getCount();
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Reports the off-heap bytes allocated per benchmark operation. The JMH
+ * {@code gc} profiler only sees heap allocations, while ArrowBuf memory comes
+ * from the allocators created by {@link BenchmarkAllocators}.
+ *
+ * Enable it with {@code -prof my.org.apache.arrow.samples.benchmarks.OffHeapAllocationProfiler};
+ * {@link BenchmarkRunner} adds it by default.
+ */
+public class OffHeapAllocationProfiler implements InternalProfiler {
+
+	private long bytesBefore;
+
+	@Override
+	public String getDescription() {
+		return "Off-heap bytes allocated through Arrow allocators per operation";
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+		bytesBefore = BenchmarkAllocators.allocatedBytes();
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+			IterationParams iterationParams, IterationResult result) {
+		long bytes = BenchmarkAllocators.allocatedBytes() - bytesBefore;
+		long ops = result.getMetadata().getAllOps();
+		double perOp = ops == 0 ? Double.NaN : (double) bytes / ops;
+		return Collections.singletonList(
+				new ScalarResult("offheap.alloc.norm", perOp, "B/op", AggregationPolicy.AVG));
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.expr.ArithmeticOp;
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.kernels.SimdKernels;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Compares the {@link SimdKernels} with the scalar {@link Aggregations} and
+ * {@link Filters} kernels. The SIMD kernels only run vectorized on JDK 17 or
+ * later, where {@link BenchmarkRunner} adds the Vector API module; otherwise
+ * both sides measure the scalar loops.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimdBenchmark {
+
+	@Param({ "1000000" })
+	public int valueCount;
+
+	private BufferAllocator allocator;
+	private IntVector ints;
+	private Float8Vector doubles;
+	private Float8Vector other;
+	private Float8Vector result;
+	private SelectionVector selection;
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		ints = (IntVector) FixedWidthType.INT.allocateVector("ints", allocator, valueCount);
+		doubles = (Float8Vector) FixedWidthType.FLOAT8.allocateVector("doubles", allocator, valueCount);
+		other = (Float8Vector) FixedWidthType.FLOAT8.allocateVector("other", allocator, valueCount);
+		result = (Float8Vector) FixedWidthType.FLOAT8.allocateVector("result", allocator, valueCount);
+		Random random = new Random(42);
+		for (int i = 0; i < valueCount; i++) {
+			ints.getMutator().set(i, random.nextInt(1000));
+			doubles.getMutator().set(i, random.nextDouble());
+			other.getMutator().set(i, random.nextDouble() + 1);
+		}
+		ints.getMutator().setValueCount(valueCount);
+		doubles.getMutator().setValueCount(valueCount);
+		other.getMutator().setValueCount(valueCount);
+		selection = new SelectionVector(allocator);
+		selection.allocateNew(valueCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		ints.close();
+		doubles.close();
+		other.close();
+		result.close();
+		selection.close();
+		allocator.close();
+	}
+
+	@Benchmark
+	public long sumIntsScalar() {
+		return Aggregations.sum(ints);
+	}
+
+	@Benchmark
+	public long sumIntsSimd() {
+		return SimdKernels.sum(ints);
+	}
+
+	@Benchmark
+	public double maxDoublesScalar() {
+		return Aggregations.max(doubles);
+	}
+
+	@Benchmark
+	public double maxDoublesSimd() {
+		return SimdKernels.max(doubles);
+	}
+
+	/**
+	 * Selects 1% of the rows.
+	 */
+	@Benchmark
+	public int compareIntsScalar() {
+		return Filters.compare(ints, CompareOp.LT, 10, selection).getCount();
+	}
+
+	@Benchmark
+	public int compareIntsSimd() {
+		return SimdKernels.compare(ints, CompareOp.LT, 10, selection).getCount();
+	}
+
+	@Benchmark
+	public double divideDoublesScalar() {
+		Float8Vector.Accessor left = doubles.getAccessor();
+		Float8Vector.Accessor right = other.getAccessor();
+		Float8Vector.Mutator mutator = result.getMutator();
+		for (int i = 0; i < valueCount; i++) {
+			mutator.set(i, left.get(i) / right.get(i));
+		}
+		mutator.setValueCount(valueCount);
+		return result.getAccessor().get(valueCount - 1);
+	}
+
+	@Benchmark
+	public double divideDoublesSimd() {
+		SimdKernels.apply(ArithmeticOp.DIVIDE, doubles, other, result);
+		return result.getAccessor().get(valueCount - 1);
+	}
+}
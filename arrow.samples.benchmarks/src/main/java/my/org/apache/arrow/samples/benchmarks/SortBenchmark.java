@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.RadixSort;
+
+/**
+ * Compares {@link RadixSort} with copying a column into a long[] through the
+ * accessor, sorting it and writing it back through the mutator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+	@Param({ "1000", "1000000" })
+	public int valueCount;
+
+	private BufferAllocator allocator;
+	private BigIntVector vector;
+	private BigIntVector sorted;
+	private SelectionVector permutation;
+
+	@Setup(Level.Trial)
+	public void init() {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		vector = new BigIntVector("SortInput", allocator);
+		vector.allocateNew(valueCount);
+		sorted = new BigIntVector("SortOutput", allocator);
+		sorted.allocateNew(valueCount);
+		Random random = new Random(42);
+		for (int i = 0; i < valueCount; i++) {
+			vector.getMutator().set(i, random.nextLong());
+		}
+		vector.getMutator().setValueCount(valueCount);
+		permutation = new SelectionVector(allocator);
+		permutation.allocateNew(valueCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() {
+		permutation.close();
+		vector.close();
+		sorted.close();
+		allocator.close();
+	}
+
+	@Benchmark
+	public long arraysSort() {
+		long[] values = new long[valueCount];
+		BigIntVector.Accessor accessor = vector.getAccessor();
+		for (int i = 0; i < valueCount; i++) {
+			values[i] = accessor.get(i);
+		}
+		Arrays.sort(values);
+		BigIntVector.Mutator mutator = sorted.getMutator();
+		for (int i = 0; i < valueCount; i++) {
+			mutator.set(i, values[i]);
+		}
+		return values[0];
+	}
+
+	@Benchmark
+	public int radixSort() {
+		return RadixSort.sort(vector, permutation).getIndex(0);
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.org.apache.arrow.samples.compress.Codec;
+import my.org.apache.arrow.samples.compress.CompressedColumnReader;
+import my.org.apache.arrow.samples.compress.CompressedColumnWriter;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.stats.ScanPlan;
+import my.org.apache.arrow.samples.stats.ScanPlanner;
+import my.org.apache.arrow.samples.stats.ScanPredicate;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Compares a time-range query over a compressed column file that decodes
+ * every batch with one that plans the scan from the zone maps stored in the
+ * file and only decodes the batches that may match. The timestamps increase
+ * through the file and the range covers 5 of the 200 batches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoneMapBenchmark {
+
+	@Param({ "65536" })
+	public int batchSize;
+
+	private int batchCount = 200;
+
+	private BufferAllocator allocator;
+	private Path file;
+	private CompressedColumnReader reader;
+	private SelectionVector selection;
+	private long lower;
+	private long upper;
+
+	@Setup(Level.Trial)
+	public void init() throws IOException {
+		allocator = BenchmarkAllocators.newRootAllocator();
+		file = Files.createTempFile("zonemaps", ".arrowz");
+		Schema schema = new Schema(
+				Arrays.asList(FixedWidthType.BIGINT.toField("ts"), FixedWidthType.FLOAT8.toField("value")));
+		Random random = new Random(42);
+		long ts = 0;
+		try (CompressedColumnWriter writer = CompressedColumnWriter.create(file, schema, allocator, Codec.NONE,
+				4096)) {
+			for (int b = 0; b < batchCount; b++) {
+				BigIntVector times = new BigIntVector("ts", allocator);
+				Float8Vector values = new Float8Vector("value", allocator);
+				times.allocateNew(batchSize);
+				values.allocateNew(batchSize);
+				for (int i = 0; i < batchSize; i++) {
+					ts += 1 + random.nextInt(10);
+					times.getMutator().set(i, ts);
+					values.getMutator().set(i, random.nextGaussian());
+				}
+				times.getMutator().setValueCount(batchSize);
+				values.getMutator().setValueCount(batchSize);
+				try (ColumnBatch batch = new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(times, values))) {
+					writer.writeBatch(batch);
+				}
+			}
+		}
+		reader = CompressedColumnReader.open(file);
+		lower = reader.getZoneMaps().getBatchZoneMap(100, 0).getLongMin();
+		upper = reader.getZoneMaps().getBatchZoneMap(104, 0).getLongMax();
+		selection = new SelectionVector(allocator);
+	}
+
+	@TearDown(Level.Trial)
+	public void terminate() throws IOException {
+		selection.close();
+		reader.close();
+		Files.delete(file);
+		allocator.close();
+	}
+
+	@Benchmark
+	public long fullScan() throws IOException {
+		long matches = 0;
+		for (int b = 0; b < reader.getBatchCount(); b++) {
+			matches += countMatches(b);
+		}
+		return matches;
+	}
+
+	@Benchmark
+	public long plannedScan() throws IOException {
+		ScanPlan plan = ScanPlanner.plan(reader.getZoneMaps(), ScanPredicate.between("ts", lower, upper));
+		long matches = 0;
+		for (int b : plan.getBatches()) {
+			matches += countMatches(b);
+		}
+		return matches;
+	}
+
+	private int countMatches(int index) throws IOException {
+		try (ColumnBatch batch = reader.readBatch(index, allocator)) {
+			return Filters.between((BigIntVector) batch.getColumn(0), lower, upper, selection).getCount();
+		}
+	}
+}
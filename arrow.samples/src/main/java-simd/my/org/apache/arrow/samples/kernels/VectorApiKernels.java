@@ -0,0 +1,577 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import static io.netty.util.internal.PlatformDependent.putInt;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import my.org.apache.arrow.samples.expr.ArithmeticOp;
+import my.org.apache.arrow.samples.filter.CompareOp;
+
+/**
+ * {@link LaneKernels} on the incubating Vector API, using the widest
+ * registers of the platform. Only compiled by the simd profile (JDK 17 or
+ * later) and loaded reflectively by {@link SimdKernels}.
+ *
+ * Every loop handles full registers first and the remaining values one at a
+ * time. Integer sums widen ints to longs and float sums widen floats to
+ * doubles before adding, like the scalar kernels; minimums and maximums
+ * follow Math.min and Math.max.
+ */
+final class VectorApiKernels implements LaneKernels {
+
+	private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+	private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	public VectorApiKernels() {
+		// fails here rather than on first use if the module is not readable
+		IntVector.zero(INTS);
+	}
+
+	@Override
+	public String describe() {
+		return "Vector API, " + INTS.vectorBitSize() + " bit registers";
+	}
+
+	/*
+	 * Aggregations
+	 */
+
+	@Override
+	public long sumInts(ByteBuffer values, int count) {
+		LongVector sums = LongVector.zero(LONGS);
+		int bound = INTS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += INTS.length()) {
+			IntVector v = IntVector.fromByteBuffer(INTS, values, i << 2, ORDER);
+			sums = sums.add((LongVector) v.convertShape(VectorOperators.I2L, LONGS, 0))
+					.add((LongVector) v.convertShape(VectorOperators.I2L, LONGS, 1));
+		}
+		long sum = sums.reduceLanes(VectorOperators.ADD);
+		for (; i < count; i++) {
+			sum += values.getInt(i << 2);
+		}
+		return sum;
+	}
+
+	@Override
+	public long sumLongs(ByteBuffer values, int count) {
+		LongVector sums = LongVector.zero(LONGS);
+		int bound = LONGS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += LONGS.length()) {
+			sums = sums.add(LongVector.fromByteBuffer(LONGS, values, i << 3, ORDER));
+		}
+		long sum = sums.reduceLanes(VectorOperators.ADD);
+		for (; i < count; i++) {
+			sum += values.getLong(i << 3);
+		}
+		return sum;
+	}
+
+	@Override
+	public double sumFloats(ByteBuffer values, int count) {
+		DoubleVector sums = DoubleVector.zero(DOUBLES);
+		int bound = FLOATS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += FLOATS.length()) {
+			FloatVector v = FloatVector.fromByteBuffer(FLOATS, values, i << 2, ORDER);
+			sums = sums.add((DoubleVector) v.convertShape(VectorOperators.F2D, DOUBLES, 0))
+					.add((DoubleVector) v.convertShape(VectorOperators.F2D, DOUBLES, 1));
+		}
+		double sum = sums.reduceLanes(VectorOperators.ADD);
+		for (; i < count; i++) {
+			sum += values.getFloat(i << 2);
+		}
+		return sum;
+	}
+
+	@Override
+	public double sumDoubles(ByteBuffer values, int count) {
+		DoubleVector sums = DoubleVector.zero(DOUBLES);
+		int bound = DOUBLES.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += DOUBLES.length()) {
+			sums = sums.add(DoubleVector.fromByteBuffer(DOUBLES, values, i << 3, ORDER));
+		}
+		double sum = sums.reduceLanes(VectorOperators.ADD);
+		for (; i < count; i++) {
+			sum += values.getDouble(i << 3);
+		}
+		return sum;
+	}
+
+	@Override
+	public int minInts(ByteBuffer values, int count) {
+		IntVector mins = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+		int bound = INTS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += INTS.length()) {
+			mins = mins.min(IntVector.fromByteBuffer(INTS, values, i << 2, ORDER));
+		}
+		int min = mins.reduceLanes(VectorOperators.MIN);
+		for (; i < count; i++) {
+			min = Math.min(min, values.getInt(i << 2));
+		}
+		return min;
+	}
+
+	@Override
+	public int maxInts(ByteBuffer values, int count) {
+		IntVector maxs = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+		int bound = INTS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += INTS.length()) {
+			maxs = maxs.max(IntVector.fromByteBuffer(INTS, values, i << 2, ORDER));
+		}
+		int max = maxs.reduceLanes(VectorOperators.MAX);
+		for (; i < count; i++) {
+			max = Math.max(max, values.getInt(i << 2));
+		}
+		return max;
+	}
+
+	@Override
+	public long minLongs(ByteBuffer values, int count) {
+		LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+		int bound = LONGS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += LONGS.length()) {
+			mins = mins.min(LongVector.fromByteBuffer(LONGS, values, i << 3, ORDER));
+		}
+		long min = mins.reduceLanes(VectorOperators.MIN);
+		for (; i < count; i++) {
+			min = Math.min(min, values.getLong(i << 3));
+		}
+		return min;
+	}
+
+	@Override
+	public long maxLongs(ByteBuffer values, int count) {
+		LongVector maxs = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+		int bound = LONGS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += LONGS.length()) {
+			maxs = maxs.max(LongVector.fromByteBuffer(LONGS, values, i << 3, ORDER));
+		}
+		long max = maxs.reduceLanes(VectorOperators.MAX);
+		for (; i < count; i++) {
+			max = Math.max(max, values.getLong(i << 3));
+		}
+		return max;
+	}
+
+	@Override
+	public float minFloats(ByteBuffer values, int count) {
+		FloatVector mins = FloatVector.broadcast(FLOATS, Float.POSITIVE_INFINITY);
+		int bound = FLOATS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += FLOATS.length()) {
+			mins = mins.min(FloatVector.fromByteBuffer(FLOATS, values, i << 2, ORDER));
+		}
+		float min = mins.reduceLanes(VectorOperators.MIN);
+		for (; i < count; i++) {
+			min = Math.min(min, values.getFloat(i << 2));
+		}
+		return min;
+	}
+
+	@Override
+	public float maxFloats(ByteBuffer values, int count) {
+		FloatVector maxs = FloatVector.broadcast(FLOATS, Float.NEGATIVE_INFINITY);
+		int bound = FLOATS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += FLOATS.length()) {
+			maxs = maxs.max(FloatVector.fromByteBuffer(FLOATS, values, i << 2, ORDER));
+		}
+		float max = maxs.reduceLanes(VectorOperators.MAX);
+		for (; i < count; i++) {
+			max = Math.max(max, values.getFloat(i << 2));
+		}
+		return max;
+	}
+
+	@Override
+	public double minDoubles(ByteBuffer values, int count) {
+		DoubleVector mins = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+		int bound = DOUBLES.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += DOUBLES.length()) {
+			mins = mins.min(DoubleVector.fromByteBuffer(DOUBLES, values, i << 3, ORDER));
+		}
+		double min = mins.reduceLanes(VectorOperators.MIN);
+		for (; i < count; i++) {
+			min = Math.min(min, values.getDouble(i << 3));
+		}
+		return min;
+	}
+
+	@Override
+	public double maxDoubles(ByteBuffer values, int count) {
+		DoubleVector maxs = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+		int bound = DOUBLES.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += DOUBLES.length()) {
+			maxs = maxs.max(DoubleVector.fromByteBuffer(DOUBLES, values, i << 3, ORDER));
+		}
+		double max = maxs.reduceLanes(VectorOperators.MAX);
+		for (; i < count; i++) {
+			max = Math.max(max, values.getDouble(i << 3));
+		}
+		return max;
+	}
+
+	/*
+	 * Comparisons. A register is only scanned value by value, like Filters
+	 * does, when at least one of its lanes matches, so selective predicates
+	 * mostly cost the comparison alone. The switch in anyMatch keeps the
+	 * comparison operator constant, see the arithmetic kernels below.
+	 */
+
+	@Override
+	public int selectInts(ByteBuffer values, int count, CompareOp op, int value, long indices) {
+		int bound = INTS.loopBound(count);
+		int selected = 0;
+		int i = 0;
+		for (; i < bound; i += INTS.length()) {
+			if (anyMatch(IntVector.fromByteBuffer(INTS, values, i << 2, ORDER), op, value)) {
+				for (int j = i; j < i + INTS.length(); j++) {
+					putInt(indices + ((long) selected << 2), j);
+					selected += matches(op, Integer.compare(values.getInt(j << 2), value)) ? 1 : 0;
+				}
+			}
+		}
+		for (; i < count; i++) {
+			putInt(indices + ((long) selected << 2), i);
+			selected += matches(op, Integer.compare(values.getInt(i << 2), value)) ? 1 : 0;
+		}
+		return selected;
+	}
+
+	@Override
+	public int selectLongs(ByteBuffer values, int count, CompareOp op, long value, long indices) {
+		int bound = LONGS.loopBound(count);
+		int selected = 0;
+		int i = 0;
+		for (; i < bound; i += LONGS.length()) {
+			if (anyMatch(LongVector.fromByteBuffer(LONGS, values, i << 3, ORDER), op, value)) {
+				for (int j = i; j < i + LONGS.length(); j++) {
+					putInt(indices + ((long) selected << 2), j);
+					selected += matches(op, Long.compare(values.getLong(j << 3), value)) ? 1 : 0;
+				}
+			}
+		}
+		for (; i < count; i++) {
+			putInt(indices + ((long) selected << 2), i);
+			selected += matches(op, Long.compare(values.getLong(i << 3), value)) ? 1 : 0;
+		}
+		return selected;
+	}
+
+	@Override
+	public int selectFloats(ByteBuffer values, int count, CompareOp op, float value, long indices) {
+		int bound = FLOATS.loopBound(count);
+		int selected = 0;
+		int i = 0;
+		for (; i < bound; i += FLOATS.length()) {
+			if (anyMatch(FloatVector.fromByteBuffer(FLOATS, values, i << 2, ORDER), op, value)) {
+				for (int j = i; j < i + FLOATS.length(); j++) {
+					putInt(indices + ((long) selected << 2), j);
+					selected += matches(op, values.getFloat(j << 2), value) ? 1 : 0;
+				}
+			}
+		}
+		for (; i < count; i++) {
+			putInt(indices + ((long) selected << 2), i);
+			selected += matches(op, values.getFloat(i << 2), value) ? 1 : 0;
+		}
+		return selected;
+	}
+
+	@Override
+	public int selectDoubles(ByteBuffer values, int count, CompareOp op, double value, long indices) {
+		int bound = DOUBLES.loopBound(count);
+		int selected = 0;
+		int i = 0;
+		for (; i < bound; i += DOUBLES.length()) {
+			if (anyMatch(DoubleVector.fromByteBuffer(DOUBLES, values, i << 3, ORDER), op, value)) {
+				for (int j = i; j < i + DOUBLES.length(); j++) {
+					putInt(indices + ((long) selected << 2), j);
+					selected += matches(op, values.getDouble(j << 3), value) ? 1 : 0;
+				}
+			}
+		}
+		for (; i < count; i++) {
+			putInt(indices + ((long) selected << 2), i);
+			selected += matches(op, values.getDouble(i << 3), value) ? 1 : 0;
+		}
+		return selected;
+	}
+
+	private static boolean anyMatch(IntVector v, CompareOp op, int value) {
+		switch (op) {
+		case LT:
+			return v.compare(VectorOperators.LT, value).anyTrue();
+		case LE:
+			return v.compare(VectorOperators.LE, value).anyTrue();
+		case GT:
+			return v.compare(VectorOperators.GT, value).anyTrue();
+		case GE:
+			return v.compare(VectorOperators.GE, value).anyTrue();
+		case EQ:
+			return v.compare(VectorOperators.EQ, value).anyTrue();
+		case NE:
+			return v.compare(VectorOperators.NE, value).anyTrue();
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	private static boolean anyMatch(LongVector v, CompareOp op, long value) {
+		switch (op) {
+		case LT:
+			return v.compare(VectorOperators.LT, value).anyTrue();
+		case LE:
+			return v.compare(VectorOperators.LE, value).anyTrue();
+		case GT:
+			return v.compare(VectorOperators.GT, value).anyTrue();
+		case GE:
+			return v.compare(VectorOperators.GE, value).anyTrue();
+		case EQ:
+			return v.compare(VectorOperators.EQ, value).anyTrue();
+		case NE:
+			return v.compare(VectorOperators.NE, value).anyTrue();
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	private static boolean anyMatch(FloatVector v, CompareOp op, float value) {
+		switch (op) {
+		case LT:
+			return v.compare(VectorOperators.LT, value).anyTrue();
+		case LE:
+			return v.compare(VectorOperators.LE, value).anyTrue();
+		case GT:
+			return v.compare(VectorOperators.GT, value).anyTrue();
+		case GE:
+			return v.compare(VectorOperators.GE, value).anyTrue();
+		case EQ:
+			return v.compare(VectorOperators.EQ, value).anyTrue();
+		case NE:
+			return v.compare(VectorOperators.NE, value).anyTrue();
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	private static boolean anyMatch(DoubleVector v, CompareOp op, double value) {
+		switch (op) {
+		case LT:
+			return v.compare(VectorOperators.LT, value).anyTrue();
+		case LE:
+			return v.compare(VectorOperators.LE, value).anyTrue();
+		case GT:
+			return v.compare(VectorOperators.GT, value).anyTrue();
+		case GE:
+			return v.compare(VectorOperators.GE, value).anyTrue();
+		case EQ:
+			return v.compare(VectorOperators.EQ, value).anyTrue();
+		case NE:
+			return v.compare(VectorOperators.NE, value).anyTrue();
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	private static boolean matches(CompareOp op, int comparison) {
+		switch (op) {
+		case LT:
+			return comparison < 0;
+		case LE:
+			return comparison <= 0;
+		case GT:
+			return comparison > 0;
+		case GE:
+			return comparison >= 0;
+		case EQ:
+			return comparison == 0;
+		default:
+			return comparison != 0;
+		}
+	}
+
+	private static boolean matches(CompareOp op, double v, double value) {
+		switch (op) {
+		case LT:
+			return v < value;
+		case LE:
+			return v <= value;
+		case GT:
+			return v > value;
+		case GE:
+			return v >= value;
+		case EQ:
+			return v == value;
+		default:
+			return v != value;
+		}
+	}
+
+	/*
+	 * Arithmetic. C2 only compiles Vector API calls to SIMD instructions when
+	 * the operator is a constant, so the helpers switch to a constant one for
+	 * every register rather than passing a VectorOperators value around.
+	 */
+
+	@Override
+	public void applyInts(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count) {
+		int bound = INTS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += INTS.length()) {
+			apply(op, IntVector.fromByteBuffer(INTS, left, i << 2, ORDER), IntVector.fromByteBuffer(INTS, right, i << 2, ORDER))
+					.intoByteBuffer(out, i << 2, ORDER);
+		}
+		for (; i < count; i++) {
+			int a = left.getInt(i << 2);
+			int b = right.getInt(i << 2);
+			out.putInt(i << 2, op == ArithmeticOp.ADD ? a + b
+					: op == ArithmeticOp.SUBTRACT ? a - b : op == ArithmeticOp.MULTIPLY ? a * b : a / b);
+		}
+	}
+
+	@Override
+	public void applyLongs(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count) {
+		int bound = LONGS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += LONGS.length()) {
+			apply(op, LongVector.fromByteBuffer(LONGS, left, i << 3, ORDER), LongVector.fromByteBuffer(LONGS, right, i << 3, ORDER))
+					.intoByteBuffer(out, i << 3, ORDER);
+		}
+		for (; i < count; i++) {
+			long a = left.getLong(i << 3);
+			long b = right.getLong(i << 3);
+			out.putLong(i << 3, op == ArithmeticOp.ADD ? a + b
+					: op == ArithmeticOp.SUBTRACT ? a - b : op == ArithmeticOp.MULTIPLY ? a * b : a / b);
+		}
+	}
+
+	@Override
+	public void applyFloats(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count) {
+		int bound = FLOATS.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += FLOATS.length()) {
+			apply(op, FloatVector.fromByteBuffer(FLOATS, left, i << 2, ORDER), FloatVector.fromByteBuffer(FLOATS, right, i << 2, ORDER))
+					.intoByteBuffer(out, i << 2, ORDER);
+		}
+		for (; i < count; i++) {
+			float a = left.getFloat(i << 2);
+			float b = right.getFloat(i << 2);
+			out.putFloat(i << 2, op == ArithmeticOp.ADD ? a + b
+					: op == ArithmeticOp.SUBTRACT ? a - b : op == ArithmeticOp.MULTIPLY ? a * b : a / b);
+		}
+	}
+
+	@Override
+	public void applyDoubles(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count) {
+		int bound = DOUBLES.loopBound(count);
+		int i = 0;
+		for (; i < bound; i += DOUBLES.length()) {
+			apply(op, DoubleVector.fromByteBuffer(DOUBLES, left, i << 3, ORDER), DoubleVector.fromByteBuffer(DOUBLES, right, i << 3, ORDER))
+					.intoByteBuffer(out, i << 3, ORDER);
+		}
+		for (; i < count; i++) {
+			double a = left.getDouble(i << 3);
+			double b = right.getDouble(i << 3);
+			out.putDouble(i << 3, op == ArithmeticOp.ADD ? a + b
+					: op == ArithmeticOp.SUBTRACT ? a - b : op == ArithmeticOp.MULTIPLY ? a * b : a / b);
+		}
+	}
+
+	private static IntVector apply(ArithmeticOp op, IntVector a, IntVector b) {
+		switch (op) {
+		case ADD:
+			return a.add(b);
+		case SUBTRACT:
+			return a.sub(b);
+		case MULTIPLY:
+			return a.mul(b);
+		case DIVIDE:
+			return a.div(b);
+		default:
+			throw new IllegalArgumentException("Unsupported operator " + op);
+		}
+	}
+
+	private static LongVector apply(ArithmeticOp op, LongVector a, LongVector b) {
+		switch (op) {
+		case ADD:
+			return a.add(b);
+		case SUBTRACT:
+			return a.sub(b);
+		case MULTIPLY:
+			return a.mul(b);
+		case DIVIDE:
+			return a.div(b);
+		default:
+			throw new IllegalArgumentException("Unsupported operator " + op);
+		}
+	}
+
+	private static FloatVector apply(ArithmeticOp op, FloatVector a, FloatVector b) {
+		switch (op) {
+		case ADD:
+			return a.add(b);
+		case SUBTRACT:
+			return a.sub(b);
+		case MULTIPLY:
+			return a.mul(b);
+		case DIVIDE:
+			return a.div(b);
+		default:
+			throw new IllegalArgumentException("Unsupported operator " + op);
+		}
+	}
+
+	private static DoubleVector apply(ArithmeticOp op, DoubleVector a, DoubleVector b) {
+		switch (op) {
+		case ADD:
+			return a.add(b);
+		case SUBTRACT:
+			return a.sub(b);
+		case MULTIPLY:
+			return a.mul(b);
+		case DIVIDE:
+			return a.div(b);
+		default:
+			throw new IllegalArgumentException("Unsupported operator " + op);
+		}
+	}
+}
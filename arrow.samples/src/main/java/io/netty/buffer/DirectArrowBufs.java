@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.netty.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Wraps memory that is not owned by an Arrow allocator, such as a memory
+ * mapped file region, in an ArrowBuf without copying it. This lives in the
+ * netty package because Arrow 0.5 only exposes the required
+ * UnsafeDirectLittleEndian constructor there, the same way
+ * BufferAllocator.getEmpty() builds its buffer.
+ *
+ * The returned buffers are unaccounted: they are not tracked by any allocator,
+ * release() is a no-op and the memory stays valid for as long as the buffer
+ * (and therefore the wrapped ByteBuffer) is reachable. They cannot be sliced or
+ * transferred to another allocator, so vectors built on them should be treated
+ * as read-only views.
+ */
+public final class DirectArrowBufs {
+
+	private DirectArrowBufs() {
+	}
+
+	/**
+	 * @param buffer
+	 *            direct buffer; the bytes between its position and limit are
+	 *            wrapped
+	 * @return ArrowBuf over the same memory with the writer index at the end
+	 */
+	public static ArrowBuf wrap(ByteBuffer buffer) {
+		if (!buffer.isDirect()) {
+			throw new IllegalArgumentException("Only direct buffers can be wrapped");
+		}
+		int length = buffer.remaining();
+		if (length == 0) {
+			throw new IllegalArgumentException("Cannot wrap an empty buffer");
+		}
+		ByteBuf wrapped = buffer.isReadOnly() ? new ReadOnlyDirectByteBuf(buffer.slice())
+				: Unpooled.wrappedBuffer(buffer.slice());
+		// of the wrappers UnsafeDirectLittleEndian accepts, the only one not
+		// deprecated; it delegates everything to the wrapped buffer
+		UnsafeDirectLittleEndian udle = new UnsafeDirectLittleEndian(new LargeBuffer(wrapped));
+		ArrowBuf arrowBuf = new ArrowBuf(new AtomicInteger(1), null, udle, null, null, 0, length, true);
+		arrowBuf.writerIndex(length);
+		return arrowBuf;
+	}
+
+	/**
+	 * Read-only direct buffer exposing its memory address, which netty only
+	 * does for writable buffers. A read-only mapping of a file is the typical
+	 * case; writing through the address of such a buffer crashes the JVM.
+	 */
+	private static final class ReadOnlyDirectByteBuf extends ReadOnlyByteBufferBuf {
+
+		private final long memoryAddress;
+
+		ReadOnlyDirectByteBuf(ByteBuffer buffer) {
+			super(UnpooledByteBufAllocator.DEFAULT, buffer);
+			this.memoryAddress = PlatformDependent.directBufferAddress(buffer);
+		}
+
+		@Override
+		public boolean hasMemoryAddress() {
+			return true;
+		}
+
+		@Override
+		public long memoryAddress() {
+			return memoryAddress;
+		}
+	}
+}
@@ -0,0 +1,379 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.BaseDataValueVector;
+
+import my.org.apache.arrow.samples.compress.CompressedColumnReader;
+import my.org.apache.arrow.samples.memory.AllocatorMetricsRegistry;
+
+/**
+ * Keeps decoded columns of file batches in off-heap memory, so hot columns
+ * are read and decoded once. Entries are keyed by {@link BatchKey} and
+ * allocated from a child allocator limited to {@code maxBytes}: the limit is
+ * enforced by the allocator itself. When a load runs out of room, the
+ * {@link EvictionPolicy} picks unpinned entries to evict and the load is
+ * tried again.
+ *
+ * {@link #get} pins the vector until the returned handle is closed. Pinned
+ * vectors are never evicted; one that is invalidated, or still pinned when
+ * the cache is closed, is freed when its last handle is closed. If every
+ * entry is pinned and the cache is full, the vector is loaded from the
+ * parent allocator for the caller alone and counted as a bypass.
+ *
+ * All methods are thread safe. Loads run under the cache lock, so a slow
+ * load holds up the other readers, and a key is never loaded twice.
+ */
+public final class BatchCache implements BatchCacheMXBean, AutoCloseable {
+
+	private final String name;
+	private final long maxBytes;
+	private final EvictionPolicy policy;
+	private final BufferAllocator parent;
+	private final BufferAllocator allocator;
+	private final Eviction eviction;
+	private final Map<BatchKey, CacheEntry> entries = new HashMap<>();
+	private long cachedBytes;
+	private boolean closed;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long evictedBytes;
+	private long bypasses;
+	private long loadNanos;
+
+	public BatchCache(BufferAllocator parent, String name, long maxBytes, EvictionPolicy policy) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("Cache size must be positive, got " + maxBytes);
+		}
+		this.name = name;
+		this.maxBytes = maxBytes;
+		this.policy = policy;
+		this.parent = parent;
+		this.allocator = parent.newChildAllocator(name, 0, maxBytes);
+		this.eviction = policy.newEviction(maxBytes);
+	}
+
+	/**
+	 * @return the allocator the cached vectors come from
+	 */
+	public BufferAllocator getAllocator() {
+		return allocator;
+	}
+
+	/**
+	 * Pins the vector of the key, loading it on a miss.
+	 */
+	public synchronized CachedVector get(BatchKey key, VectorLoader loader) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("Cache is closed");
+		}
+		CacheEntry entry = entries.get(key);
+		if (entry != null) {
+			hits++;
+			eviction.recordHit(entry);
+		} else {
+			misses++;
+			eviction.recordMiss(key);
+			long start = System.nanoTime();
+			entry = load(key, loader);
+			loadNanos += System.nanoTime() - start;
+		}
+		entry.pins++;
+		return new CachedVector(this, entry);
+	}
+
+	/**
+	 * Pins a column of a batch of a compressed column file, reading only
+	 * that column on a miss.
+	 *
+	 * @param file the file the reader reads, which identifies the batches in
+	 *        the cache
+	 */
+	public CachedVector get(Path file, final CompressedColumnReader reader, final int batch, final int column)
+			throws IOException {
+		BatchKey key = new BatchKey(file, reader.getSchema().getFields().get(column).getName(), batch);
+		return get(key, new VectorLoader() {
+			@Override
+			public BaseDataValueVector load(BufferAllocator allocator) throws IOException {
+				return reader.readColumn(batch, column, allocator);
+			}
+		});
+	}
+
+	/**
+	 * @return the vector of the key pinned if it is cached, null otherwise;
+	 *         only hits are counted
+	 */
+	public synchronized CachedVector getIfPresent(BatchKey key) {
+		CacheEntry entry = closed ? null : entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		hits++;
+		eviction.recordHit(entry);
+		entry.pins++;
+		return new CachedVector(this, entry);
+	}
+
+	/**
+	 * @return whether the vector of the key is cached, without counting a
+	 *         hit or touching the eviction order
+	 */
+	public synchronized boolean contains(BatchKey key) {
+		return !closed && entries.containsKey(key);
+	}
+
+	private CacheEntry load(BatchKey key, VectorLoader loader) throws IOException {
+		while (true) {
+			long before = allocator.getAllocatedMemory();
+			BaseDataValueVector vector;
+			try {
+				vector = loader.load(allocator);
+			} catch (OutOfMemoryException e) {
+				if (makeRoom()) {
+					continue;
+				}
+				break;
+			}
+			if (vector.getAllocator() != allocator) {
+				vector.close();
+				throw new IllegalArgumentException("Vector of " + key + " was not allocated from the cache");
+			}
+			CacheEntry entry = new CacheEntry(key, vector, allocator.getAllocatedMemory() - before, true);
+			entries.put(key, entry);
+			cachedBytes += entry.bytes;
+			eviction.added(entry);
+			return entry;
+		}
+		bypasses++;
+		return new CacheEntry(key, loader.load(parent), 0, false);
+	}
+
+	/**
+	 * Evicts until the free memory has grown by the average entry size, so
+	 * a load of similar batches usually succeeds on the next try.
+	 *
+	 * @return false if nothing could be evicted
+	 */
+	private boolean makeRoom() {
+		long target = allocator.getAllocatedMemory() - (entries.isEmpty() ? 0 : cachedBytes / entries.size());
+		boolean evicted = false;
+		CacheEntry victim;
+		while ((!evicted || allocator.getAllocatedMemory() > target) && (victim = eviction.victim()) != null) {
+			remove(victim);
+			evictions++;
+			evictedBytes += victim.bytes;
+			evicted = true;
+		}
+		return evicted;
+	}
+
+	synchronized void unpin(CacheEntry entry) {
+		if (entry.pins == 0) {
+			throw new IllegalStateException("Vector is not pinned");
+		}
+		entry.pins--;
+		if (entry.pins == 0 && (entry.removed || !entry.cached)) {
+			entry.vector.close();
+			closeAllocatorIfDone();
+		}
+	}
+
+	private void remove(CacheEntry entry) {
+		entries.remove(entry.key);
+		eviction.removed(entry);
+		entry.removed = true;
+		cachedBytes -= entry.bytes;
+		if (entry.pins == 0) {
+			entry.vector.close();
+		}
+	}
+
+	/**
+	 * Drops the vector of the key, for instance because its file changed.
+	 * Readers holding it keep it until they unpin it.
+	 */
+	public synchronized void invalidate(BatchKey key) {
+		CacheEntry entry = entries.get(key);
+		if (entry != null) {
+			remove(entry);
+		}
+	}
+
+	/**
+	 * Drops every vector of the file.
+	 */
+	public synchronized void invalidateFile(Path file) {
+		Path normalized = file.toAbsolutePath().normalize();
+		for (CacheEntry entry : new ArrayList<>(entries.values())) {
+			if (entry.key.getFile().equals(normalized)) {
+				remove(entry);
+			}
+		}
+	}
+
+	private void closeAllocatorIfDone() {
+		if (closed && allocator.getAllocatedMemory() == 0) {
+			allocator.close();
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public static ObjectName objectName(String cacheName) {
+		try {
+			return new ObjectName(
+					AllocatorMetricsRegistry.JMX_DOMAIN + ":type=BatchCache,name=" + ObjectName.quote(cacheName));
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Invalid cache name " + cacheName, e);
+		}
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public EvictionPolicy getPolicy() {
+		return policy;
+	}
+
+	@Override
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return memory of the cached vectors
+	 */
+	@Override
+	public synchronized long getCachedBytes() {
+		return cachedBytes;
+	}
+
+	/**
+	 * @return memory of the cache allocator, which also counts evicted vectors
+	 *         still pinned
+	 */
+	@Override
+	public synchronized long getAllocatedBytes() {
+		return allocator.getAllocatedMemory();
+	}
+
+	@Override
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+	/**
+	 * @return number of cached vectors pinned at least once
+	 */
+	@Override
+	public synchronized int getPinnedCount() {
+		int pinned = 0;
+		for (CacheEntry entry : entries.values()) {
+			if (entry.pins > 0) {
+				pinned++;
+			}
+		}
+		return pinned;
+	}
+
+	@Override
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	@Override
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	@Override
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	/**
+	 * @return number of vectors evicted to make room
+	 */
+	@Override
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized long getEvictedBytes() {
+		return evictedBytes;
+	}
+
+	/**
+	 * @return number of misses loaded outside of the cache because every
+	 *         cached vector was pinned
+	 */
+	@Override
+	public synchronized long getBypassCount() {
+		return bypasses;
+	}
+
+	/**
+	 * @return time spent loading the vectors of misses
+	 */
+	@Override
+	public synchronized long getLoadNanos() {
+		return loadNanos;
+	}
+
+	/**
+	 * Frees the vectors that are not pinned; the others are freed, and the
+	 * allocator closed, as they are unpinned.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		for (CacheEntry entry : new ArrayList<>(entries.values())) {
+			remove(entry);
+		}
+		closed = true;
+		closeAllocatorIfDone();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "BatchCache[" + name + ", " + policy + ", cached=" + cachedBytes + " of " + maxBytes + ", entries="
+				+ entries.size() + ", hits=" + hits + ", misses=" + misses + "]";
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import java.nio.file.Path;
+
+/**
+ * Identifies a column of one batch of a file in a {@link BatchCache}. Paths
+ * are made absolute and normalized, so different spellings of the same file
+ * share entries.
+ */
+public final class BatchKey {
+
+	private final Path file;
+	private final String column;
+	private final int batch;
+
+	public BatchKey(Path file, String column, int batch) {
+		this.file = file.toAbsolutePath().normalize();
+		this.column = column;
+		this.batch = batch;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public String getColumn() {
+		return column;
+	}
+
+	public int getBatch() {
+		return batch;
+	}
+
+	@Override
+	public int hashCode() {
+		return (file.hashCode() * 31 + column.hashCode()) * 31 + batch;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof BatchKey)) {
+			return false;
+		}
+		BatchKey other = (BatchKey) obj;
+		return batch == other.batch && column.equals(other.column) && file.equals(other.file);
+	}
+
+	@Override
+	public String toString() {
+		return file + "#" + column + "[" + batch + "]";
+	}
+}
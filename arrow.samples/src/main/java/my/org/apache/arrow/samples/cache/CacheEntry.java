@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+
+/**
+ * A vector held by a {@link BatchCache}, or handed out without being cached
+ * when the cache had no room for it. The vector is closed once the entry is
+ * out of the cache and no longer pinned. Guarded by the cache.
+ */
+final class CacheEntry {
+
+	final BatchKey key;
+	final BaseDataValueVector vector;
+	/** memory taken from the cache allocator */
+	final long bytes;
+	final boolean cached;
+	int pins;
+	boolean removed;
+	/** region of the eviction policy */
+	int region;
+
+	CacheEntry(BatchKey key, BaseDataValueVector vector, long bytes, boolean cached) {
+		this.key = key;
+		this.vector = vector;
+		this.bytes = bytes;
+		this.cached = cached;
+	}
+
+	/**
+	 * @return the first entry that is not pinned, or null
+	 */
+	static CacheEntry firstUnpinned(Iterable<CacheEntry> entries) {
+		for (CacheEntry entry : entries) {
+			if (entry.pins == 0) {
+				return entry;
+			}
+		}
+		return null;
+	}
+}
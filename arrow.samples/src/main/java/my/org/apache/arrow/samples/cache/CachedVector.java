@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+
+/**
+ * A vector pinned in a {@link BatchCache}: it is not freed, even if the
+ * cache evicts it, until every handle to it is closed. The vector is shared
+ * with the other readers of the same key and must not be modified, nor used
+ * after the handle is closed.
+ */
+public final class CachedVector implements AutoCloseable {
+
+	private final BatchCache cache;
+	private final CacheEntry entry;
+	private boolean closed;
+
+	CachedVector(BatchCache cache, CacheEntry entry) {
+		this.cache = cache;
+		this.entry = entry;
+	}
+
+	public BatchKey getKey() {
+		return entry.key;
+	}
+
+	public BaseDataValueVector getVector() {
+		if (closed) {
+			throw new IllegalStateException("Vector already unpinned");
+		}
+		return entry.vector;
+	}
+
+	public <V extends BaseDataValueVector> V getVector(Class<V> vectorClass) {
+		return vectorClass.cast(getVector());
+	}
+
+	/**
+	 * @return false if the cache was full of pinned vectors and the vector
+	 *         was loaded for this handle only
+	 */
+	public boolean isCached() {
+		return entry.cached;
+	}
+
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			cache.unpin(entry);
+		}
+	}
+}
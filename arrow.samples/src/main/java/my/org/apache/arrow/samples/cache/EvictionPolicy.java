@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+/**
+ * How a {@link BatchCache} picks the batch to evict.
+ */
+public enum EvictionPolicy {
+
+	/** The least recently used batch goes first. */
+	LRU {
+		@Override
+		Eviction newEviction(long maxBytes) {
+			return new LruEviction();
+		}
+	},
+
+	/**
+	 * W-TinyLFU: new batches enter a small LRU window; batches leaving it
+	 * only displace older ones if they were read more often recently, so
+	 * one-off scans do not flush the hot batches.
+	 */
+	W_TINY_LFU {
+		@Override
+		Eviction newEviction(long maxBytes) {
+			return new TinyLfuEviction(maxBytes);
+		}
+	};
+
+	abstract Eviction newEviction(long maxBytes);
+}
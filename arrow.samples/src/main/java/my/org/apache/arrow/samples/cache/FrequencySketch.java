@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import my.org.apache.arrow.samples.hash.Hashing;
+
+/**
+ * Approximate access counts of keys, in a count-min sketch of four rows of
+ * counters saturating at 15. Each row indexes its counters with its own hash
+ * of the key, so two keys rarely share all four. An increment only raises
+ * the smallest of the four counters of a key (conservative update), and
+ * every counter is halved after ten increments per counter of a row, so old
+ * popularity fades.
+ */
+final class FrequencySketch {
+
+	private static final int DEPTH = 4;
+	private static final int MAX_COUNT = 15;
+	private static final int MIN_KEYS = 64;
+	private static final int MAX_WIDTH = 1 << 24;
+	// odd multipliers of the row hashes
+	private static final long[] SEEDS = { 0x97cb3127c2b1d8a5L, 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+			0x9ae16a3b2f90404fL };
+
+	private byte[][] counters;
+	private int mask;
+	private int additions;
+
+	FrequencySketch() {
+		counters = new byte[DEPTH][widthFor(MIN_KEYS)];
+		mask = counters[0].length - 1;
+	}
+
+	/**
+	 * Widens the rows to at least four counters per key. Every counter is
+	 * copied to the counters it splits into, so no count is lost.
+	 */
+	void ensureCapacity(int keys) {
+		int width = widthFor(keys);
+		int oldWidth = counters[0].length;
+		if (width <= oldWidth) {
+			return;
+		}
+		for (int row = 0; row < DEPTH; row++) {
+			byte[] widened = new byte[width];
+			for (int i = 0; i < width; i += oldWidth) {
+				System.arraycopy(counters[row], 0, widened, i, oldWidth);
+			}
+			counters[row] = widened;
+		}
+		mask = width - 1;
+	}
+
+	/**
+	 * @return the smallest power of two of at least four counters per key
+	 */
+	private static int widthFor(int keys) {
+		int counts = Math.min(Math.max(MIN_KEYS, keys), MAX_WIDTH / 4) * 4;
+		return Integer.highestOneBit(counts - 1) << 1;
+	}
+
+	void increment(Object key) {
+		long hash = Hashing.mix(key.hashCode());
+		int min = frequency(hash);
+		if (min == MAX_COUNT) {
+			return;
+		}
+		for (int row = 0; row < DEPTH; row++) {
+			int index = index(hash, row);
+			if (counters[row][index] == min) {
+				counters[row][index]++;
+			}
+		}
+		if (++additions >= 10 * counters[0].length) {
+			age();
+		}
+	}
+
+	int frequency(Object key) {
+		return frequency(Hashing.mix(key.hashCode()));
+	}
+
+	private int frequency(long hash) {
+		int min = MAX_COUNT;
+		for (int row = 0; row < DEPTH; row++) {
+			min = Math.min(min, counters[row][index(hash, row)]);
+		}
+		return min;
+	}
+
+	private int index(long hash, int row) {
+		long h = (hash + SEEDS[row]) * SEEDS[row];
+		return (int) (h ^ h >>> 32) & mask;
+	}
+
+	private void age() {
+		for (byte[] row : counters) {
+			for (int i = 0; i < row.length; i++) {
+				row[i] >>= 1;
+			}
+		}
+		additions >>>= 1;
+	}
+}
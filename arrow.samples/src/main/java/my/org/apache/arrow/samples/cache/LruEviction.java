@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Evicts the least recently used unpinned entry.
+ */
+final class LruEviction implements Eviction {
+
+	/** least recently used first */
+	private final LinkedHashMap<CacheEntry, Boolean> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	@Override
+	public void recordMiss(BatchKey key) {
+	}
+
+	@Override
+	public void recordHit(CacheEntry entry) {
+		entries.get(entry);
+	}
+
+	@Override
+	public void added(CacheEntry entry) {
+		entries.put(entry, Boolean.TRUE);
+	}
+
+	@Override
+	public void removed(CacheEntry entry) {
+		entries.remove(entry);
+	}
+
+	@Override
+	public CacheEntry victim() {
+		return CacheEntry.firstUnpinned(entries.keySet());
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Size-aware W-TinyLFU. New entries go to a window taking 1% of the bytes,
+ * and move on to the probation segment of the main region as newer ones
+ * push them out. Reading an entry on probation promotes it to the protected
+ * segment, which takes up to 80% of the main region; entries overflowing it
+ * are demoted back to probation.
+ *
+ * When the cache needs room, the oldest entry of the window competes with
+ * the oldest entry on probation (or protected, once probation is empty): the
+ * one read less often according to the {@link FrequencySketch} is evicted,
+ * the window entry losing ties, and a winning window entry joins probation.
+ * Pinned entries are passed over.
+ */
+final class TinyLfuEviction implements Eviction {
+
+	private static final int WINDOW = 0;
+	private static final int PROBATION = 1;
+	private static final int PROTECTED = 2;
+
+	private final long maxWindowBytes;
+	private final long maxProtectedBytes;
+	private final FrequencySketch sketch = new FrequencySketch();
+	// oldest first
+	private final LinkedHashMap<CacheEntry, Boolean> window = new LinkedHashMap<>();
+	private final LinkedHashMap<CacheEntry, Boolean> probation = new LinkedHashMap<>();
+	private final LinkedHashMap<CacheEntry, Boolean> protectedEntries = new LinkedHashMap<>();
+	private long windowBytes;
+	private long protectedBytes;
+
+	TinyLfuEviction(long maxBytes) {
+		this.maxWindowBytes = Math.max(1, maxBytes / 100);
+		this.maxProtectedBytes = (maxBytes - maxWindowBytes) / 10 * 8;
+	}
+
+	@Override
+	public void recordMiss(BatchKey key) {
+		sketch.increment(key);
+	}
+
+	@Override
+	public void recordHit(CacheEntry entry) {
+		sketch.increment(entry.key);
+		switch (entry.region) {
+		case WINDOW:
+			window.remove(entry);
+			window.put(entry, Boolean.TRUE);
+			break;
+		case PROBATION:
+			probation.remove(entry);
+			addProtected(entry);
+			break;
+		default:
+			protectedEntries.remove(entry);
+			protectedEntries.put(entry, Boolean.TRUE);
+			break;
+		}
+	}
+
+	@Override
+	public void added(CacheEntry entry) {
+		sketch.ensureCapacity(window.size() + probation.size() + protectedEntries.size() + 1);
+		entry.region = WINDOW;
+		window.put(entry, Boolean.TRUE);
+		windowBytes += entry.bytes;
+		// the newest entry stays, however large
+		Iterator<CacheEntry> oldest = window.keySet().iterator();
+		while (windowBytes > maxWindowBytes && window.size() > 1) {
+			CacheEntry moved = oldest.next();
+			oldest.remove();
+			windowBytes -= moved.bytes;
+			addProbation(moved);
+		}
+	}
+
+	@Override
+	public void removed(CacheEntry entry) {
+		switch (entry.region) {
+		case WINDOW:
+			window.remove(entry);
+			windowBytes -= entry.bytes;
+			break;
+		case PROBATION:
+			probation.remove(entry);
+			break;
+		default:
+			protectedEntries.remove(entry);
+			protectedBytes -= entry.bytes;
+			break;
+		}
+	}
+
+	@Override
+	public CacheEntry victim() {
+		CacheEntry candidate = CacheEntry.firstUnpinned(window.keySet());
+		CacheEntry victim = CacheEntry.firstUnpinned(probation.keySet());
+		if (victim == null) {
+			victim = CacheEntry.firstUnpinned(protectedEntries.keySet());
+		}
+		if (candidate == null || victim == null) {
+			return candidate == null ? victim : candidate;
+		}
+		if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+			window.remove(candidate);
+			windowBytes -= candidate.bytes;
+			addProbation(candidate);
+			return victim;
+		}
+		return candidate;
+	}
+
+	private void addProbation(CacheEntry entry) {
+		entry.region = PROBATION;
+		probation.put(entry, Boolean.TRUE);
+	}
+
+	private void addProtected(CacheEntry entry) {
+		entry.region = PROTECTED;
+		protectedEntries.put(entry, Boolean.TRUE);
+		protectedBytes += entry.bytes;
+		Iterator<CacheEntry> oldest = protectedEntries.keySet().iterator();
+		while (protectedBytes > maxProtectedBytes && protectedEntries.size() > 1) {
+			CacheEntry demoted = oldest.next();
+			oldest.remove();
+			protectedBytes -= demoted.bytes;
+			addProbation(demoted);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.cache;
+
+import java.io.IOException;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+
+/**
+ * Reads and decodes the vector of a key missing from a {@link BatchCache}.
+ */
+public interface VectorLoader {
+
+	/**
+	 * @param allocator the allocator the vector must be allocated from; any
+	 *        scratch buffer should come from it too and be released before
+	 *        returning
+	 * @throws org.apache.arrow.memory.OutOfMemoryException when the allocator
+	 *         is full, after releasing what was allocated; the cache then
+	 *         evicts and tries again
+	 */
+	BaseDataValueVector load(BufferAllocator allocator) throws IOException;
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.compress;
+
+import static io.netty.util.internal.PlatformDependent.getLong;
+
+/**
+ * Reads back the values written by a {@link BitWriter}, checking that no word
+ * past the end of the encoded data is read.
+ */
+final class BitReader {
+
+	private final long end;
+	private long address;
+	private long available;
+	private int availableBits;
+
+	BitReader(long address, long length) {
+		this.address = address;
+		this.end = address + length;
+	}
+
+	/**
+	 * @param bits 0 to 64
+	 */
+	long read(int bits) {
+		if (bits <= availableBits) {
+			long value = available & mask(bits);
+			available = bits == 64 ? 0 : available >>> bits;
+			availableBits -= bits;
+			return value;
+		}
+		if (address + 8 > end) {
+			throw new IndexOutOfBoundsException("Encoded column is truncated");
+		}
+		long next = getLong(address);
+		address += 8;
+		int missing = bits - availableBits;
+		long value = (available | (next << availableBits)) & mask(bits);
+		available = missing == 64 ? 0 : next >>> missing;
+		availableBits = 64 - missing;
+		return value;
+	}
+
+	private static long mask(int bits) {
+		return bits == 64 ? -1L : (1L << bits) - 1;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.compress;
+
+import static io.netty.util.internal.PlatformDependent.putLong;
+
+/**
+ * Appends values of 1 to 64 bits to off-heap memory, least significant bit
+ * first, in whole little-endian 8 byte words. The caller sizes the target.
+ */
+final class BitWriter {
+
+	private final long start;
+	private long address;
+	private long pending;
+	private int pendingBits;
+
+	BitWriter(long address) {
+		this.start = address;
+		this.address = address;
+	}
+
+	/**
+	 * Appends the low {@code bits} bits of value; the higher bits must be 0.
+	 */
+	void write(long value, int bits) {
+		pending |= value << pendingBits;
+		int total = pendingBits + bits;
+		if (total >= 64) {
+			putLong(address, pending);
+			address += 8;
+			pending = pendingBits == 0 ? 0 : value >>> (64 - pendingBits);
+			pendingBits = total - 64;
+		} else {
+			pendingBits = total;
+		}
+	}
+
+	/**
+	 * Writes out the last partial word.
+	 *
+	 * @return number of bytes written since the writer was created
+	 */
+	long finish() {
+		if (pendingBits > 0) {
+			putLong(address, pending);
+			address += 8;
+			pending = 0;
+			pendingBits = 0;
+		}
+		return address - start;
+	}
+}
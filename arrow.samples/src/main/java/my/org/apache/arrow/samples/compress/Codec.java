@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.compress;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * General-purpose compression applied on top of a {@link ColumnEncoding}.
+ * DEFLATE uses the zip implementation of the JDK at its fastest level, so the
+ * file format needs no native library.
+ */
+public enum Codec {
+
+	NONE,
+
+	DEFLATE;
+
+	/**
+	 * @return number of compressed bytes in target, or -1 if they would not
+	 *         fit, in which case the data should be stored uncompressed
+	 */
+	int compress(byte[] source, int length, byte[] target) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(source, 0, length);
+			deflater.finish();
+			int written = 0;
+			while (!deflater.finished()) {
+				if (written == target.length) {
+					return -1;
+				}
+				written += deflater.deflate(target, written, target.length - written);
+			}
+			return written;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	void decompress(byte[] source, int length, byte[] target, int targetLength) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(source, 0, length);
+			int read = 0;
+			while (read < targetLength) {
+				int n = inflater.inflate(target, read, targetLength - read);
+				if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+					throw new IllegalStateException("Compressed column is truncated");
+				}
+				read += n;
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Corrupt compressed column", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,342 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.compress;
+
+import static io.netty.util.internal.PlatformDependent.copyMemory;
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+import static io.netty.util.internal.PlatformDependent.putShort;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Lightweight encodings of fixed-width columns. Encoding reads the data buffer
+ * of a vector and decoding writes one, both through raw addresses, so a
+ * decoded column lands directly in the ArrowBuf of the vector.
+ *
+ * The integer encodings split the values into frames of {@value #FRAME_SIZE}
+ * and store every frame as its minimum plus the offsets from it, bit-packed
+ * with as many bits as the largest offset needs; a frame of equal values
+ * takes 9 bytes.
+ */
+public enum ColumnEncoding {
+
+	/**
+	 * The values as they are in memory.
+	 */
+	PLAIN {
+		@Override
+		public boolean supports(FixedWidthType type) {
+			return true;
+		}
+
+		@Override
+		public long maxEncodedSize(FixedWidthType type, int count) {
+			return (long) count * type.getWidth();
+		}
+
+		@Override
+		public long encode(FixedWidthType type, long address, int count, long target) {
+			copyMemory(address, target, maxEncodedSize(type, count));
+			return maxEncodedSize(type, count);
+		}
+
+		@Override
+		public void decode(FixedWidthType type, long address, long length, int count, long target) {
+			if (length < maxEncodedSize(type, count)) {
+				throw new IndexOutOfBoundsException("Encoded column is truncated");
+			}
+			copyMemory(address, target, maxEncodedSize(type, count));
+		}
+	},
+
+	/**
+	 * Frame-of-reference bit-packing, for integers within a narrow range.
+	 */
+	FRAME_OF_REFERENCE {
+		@Override
+		public boolean supports(FixedWidthType type) {
+			return type == FixedWidthType.SMALLINT || type == FixedWidthType.INT || type == FixedWidthType.BIGINT;
+		}
+
+		@Override
+		public long maxEncodedSize(FixedWidthType type, int count) {
+			return packedSize(count, type.getWidth() * 8);
+		}
+
+		@Override
+		public long encode(FixedWidthType type, long address, int count, long target) {
+			BitWriter out = new BitWriter(target);
+			packFrames(type.getWidth(), address, 0, count, false, out);
+			return out.finish();
+		}
+
+		@Override
+		public void decode(FixedWidthType type, long address, long length, int count, long target) {
+			unpackFrames(type.getWidth(), new BitReader(address, length), 0, count, 0, false, target);
+		}
+	},
+
+	/**
+	 * The first value followed by the bit-packed differences between
+	 * consecutive values, for sorted or slowly changing integers such as
+	 * timestamps.
+	 */
+	DELTA {
+		@Override
+		public boolean supports(FixedWidthType type) {
+			return type == FixedWidthType.INT || type == FixedWidthType.BIGINT;
+		}
+
+		@Override
+		public long maxEncodedSize(FixedWidthType type, int count) {
+			return 8 + packedSize(count, Math.min(64, type.getWidth() * 8 + 1));
+		}
+
+		@Override
+		public long encode(FixedWidthType type, long address, int count, long target) {
+			BitWriter out = new BitWriter(target);
+			if (count > 0) {
+				out.write(value(type.getWidth(), address, 0), 64);
+				packFrames(type.getWidth(), address, 1, count, true, out);
+			}
+			return out.finish();
+		}
+
+		@Override
+		public void decode(FixedWidthType type, long address, long length, int count, long target) {
+			if (count > 0) {
+				BitReader in = new BitReader(address, length);
+				long first = in.read(64);
+				store(type.getWidth(), target, 0, first);
+				unpackFrames(type.getWidth(), in, 1, count, first, true, target);
+			}
+		}
+	},
+
+	/**
+	 * Gorilla-style encoding of doubles: each value is XORed with the previous
+	 * one, and only the bits between the leading and trailing zeros of the
+	 * result are stored, reusing the previous bit window when it fits.
+	 */
+	XOR {
+		@Override
+		public boolean supports(FixedWidthType type) {
+			return type == FixedWidthType.FLOAT8;
+		}
+
+		@Override
+		public long maxEncodedSize(FixedWidthType type, int count) {
+			return (((64 + (long) count * (2 + 5 + 6 + 64)) + 63) >>> 6) << 3;
+		}
+
+		@Override
+		public long encode(FixedWidthType type, long address, int count, long target) {
+			BitWriter out = new BitWriter(target);
+			if (count == 0) {
+				return out.finish();
+			}
+			long previous = getLong(address);
+			out.write(previous, 64);
+			int leading = -1;
+			int trailing = 0;
+			for (int i = 1; i < count; i++) {
+				long bits = getLong(address + ((long) i << 3));
+				long xor = bits ^ previous;
+				previous = bits;
+				if (xor == 0) {
+					out.write(0, 1);
+					continue;
+				}
+				out.write(1, 1);
+				int valueLeading = Math.min(31, Long.numberOfLeadingZeros(xor));
+				int valueTrailing = Long.numberOfTrailingZeros(xor);
+				if (leading >= 0 && valueLeading >= leading && valueTrailing >= trailing) {
+					out.write(0, 1);
+					out.write(xor >>> trailing, 64 - leading - trailing);
+				} else {
+					leading = valueLeading;
+					trailing = valueTrailing;
+					int significant = 64 - leading - trailing;
+					out.write(1, 1);
+					out.write(leading, 5);
+					out.write(significant - 1, 6);
+					out.write(xor >>> trailing, significant);
+				}
+			}
+			return out.finish();
+		}
+
+		@Override
+		public void decode(FixedWidthType type, long address, long length, int count, long target) {
+			if (count == 0) {
+				return;
+			}
+			BitReader in = new BitReader(address, length);
+			long previous = in.read(64);
+			putLong(target, previous);
+			int leading = 0;
+			int trailing = 0;
+			for (int i = 1; i < count; i++) {
+				if (in.read(1) != 0) {
+					if (in.read(1) != 0) {
+						leading = (int) in.read(5);
+						int significant = (int) in.read(6) + 1;
+						trailing = 64 - leading - significant;
+						if (trailing < 0) {
+							throw new IllegalStateException("Corrupt XOR encoded column at value " + i);
+						}
+					}
+					previous ^= in.read(64 - leading - trailing) << trailing;
+				}
+				putLong(target + ((long) i << 3), previous);
+			}
+		}
+	};
+
+	public static final int FRAME_SIZE = 1024;
+
+	public abstract boolean supports(FixedWidthType type);
+
+	/**
+	 * @return upper bound of the encoded size of count values, to size the
+	 *         target of {@link #encode}
+	 */
+	public abstract long maxEncodedSize(FixedWidthType type, int count);
+
+	/**
+	 * Encodes count values of the given type starting at address.
+	 *
+	 * @return number of bytes written to target
+	 */
+	public abstract long encode(FixedWidthType type, long address, int count, long target);
+
+	/**
+	 * Decodes count values from the length bytes at address into target,
+	 * which must have room for them.
+	 *
+	 * @throws IndexOutOfBoundsException if the encoded data is too short
+	 */
+	public abstract void decode(FixedWidthType type, long address, long length, int count, long target);
+
+	/**
+	 * @return the encoding expected to work best for columns of the given type
+	 *         when nothing is known about the values
+	 */
+	public static ColumnEncoding defaultFor(FixedWidthType type) {
+		switch (type) {
+		case SMALLINT:
+		case INT:
+			return FRAME_OF_REFERENCE;
+		case BIGINT:
+			return DELTA;
+		case FLOAT8:
+			return XOR;
+		default:
+			return PLAIN;
+		}
+	}
+
+	/*
+	 * Frames
+	 */
+
+	private static long packedSize(int count, int maxBits) {
+		long frames = (count + FRAME_SIZE - 1) / FRAME_SIZE;
+		long bits = frames * (64 + 7) + (long) count * maxBits;
+		return ((bits + 63) >>> 6) << 3;
+	}
+
+	/**
+	 * Packs the values in [from, count), or their differences with the
+	 * preceding values when delta is set.
+	 */
+	private static void packFrames(int width, long address, int from, int count, boolean delta, BitWriter out) {
+		for (int start = from; start < count; start += FRAME_SIZE) {
+			int end = Math.min(count, start + FRAME_SIZE);
+			long min = Long.MAX_VALUE;
+			long max = Long.MIN_VALUE;
+			for (int i = start; i < end; i++) {
+				long v = element(width, address, i, delta);
+				min = Math.min(min, v);
+				max = Math.max(max, v);
+			}
+			int bits = 64 - Long.numberOfLeadingZeros(max - min);
+			out.write(min, 64);
+			out.write(bits, 7);
+			if (bits > 0) {
+				for (int i = start; i < end; i++) {
+					out.write(element(width, address, i, delta) - min, bits);
+				}
+			}
+		}
+	}
+
+	private static void unpackFrames(int width, BitReader in, int from, int count, long previous, boolean delta,
+			long target) {
+		for (int start = from; start < count; start += FRAME_SIZE) {
+			int end = Math.min(count, start + FRAME_SIZE);
+			long min = in.read(64);
+			int bits = (int) in.read(7);
+			if (bits > 64) {
+				throw new IllegalStateException("Corrupt frame of " + bits + " bits at value " + start);
+			}
+			for (int i = start; i < end; i++) {
+				long v = min + in.read(bits);
+				if (delta) {
+					v += previous;
+					previous = v;
+				}
+				store(width, target, i, v);
+			}
+		}
+	}
+
+	private static long element(int width, long address, int index, boolean delta) {
+		long v = value(width, address, index);
+		return delta ? v - value(width, address, index - 1) : v;
+	}
+
+	private static long value(int width, long address, int index) {
+		switch (width) {
+		case 2:
+			return getShort(address + ((long) index << 1));
+		case 4:
+			return getInt(address + ((long) index << 2));
+		default:
+			return getLong(address + ((long) index << 3));
+		}
+	}
+
+	private static void store(int width, long address, int index, long value) {
+		switch (width) {
+		case 2:
+			putShort(address + ((long) index << 1), (short) value);
+			break;
+		case 4:
+			putInt(address + ((long) index << 2), (int) value);
+			break;
+		default:
+			putLong(address + ((long) index << 3), value);
+			break;
+		}
+	}
+}
@@ -0,0 +1,318 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.compress;
+
+import static my.org.apache.arrow.samples.compress.CompressedColumnWriter.BATCH_HEADER_SIZE;
+import static my.org.apache.arrow.samples.compress.CompressedColumnWriter.COLUMN_HEADER_SIZE;
+import static my.org.apache.arrow.samples.compress.CompressedColumnWriter.FOOTER_ENTRY_SIZE;
+import static my.org.apache.arrow.samples.compress.CompressedColumnWriter.MAGIC;
+import static my.org.apache.arrow.samples.compress.CompressedColumnWriter.MAGIC_ZONE_MAPS;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.file.ReadChannel;
+import org.apache.arrow.vector.stream.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.stats.ZoneMapIndex;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Reads files written by {@link CompressedColumnWriter}. Opening a file reads
+ * the schema and the footer; {@link #readBatch(int, BufferAllocator)} reads
+ * one batch into allocator memory and decodes every column straight into the
+ * data buffer of a new vector. Only columns stored with a {@link Codec} go
+ * through a heap array to be decompressed first.
+ *
+ * The {@link ZoneMapIndex} of files written with one is read on open and
+ * returned by {@link #getZoneMaps()}.
+ */
+public class CompressedColumnReader implements AutoCloseable {
+
+	private final FileChannel channel;
+	private final Schema schema;
+	private final long[] batchOffsets;
+	private final int[] batchRows;
+	// end of the last batch
+	private final long batchesEnd;
+	private final ZoneMapIndex zoneMaps;
+
+	private CompressedColumnReader(FileChannel channel, Schema schema, long[] batchOffsets, int[] batchRows,
+			long batchesEnd, ZoneMapIndex zoneMaps) {
+		this.channel = channel;
+		this.schema = schema;
+		this.batchOffsets = batchOffsets;
+		this.batchRows = batchRows;
+		this.batchesEnd = batchesEnd;
+		this.zoneMaps = zoneMaps;
+	}
+
+	public static CompressedColumnReader open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size < MAGIC.length * 2 + 4) {
+				throw new IOException("Not a compressed column file, size " + size);
+			}
+			byte[] magic = readFully(channel, 0, MAGIC.length).array();
+			boolean hasZoneMaps = Arrays.equals(MAGIC_ZONE_MAPS, magic);
+			if (!hasZoneMaps) {
+				checkMagic(magic);
+			}
+			// [long zone map offset] int batch count, magic
+			int trailerSize = (hasZoneMaps ? 8 : 0) + 4 + MAGIC.length;
+			if (size < MAGIC.length + trailerSize) {
+				throw new IOException("Not a compressed column file, size " + size);
+			}
+			ByteBuffer trailer = readFully(channel, size - trailerSize, trailerSize);
+			if (!Arrays.equals(magic, Arrays.copyOfRange(trailer.array(), trailerSize - MAGIC.length, trailerSize))) {
+				throw new IOException("Missing magic number");
+			}
+			int batchCount = trailer.getInt(trailerSize - MAGIC.length - 4);
+			long footerOffset = size - trailerSize - (long) batchCount * FOOTER_ENTRY_SIZE;
+			if (batchCount < 0 || footerOffset < MAGIC.length) {
+				throw new IOException("Invalid batch count " + batchCount);
+			}
+			ByteBuffer footer = readFully(channel, footerOffset, batchCount * FOOTER_ENTRY_SIZE);
+			long[] offsets = new long[batchCount];
+			int[] rows = new int[batchCount];
+			for (int i = 0; i < batchCount; i++) {
+				offsets[i] = footer.getLong();
+				rows[i] = footer.getInt();
+				if (offsets[i] < MAGIC.length || offsets[i] > footerOffset || (i > 0 && offsets[i] < offsets[i - 1])) {
+					throw new IOException("Invalid offset " + offsets[i] + " of batch " + i);
+				}
+			}
+			channel.position(MAGIC.length);
+			Schema schema = MessageSerializer.deserializeSchema(new ReadChannel(channel));
+			if (!hasZoneMaps) {
+				return new CompressedColumnReader(channel, schema, offsets, rows, footerOffset, null);
+			}
+			long zoneMapOffset = trailer.getLong(0);
+			long batchesStart = batchCount > 0 ? offsets[batchCount - 1] : MAGIC.length;
+			if (zoneMapOffset < batchesStart || zoneMapOffset > footerOffset) {
+				throw new IOException("Invalid zone map offset " + zoneMapOffset);
+			}
+			ZoneMapIndex zoneMaps = ZoneMapIndex.read(channel, zoneMapOffset, footerOffset, schema);
+			if (zoneMaps.getBatchCount() != batchCount) {
+				throw new IOException("Zone maps of " + zoneMaps.getBatchCount() + " batches, expected " + batchCount);
+			}
+			return new CompressedColumnReader(channel, schema, offsets, rows, zoneMapOffset, zoneMaps);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static void checkMagic(byte[] magic) throws IOException {
+		if (!Arrays.equals(MAGIC, magic)) {
+			throw new IOException("Missing magic number");
+		}
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, position, buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Fills the buffer, which starts at position 0, from the given file
+	 * position.
+	 */
+	private static void readFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+			}
+		}
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public int getBatchCount() {
+		return batchOffsets.length;
+	}
+
+	public int getRowCount(int batch) {
+		return batchRows[batch];
+	}
+
+	/**
+	 * @return the zone maps stored with the batches, or null if the file was
+	 *         written without them
+	 */
+	public ZoneMapIndex getZoneMaps() {
+		return zoneMaps;
+	}
+
+	/**
+	 * Reads and decodes the given batch. The vectors are allocated from
+	 * allocator and owned by the caller.
+	 */
+	public ColumnBatch readBatch(int index, BufferAllocator allocator) throws IOException {
+		long offset = batchOffsets[index];
+		long end = index + 1 < batchOffsets.length ? batchOffsets[index + 1] : batchesEnd;
+		if (end - offset > Integer.MAX_VALUE) {
+			throw new IOException("Batch " + index + " is too large");
+		}
+		int length = (int) (end - offset);
+		List<Field> fields = schema.getFields();
+		List<BaseDataValueVector> columns = new ArrayList<>(fields.size());
+		ArrowBuf block = allocator.buffer(length);
+		try {
+			readFully(channel, offset, block.nioBuffer(0, length));
+			int rows = block.getInt(0);
+			if (rows != batchRows[index] || block.getInt(4) != fields.size()) {
+				throw new IOException("Batch " + index + " does not match the footer");
+			}
+			int position = BATCH_HEADER_SIZE;
+			for (Field field : fields) {
+				columns.add(decodeColumn(index, field, block, position, length, rows, allocator));
+				position = (position + COLUMN_HEADER_SIZE + block.getInt(position + 8) + 7) & ~7;
+			}
+			return new ColumnBatch(schema, columns);
+		} catch (IOException | RuntimeException e) {
+			for (BaseDataValueVector column : columns) {
+				column.close();
+			}
+			throw e;
+		} finally {
+			block.release();
+		}
+	}
+
+	/**
+	 * Reads and decodes one column of the given batch, reading only the
+	 * headers of the columns before it.
+	 */
+	public BaseDataValueVector readColumn(int index, int column, BufferAllocator allocator) throws IOException {
+		List<Field> fields = schema.getFields();
+		if (column < 0 || column >= fields.size()) {
+			throw new IndexOutOfBoundsException("No column " + column + " in " + schema);
+		}
+		long end = index + 1 < batchOffsets.length ? batchOffsets[index + 1] : batchesEnd;
+		ByteBuffer batchHeader = readFully(channel, batchOffsets[index], BATCH_HEADER_SIZE);
+		int rows = batchHeader.getInt(0);
+		if (rows != batchRows[index] || batchHeader.getInt(4) != fields.size()) {
+			throw new IOException("Batch " + index + " does not match the footer");
+		}
+		long position = batchOffsets[index] + BATCH_HEADER_SIZE;
+		int storedLength = 0;
+		for (int i = 0; i <= column; i++) {
+			if (position + COLUMN_HEADER_SIZE > end) {
+				throw new IOException("Batch " + index + " is truncated");
+			}
+			storedLength = readFully(channel, position, COLUMN_HEADER_SIZE).getInt(8);
+			if (storedLength < 0 || storedLength > end - position - COLUMN_HEADER_SIZE) {
+				throw new IOException("Invalid header of column " + fields.get(i).getName() + " in batch " + index);
+			}
+			if (i < column) {
+				position = (position + COLUMN_HEADER_SIZE + storedLength + 7) & ~7;
+			}
+		}
+		int length = COLUMN_HEADER_SIZE + storedLength;
+		ArrowBuf block = allocator.buffer(length);
+		try {
+			readFully(channel, position, block.nioBuffer(0, length));
+			return decodeColumn(index, fields.get(column), block, 0, length, rows, allocator);
+		} finally {
+			block.release();
+		}
+	}
+
+	/**
+	 * Decodes the column whose header is at position in the block into a new
+	 * vector.
+	 */
+	private static BaseDataValueVector decodeColumn(int index, Field field, ArrowBuf block, int position, int length,
+			int rows, BufferAllocator allocator) throws IOException {
+		FixedWidthType type = FixedWidthType.of(field.getType());
+		if (position + COLUMN_HEADER_SIZE > length) {
+			throw new IOException("Batch " + index + " is truncated");
+		}
+		ColumnEncoding encoding = decodeEnum(ColumnEncoding.values(), block.getByte(position));
+		Codec codec = decodeEnum(Codec.values(), block.getByte(position + 1));
+		int encodedLength = block.getInt(position + 4);
+		int storedLength = block.getInt(position + 8);
+		position += COLUMN_HEADER_SIZE;
+		if (!encoding.supports(type) || encodedLength < 0 || storedLength < 0 || storedLength > length - position) {
+			throw new IOException("Invalid header of column " + field.getName() + " in batch " + index);
+		}
+		BaseDataValueVector vector = type.allocateVector(field.getName(), allocator, rows);
+		try {
+			long target = vector.getBuffer().memoryAddress();
+			if (codec == Codec.NONE) {
+				encoding.decode(type, block.memoryAddress() + position, storedLength, rows, target);
+			} else {
+				decompressAndDecode(block, position, storedLength, codec, encoding, type, encodedLength, rows, target,
+						allocator);
+			}
+			vector.getMutator().setValueCount(rows);
+			return vector;
+		} catch (RuntimeException e) {
+			vector.close();
+			throw e;
+		}
+	}
+
+	private static void decompressAndDecode(ArrowBuf block, int position, int storedLength, Codec codec,
+			ColumnEncoding encoding, FixedWidthType type, int encodedLength, int rows, long target,
+			BufferAllocator allocator) {
+		byte[] stored = new byte[storedLength];
+		block.getBytes(position, stored);
+		byte[] encoded = new byte[encodedLength];
+		codec.decompress(stored, storedLength, encoded, encodedLength);
+		ArrowBuf buffer = allocator.buffer(encodedLength);
+		try {
+			buffer.setBytes(0, encoded);
+			encoding.decode(type, buffer.memoryAddress(), encodedLength, rows, target);
+		} finally {
+			buffer.release();
+		}
+	}
+
+	private static <E extends Enum<E>> E decodeEnum(E[] values, byte ordinal) throws IOException {
+		if (ordinal < 0 || ordinal >= values.length) {
+			throw new IOException("Unknown " + values[0].getDeclaringClass().getSimpleName() + " " + ordinal);
+		}
+		return values[ordinal];
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,285 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.compress;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.file.WriteChannel;
+import org.apache.arrow.vector.stream.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.stats.ZoneMapIndex;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Writes column batches compressed with the {@link ColumnEncoding} chosen for
+ * each column type, optionally followed by a general-purpose {@link Codec}.
+ * A column falls back to PLAIN when its encoding does not make it smaller,
+ * and is stored without the codec when compressing does not pay off.
+ *
+ * File layout, little-endian, every section 8 byte aligned:
+ *
+ * <pre>
+ * magic "ARROWZ01"
+ * schema          Arrow schema message
+ * batch*          int rows, int columns, then per column:
+ *                 byte encoding, byte codec, short 0, int encoded length,
+ *                 int stored length, int 0, stored bytes
+ * footer          per batch: long offset, int rows; then int batch count
+ * magic "ARROWZ01"
+ * </pre>
+ *
+ * Files written with zone maps start and end with the magic "ARROWZ02"
+ * instead, store the {@link ZoneMapIndex} block between the last batch and
+ * the footer, and record its offset as a long just before the batch count.
+ *
+ * The files are read back by {@link CompressedColumnReader}.
+ */
+public class CompressedColumnWriter implements AutoCloseable {
+
+	static final byte[] MAGIC = "ARROWZ01".getBytes(StandardCharsets.US_ASCII);
+	static final byte[] MAGIC_ZONE_MAPS = "ARROWZ02".getBytes(StandardCharsets.US_ASCII);
+	static final int BATCH_HEADER_SIZE = 8;
+	static final int COLUMN_HEADER_SIZE = 16;
+	static final int FOOTER_ENTRY_SIZE = 12;
+
+	private final WriteChannel out;
+	private final Schema schema;
+	private final BufferAllocator allocator;
+	private final Codec codec;
+	private final ZoneMapIndex zoneMaps;
+	private final List<Long> batchOffsets = new ArrayList<>();
+	private final List<Integer> batchRows = new ArrayList<>();
+	private ArrowBuf scratch;
+	private byte[] encoded = new byte[0];
+	private byte[] compressed = new byte[0];
+	private long uncompressedBytes;
+	private boolean started;
+	private boolean ended;
+
+	/**
+	 * @param allocator supplies the scratch buffer the columns are encoded
+	 *        into
+	 */
+	public CompressedColumnWriter(WritableByteChannel channel, Schema schema, BufferAllocator allocator,
+			Codec codec) {
+		this(channel, schema, allocator, codec, null);
+	}
+
+	/**
+	 * @param zoneMapChunkSize rows per chunk of the zone maps stored with the
+	 *        batches
+	 */
+	public CompressedColumnWriter(WritableByteChannel channel, Schema schema, BufferAllocator allocator, Codec codec,
+			int zoneMapChunkSize) {
+		this(channel, schema, allocator, codec, new ZoneMapIndex(schema, zoneMapChunkSize));
+	}
+
+	private CompressedColumnWriter(WritableByteChannel channel, Schema schema, BufferAllocator allocator, Codec codec,
+			ZoneMapIndex zoneMaps) {
+		for (Field field : schema.getFields()) {
+			FixedWidthType.of(field.getType());
+		}
+		this.out = new WriteChannel(channel);
+		this.schema = schema;
+		this.allocator = allocator;
+		this.codec = codec;
+		this.zoneMaps = zoneMaps;
+		this.scratch = allocator.getEmpty();
+	}
+
+	/**
+	 * Creates (or truncates) the file at the given path.
+	 */
+	public static CompressedColumnWriter create(Path path, Schema schema, BufferAllocator allocator, Codec codec)
+			throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		return new CompressedColumnWriter(channel, schema, allocator, codec);
+	}
+
+	/**
+	 * Creates (or truncates) the file at the given path, storing zone maps
+	 * with the batches.
+	 */
+	public static CompressedColumnWriter create(Path path, Schema schema, BufferAllocator allocator, Codec codec,
+			int zoneMapChunkSize) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		return new CompressedColumnWriter(channel, schema, allocator, codec, zoneMapChunkSize);
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Appends the batch to the file. The batch stays owned by the caller.
+	 */
+	public void writeBatch(ColumnBatch batch) throws IOException {
+		if (!batch.getSchema().equals(schema)) {
+			throw new IllegalArgumentException("Batch schema " + batch.getSchema() + " does not match " + schema);
+		}
+		if (ended) {
+			throw new IllegalStateException("Writer already closed");
+		}
+		ensureStarted();
+		int rows = batch.getRowCount();
+		batchOffsets.add(out.getCurrentPosition());
+		batchRows.add(rows);
+		ByteBuffer header = ByteBuffer.allocate(BATCH_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(rows).putInt(batch.getColumnCount()).flip();
+		out.write(header);
+		for (int i = 0; i < batch.getColumnCount(); i++) {
+			writeColumn(batch.getType(i), batch.getColumn(i).getBuffer().memoryAddress(), rows);
+		}
+		if (zoneMaps != null) {
+			zoneMaps.addBatch(batch);
+		}
+	}
+
+	private void writeColumn(FixedWidthType type, long address, int rows) throws IOException {
+		long plainSize = ColumnEncoding.PLAIN.maxEncodedSize(type, rows);
+		ColumnEncoding encoding = ColumnEncoding.defaultFor(type);
+		long maxSize = Math.max(plainSize, encoding.maxEncodedSize(type, rows));
+		if (maxSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Column of " + rows + " " + type + " values is too large");
+		}
+		if (scratch.capacity() < maxSize) {
+			ArrowBuf grown = allocator.buffer((int) maxSize);
+			scratch.release();
+			scratch = grown;
+		}
+		long length = encoding.encode(type, address, rows, scratch.memoryAddress());
+		if (length >= plainSize && encoding != ColumnEncoding.PLAIN) {
+			encoding = ColumnEncoding.PLAIN;
+			length = encoding.encode(type, address, rows, scratch.memoryAddress());
+		}
+		int encodedLength = (int) length;
+
+		Codec storedCodec = Codec.NONE;
+		int storedLength = encodedLength;
+		if (codec != Codec.NONE && encodedLength > 0) {
+			if (encoded.length < encodedLength) {
+				encoded = new byte[encodedLength];
+				compressed = new byte[encodedLength];
+			}
+			scratch.getBytes(0, encoded, 0, encodedLength);
+			int compressedLength = codec.compress(encoded, encodedLength, compressed);
+			if (compressedLength >= 0 && compressedLength < encodedLength) {
+				storedCodec = codec;
+				storedLength = compressedLength;
+			}
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(COLUMN_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.put((byte) encoding.ordinal()).put((byte) storedCodec.ordinal()).putShort((short) 0);
+		header.putInt(encodedLength).putInt(storedLength).putInt(0).flip();
+		out.write(header);
+		if (storedCodec == Codec.NONE) {
+			out.write(scratch.slice(0, encodedLength));
+		} else {
+			out.write(ByteBuffer.wrap(compressed, 0, storedLength));
+		}
+		out.align();
+		uncompressedBytes += plainSize;
+	}
+
+	public int getBatchCount() {
+		return batchOffsets.size();
+	}
+
+	/**
+	 * @return the zone maps of the batches written so far, or null if the
+	 *         writer does not store them
+	 */
+	public ZoneMapIndex getZoneMaps() {
+		return zoneMaps;
+	}
+
+	public long bytesWritten() {
+		return out.getCurrentPosition();
+	}
+
+	/**
+	 * @return size of the values written so far as they are in memory
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+
+	private void ensureStarted() throws IOException {
+		if (!started) {
+			started = true;
+			out.write(magic());
+			MessageSerializer.serialize(out, schema);
+			out.align();
+		}
+	}
+
+	private byte[] magic() {
+		return zoneMaps == null ? MAGIC : MAGIC_ZONE_MAPS;
+	}
+
+	/**
+	 * Writes the footer, releases the scratch buffer and closes the underlying
+	 * channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (ended) {
+			return;
+		}
+		ended = true;
+		try {
+			ensureStarted();
+			long zoneMapOffset = out.getCurrentPosition();
+			if (zoneMaps != null) {
+				out.write(zoneMaps.serialize());
+			}
+			ByteBuffer footer = ByteBuffer.allocate(batchOffsets.size() * FOOTER_ENTRY_SIZE + 8 + 4)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < batchOffsets.size(); i++) {
+				footer.putLong(batchOffsets.get(i)).putInt(batchRows.get(i));
+			}
+			if (zoneMaps != null) {
+				footer.putLong(zoneMapOffset);
+			}
+			footer.putInt(batchOffsets.size()).flip();
+			out.write(footer);
+			out.write(magic());
+		} finally {
+			scratch.release();
+			scratch = allocator.getEmpty();
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.dictionary;
+
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+import static io.netty.util.internal.PlatformDependent.putShort;
+
+import java.util.Arrays;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+
+import my.org.apache.arrow.samples.hash.Hashing;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Dictionary encodes IntVector and BigIntVector columns into an
+ * {@link EncodedColumn}. One pass collects the distinct values in an open
+ * addressing table of primitive longs, the distinct values are sorted, and a
+ * second pass writes the codes.
+ *
+ * With at most {@link #MAX_SMALLINT_CODES} distinct values the codes take two
+ * bytes per row, a quarter of a BigIntVector and half of an IntVector.
+ */
+public final class DictionaryEncoder {
+
+	/** Dictionary size up to which codes are stored as unsigned 16-bit values. */
+	public static final int MAX_SMALLINT_CODES = 1 << 16;
+
+	private DictionaryEncoder() {
+	}
+
+	public static EncodedColumn encode(IntVector vector, BufferAllocator allocator) {
+		return encode(vector, FixedWidthType.INT, Integer.MAX_VALUE, allocator);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the column has more than {@code maxDictionarySize}
+	 *             distinct values
+	 */
+	public static EncodedColumn encode(IntVector vector, int maxDictionarySize, BufferAllocator allocator) {
+		return encode(vector, FixedWidthType.INT, maxDictionarySize, allocator);
+	}
+
+	public static EncodedColumn encode(BigIntVector vector, BufferAllocator allocator) {
+		return encode(vector, FixedWidthType.BIGINT, Integer.MAX_VALUE, allocator);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the column has more than {@code maxDictionarySize}
+	 *             distinct values
+	 */
+	public static EncodedColumn encode(BigIntVector vector, int maxDictionarySize, BufferAllocator allocator) {
+		return encode(vector, FixedWidthType.BIGINT, maxDictionarySize, allocator);
+	}
+
+	private static EncodedColumn encode(BaseDataValueVector vector, FixedWidthType type, int maxDictionarySize,
+			BufferAllocator allocator) {
+		int count = vector.getAccessor().getValueCount();
+		long address = vector.getBuffer().memoryAddress();
+		boolean ints = type == FixedWidthType.INT;
+
+		ValueTable table = new ValueTable(Math.min(count, 1024));
+		for (int i = 0; i < count; i++) {
+			long value = ints ? getInt(address + ((long) i << 2)) : getLong(address + ((long) i << 3));
+			if (table.add(value) && table.size() > maxDictionarySize) {
+				throw new IllegalArgumentException(
+						"Column has more than " + maxDictionarySize + " distinct values");
+			}
+		}
+
+		long[] values = table.values();
+		Arrays.sort(values);
+		table.assignCodes(values);
+
+		BaseDataValueVector dictionary = null;
+		BaseDataValueVector codes = null;
+		try {
+			dictionary = type.allocateVector("dictionary", allocator, values.length);
+			long dictionaryAddress = dictionary.getBuffer().memoryAddress();
+			for (int code = 0; code < values.length; code++) {
+				if (ints) {
+					putInt(dictionaryAddress + ((long) code << 2), (int) values[code]);
+				} else {
+					putLong(dictionaryAddress + ((long) code << 3), values[code]);
+				}
+			}
+			dictionary.getMutator().setValueCount(values.length);
+
+			boolean smallCodes = values.length <= MAX_SMALLINT_CODES;
+			codes = (smallCodes ? FixedWidthType.SMALLINT : FixedWidthType.INT).allocateVector("codes", allocator,
+					count);
+			long codeAddress = codes.getBuffer().memoryAddress();
+			for (int i = 0; i < count; i++) {
+				long value = ints ? getInt(address + ((long) i << 2)) : getLong(address + ((long) i << 3));
+				int code = table.code(value);
+				if (smallCodes) {
+					putShort(codeAddress + ((long) i << 1), (short) code);
+				} else {
+					putInt(codeAddress + ((long) i << 2), code);
+				}
+			}
+			codes.getMutator().setValueCount(count);
+			return new EncodedColumn(type, dictionary, codes);
+		} catch (RuntimeException e) {
+			if (dictionary != null) {
+				dictionary.close();
+			}
+			if (codes != null) {
+				codes.close();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Open addressing table from distinct values to codes, on primitive
+	 * arrays. Slot i is used when codes[i] != 0; codes are stored plus one.
+	 */
+	private static final class ValueTable {
+
+		private long[] keys;
+		private int[] codes;
+		private int mask;
+		private int size;
+
+		ValueTable(int expected) {
+			int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+			keys = new long[capacity];
+			codes = new int[capacity];
+			mask = capacity - 1;
+		}
+
+		int size() {
+			return size;
+		}
+
+		/**
+		 * @return true if the value was not present yet
+		 */
+		boolean add(long value) {
+			int slot = slot(value);
+			if (codes[slot] != 0) {
+				return false;
+			}
+			keys[slot] = value;
+			codes[slot] = ++size;
+			if (size * 2 > keys.length) {
+				grow();
+			}
+			return true;
+		}
+
+		int code(long value) {
+			return codes[slot(value)] - 1;
+		}
+
+		long[] values() {
+			long[] values = new long[size];
+			int next = 0;
+			for (int i = 0; i < keys.length; i++) {
+				if (codes[i] != 0) {
+					values[next++] = keys[i];
+				}
+			}
+			return values;
+		}
+
+		/**
+		 * Replaces the insertion order codes with the positions in the sorted
+		 * values.
+		 */
+		void assignCodes(long[] sortedValues) {
+			for (int code = 0; code < sortedValues.length; code++) {
+				codes[slot(sortedValues[code])] = code + 1;
+			}
+		}
+
+		private int slot(long value) {
+			int slot = (int) Hashing.mix(value) & mask;
+			while (codes[slot] != 0 && keys[slot] != value) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			int[] oldCodes = codes;
+			keys = new long[oldKeys.length * 2];
+			codes = new int[oldKeys.length * 2];
+			mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldCodes[i] != 0) {
+					int slot = slot(oldKeys[i]);
+					keys[slot] = oldKeys[i];
+					codes[slot] = oldCodes[i];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.dictionary;
+
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.SmallIntVector;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * A dictionary encoded IntVector or BigIntVector column: the distinct values
+ * in ascending order, and one code per row indexing into them. Codes are
+ * stored in a SmallIntVector, read as unsigned, when the dictionary has at
+ * most {@link DictionaryEncoder#MAX_SMALLINT_CODES} entries and in an
+ * IntVector otherwise.
+ *
+ * Because the dictionary is sorted, codes compare like the values they stand
+ * for, which lets range predicates and min/max run on the codes alone. Values
+ * are decoded on access; {@link #decode(String, BufferAllocator)} materializes
+ * the whole column when a plain vector is needed.
+ */
+public final class EncodedColumn implements AutoCloseable {
+
+	private final FixedWidthType valueType;
+	private final BaseDataValueVector dictionary;
+	private final BaseDataValueVector codes;
+
+	EncodedColumn(FixedWidthType valueType, BaseDataValueVector dictionary, BaseDataValueVector codes) {
+		this.valueType = valueType;
+		this.dictionary = dictionary;
+		this.codes = codes;
+	}
+
+	/**
+	 * @return the type of the decoded values, INT or BIGINT
+	 */
+	public FixedWidthType getValueType() {
+		return valueType;
+	}
+
+	public BaseDataValueVector getDictionary() {
+		return dictionary;
+	}
+
+	public BaseDataValueVector getCodes() {
+		return codes;
+	}
+
+	public boolean hasSmallIntCodes() {
+		return codes instanceof SmallIntVector;
+	}
+
+	public int getValueCount() {
+		return codes.getAccessor().getValueCount();
+	}
+
+	public int getDictionarySize() {
+		return dictionary.getAccessor().getValueCount();
+	}
+
+	public int getCode(int index) {
+		checkIndex(index, getValueCount());
+		return code(codes.getBuffer().memoryAddress(), index);
+	}
+
+	public long getDictionaryValue(int code) {
+		checkIndex(code, getDictionarySize());
+		return dictionaryValue(dictionary.getBuffer().memoryAddress(), code);
+	}
+
+	/**
+	 * @return the decoded value of the given row
+	 */
+	public long get(int index) {
+		return getDictionaryValue(getCode(index));
+	}
+
+	/**
+	 * @return the position of {@code value} in the dictionary if present,
+	 *         otherwise {@code -(insertion point) - 1} like
+	 *         Arrays.binarySearch
+	 */
+	public int findCode(long value) {
+		long address = dictionary.getBuffer().memoryAddress();
+		int low = 0;
+		int high = getDictionarySize() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midValue = dictionaryValue(address, mid);
+			if (midValue < value) {
+				low = mid + 1;
+			} else if (midValue > value) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Materializes the column as a plain IntVector or BigIntVector.
+	 */
+	public BaseDataValueVector decode(String name, BufferAllocator allocator) {
+		int count = getValueCount();
+		BaseDataValueVector vector = valueType.allocateVector(name, allocator, count);
+		long codeAddress = codes.getBuffer().memoryAddress();
+		long dictionaryAddress = dictionary.getBuffer().memoryAddress();
+		long target = vector.getBuffer().memoryAddress();
+		if (valueType == FixedWidthType.INT) {
+			for (int i = 0; i < count; i++) {
+				putInt(target + ((long) i << 2), getInt(dictionaryAddress + ((long) code(codeAddress, i) << 2)));
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				putLong(target + ((long) i << 3), getLong(dictionaryAddress + ((long) code(codeAddress, i) << 3)));
+			}
+		}
+		vector.getMutator().setValueCount(count);
+		return vector;
+	}
+
+	/**
+	 * @return bytes used by the dictionary and the codes
+	 */
+	public long getDataSize() {
+		return (long) getDictionarySize() * valueType.getWidth()
+				+ (long) getValueCount() * FixedWidthType.of(codes).getWidth();
+	}
+
+	int code(long codeAddress, int index) {
+		return hasSmallIntCodes() ? getShort(codeAddress + ((long) index << 1)) & 0xFFFF
+				: getInt(codeAddress + ((long) index << 2));
+	}
+
+	long dictionaryValue(long dictionaryAddress, int code) {
+		return valueType == FixedWidthType.INT ? getInt(dictionaryAddress + ((long) code << 2))
+				: getLong(dictionaryAddress + ((long) code << 3));
+	}
+
+	private static void checkIndex(int index, int count) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("Index " + index + " is outside of [0, " + count + ")");
+		}
+	}
+
+	@Override
+	public void close() {
+		dictionary.close();
+		codes.close();
+	}
+
+	@Override
+	public String toString() {
+		return "EncodedColumn[" + valueType + ", values=" + getValueCount() + ", dictionary=" + getDictionarySize()
+				+ "]";
+	}
+}
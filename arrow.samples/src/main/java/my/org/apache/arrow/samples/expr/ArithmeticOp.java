@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.expr;
+
+/**
+ * Binary arithmetic operators, with the semantics of the Java operators on
+ * long or double operands: integer overflow wraps and integer division by
+ * zero throws ArithmeticException.
+ */
+public enum ArithmeticOp {
+	ADD('+'), SUBTRACT('-'), MULTIPLY('*'), DIVIDE('/');
+
+	private final char symbol;
+
+	private ArithmeticOp(char symbol) {
+		this.symbol = symbol;
+	}
+
+	public char getSymbol() {
+		return symbol;
+	}
+
+	/**
+	 * @return whether the operands can be swapped without changing the result
+	 */
+	public boolean isCommutative() {
+		return this == ADD || this == MULTIPLY;
+	}
+}
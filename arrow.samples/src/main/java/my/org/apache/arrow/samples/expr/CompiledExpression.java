@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.expr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.FixedWidthVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.codehaus.commons.compiler.CompileException;
+import org.codehaus.janino.ClassBodyEvaluator;
+
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * An {@link Expression} bound to a schema, ready to compute a derived column
+ * for batches of that schema.
+ *
+ * Compiling generates one class per expression with Janino. Its single loop
+ * reads the input columns straight from their data buffers, computes the
+ * whole expression for a row without intermediate arrays and writes the
+ * result to the target buffer, so no virtual call or Accessor/Mutator call is
+ * made per row or per operator.
+ *
+ * The result is a BIGINT column when all operands are integers and a FLOAT8
+ * column otherwise. An instance holds no mutable state and can be used by
+ * several threads at once.
+ */
+public final class CompiledExpression {
+
+	private final Expression expression;
+	private final Schema schema;
+	private final FixedWidthType resultType;
+	private final int[] columnIndexes;
+	private final Evaluator evaluator;
+
+	CompiledExpression(Expression expression, Schema schema) {
+		this.expression = expression;
+		this.schema = schema;
+		List<String> inputs = new ArrayList<>();
+		Expression.Code code = expression.generate(schema, inputs);
+		this.resultType = code.isDouble ? FixedWidthType.FLOAT8 : FixedWidthType.BIGINT;
+		this.columnIndexes = new int[inputs.size()];
+		for (int i = 0; i < columnIndexes.length; i++) {
+			columnIndexes[i] = indexOf(schema, inputs.get(i));
+		}
+		this.evaluator = compile(source(code, inputs.size()));
+	}
+
+	/**
+	 * @return the body of the class evaluating the expression
+	 */
+	static String source(Expression.Code code, int inputCount) {
+		StringBuilder source = new StringBuilder();
+		source.append("public void evaluate(long[] inputs, long to, int rowCount) {\n");
+		for (int slot = 0; slot < inputCount; slot++) {
+			source.append("\tfinal long in").append(slot).append(" = inputs[").append(slot).append("];\n");
+		}
+		source.append("\tfor (int i = 0; i < rowCount; i++) {\n");
+		source.append("\t\tio.netty.util.internal.PlatformDependent.putLong(to + ((long) i << 3), ");
+		source.append(code.isDouble ? "Double.doubleToRawLongBits(" + code.source + ")" : code.source);
+		source.append(");\n\t}\n}\n");
+		return source.toString();
+	}
+
+	private static Evaluator compile(String source) {
+		ClassBodyEvaluator compiler = new ClassBodyEvaluator();
+		compiler.setParentClassLoader(CompiledExpression.class.getClassLoader());
+		compiler.setExtendedClass(Evaluator.class);
+		try {
+			compiler.cook(source);
+			return (Evaluator) compiler.getClazz().getDeclaredConstructor().newInstance();
+		} catch (CompileException | ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed to compile generated expression\n" + source, e);
+		}
+	}
+
+	public Expression getExpression() {
+		return expression;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public FixedWidthType getResultType() {
+		return resultType;
+	}
+
+	/**
+	 * @return a new vector holding the value of the expression for every row
+	 *         of the batch
+	 */
+	public BaseDataValueVector evaluate(ColumnBatch batch, String name, BufferAllocator allocator) {
+		BaseDataValueVector result = getResultType().allocateVector(name, allocator, batch.getRowCount());
+		try {
+			evaluate(batch, result);
+		} catch (RuntimeException e) {
+			result.close();
+			throw e;
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the value of the expression for every row of the batch into the
+	 * target, a vector of the result type, reallocating it if it is too small.
+	 */
+	public void evaluate(ColumnBatch batch, BaseDataValueVector target) {
+		if (!batch.getSchema().equals(schema)) {
+			throw new IllegalArgumentException("Batch schema " + batch.getSchema() + " does not match " + schema);
+		}
+		if (FixedWidthType.of(target) != getResultType()) {
+			throw new IllegalArgumentException("Expected a " + getResultType() + " target, got "
+					+ target.getClass().getSimpleName());
+		}
+		int rowCount = batch.getRowCount();
+		FixedWidthVector fixedWidth = (FixedWidthVector) target;
+		if (fixedWidth.getValueCapacity() < rowCount) {
+			fixedWidth.allocateNew(rowCount);
+		}
+		long[] addresses = new long[columnIndexes.length];
+		for (int i = 0; i < columnIndexes.length; i++) {
+			addresses[i] = batch.getColumn(columnIndexes[i]).getBuffer().memoryAddress();
+		}
+		evaluator.evaluate(addresses, target.getBuffer().memoryAddress(), rowCount);
+		target.getMutator().setValueCount(rowCount);
+	}
+
+	@Override
+	public String toString() {
+		return expression.toString();
+	}
+
+	static FixedWidthType typeOf(Schema schema, String name) {
+		return FixedWidthType.of(schema.getFields().get(indexOf(schema, name)).getType());
+	}
+
+	private static int indexOf(Schema schema, String name) {
+		List<Field> fields = schema.getFields();
+		for (int i = 0; i < fields.size(); i++) {
+			if (fields.get(i).getName().equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("No column " + name + " in " + schema);
+	}
+
+	/**
+	 * Base class of the generated classes. It is public only because they are
+	 * loaded by a class loader of their own.
+	 */
+	public abstract static class Evaluator {
+
+		/**
+		 * Writes the value of the expression for rows [0, rowCount) to the
+		 * 8-byte values at {@code to}, reading the input columns from the data
+		 * buffer addresses in {@code inputs}.
+		 */
+		public abstract void evaluate(long[] inputs, long to, int rowCount);
+	}
+}
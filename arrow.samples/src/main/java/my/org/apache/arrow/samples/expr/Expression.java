@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.expr;
+
+import java.util.List;
+
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Arithmetic expression over the columns of a batch, such as
+ * {@code (a * 2.0 + b) / c}. Expressions are built with the static factories
+ * or parsed from text, then compiled against a schema into a
+ * {@link CompiledExpression}.
+ *
+ * Integer expressions are evaluated in 64 bits: SMALLINT and INT columns are
+ * widened to long before any operation, so {@code a * b} on two INT columns
+ * does not overflow like Java int arithmetic would. As soon as one operand of
+ * an operator is a floating point column or literal, that operator and the
+ * ones above it are computed as doubles; integer subexpressions below it are
+ * still computed as longs and then converted.
+ */
+public abstract class Expression {
+
+	Expression() {
+	}
+
+	public static Expression column(String name) {
+		return new ColumnRef(name);
+	}
+
+	public static Expression literal(long value) {
+		return new LongLiteral(value);
+	}
+
+	public static Expression literal(double value) {
+		return new DoubleLiteral(value);
+	}
+
+	public static Expression add(Expression left, Expression right) {
+		return new Binary(ArithmeticOp.ADD, left, right);
+	}
+
+	public static Expression subtract(Expression left, Expression right) {
+		return new Binary(ArithmeticOp.SUBTRACT, left, right);
+	}
+
+	public static Expression multiply(Expression left, Expression right) {
+		return new Binary(ArithmeticOp.MULTIPLY, left, right);
+	}
+
+	public static Expression divide(Expression left, Expression right) {
+		return new Binary(ArithmeticOp.DIVIDE, left, right);
+	}
+
+	public static Expression negate(Expression operand) {
+		return new Negate(operand);
+	}
+
+	/**
+	 * Parses column names, numbers ({@code 2} is a long, {@code 2.0} a
+	 * double), {@code + - * /}, unary minus and parentheses, with the usual
+	 * precedence.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the text is not a valid expression
+	 */
+	public static Expression parse(String text) {
+		return new ExpressionParser(text).parse();
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if a column is missing from the schema or is not of a
+	 *             supported fixed-width type
+	 */
+	public CompiledExpression compile(Schema schema) {
+		return new CompiledExpression(this, schema);
+	}
+
+	/**
+	 * Generates the Java expression computing this node for row {@code i}.
+	 * Referenced columns are given a slot in the list of input columns and are
+	 * read from the address held by the local variable {@code in<slot>}.
+	 */
+	abstract Code generate(Schema schema, List<String> inputs);
+
+	/**
+	 * Source of a Java expression and whether it computes a double rather than
+	 * a long.
+	 */
+	static final class Code {
+
+		private static final String PLATFORM = "io.netty.util.internal.PlatformDependent";
+
+		final String source;
+		final boolean isDouble;
+
+		Code(String source, boolean isDouble) {
+			this.source = source;
+			this.isDouble = isDouble;
+		}
+
+		/**
+		 * @return the source, converted to double if it computes a long
+		 */
+		String asDouble() {
+			return isDouble ? source : "((double) " + source + ")";
+		}
+
+		static Code column(int slot, FixedWidthType type) {
+			String address = "in" + slot + " + ((long) i << " + Integer.numberOfTrailingZeros(type.getWidth()) + ")";
+			switch (type) {
+			case SMALLINT:
+				return new Code("((long) " + PLATFORM + ".getShort(" + address + "))", false);
+			case INT:
+				return new Code("((long) " + PLATFORM + ".getInt(" + address + "))", false);
+			case BIGINT:
+				return new Code(PLATFORM + ".getLong(" + address + ")", false);
+			case FLOAT4:
+				return new Code("((double) Float.intBitsToFloat(" + PLATFORM + ".getInt(" + address + ")))", true);
+			case FLOAT8:
+				return new Code("Double.longBitsToDouble(" + PLATFORM + ".getLong(" + address + "))", true);
+			default:
+				throw new IllegalArgumentException("Column of type " + type + " in an arithmetic expression");
+			}
+		}
+
+		static Code literal(long value) {
+			return new Code(value == Long.MIN_VALUE ? "Long.MIN_VALUE" : "(" + value + "L)", false);
+		}
+
+		static Code literal(double value) {
+			if (Double.isNaN(value)) {
+				return new Code("Double.NaN", true);
+			}
+			if (Double.isInfinite(value)) {
+				return new Code(value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY", true);
+			}
+			return new Code("(" + value + "D)", true);
+		}
+	}
+
+	/*
+	 * Nodes
+	 */
+
+	static final class ColumnRef extends Expression {
+
+		private final String name;
+
+		ColumnRef(String name) {
+			this.name = name;
+		}
+
+		@Override
+		Code generate(Schema schema, List<String> inputs) {
+			int slot = inputs.indexOf(name);
+			if (slot < 0) {
+				slot = inputs.size();
+				inputs.add(name);
+			}
+			return Code.column(slot, CompiledExpression.typeOf(schema, name));
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	static final class LongLiteral extends Expression {
+
+		private final long value;
+
+		LongLiteral(long value) {
+			this.value = value;
+		}
+
+		@Override
+		Code generate(Schema schema, List<String> inputs) {
+			return Code.literal(value);
+		}
+
+		@Override
+		public String toString() {
+			return Long.toString(value);
+		}
+	}
+
+	static final class DoubleLiteral extends Expression {
+
+		private final double value;
+
+		DoubleLiteral(double value) {
+			this.value = value;
+		}
+
+		@Override
+		Code generate(Schema schema, List<String> inputs) {
+			return Code.literal(value);
+		}
+
+		@Override
+		public String toString() {
+			return Double.toString(value);
+		}
+	}
+
+	static final class Binary extends Expression {
+
+		private final ArithmeticOp op;
+		private final Expression left;
+		private final Expression right;
+
+		Binary(ArithmeticOp op, Expression left, Expression right) {
+			this.op = op;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		Code generate(Schema schema, List<String> inputs) {
+			Code leftCode = left.generate(schema, inputs);
+			Code rightCode = right.generate(schema, inputs);
+			if (leftCode.isDouble || rightCode.isDouble) {
+				return new Code("(" + leftCode.asDouble() + " " + op.getSymbol() + " " + rightCode.asDouble() + ")",
+						true);
+			}
+			return new Code("(" + leftCode.source + " " + op.getSymbol() + " " + rightCode.source + ")", false);
+		}
+
+		@Override
+		public String toString() {
+			return "(" + left + " " + op.getSymbol() + " " + right + ")";
+		}
+	}
+
+	static final class Negate extends Expression {
+
+		private final Expression operand;
+
+		Negate(Expression operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		Code generate(Schema schema, List<String> inputs) {
+			Code code = operand.generate(schema, inputs);
+			return new Code("(-" + code.source + ")", code.isDouble);
+		}
+
+		@Override
+		public String toString() {
+			return "-" + operand;
+		}
+	}
+}
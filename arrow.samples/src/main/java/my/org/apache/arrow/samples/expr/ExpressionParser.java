@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.expr;
+
+/**
+ * Recursive descent parser for {@link Expression#parse}:
+ *
+ * <pre>
+ * expression := term (('+' | '-') term)*
+ * term       := unary (('*' | '/') unary)*
+ * unary      := '-' unary | primary
+ * primary    := number | name | '(' expression ')'
+ * </pre>
+ */
+final class ExpressionParser {
+
+	private final String text;
+	private int position;
+
+	ExpressionParser(String text) {
+		this.text = text;
+	}
+
+	Expression parse() {
+		Expression expression = expression();
+		skipSpaces();
+		if (position < text.length()) {
+			throw error("Unexpected '" + text.charAt(position) + "'");
+		}
+		return expression;
+	}
+
+	private Expression expression() {
+		Expression expression = term();
+		while (true) {
+			if (accept('+')) {
+				expression = Expression.add(expression, term());
+			} else if (accept('-')) {
+				expression = Expression.subtract(expression, term());
+			} else {
+				return expression;
+			}
+		}
+	}
+
+	private Expression term() {
+		Expression expression = unary();
+		while (true) {
+			if (accept('*')) {
+				expression = Expression.multiply(expression, unary());
+			} else if (accept('/')) {
+				expression = Expression.divide(expression, unary());
+			} else {
+				return expression;
+			}
+		}
+	}
+
+	private Expression unary() {
+		if (accept('-')) {
+			return Expression.negate(unary());
+		}
+		return primary();
+	}
+
+	private Expression primary() {
+		if (accept('(')) {
+			Expression expression = expression();
+			if (!accept(')')) {
+				throw error("Expected ')'");
+			}
+			return expression;
+		}
+		skipSpaces();
+		int start = position;
+		if (position < text.length() && Character.isJavaIdentifierStart(text.charAt(position))) {
+			while (position < text.length() && Character.isJavaIdentifierPart(text.charAt(position))) {
+				position++;
+			}
+			return Expression.column(text.substring(start, position));
+		}
+		boolean decimal = false;
+		while (position < text.length()) {
+			char c = text.charAt(position);
+			if (c == '.' || c == 'e' || c == 'E') {
+				decimal = true;
+			} else if ((c == '+' || c == '-') && decimal && Character.toLowerCase(text.charAt(position - 1)) == 'e') {
+				// exponent sign
+			} else if (!Character.isDigit(c)) {
+				break;
+			}
+			position++;
+		}
+		if (start == position) {
+			throw error(position < text.length() ? "Unexpected '" + text.charAt(position) + "'"
+					: "Unexpected end of expression");
+		}
+		String number = text.substring(start, position);
+		try {
+			return decimal ? Expression.literal(Double.parseDouble(number))
+					: Expression.literal(Long.parseLong(number));
+		} catch (NumberFormatException e) {
+			throw error("Invalid number " + number);
+		}
+	}
+
+	private boolean accept(char c) {
+		skipSpaces();
+		if (position < text.length() && text.charAt(position) == c) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void skipSpaces() {
+		while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + position + " of \"" + text + "\"");
+	}
+}
@@ -0,0 +1,706 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.filter;
+
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+import static io.netty.util.internal.PlatformDependent.putInt;
+
+import java.util.Arrays;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.NullableBigIntVector;
+import org.apache.arrow.vector.NullableFloat4Vector;
+import org.apache.arrow.vector.NullableFloat8Vector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.apache.arrow.vector.NullableVector;
+
+import my.org.apache.arrow.samples.dictionary.EncodedColumn;
+import my.org.apache.arrow.samples.vector.ValidityWords;
+
+/**
+ * Evaluates predicates over the first {@code getAccessor().getValueCount()}
+ * values of a vector and writes the indices of the matching rows into a
+ * {@link SelectionVector}. The selection vector is reallocated if it cannot
+ * hold one index per value, so it can be reused across batches.
+ *
+ * Every comparison is turned into an inclusive range check (x < 5 is
+ * x in [MIN, 4]), and the loops append the current index unconditionally and
+ * only advance the output position on a match, which keeps them free of
+ * data-dependent branches. On Nullable* vectors nulls never match, and the
+ * validity bits are read 64 at a time: words of nulls are skipped, words
+ * without nulls run the same loops as non-nullable vectors.
+ */
+public final class Filters {
+
+	private Filters() {
+	}
+
+	/*
+	 * IntVector
+	 */
+
+	public static SelectionVector compare(IntVector vector, CompareOp op, int value, SelectionVector out) {
+		return compareInts(vector, op, value, out);
+	}
+
+	/**
+	 * Like {@link #compare(IntVector, CompareOp, int, SelectionVector)}; null
+	 * values never match, not even NE.
+	 */
+	public static SelectionVector compare(NullableIntVector vector, CompareOp op, int value,
+			SelectionVector out) {
+		return compareInts(vector, op, value, out);
+	}
+
+	private static SelectionVector compareInts(BaseDataValueVector vector, CompareOp op, int value,
+			SelectionVector out) {
+		switch (op) {
+		case LT:
+			return value == Integer.MIN_VALUE ? none(out) : selectInts(vector, Integer.MIN_VALUE, value - 1, false, out);
+		case LE:
+			return selectInts(vector, Integer.MIN_VALUE, value, false, out);
+		case GT:
+			return value == Integer.MAX_VALUE ? none(out) : selectInts(vector, value + 1, Integer.MAX_VALUE, false, out);
+		case GE:
+			return selectInts(vector, value, Integer.MAX_VALUE, false, out);
+		case EQ:
+			return selectInts(vector, value, value, false, out);
+		case NE:
+			return selectInts(vector, value, value, true, out);
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	/**
+	 * Selects values in [lower, upper].
+	 */
+	public static SelectionVector between(IntVector vector, int lower, int upper, SelectionVector out) {
+		return selectInts(vector, lower, upper, false, out);
+	}
+
+	/**
+	 * Selects values in [lower, upper]; null values never match.
+	 */
+	public static SelectionVector between(NullableIntVector vector, int lower, int upper,
+			SelectionVector out) {
+		return selectInts(vector, lower, upper, false, out);
+	}
+
+	public static SelectionVector in(IntVector vector, int[] values, SelectionVector out) {
+		int[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			int v = getInt(address + ((long) i << 2));
+			putInt(target + ((long) selected << 2), i);
+			selected += Arrays.binarySearch(sorted, v) >= 0 ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	private static SelectionVector selectInts(BaseDataValueVector vector, int lower, int upper,
+			boolean negate, SelectionVector out) {
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		if (vector instanceof NullableVector) {
+			out.setCount(selectIntsValid(address, ValidityWords.address(vector), count, lower, upper, negate,
+					target));
+			return out;
+		}
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			int v = getInt(address + ((long) i << 2));
+			putInt(target + ((long) selected << 2), i);
+			selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	/**
+	 * Words without nulls run the loop above, other words only visit their
+	 * non-null values.
+	 */
+	private static int selectIntsValid(long address, long validity, int count, int lower, int upper,
+			boolean negate, long target) {
+		int selected = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			int base = w << 6;
+			if (bits == ValidityWords.ALL_VALID) {
+				for (int i = base; i < base + 64; i++) {
+					int v = getInt(address + ((long) i << 2));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					int i = base + Long.numberOfTrailingZeros(bits);
+					int v = getInt(address + ((long) i << 2));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			}
+		}
+		return selected;
+	}
+
+	/*
+	 * BigIntVector
+	 */
+
+	public static SelectionVector compare(BigIntVector vector, CompareOp op, long value, SelectionVector out) {
+		return compareLongs(vector, op, value, out);
+	}
+
+	/**
+	 * Like {@link #compare(BigIntVector, CompareOp, long, SelectionVector)}; null
+	 * values never match, not even NE.
+	 */
+	public static SelectionVector compare(NullableBigIntVector vector, CompareOp op, long value,
+			SelectionVector out) {
+		return compareLongs(vector, op, value, out);
+	}
+
+	private static SelectionVector compareLongs(BaseDataValueVector vector, CompareOp op, long value,
+			SelectionVector out) {
+		switch (op) {
+		case LT:
+			return value == Long.MIN_VALUE ? none(out) : selectLongs(vector, Long.MIN_VALUE, value - 1, false, out);
+		case LE:
+			return selectLongs(vector, Long.MIN_VALUE, value, false, out);
+		case GT:
+			return value == Long.MAX_VALUE ? none(out) : selectLongs(vector, value + 1, Long.MAX_VALUE, false, out);
+		case GE:
+			return selectLongs(vector, value, Long.MAX_VALUE, false, out);
+		case EQ:
+			return selectLongs(vector, value, value, false, out);
+		case NE:
+			return selectLongs(vector, value, value, true, out);
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	/**
+	 * Selects values in [lower, upper].
+	 */
+	public static SelectionVector between(BigIntVector vector, long lower, long upper, SelectionVector out) {
+		return selectLongs(vector, lower, upper, false, out);
+	}
+
+	/**
+	 * Selects values in [lower, upper]; null values never match.
+	 */
+	public static SelectionVector between(NullableBigIntVector vector, long lower, long upper,
+			SelectionVector out) {
+		return selectLongs(vector, lower, upper, false, out);
+	}
+
+	public static SelectionVector in(BigIntVector vector, long[] values, SelectionVector out) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			long v = getLong(address + ((long) i << 3));
+			putInt(target + ((long) selected << 2), i);
+			selected += Arrays.binarySearch(sorted, v) >= 0 ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	private static SelectionVector selectLongs(BaseDataValueVector vector, long lower, long upper,
+			boolean negate, SelectionVector out) {
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		if (vector instanceof NullableVector) {
+			out.setCount(selectLongsValid(address, ValidityWords.address(vector), count, lower, upper, negate,
+					target));
+			return out;
+		}
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			long v = getLong(address + ((long) i << 3));
+			putInt(target + ((long) selected << 2), i);
+			selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	/**
+	 * Words without nulls run the loop above, other words only visit their
+	 * non-null values.
+	 */
+	private static int selectLongsValid(long address, long validity, int count, long lower, long upper,
+			boolean negate, long target) {
+		int selected = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			int base = w << 6;
+			if (bits == ValidityWords.ALL_VALID) {
+				for (int i = base; i < base + 64; i++) {
+					long v = getLong(address + ((long) i << 3));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					int i = base + Long.numberOfTrailingZeros(bits);
+					long v = getLong(address + ((long) i << 3));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			}
+		}
+		return selected;
+	}
+
+	/*
+	 * Float4Vector
+	 */
+
+	public static SelectionVector compare(Float4Vector vector, CompareOp op, float value, SelectionVector out) {
+		return compareFloats(vector, op, value, out);
+	}
+
+	/**
+	 * Like {@link #compare(Float4Vector, CompareOp, float, SelectionVector)}; null
+	 * values never match, not even NE.
+	 */
+	public static SelectionVector compare(NullableFloat4Vector vector, CompareOp op, float value,
+			SelectionVector out) {
+		return compareFloats(vector, op, value, out);
+	}
+
+	private static SelectionVector compareFloats(BaseDataValueVector vector, CompareOp op, float value,
+			SelectionVector out) {
+		switch (op) {
+		case LT:
+			return value == Float.NEGATIVE_INFINITY ? none(out)
+					: selectFloats(vector, Float.NEGATIVE_INFINITY, Math.nextAfter(value, Double.NEGATIVE_INFINITY), false, out);
+		case LE:
+			return selectFloats(vector, Float.NEGATIVE_INFINITY, value, false, out);
+		case GT:
+			return value == Float.POSITIVE_INFINITY ? none(out)
+					: selectFloats(vector, Math.nextUp(value), Float.POSITIVE_INFINITY, false, out);
+		case GE:
+			return selectFloats(vector, value, Float.POSITIVE_INFINITY, false, out);
+		case EQ:
+			return selectFloats(vector, value, value, false, out);
+		case NE:
+			return selectFloats(vector, value, value, true, out);
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	/**
+	 * Selects values in [lower, upper]; NaN values never match.
+	 */
+	public static SelectionVector between(Float4Vector vector, float lower, float upper, SelectionVector out) {
+		return selectFloats(vector, lower, upper, false, out);
+	}
+
+	/**
+	 * Selects values in [lower, upper]; NaN and null values never match.
+	 */
+	public static SelectionVector between(NullableFloat4Vector vector, float lower, float upper,
+			SelectionVector out) {
+		return selectFloats(vector, lower, upper, false, out);
+	}
+
+	/**
+	 * Selects values equal (==) to one of the given values; NaN values never
+	 * match.
+	 */
+	public static SelectionVector in(Float4Vector vector, float[] values, SelectionVector out) {
+		float[] sorted = new float[values.length];
+		int length = 0;
+		for (float value : values) {
+			if (value == value) {
+				// -0.0 == 0.0, but not for Arrays.binarySearch
+				sorted[length++] = value == 0 ? 0f : value;
+			}
+		}
+		sorted = Arrays.copyOf(sorted, length);
+		Arrays.sort(sorted);
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			float v = Float.intBitsToFloat(getInt(address + ((long) i << 2)));
+			putInt(target + ((long) selected << 2), i);
+			selected += v == v && Arrays.binarySearch(sorted, v == 0 ? 0f : v) >= 0 ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	private static SelectionVector selectFloats(BaseDataValueVector vector, float lower, float upper,
+			boolean negate, SelectionVector out) {
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		if (vector instanceof NullableVector) {
+			out.setCount(selectFloatsValid(address, ValidityWords.address(vector), count, lower, upper, negate,
+					target));
+			return out;
+		}
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			float v = Float.intBitsToFloat(getInt(address + ((long) i << 2)));
+			putInt(target + ((long) selected << 2), i);
+			selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	/**
+	 * Words without nulls run the loop above, other words only visit their
+	 * non-null values.
+	 */
+	private static int selectFloatsValid(long address, long validity, int count, float lower, float upper,
+			boolean negate, long target) {
+		int selected = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			int base = w << 6;
+			if (bits == ValidityWords.ALL_VALID) {
+				for (int i = base; i < base + 64; i++) {
+					float v = Float.intBitsToFloat(getInt(address + ((long) i << 2)));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					int i = base + Long.numberOfTrailingZeros(bits);
+					float v = Float.intBitsToFloat(getInt(address + ((long) i << 2)));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			}
+		}
+		return selected;
+	}
+
+	/*
+	 * Float8Vector
+	 */
+
+	public static SelectionVector compare(Float8Vector vector, CompareOp op, double value, SelectionVector out) {
+		return compareDoubles(vector, op, value, out);
+	}
+
+	/**
+	 * Like {@link #compare(Float8Vector, CompareOp, double, SelectionVector)}; null
+	 * values never match, not even NE.
+	 */
+	public static SelectionVector compare(NullableFloat8Vector vector, CompareOp op, double value,
+			SelectionVector out) {
+		return compareDoubles(vector, op, value, out);
+	}
+
+	private static SelectionVector compareDoubles(BaseDataValueVector vector, CompareOp op, double value,
+			SelectionVector out) {
+		switch (op) {
+		case LT:
+			return value == Double.NEGATIVE_INFINITY ? none(out)
+					: selectDoubles(vector, Double.NEGATIVE_INFINITY, Math.nextAfter(value, Double.NEGATIVE_INFINITY), false, out);
+		case LE:
+			return selectDoubles(vector, Double.NEGATIVE_INFINITY, value, false, out);
+		case GT:
+			return value == Double.POSITIVE_INFINITY ? none(out)
+					: selectDoubles(vector, Math.nextUp(value), Double.POSITIVE_INFINITY, false, out);
+		case GE:
+			return selectDoubles(vector, value, Double.POSITIVE_INFINITY, false, out);
+		case EQ:
+			return selectDoubles(vector, value, value, false, out);
+		case NE:
+			return selectDoubles(vector, value, value, true, out);
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	/**
+	 * Selects values in [lower, upper]; NaN values never match.
+	 */
+	public static SelectionVector between(Float8Vector vector, double lower, double upper, SelectionVector out) {
+		return selectDoubles(vector, lower, upper, false, out);
+	}
+
+	/**
+	 * Selects values in [lower, upper]; NaN and null values never match.
+	 */
+	public static SelectionVector between(NullableFloat8Vector vector, double lower, double upper,
+			SelectionVector out) {
+		return selectDoubles(vector, lower, upper, false, out);
+	}
+
+	/**
+	 * Selects values equal (==) to one of the given values; NaN values never
+	 * match.
+	 */
+	public static SelectionVector in(Float8Vector vector, double[] values, SelectionVector out) {
+		double[] sorted = new double[values.length];
+		int length = 0;
+		for (double value : values) {
+			if (value == value) {
+				// -0.0 == 0.0, but not for Arrays.binarySearch
+				sorted[length++] = value == 0 ? 0d : value;
+			}
+		}
+		sorted = Arrays.copyOf(sorted, length);
+		Arrays.sort(sorted);
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			double v = Double.longBitsToDouble(getLong(address + ((long) i << 3)));
+			putInt(target + ((long) selected << 2), i);
+			selected += v == v && Arrays.binarySearch(sorted, v == 0 ? 0d : v) >= 0 ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	private static SelectionVector selectDoubles(BaseDataValueVector vector, double lower, double upper,
+			boolean negate, SelectionVector out) {
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long address = vector.getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		if (vector instanceof NullableVector) {
+			out.setCount(selectDoublesValid(address, ValidityWords.address(vector), count, lower, upper, negate,
+					target));
+			return out;
+		}
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			double v = Double.longBitsToDouble(getLong(address + ((long) i << 3)));
+			putInt(target + ((long) selected << 2), i);
+			selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	/**
+	 * Words without nulls run the loop above, other words only visit their
+	 * non-null values.
+	 */
+	private static int selectDoublesValid(long address, long validity, int count, double lower, double upper,
+			boolean negate, long target) {
+		int selected = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			int base = w << 6;
+			if (bits == ValidityWords.ALL_VALID) {
+				for (int i = base; i < base + 64; i++) {
+					double v = Double.longBitsToDouble(getLong(address + ((long) i << 3)));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					int i = base + Long.numberOfTrailingZeros(bits);
+					double v = Double.longBitsToDouble(getLong(address + ((long) i << 3)));
+					putInt(target + ((long) selected << 2), i);
+					selected += ((v >= lower & v <= upper) != negate) ? 1 : 0;
+				}
+			}
+		}
+		return selected;
+	}
+
+	/*
+	 * Null checks on Nullable* vectors
+	 */
+
+	public static SelectionVector isNull(BaseDataValueVector vector, SelectionVector out) {
+		return selectValidity(vector, true, out);
+	}
+
+	public static SelectionVector isNotNull(BaseDataValueVector vector, SelectionVector out) {
+		return selectValidity(vector, false, out);
+	}
+
+	private static SelectionVector selectValidity(BaseDataValueVector vector, boolean nulls, SelectionVector out) {
+		long validity = ValidityWords.address(vector);
+		int count = vector.getAccessor().getValueCount();
+		out.ensureCapacity(count);
+		long target = out.getBuffer().memoryAddress();
+		int selected = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (nulls) {
+				bits = ~bits & (w == words - 1 && (count & 63) != 0 ? (1L << (count & 63)) - 1 : -1L);
+			}
+			for (int base = w << 6; bits != 0; bits &= bits - 1) {
+				putInt(target + ((long) selected++ << 2), base + Long.numberOfTrailingZeros(bits));
+			}
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	/*
+	 * Dictionary encoded columns. The dictionary is sorted, so a predicate on
+	 * the values becomes a range check on the codes.
+	 */
+
+	public static SelectionVector compare(EncodedColumn column, CompareOp op, long value, SelectionVector out) {
+		int found = column.findCode(value);
+		int firstGreaterOrEqual = found >= 0 ? found : -found - 1;
+		int lastLessOrEqual = found >= 0 ? found : -found - 2;
+		int lastCode = column.getDictionarySize() - 1;
+		switch (op) {
+		case LT:
+			return selectCodes(column, 0, firstGreaterOrEqual - 1, false, out);
+		case LE:
+			return selectCodes(column, 0, lastLessOrEqual, false, out);
+		case GT:
+			return selectCodes(column, lastLessOrEqual + 1, lastCode, false, out);
+		case GE:
+			return selectCodes(column, firstGreaterOrEqual, lastCode, false, out);
+		case EQ:
+			return found >= 0 ? selectCodes(column, found, found, false, out) : none(out);
+		case NE:
+			// a value missing from the dictionary gives the empty range, negated to all rows
+			return found >= 0 ? selectCodes(column, found, found, true, out) : selectCodes(column, 0, -1, true, out);
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	/**
+	 * Selects values in [lower, upper].
+	 */
+	public static SelectionVector between(EncodedColumn column, long lower, long upper, SelectionVector out) {
+		int first = column.findCode(lower);
+		int last = column.findCode(upper);
+		return selectCodes(column, first >= 0 ? first : -first - 1, last >= 0 ? last : -last - 2, false, out);
+	}
+
+	public static SelectionVector in(EncodedColumn column, long[] values, SelectionVector out) {
+		boolean[] member = new boolean[column.getDictionarySize()];
+		for (long value : values) {
+			int code = column.findCode(value);
+			if (code >= 0) {
+				member[code] = true;
+			}
+		}
+		int count = column.getValueCount();
+		out.ensureCapacity(count);
+		long address = column.getCodes().getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		int selected = 0;
+		if (column.hasSmallIntCodes()) {
+			for (int i = 0; i < count; i++) {
+				int code = getShort(address + ((long) i << 1)) & 0xFFFF;
+				putInt(target + ((long) selected << 2), i);
+				selected += member[code] ? 1 : 0;
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				int code = getInt(address + ((long) i << 2));
+				putInt(target + ((long) selected << 2), i);
+				selected += member[code] ? 1 : 0;
+			}
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	private static SelectionVector selectCodes(EncodedColumn column, int lower, int upper, boolean negate,
+			SelectionVector out) {
+		if (lower > upper && !negate) {
+			return none(out);
+		}
+		int count = column.getValueCount();
+		out.ensureCapacity(count);
+		long address = column.getCodes().getBuffer().memoryAddress();
+		long target = out.getBuffer().memoryAddress();
+		int selected = 0;
+		if (column.hasSmallIntCodes()) {
+			for (int i = 0; i < count; i++) {
+				int code = getShort(address + ((long) i << 1)) & 0xFFFF;
+				putInt(target + ((long) selected << 2), i);
+				selected += ((code >= lower & code <= upper) != negate) ? 1 : 0;
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				int code = getInt(address + ((long) i << 2));
+				putInt(target + ((long) selected << 2), i);
+				selected += ((code >= lower & code <= upper) != negate) ? 1 : 0;
+			}
+		}
+		out.setCount(selected);
+		return out;
+	}
+
+	private static SelectionVector none(SelectionVector out) {
+		out.setCount(0);
+		return out;
+	}
+}
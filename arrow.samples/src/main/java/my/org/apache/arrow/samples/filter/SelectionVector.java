@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.filter;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Off-heap list of selected row indices, produced by {@link Filters} and
+ * consumed by kernels that only look at the selected rows. The indices are
+ * 4 byte ints, in ascending order when they come from a filter and in sort
+ * order when they are a permutation; they refer to a vector but do not own
+ * or copy any of its data.
+ */
+public final class SelectionVector implements AutoCloseable {
+
+	public static final int INDEX_WIDTH = 4;
+
+	private final BufferAllocator allocator;
+	private ArrowBuf buffer;
+	private int count;
+
+	public SelectionVector(BufferAllocator allocator) {
+		this.allocator = allocator;
+		this.buffer = allocator.getEmpty();
+	}
+
+	/**
+	 * Replaces the buffer with one that can hold capacity indices and resets
+	 * the count to 0.
+	 */
+	public void allocateNew(int capacity) {
+		clear();
+		buffer = allocator.buffer(capacity * INDEX_WIDTH);
+	}
+
+	/**
+	 * Makes sure capacity indices fit, reallocating if necessary. The current
+	 * indices are kept only if no reallocation is needed.
+	 */
+	public void ensureCapacity(int capacity) {
+		if (getCapacity() < capacity) {
+			allocateNew(capacity);
+		}
+	}
+
+	public int getCapacity() {
+		return buffer.capacity() / INDEX_WIDTH;
+	}
+
+	/**
+	 * @return number of selected indices
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		if (count < 0 || count > getCapacity()) {
+			throw new IndexOutOfBoundsException("Count " + count + " exceeds capacity " + getCapacity());
+		}
+		this.count = count;
+	}
+
+	public int getIndex(int position) {
+		return buffer.getInt(position * INDEX_WIDTH);
+	}
+
+	public void setIndex(int position, int index) {
+		buffer.setInt(position * INDEX_WIDTH, index);
+	}
+
+	public ArrowBuf getBuffer() {
+		return buffer;
+	}
+
+	public BufferAllocator getAllocator() {
+		return allocator;
+	}
+
+	public void clear() {
+		buffer.release();
+		buffer = allocator.getEmpty();
+		count = 0;
+	}
+
+	@Override
+	public void close() {
+		clear();
+	}
+}
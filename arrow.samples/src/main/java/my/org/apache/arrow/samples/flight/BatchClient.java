@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.flight;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+
+/**
+ * Connection to a {@link BatchServer} on the same host. Requests are sent one
+ * at a time over a single socket, so a client must not be shared between
+ * threads without external locking.
+ */
+public class BatchClient implements AutoCloseable {
+
+	private final SocketChannel channel;
+	private BatchStreamReader pending;
+
+	private BatchClient(SocketChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Connects to a server listening on the loopback interface.
+	 */
+	public static BatchClient connect(int port) throws IOException {
+		SocketChannel channel = SocketChannel.open();
+		try {
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			channel.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return new BatchClient(channel);
+	}
+
+	/**
+	 * Requests the batches stored under the path. They arrive as they are
+	 * read from the returned stream, allocated from the given allocator; the
+	 * stream must be read to its end before the next request.
+	 *
+	 * @throws IOException
+	 *             if the connection fails or the server has no such dataset
+	 */
+	public BatchStreamReader get(String path, BufferAllocator allocator) throws IOException {
+		checkIdle();
+		Protocol.writeRequest(channel, Protocol.GET, path);
+		Protocol.readStatus(channel);
+		pending = new BatchStreamReader(channel, allocator);
+		return pending;
+	}
+
+	/**
+	 * Sends batches to be stored under the path, which must not be in use
+	 * yet. The batches stay owned by the caller.
+	 *
+	 * @return number of batches sent
+	 */
+	public int put(String path, Schema schema, Iterable<ColumnBatch> batches) throws IOException {
+		checkIdle();
+		Protocol.writeRequest(channel, Protocol.PUT, path);
+		Protocol.readStatus(channel);
+		BatchStreamWriter writer = new BatchStreamWriter(channel, schema);
+		int count = 0;
+		for (ColumnBatch batch : batches) {
+			writer.writeBatch(batch);
+			count++;
+		}
+		writer.end();
+		Protocol.readStatus(channel);
+		return count;
+	}
+
+	private void checkIdle() {
+		if (pending != null && !pending.isEnded()) {
+			throw new IllegalStateException("The previous stream has not been read to its end");
+		}
+		pending = null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,365 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.flight;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+
+/**
+ * Serves named datasets of column batches to {@link BatchClient}s over the
+ * loopback interface, in the spirit of Arrow Flight's DoGet and DoPut: a
+ * client streams the batches stored under a path, or uploads batches to a
+ * new path. Batches travel as Arrow stream messages (see {@link Protocol}).
+ *
+ * Every connection is served by its own thread with blocking channels.
+ * Datasets are immutable once stored, so any number of connections can send
+ * the same batches at once; the server owns them and closes them when it is
+ * closed. Uploaded batches are allocated from the server allocator.
+ */
+public class BatchServer implements AutoCloseable {
+
+	private final BufferAllocator allocator;
+	private final ServerSocketChannel serverChannel;
+	private final ConcurrentMap<String, Dataset> datasets = new ConcurrentHashMap<>();
+	private final Set<Connection> connections = Collections
+			.newSetFromMap(new ConcurrentHashMap<Connection, Boolean>());
+	private final AcceptThread acceptThread;
+	private final AtomicLong batchesSent = new AtomicLong();
+	private final AtomicLong batchesReceived = new AtomicLong();
+	private volatile boolean closed;
+
+	/**
+	 * Listens on an ephemeral loopback port; see {@link #getPort()}.
+	 */
+	public BatchServer(BufferAllocator allocator) throws IOException {
+		this(allocator, 0);
+	}
+
+	public BatchServer(BufferAllocator allocator, int port) throws IOException {
+		this.allocator = allocator;
+		this.serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		} catch (IOException e) {
+			serverChannel.close();
+			throw e;
+		}
+		this.acceptThread = new AcceptThread();
+		acceptThread.start();
+	}
+
+	public int getPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * Stores batches under a new path. The server takes ownership of them.
+	 *
+	 * @throws IllegalStateException
+	 *             if the path is already in use
+	 */
+	public void put(String path, Schema schema, List<ColumnBatch> batches) {
+		for (ColumnBatch batch : batches) {
+			if (!batch.getSchema().equals(schema)) {
+				throw new IllegalArgumentException("Batch schema " + batch.getSchema() + " does not match " + schema);
+			}
+		}
+		if (!store(path, new Dataset(schema, batches))) {
+			throw new IllegalStateException("Path " + path + " is already in use");
+		}
+	}
+
+	/**
+	 * Synchronized with {@link #close()}, so that a dataset is either stored
+	 * before close goes through them or not stored at all.
+	 *
+	 * @return false if the path is already in use
+	 * @throws IllegalStateException
+	 *             if the server is closed
+	 */
+	private synchronized boolean store(String path, Dataset dataset) {
+		if (closed) {
+			throw new IllegalStateException("Server closed");
+		}
+		return datasets.putIfAbsent(path, dataset) == null;
+	}
+
+	/**
+	 * @return the batches stored under the path, still owned by the server,
+	 *         or null
+	 */
+	public List<ColumnBatch> get(String path) {
+		Dataset dataset = datasets.get(path);
+		return dataset == null ? null : Collections.unmodifiableList(dataset.batches);
+	}
+
+	public Set<String> getPaths() {
+		return Collections.unmodifiableSet(datasets.keySet());
+	}
+
+	public long getBatchesSent() {
+		return batchesSent.get();
+	}
+
+	public long getBatchesReceived() {
+		return batchesReceived.get();
+	}
+
+	/**
+	 * Stops accepting connections, closes the open ones, waits for their
+	 * threads and closes all stored batches. An interrupt does not cut the
+	 * wait short, since the batches can only be closed once no connection
+	 * sends them; the interrupt status is restored on return.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		serverChannel.close();
+		boolean interrupted = join(acceptThread);
+		for (Connection connection : connections) {
+			connection.channel.close();
+		}
+		for (Connection connection : connections) {
+			interrupted |= join(connection);
+		}
+		for (Dataset dataset : datasets.values()) {
+			close(dataset.batches);
+		}
+		datasets.clear();
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for the thread to end, even when interrupted.
+	 *
+	 * @return whether the calling thread was interrupted meanwhile
+	 */
+	private static boolean join(Thread thread) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				thread.join();
+				return interrupted;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+	}
+
+	private static void close(List<ColumnBatch> batches) {
+		for (ColumnBatch batch : batches) {
+			batch.close();
+		}
+	}
+
+	private static final class Dataset {
+
+		private final Schema schema;
+		private final List<ColumnBatch> batches;
+
+		Dataset(Schema schema, List<ColumnBatch> batches) {
+			this.schema = schema;
+			this.batches = new ArrayList<>(batches);
+		}
+	}
+
+	/*
+	 * Connection handling
+	 */
+
+	private final class AcceptThread extends Thread {
+
+		AcceptThread() {
+			super("batch-server-" + getPort());
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (!closed) {
+				SocketChannel channel;
+				try {
+					channel = serverChannel.accept();
+				} catch (ClosedChannelException e) {
+					return;
+				} catch (IOException e) {
+					continue;
+				}
+				Connection connection = new Connection(channel);
+				connections.add(connection);
+				if (closed) {
+					// close() may have gone through the connections already
+					connections.remove(connection);
+					closeQuietly(channel);
+					return;
+				}
+				connection.start();
+			}
+		}
+	}
+
+	private final class Connection extends Thread {
+
+		private final SocketChannel channel;
+		/** whether a dataset is being streamed to the client */
+		private boolean sending;
+
+		Connection(SocketChannel channel) {
+			super(acceptThread.getName() + "-" + channel.socket().getPort());
+			setDaemon(true);
+			this.channel = channel;
+		}
+
+		@Override
+		public void run() {
+			try {
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				while (!closed) {
+					int command = Protocol.readCommand(channel);
+					if (command < 0) {
+						break;
+					}
+					String path = Protocol.readString(channel);
+					if (command == Protocol.GET) {
+						sendDataset(path);
+					} else if (command == Protocol.PUT) {
+						receiveDataset(path);
+					} else {
+						Protocol.writeError(channel, "Unknown command " + command);
+						break;
+					}
+				}
+			} catch (IOException e) {
+				// the client went away or the server is closing: drop the
+				// connection
+			} catch (RuntimeException e) {
+				// a malformed upload or the allocator running out: tell the
+				// client before dropping the connection, unless a status would
+				// land in the middle of the stream it is reading
+				if (!sending) {
+					writeErrorQuietly(channel, e.getMessage() != null ? e.getMessage() : e.toString());
+					discardQuietly(channel);
+				}
+			} finally {
+				closeQuietly(channel);
+				connections.remove(this);
+			}
+		}
+
+		private void sendDataset(String path) throws IOException {
+			Dataset dataset = datasets.get(path);
+			if (dataset == null) {
+				Protocol.writeError(channel, "No dataset at " + path);
+				return;
+			}
+			Protocol.writeOk(channel);
+			sending = true;
+			BatchStreamWriter writer = new BatchStreamWriter(channel, dataset.schema);
+			for (ColumnBatch batch : dataset.batches) {
+				writer.writeBatch(batch);
+				batchesSent.incrementAndGet();
+			}
+			writer.end();
+			sending = false;
+		}
+
+		private void receiveDataset(String path) throws IOException {
+			if (datasets.containsKey(path)) {
+				Protocol.writeError(channel, "Path " + path + " is already in use");
+				return;
+			}
+			Protocol.writeOk(channel);
+			List<ColumnBatch> batches = new ArrayList<>();
+			try {
+				BatchStreamReader reader = new BatchStreamReader(channel, allocator);
+				ColumnBatch batch;
+				while ((batch = reader.next()) != null) {
+					batches.add(batch);
+				}
+				if (!store(path, new Dataset(reader.getSchema(), batches))) {
+					close(batches);
+					Protocol.writeError(channel, "Path " + path + " is already in use");
+					return;
+				}
+			} catch (IOException | RuntimeException e) {
+				close(batches);
+				throw e;
+			}
+			batchesReceived.addAndGet(batches.size());
+			Protocol.writeOk(channel);
+		}
+	}
+
+	private static void writeErrorQuietly(SocketChannel channel, String message) {
+		try {
+			Protocol.writeError(channel, message);
+		} catch (IOException e) {
+			// the client went away as well
+		}
+	}
+
+	/**
+	 * Reads and drops whatever the client still sends until it closes the
+	 * connection. Closing with unread data would reset the connection, and
+	 * the client could lose the error before reading it.
+	 */
+	private static void discardQuietly(SocketChannel channel) {
+		try {
+			channel.shutdownOutput();
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			while (channel.read(buffer) >= 0) {
+				buffer.clear();
+			}
+		} catch (IOException e) {
+			// the client went away as well
+		}
+	}
+
+	private static void closeQuietly(SocketChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// nothing left to do with this connection
+		}
+	}
+}
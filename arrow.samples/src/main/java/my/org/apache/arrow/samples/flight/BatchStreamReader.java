@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.flight;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.file.ReadChannel;
+import org.apache.arrow.vector.schema.ArrowDictionaryBatch;
+import org.apache.arrow.vector.schema.ArrowFieldNode;
+import org.apache.arrow.vector.schema.ArrowMessage;
+import org.apache.arrow.vector.schema.ArrowRecordBatch;
+import org.apache.arrow.vector.stream.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Reads column batches from an Arrow stream, such as one written by
+ * {@link BatchStreamWriter}. The body of each record batch is read into one
+ * buffer from the allocator and the vectors are loaded with slices of it, so
+ * the values are copied once, from the socket into their final place.
+ *
+ * Only the fixed-width sample types without nulls are supported.
+ */
+public class BatchStreamReader {
+
+	private final ReadChannel in;
+	private final BufferAllocator allocator;
+	private final Schema schema;
+	private final FixedWidthType[] types;
+	private boolean ended;
+
+	/**
+	 * Reads the schema message that starts the stream.
+	 */
+	public BatchStreamReader(ReadableByteChannel channel, BufferAllocator allocator) throws IOException {
+		this.in = new ReadChannel(channel);
+		this.allocator = allocator;
+		this.schema = MessageSerializer.deserializeSchema(in);
+		List<Field> fields = schema.getFields();
+		this.types = new FixedWidthType[fields.size()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = FixedWidthType.of(fields.get(i).getType());
+		}
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * @return the next batch, owned by the caller, or null at the end of the
+	 *         stream
+	 */
+	public ColumnBatch next() throws IOException {
+		if (ended) {
+			return null;
+		}
+		ArrowMessage message = MessageSerializer.deserializeMessageBatch(in, allocator);
+		if (message == null) {
+			ended = true;
+			return null;
+		}
+		if (message instanceof ArrowDictionaryBatch) {
+			((ArrowDictionaryBatch) message).close();
+			throw new IOException("Dictionary batches are not supported");
+		}
+		try (ArrowRecordBatch recordBatch = (ArrowRecordBatch) message) {
+			return load(recordBatch);
+		}
+	}
+
+	boolean isEnded() {
+		return ended;
+	}
+
+	public long bytesRead() {
+		return in.bytesRead();
+	}
+
+	private ColumnBatch load(ArrowRecordBatch recordBatch) throws IOException {
+		List<Field> fields = schema.getFields();
+		List<ArrowFieldNode> nodes = recordBatch.getNodes();
+		List<ArrowBuf> buffers = recordBatch.getBuffers();
+		if (nodes.size() != fields.size() || buffers.size() != fields.size() * 2) {
+			throw new IOException("Record batch has " + nodes.size() + " columns, expected " + fields.size());
+		}
+		List<BaseDataValueVector> columns = new ArrayList<>(fields.size());
+		try {
+			for (int i = 0; i < fields.size(); i++) {
+				ArrowFieldNode node = nodes.get(i);
+				if (node.getNullCount() != 0) {
+					throw new IOException("Column " + fields.get(i).getName() + " contains nulls");
+				}
+				BaseDataValueVector vector = types[i].newVector(fields.get(i).getName(), allocator);
+				columns.add(vector);
+				if (node.getLength() > 0) {
+					ArrowBuf values = buffers.get(i * 2 + 1);
+					if (values.readableBytes() < (long) node.getLength() * types[i].getWidth()) {
+						throw new IOException("Column " + fields.get(i).getName() + " is truncated");
+					}
+					vector.load(node, values);
+				}
+			}
+			return new ColumnBatch(schema, columns);
+		} catch (IOException | RuntimeException e) {
+			for (BaseDataValueVector column : columns) {
+				column.close();
+			}
+			throw e;
+		}
+	}
+}
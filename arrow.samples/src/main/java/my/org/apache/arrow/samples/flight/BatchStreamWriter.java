@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.flight;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.file.WriteChannel;
+import org.apache.arrow.vector.schema.ArrowBuffer;
+import org.apache.arrow.vector.schema.ArrowFieldNode;
+import org.apache.arrow.vector.schema.ArrowRecordBatch;
+import org.apache.arrow.vector.stream.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+
+/**
+ * Writes column batches to a channel in the Arrow stream format: the schema
+ * message, one record batch message per batch and a zero length marking the
+ * end. The stream can be read back by {@link BatchStreamReader} or by the
+ * regular ArrowStreamReader.
+ *
+ * Each record batch goes out in one gathering write: the length prefix, the
+ * metadata, the padding and nio views of the vector buffers themselves, so
+ * the values are never copied onto the heap. As with ColumnFileWriter every
+ * column is sent with an empty validity buffer.
+ */
+public class BatchStreamWriter {
+
+	private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(8);
+
+	private final GatheringByteChannel channel;
+	private final Schema schema;
+	private long position;
+	private boolean started;
+	private boolean ended;
+
+	/**
+	 * @param channel
+	 *            channel to write to, in blocking mode; it is not closed by the
+	 *            writer
+	 */
+	public BatchStreamWriter(GatheringByteChannel channel, Schema schema) {
+		this.channel = channel;
+		this.schema = schema;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Sends the batch, preceded by the schema if this is the first one. The
+	 * batch stays owned by the caller.
+	 */
+	public void writeBatch(ColumnBatch batch) throws IOException {
+		if (!batch.getSchema().equals(schema)) {
+			throw new IllegalArgumentException("Batch schema " + batch.getSchema() + " does not match " + schema);
+		}
+		if (ended) {
+			throw new IllegalStateException("Stream already ended");
+		}
+		ensureStarted();
+		int rowCount = batch.getRowCount();
+		List<ArrowFieldNode> nodes = new ArrayList<>(batch.getColumnCount());
+		List<ArrowBuf> buffers = new ArrayList<>(batch.getColumnCount() * 2);
+		for (int i = 0; i < batch.getColumnCount(); i++) {
+			BaseDataValueVector column = batch.getColumn(i);
+			nodes.add(new ArrowFieldNode(rowCount, 0));
+			buffers.add(column.getAllocator().getEmpty());
+			buffers.add(column.getBuffer().slice(0, rowCount * batch.getType(i).getWidth()));
+		}
+		try (ArrowRecordBatch recordBatch = new ArrowRecordBatch(rowCount, nodes, buffers)) {
+			write(recordBatch);
+		}
+	}
+
+	/**
+	 * Writes the end of stream marker, and the schema if no batch was sent.
+	 */
+	public void end() throws IOException {
+		if (ended) {
+			return;
+		}
+		ensureStarted();
+		ended = true;
+		ByteBuffer marker = ByteBuffer.allocate(4);
+		writeFully(new ByteBuffer[] { marker }, 4);
+	}
+
+	public long bytesWritten() {
+		return position;
+	}
+
+	private void ensureStarted() throws IOException {
+		if (!started) {
+			started = true;
+			position += MessageSerializer.serialize(new WriteChannel(channel), schema);
+		}
+	}
+
+	/**
+	 * Same layout as MessageSerializer.serialize(WriteChannel,
+	 * ArrowRecordBatch), which writes each piece with a separate call.
+	 */
+	private void write(ArrowRecordBatch recordBatch) throws IOException {
+		int bodyLength = recordBatch.computeBodyLength();
+		FlatBufferBuilder builder = new FlatBufferBuilder();
+		int batchOffset = recordBatch.writeTo(builder);
+		ByteBuffer metadata = MessageSerializer.serializeMessage(builder, MessageHeader.RecordBatch, batchOffset,
+				bodyLength);
+		// pad the metadata so that the body starts on an 8 byte boundary
+		int padding = (int) (-(position + 4 + metadata.remaining()) & 7);
+		int metadataLength = metadata.remaining() + padding;
+
+		List<ByteBuffer> parts = new ArrayList<>();
+		parts.add(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, metadataLength));
+		parts.add(metadata);
+		addZeros(parts, padding);
+		List<ArrowBuf> buffers = recordBatch.getBuffers();
+		List<ArrowBuffer> layout = recordBatch.getBuffersLayout();
+		long offset = 0;
+		for (int i = 0; i < buffers.size(); i++) {
+			ArrowBuf buffer = buffers.get(i);
+			addZeros(parts, (int) (layout.get(i).getOffset() - offset));
+			int size = (int) layout.get(i).getSize();
+			if (size > 0) {
+				parts.add(buffer.nioBuffer(buffer.readerIndex(), size));
+			}
+			offset = layout.get(i).getOffset() + size;
+		}
+		addZeros(parts, (int) (bodyLength - offset));
+		writeFully(parts.toArray(new ByteBuffer[parts.size()]), 4L + metadataLength + bodyLength);
+	}
+
+	private static void addZeros(List<ByteBuffer> parts, int length) {
+		while (length > 0) {
+			ByteBuffer zeros = ZEROS.duplicate();
+			zeros.limit(Math.min(length, zeros.capacity()));
+			parts.add(zeros);
+			length -= zeros.limit();
+		}
+	}
+
+	private void writeFully(ByteBuffer[] parts, long length) throws IOException {
+		long remaining = length;
+		while (remaining > 0) {
+			remaining -= channel.write(parts);
+		}
+		position += length;
+	}
+}
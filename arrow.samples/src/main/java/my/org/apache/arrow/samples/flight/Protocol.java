@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.flight;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Framing of the requests and replies exchanged between {@link BatchClient}
+ * and {@link BatchServer}, around the Arrow streams themselves. All integers
+ * are little endian.
+ *
+ * <pre>
+ * request: int command, int path length, path (UTF-8)
+ * status:  int OK, or int ERROR, int message length, message (UTF-8)
+ * </pre>
+ *
+ * A GET request is answered by a status and, when OK, the Arrow stream of the
+ * dataset. A PUT request is answered by a status; when OK the client sends
+ * its Arrow stream and the server answers with a second status once it has
+ * stored the batches.
+ */
+final class Protocol {
+
+	static final int GET = 1;
+	static final int PUT = 2;
+
+	static final int OK = 0;
+	static final int ERROR = 1;
+
+	private static final int MAX_STRING_LENGTH = 1 << 16;
+
+	private Protocol() {
+	}
+
+	static void writeRequest(WritableByteChannel channel, int command, String path) throws IOException {
+		byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer request = ByteBuffer.allocate(8 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+		request.putInt(command).putInt(bytes.length).put(bytes).flip();
+		writeFully(channel, request);
+	}
+
+	static void writeOk(WritableByteChannel channel) throws IOException {
+		ByteBuffer status = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+		status.putInt(OK).flip();
+		writeFully(channel, status);
+	}
+
+	static void writeError(WritableByteChannel channel, String message) throws IOException {
+		byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer status = ByteBuffer.allocate(8 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+		status.putInt(ERROR).putInt(bytes.length).put(bytes).flip();
+		writeFully(channel, status);
+	}
+
+	/**
+	 * @throws IOException
+	 *             with the message sent by the server if the status is ERROR
+	 */
+	static void readStatus(ReadableByteChannel channel) throws IOException {
+		int status = readInt(channel);
+		if (status == ERROR) {
+			throw new IOException(readString(channel));
+		} else if (status != OK) {
+			throw new IOException("Unexpected status " + status);
+		}
+	}
+
+	/**
+	 * @return the command, or -1 if the channel was closed before a request
+	 */
+	static int readCommand(ReadableByteChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+		if (!readFully(channel, buffer)) {
+			if (buffer.position() == 0) {
+				return -1;
+			}
+			throw new EOFException("Connection closed in the middle of a request");
+		}
+		return buffer.getInt(0);
+	}
+
+	static String readString(ReadableByteChannel channel) throws IOException {
+		int length = readInt(channel);
+		if (length < 0 || length > MAX_STRING_LENGTH) {
+			throw new IOException("Invalid string length " + length);
+		}
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		if (!readFully(channel, bytes)) {
+			throw new EOFException("Connection closed in the middle of a string");
+		}
+		return new String(bytes.array(), StandardCharsets.UTF_8);
+	}
+
+	private static int readInt(ReadableByteChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+		if (!readFully(channel, buffer)) {
+			throw new EOFException("Connection closed");
+		}
+		return buffer.getInt(0);
+	}
+
+	private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.hash;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * One output column of a {@link HashAggregation}: a function applied to an
+ * input column, identified by its position in the columns passed to
+ * {@link HashAggregation#add}.
+ *
+ * Integer inputs are aggregated into BigInt results and floating point inputs
+ * into Float8 results; counts are BigInt.
+ */
+public final class Aggregate {
+
+	private final String name;
+	private final AggregateFunction function;
+	private final int column;
+
+	private Aggregate(String name, AggregateFunction function, int column) {
+		if (column < 0 && function != AggregateFunction.COUNT) {
+			throw new IllegalArgumentException("Column index must not be negative, got " + column);
+		}
+		this.name = name;
+		this.function = function;
+		this.column = column;
+	}
+
+	public static Aggregate sum(String name, int column) {
+		return new Aggregate(name, AggregateFunction.SUM, column);
+	}
+
+	public static Aggregate min(String name, int column) {
+		return new Aggregate(name, AggregateFunction.MIN, column);
+	}
+
+	public static Aggregate max(String name, int column) {
+		return new Aggregate(name, AggregateFunction.MAX, column);
+	}
+
+	/**
+	 * Counts the rows of every group; no input column is read.
+	 */
+	public static Aggregate count(String name) {
+		return new Aggregate(name, AggregateFunction.COUNT, -1);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public AggregateFunction getFunction() {
+		return function;
+	}
+
+	/**
+	 * @return index of the input column, -1 for counts
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return the type of the result column for the given input type
+	 */
+	public FixedWidthType resultType(FixedWidthType inputType) {
+		if (function == AggregateFunction.COUNT) {
+			return FixedWidthType.BIGINT;
+		}
+		return inputType == FixedWidthType.FLOAT4 || inputType == FixedWidthType.FLOAT8 ? FixedWidthType.FLOAT8
+				: FixedWidthType.BIGINT;
+	}
+
+	@Override
+	public String toString() {
+		return name + "=" + function + (column < 0 ? "" : "(" + column + ")");
+	}
+}
@@ -0,0 +1,363 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.hash;
+
+import static io.netty.util.internal.PlatformDependent.copyMemory;
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * GROUP BY over an IntVector or BigIntVector key column, computing sums,
+ * counts, minimums and maximums of other columns per distinct key. Batches
+ * are added one after the other and the groups accumulate across them.
+ *
+ * Keys are mapped to dense group ids by a {@link LongHashTable}, and every
+ * aggregate keeps one 8 byte accumulator per group in allocator memory (a long
+ * for integer inputs and counts, a double for floating point inputs), so no
+ * key or value is ever boxed. Each batch is processed in two passes: the first
+ * resolves the group id of every row, the second runs one tight loop per
+ * aggregate over the ids. Floating point minimums and maximums propagate NaN
+ * like Math.min and Math.max.
+ *
+ * Not thread safe.
+ */
+public final class HashAggregation implements AutoCloseable {
+
+	/** Name of the key column in the result. */
+	public static final String KEY_NAME = "key";
+
+	private static final int ACCUMULATOR_WIDTH = 8;
+
+	private final BufferAllocator allocator;
+	private final FixedWidthType keyType;
+	private final List<Aggregate> aggregates;
+	private final FixedWidthType[] inputTypes;
+	private final LongHashTable table;
+	private final ArrowBuf[] accumulators;
+	private int accumulatorCapacity;
+	private ArrowBuf groupIds;
+
+	public HashAggregation(BufferAllocator allocator, FixedWidthType keyType, List<Aggregate> aggregates) {
+		if (keyType != FixedWidthType.INT && keyType != FixedWidthType.BIGINT) {
+			throw new IllegalArgumentException("Keys must be INT or BIGINT, got " + keyType);
+		}
+		this.allocator = allocator;
+		this.keyType = keyType;
+		this.aggregates = new ArrayList<>(aggregates);
+		this.inputTypes = new FixedWidthType[aggregates.size()];
+		this.accumulators = new ArrowBuf[aggregates.size()];
+		for (int a = 0; a < accumulators.length; a++) {
+			accumulators[a] = allocator.getEmpty();
+		}
+		this.groupIds = allocator.getEmpty();
+		this.table = new LongHashTable(allocator, 1024);
+	}
+
+	/**
+	 * Adds the rows of a batch; the aggregates refer to its columns.
+	 */
+	public void add(ColumnBatch batch, int keyColumn) {
+		add(batch.getColumn(keyColumn), batch.getColumns());
+	}
+
+	/**
+	 * Adds the rows of the key vector. The aggregates refer to the given
+	 * columns by position, and every column they read must hold as many values
+	 * as the key vector.
+	 */
+	public void add(BaseDataValueVector keys, List<? extends BaseDataValueVector> columns) {
+		if (FixedWidthType.of(keys) != keyType) {
+			throw new IllegalArgumentException("Expected " + keyType + " keys, got " + FixedWidthType.of(keys));
+		}
+		int rows = keys.getAccessor().getValueCount();
+		for (int a = 0; a < inputTypes.length; a++) {
+			Aggregate aggregate = aggregates.get(a);
+			if (aggregate.getFunction() == AggregateFunction.COUNT) {
+				continue;
+			}
+			BaseDataValueVector column = columns.get(aggregate.getColumn());
+			FixedWidthType type = FixedWidthType.of(column);
+			if (inputTypes[a] == null) {
+				inputTypes[a] = type;
+			} else if (inputTypes[a] != type) {
+				throw new IllegalArgumentException(
+						"Aggregate " + aggregate + " was fed " + inputTypes[a] + " values, got " + type);
+			}
+			if (column.getAccessor().getValueCount() != rows) {
+				throw new IllegalArgumentException("Column " + aggregate.getColumn() + " has "
+						+ column.getAccessor().getValueCount() + " values, expected " + rows);
+			}
+		}
+
+		int previousGroups = table.size();
+		resolveGroups(keys, rows);
+		ensureAccumulators(previousGroups, table.size());
+
+		long ids = groupIds.memoryAddress();
+		for (int a = 0; a < inputTypes.length; a++) {
+			Aggregate aggregate = aggregates.get(a);
+			long accumulator = accumulators[a].memoryAddress();
+			if (aggregate.getFunction() == AggregateFunction.COUNT) {
+				count(accumulator, ids, rows);
+				continue;
+			}
+			long address = columns.get(aggregate.getColumn()).getBuffer().memoryAddress();
+			int width = inputTypes[a].getWidth();
+			boolean floating = isFloatingPoint(inputTypes[a]);
+			switch (aggregate.getFunction()) {
+			case SUM:
+				if (floating) {
+					sumDoubles(accumulator, ids, address, width, rows);
+				} else {
+					sumLongs(accumulator, ids, address, width, rows);
+				}
+				break;
+			case MIN:
+				if (floating) {
+					minDoubles(accumulator, ids, address, width, rows);
+				} else {
+					minLongs(accumulator, ids, address, width, rows);
+				}
+				break;
+			case MAX:
+				if (floating) {
+					maxDoubles(accumulator, ids, address, width, rows);
+				} else {
+					maxLongs(accumulator, ids, address, width, rows);
+				}
+				break;
+			default:
+				throw new IllegalStateException("Unsupported aggregate " + aggregate);
+			}
+		}
+	}
+
+	public int getGroupCount() {
+		return table.size();
+	}
+
+	/**
+	 * @return one row per group in the order the keys were first seen: the
+	 *         key column named {@link #KEY_NAME} followed by one column per
+	 *         aggregate
+	 */
+	public ColumnBatch getResult(BufferAllocator resultAllocator) {
+		int groups = table.size();
+		List<Field> fields = new ArrayList<>(aggregates.size() + 1);
+		List<BaseDataValueVector> columns = new ArrayList<>(aggregates.size() + 1);
+		try {
+			fields.add(keyType.toField(KEY_NAME));
+			BaseDataValueVector keys = keyType.allocateVector(KEY_NAME, resultAllocator, groups);
+			columns.add(keys);
+			long keyAddress = table.getKeys().memoryAddress();
+			long target = keys.getBuffer().memoryAddress();
+			if (keyType == FixedWidthType.INT) {
+				for (int g = 0; g < groups; g++) {
+					putInt(target + ((long) g << 2), (int) getLong(keyAddress + ((long) g << 3)));
+				}
+			} else {
+				copyMemory(keyAddress, target, (long) groups << 3);
+			}
+			keys.getMutator().setValueCount(groups);
+
+			for (int a = 0; a < aggregates.size(); a++) {
+				Aggregate aggregate = aggregates.get(a);
+				FixedWidthType type = aggregate.resultType(inputTypes[a]);
+				fields.add(type.toField(aggregate.getName()));
+				BaseDataValueVector result = type.allocateVector(aggregate.getName(), resultAllocator, groups);
+				columns.add(result);
+				copyMemory(accumulators[a].memoryAddress(), result.getBuffer().memoryAddress(),
+						(long) groups * ACCUMULATOR_WIDTH);
+				result.getMutator().setValueCount(groups);
+			}
+			return new ColumnBatch(new Schema(fields), columns);
+		} catch (RuntimeException e) {
+			for (BaseDataValueVector column : columns) {
+				column.close();
+			}
+			throw e;
+		}
+	}
+
+	private void resolveGroups(BaseDataValueVector keys, int rows) {
+		if (groupIds.capacity() < rows * 4) {
+			ArrowBuf grown = allocator.buffer(rows * 4);
+			groupIds.release();
+			groupIds = grown;
+		}
+		long address = keys.getBuffer().memoryAddress();
+		long ids = groupIds.memoryAddress();
+		if (keyType == FixedWidthType.INT) {
+			for (int i = 0; i < rows; i++) {
+				putInt(ids + ((long) i << 2), table.add(getInt(address + ((long) i << 2))));
+			}
+		} else {
+			for (int i = 0; i < rows; i++) {
+				putInt(ids + ((long) i << 2), table.add(getLong(address + ((long) i << 3))));
+			}
+		}
+	}
+
+	/**
+	 * Makes room for the groups and initializes the accumulators of the new
+	 * ones, [from, to).
+	 */
+	private void ensureAccumulators(int from, int to) {
+		if (to > accumulatorCapacity) {
+			int capacity = Math.max(1024, accumulatorCapacity);
+			while (capacity < to) {
+				capacity <<= 1;
+			}
+			for (int a = 0; a < accumulators.length; a++) {
+				ArrowBuf grown = allocator.buffer(capacity * ACCUMULATOR_WIDTH);
+				copyMemory(accumulators[a].memoryAddress(), grown.memoryAddress(), (long) from * ACCUMULATOR_WIDTH);
+				accumulators[a].release();
+				accumulators[a] = grown;
+			}
+			accumulatorCapacity = capacity;
+		}
+		for (int a = 0; a < accumulators.length; a++) {
+			long initial = initialValue(aggregates.get(a).getFunction(), isFloatingPoint(inputTypes[a]));
+			long address = accumulators[a].memoryAddress();
+			for (int g = from; g < to; g++) {
+				putLong(address + ((long) g << 3), initial);
+			}
+		}
+	}
+
+	private static long initialValue(AggregateFunction function, boolean floating) {
+		switch (function) {
+		case MIN:
+			return floating ? Double.doubleToRawLongBits(Double.POSITIVE_INFINITY) : Long.MAX_VALUE;
+		case MAX:
+			return floating ? Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY) : Long.MIN_VALUE;
+		default:
+			// the bits of 0L and 0.0 are the same
+			return 0;
+		}
+	}
+
+	private static boolean isFloatingPoint(FixedWidthType type) {
+		return type == FixedWidthType.FLOAT4 || type == FixedWidthType.FLOAT8;
+	}
+
+	/*
+	 * Accumulator loops. The group id of row i is at ids + 4 * i, the
+	 * accumulator of group g at accumulator + 8 * g.
+	 */
+
+	private static void count(long accumulator, long ids, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long slot = accumulator + ((long) getInt(ids + ((long) i << 2)) << 3);
+			putLong(slot, getLong(slot) + 1);
+		}
+	}
+
+	private static void sumLongs(long accumulator, long ids, long address, int width, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long slot = accumulator + ((long) getInt(ids + ((long) i << 2)) << 3);
+			putLong(slot, getLong(slot) + readLong(address, i, width));
+		}
+	}
+
+	private static void minLongs(long accumulator, long ids, long address, int width, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long slot = accumulator + ((long) getInt(ids + ((long) i << 2)) << 3);
+			putLong(slot, Math.min(getLong(slot), readLong(address, i, width)));
+		}
+	}
+
+	private static void maxLongs(long accumulator, long ids, long address, int width, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long slot = accumulator + ((long) getInt(ids + ((long) i << 2)) << 3);
+			putLong(slot, Math.max(getLong(slot), readLong(address, i, width)));
+		}
+	}
+
+	private static void sumDoubles(long accumulator, long ids, long address, int width, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long slot = accumulator + ((long) getInt(ids + ((long) i << 2)) << 3);
+			putDouble(slot, getDouble(slot) + readDouble(address, i, width));
+		}
+	}
+
+	private static void minDoubles(long accumulator, long ids, long address, int width, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long slot = accumulator + ((long) getInt(ids + ((long) i << 2)) << 3);
+			putDouble(slot, Math.min(getDouble(slot), readDouble(address, i, width)));
+		}
+	}
+
+	private static void maxDoubles(long accumulator, long ids, long address, int width, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long slot = accumulator + ((long) getInt(ids + ((long) i << 2)) << 3);
+			putDouble(slot, Math.max(getDouble(slot), readDouble(address, i, width)));
+		}
+	}
+
+	private static long readLong(long address, int index, int width) {
+		switch (width) {
+		case 2:
+			return getShort(address + ((long) index << 1));
+		case 4:
+			return getInt(address + ((long) index << 2));
+		default:
+			return getLong(address + ((long) index << 3));
+		}
+	}
+
+	private static double readDouble(long address, int index, int width) {
+		return width == 4 ? Float.intBitsToFloat(getInt(address + ((long) index << 2)))
+				: Double.longBitsToDouble(getLong(address + ((long) index << 3)));
+	}
+
+	private static double getDouble(long address) {
+		return Double.longBitsToDouble(getLong(address));
+	}
+
+	private static void putDouble(long address, double value) {
+		putLong(address, Double.doubleToRawLongBits(value));
+	}
+
+	@Override
+	public void close() {
+		for (int a = 0; a < accumulators.length; a++) {
+			accumulators[a].release();
+			accumulators[a] = allocator.getEmpty();
+		}
+		accumulatorCapacity = 0;
+		groupIds.release();
+		groupIds = allocator.getEmpty();
+		table.close();
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.hash;
+
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.putInt;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Inner equi-join on an IntVector or BigIntVector key. The build side is
+ * hashed once into a {@link LongHashTable}; rows sharing a key are chained
+ * through an off-heap next array, in ascending row order. Probe batches are
+ * then streamed through {@link #probe}, which emits the matching rows as two
+ * selection vectors of equal length, ready to be fed to
+ * {@link my.org.apache.arrow.samples.kernels.BulkCopy#gather} for the payload
+ * columns of each side.
+ *
+ * Probing runs two passes over the batch: the first looks up every key and
+ * counts the matches, so the selection vectors are sized exactly once, the
+ * second writes the pairs. The probe indices come out in ascending order, the
+ * build indices in key chain order.
+ *
+ * The build vector is read only while the constructor runs. Not thread safe.
+ */
+public final class HashJoin implements AutoCloseable {
+
+	private final BufferAllocator allocator;
+	private final FixedWidthType keyType;
+	private final LongHashTable table;
+	private final int buildRows;
+	/** First build row + 1 of every key, 0 ending a chain. */
+	private ArrowBuf heads;
+	/** Next build row + 1 with the same key, by build row. */
+	private ArrowBuf next;
+	/** Number of build rows of every key. */
+	private ArrowBuf counts;
+	/** Key id of every probe row, -1 for no match. */
+	private ArrowBuf probeIds;
+
+	public HashJoin(BufferAllocator allocator, BaseDataValueVector buildKeys) {
+		this.allocator = allocator;
+		this.keyType = FixedWidthType.of(buildKeys);
+		if (keyType != FixedWidthType.INT && keyType != FixedWidthType.BIGINT) {
+			throw new IllegalArgumentException("Keys must be INT or BIGINT, got " + keyType);
+		}
+		this.buildRows = buildKeys.getAccessor().getValueCount();
+		this.table = new LongHashTable(allocator, buildRows);
+		this.heads = allocator.getEmpty();
+		this.next = allocator.getEmpty();
+		this.counts = allocator.getEmpty();
+		this.probeIds = allocator.getEmpty();
+		try {
+			build(buildKeys);
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	private void build(BaseDataValueVector buildKeys) {
+		next = allocator.buffer(Math.max(buildRows, 1) * 4);
+		long keyAddress = buildKeys.getBuffer().memoryAddress();
+		long nextAddress = next.memoryAddress();
+		for (int row = 0; row < buildRows; row++) {
+			putInt(nextAddress + ((long) row << 2), table.add(readKey(keyAddress, row)));
+		}
+
+		int keys = Math.max(table.size(), 1);
+		heads = allocator.buffer(keys * 4);
+		heads.setZero(0, keys * 4);
+		counts = allocator.buffer(keys * 4);
+		counts.setZero(0, keys * 4);
+		long headAddress = heads.memoryAddress();
+		long countAddress = counts.memoryAddress();
+		// walk backwards so every chain ends up in ascending row order; the
+		// key id stored for the row is replaced by the link to the next row
+		for (int row = buildRows - 1; row >= 0; row--) {
+			long id = getInt(nextAddress + ((long) row << 2));
+			putInt(nextAddress + ((long) row << 2), getInt(headAddress + (id << 2)));
+			putInt(headAddress + (id << 2), row + 1);
+			putInt(countAddress + (id << 2), getInt(countAddress + (id << 2)) + 1);
+		}
+	}
+
+	public FixedWidthType getKeyType() {
+		return keyType;
+	}
+
+	public int getBuildRowCount() {
+		return buildRows;
+	}
+
+	/**
+	 * @return number of distinct build keys
+	 */
+	public int getKeyCount() {
+		return table.size();
+	}
+
+	/**
+	 * Matches every row of the probe batch against the build side. For each
+	 * pair i, probe row {@code probeIndices.getIndex(i)} has the same key as
+	 * build row {@code buildIndices.getIndex(i)}.
+	 *
+	 * @return number of pairs written
+	 */
+	public int probe(BaseDataValueVector probeKeys, SelectionVector probeIndices, SelectionVector buildIndices) {
+		if (FixedWidthType.of(probeKeys) != keyType) {
+			throw new IllegalArgumentException(
+					"Expected " + keyType + " probe keys, got " + FixedWidthType.of(probeKeys));
+		}
+		int rows = probeKeys.getAccessor().getValueCount();
+		if (probeIds.capacity() < rows * 4) {
+			ArrowBuf grown = allocator.buffer(rows * 4);
+			probeIds.release();
+			probeIds = grown;
+		}
+		long keyAddress = probeKeys.getBuffer().memoryAddress();
+		long idAddress = probeIds.memoryAddress();
+		long countAddress = counts.memoryAddress();
+		long pairs = 0;
+		for (int i = 0; i < rows; i++) {
+			int id = table.find(readKey(keyAddress, i));
+			putInt(idAddress + ((long) i << 2), id);
+			pairs += id < 0 ? 0 : getInt(countAddress + ((long) id << 2));
+		}
+		if (pairs > Integer.MAX_VALUE / SelectionVector.INDEX_WIDTH) {
+			throw new IllegalStateException("Probe batch produces " + pairs + " pairs, split it");
+		}
+
+		int count = (int) pairs;
+		probeIndices.ensureCapacity(count);
+		buildIndices.ensureCapacity(count);
+		long probeOut = probeIndices.getBuffer().memoryAddress();
+		long buildOut = buildIndices.getBuffer().memoryAddress();
+		long headAddress = heads.memoryAddress();
+		long nextAddress = next.memoryAddress();
+		int written = 0;
+		for (int i = 0; i < rows; i++) {
+			int id = getInt(idAddress + ((long) i << 2));
+			if (id < 0) {
+				continue;
+			}
+			int row = getInt(headAddress + ((long) id << 2));
+			while (row != 0) {
+				putInt(probeOut + ((long) written << 2), i);
+				putInt(buildOut + ((long) written << 2), row - 1);
+				written++;
+				row = getInt(nextAddress + ((long) (row - 1) << 2));
+			}
+		}
+		probeIndices.setCount(written);
+		buildIndices.setCount(written);
+		return written;
+	}
+
+	private long readKey(long address, int row) {
+		return keyType == FixedWidthType.INT ? getInt(address + ((long) row << 2))
+				: getLong(address + ((long) row << 3));
+	}
+
+	@Override
+	public void close() {
+		table.close();
+		heads.release();
+		next.release();
+		counts.release();
+		probeIds.release();
+		heads = next = counts = probeIds = allocator.getEmpty();
+	}
+}
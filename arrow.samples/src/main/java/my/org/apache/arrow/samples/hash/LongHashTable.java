@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.hash;
+
+import static io.netty.util.internal.PlatformDependent.copyMemory;
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Open addressing hash table assigning dense ids 0, 1, 2, ... to distinct
+ * long keys, in the order they are first added. Everything lives in allocator
+ * memory: a slot array of 16 byte entries (key, id + 1, padding) probed
+ * linearly, so a lookup usually touches a single cache line, and a dense
+ * array of the keys by id.
+ *
+ * The table is kept at most half full and doubles when it gets fuller, up to
+ * 2^25 keys. Keys cannot be removed. Not thread safe.
+ */
+public final class LongHashTable implements AutoCloseable {
+
+	private static final int SLOT_WIDTH = 16;
+	/** Largest slot array whose size still fits in an int. */
+	private static final int MAX_CAPACITY = 1 << 26;
+
+	private final BufferAllocator allocator;
+	private ArrowBuf slots;
+	private ArrowBuf keys;
+	private int capacity;
+	private int mask;
+	private int size;
+
+	public LongHashTable(BufferAllocator allocator, int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Expected size must not be negative, got " + expectedSize);
+		}
+		this.allocator = allocator;
+		this.keys = allocator.getEmpty();
+		this.slots = allocator.getEmpty();
+		int initialCapacity = 16;
+		while (initialCapacity < MAX_CAPACITY && initialCapacity < expectedSize * 2L) {
+			initialCapacity <<= 1;
+		}
+		allocateSlots(initialCapacity);
+		growKeys(Math.min(Math.max(expectedSize, 16), MAX_CAPACITY / 2));
+	}
+
+	/**
+	 * @return number of distinct keys
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the id of the key, a new id equal to the previous size() if the
+	 *         key was not present
+	 */
+	public int add(long key) {
+		long address = slots.memoryAddress();
+		int slot = (int) Hashing.mix(key) & mask;
+		while (true) {
+			long entry = address + (long) slot * SLOT_WIDTH;
+			int id = getInt(entry + 8) - 1;
+			if (id < 0) {
+				return insert(entry, key);
+			}
+			if (getLong(entry) == key) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * @return the id of the key, or -1 if it was never added
+	 */
+	public int find(long key) {
+		long address = slots.memoryAddress();
+		int slot = (int) Hashing.mix(key) & mask;
+		while (true) {
+			long entry = address + (long) slot * SLOT_WIDTH;
+			int id = getInt(entry + 8) - 1;
+			if (id < 0 || getLong(entry) == key) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	public long getKey(int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("Id " + id + " is outside of [0, " + size + ")");
+		}
+		return getLong(keys.memoryAddress() + ((long) id << 3));
+	}
+
+	/**
+	 * @return buffer holding the keys by id; only the first size() * 8 bytes
+	 *         are valid and it is replaced when the table grows
+	 */
+	public ArrowBuf getKeys() {
+		return keys;
+	}
+
+	private int insert(long entry, long key) {
+		int id = size;
+		if (id == MAX_CAPACITY / 2) {
+			throw new IllegalStateException("Hash table is full");
+		}
+		putLong(entry, key);
+		putInt(entry + 8, id + 1);
+		if (((long) id + 1) << 3 > keys.capacity()) {
+			growKeys(Math.max(16, id * 2));
+		}
+		putLong(keys.memoryAddress() + ((long) id << 3), key);
+		size++;
+		if (size * 2L > capacity) {
+			rehash(capacity * 2);
+		}
+		return id;
+	}
+
+	private void allocateSlots(int newCapacity) {
+		ArrowBuf newSlots = allocator.buffer(newCapacity * SLOT_WIDTH);
+		newSlots.setZero(0, newSlots.capacity());
+		slots.release();
+		slots = newSlots;
+		capacity = newCapacity;
+		mask = newCapacity - 1;
+	}
+
+	private void growKeys(int newCapacity) {
+		ArrowBuf newKeys = allocator.buffer(newCapacity * 8);
+		copyMemory(keys.memoryAddress(), newKeys.memoryAddress(), (long) size << 3);
+		keys.release();
+		keys = newKeys;
+	}
+
+	/**
+	 * Re-inserts every key into a larger slot array, walking the dense key
+	 * array so the ids stay the same.
+	 */
+	private void rehash(int newCapacity) {
+		allocateSlots(newCapacity);
+		long address = slots.memoryAddress();
+		long keyAddress = keys.memoryAddress();
+		for (int id = 0; id < size; id++) {
+			long key = getLong(keyAddress + ((long) id << 3));
+			int slot = (int) Hashing.mix(key) & mask;
+			while (getInt(address + (long) slot * SLOT_WIDTH + 8) != 0) {
+				slot = (slot + 1) & mask;
+			}
+			putLong(address + (long) slot * SLOT_WIDTH, key);
+			putInt(address + (long) slot * SLOT_WIDTH + 8, id + 1);
+		}
+	}
+
+	@Override
+	public void close() {
+		slots.release();
+		keys.release();
+		slots = allocator.getEmpty();
+		keys = allocator.getEmpty();
+		size = 0;
+	}
+}
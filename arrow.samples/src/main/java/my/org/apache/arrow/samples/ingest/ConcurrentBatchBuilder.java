@@ -0,0 +1,321 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.ingest;
+
+import static io.netty.util.internal.PlatformDependent.copyMemory;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+import static io.netty.util.internal.PlatformDependent.putShort;
+import static io.netty.util.internal.PlatformDependent.setMemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Builds a batch from many producer threads without locks. A producer
+ * reserves a range of rows with {@link #reserve(int)}, writes the values of
+ * every column with the set methods and then calls {@link #commit(int)};
+ * {@link #seal()} turns the rows into a regular {@link ColumnBatch}.
+ *
+ * Rows are stored in chunks of a fixed number of rows, one zeroed off-heap
+ * buffer per column, allocated the first time a row of the chunk is written. Chunks never
+ * move, so there is nothing like reAlloc to coordinate: reservations are a
+ * compare-and-set on one counter, chunk allocation a compare-and-set on its
+ * slot, and writes go straight to memory. The commit counter publishes the
+ * writes to the sealing thread.
+ *
+ * Every reserved row must be committed exactly once, and nothing may be
+ * written after its commit. A producer that fails before writing its rows
+ * gives them up with {@link #abort(int, int)}, which commits them as zeros;
+ * otherwise {@link #seal()} waits for them forever.
+ */
+public final class ConcurrentBatchBuilder implements AutoCloseable {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private final BufferAllocator allocator;
+	private final Schema schema;
+	private final FixedWidthType[] types;
+	private final int capacity;
+	private final int chunkShift;
+	private final int chunkMask;
+	private final AtomicReferenceArray<ArrowBuf[]> chunks;
+	/** rows reserved so far, or -1 - rows once sealed */
+	private final AtomicInteger reserved = new AtomicInteger();
+	private final AtomicInteger committed = new AtomicInteger();
+
+	public ConcurrentBatchBuilder(BufferAllocator allocator, Schema schema, int capacity) {
+		this(allocator, schema, capacity, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param capacity maximum number of rows
+	 * @param chunkSize rows per chunk, a power of two
+	 */
+	public ConcurrentBatchBuilder(BufferAllocator allocator, Schema schema, int capacity, int chunkSize) {
+		if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1) {
+			throw new IllegalArgumentException("Chunk size must be a power of two: " + chunkSize);
+		}
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity " + capacity);
+		}
+		List<Field> fields = schema.getFields();
+		this.types = new FixedWidthType[fields.size()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = FixedWidthType.of(fields.get(i).getType());
+		}
+		this.allocator = allocator;
+		this.schema = schema;
+		this.capacity = capacity;
+		this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+		this.chunkMask = chunkSize - 1;
+		this.chunks = new AtomicReferenceArray<>((int) (((long) capacity + chunkSize - 1) >>> chunkShift));
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Reserves count rows for the calling thread.
+	 *
+	 * @return index of the first reserved row
+	 * @throws IllegalStateException if the builder is sealed or the rows would
+	 *         exceed its capacity
+	 */
+	public int reserve(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Negative row count " + count);
+		}
+		while (true) {
+			int current = reserved.get();
+			if (current < 0) {
+				throw new IllegalStateException("Builder is sealed");
+			}
+			if (count > capacity - current) {
+				throw new IllegalStateException(
+						"Cannot reserve " + count + " rows, " + (capacity - current) + " of " + capacity + " left");
+			}
+			if (reserved.compareAndSet(current, current + count)) {
+				return current;
+			}
+		}
+	}
+
+	/**
+	 * Marks count reserved rows as written.
+	 */
+	public void commit(int count) {
+		committed.addAndGet(count);
+	}
+
+	/**
+	 * Gives up count rows reserved from first, for instance when the producer
+	 * fails before writing all of them: the rows are zeroed and committed.
+	 */
+	public void abort(int first, int count) {
+		if (first < 0 || count < 0 || count > capacity - first) {
+			throw new IndexOutOfBoundsException(
+					"Rows [" + first + ", " + first + " + " + count + ") are outside of a builder for " + capacity + " rows");
+		}
+		int end = first + count;
+		for (int row = first; row < end;) {
+			int length = Math.min(end - row, chunkMask + 1 - (row & chunkMask));
+			// a chunk that was never allocated holds no written row
+			ArrowBuf[] chunk = chunks.get(row >>> chunkShift);
+			if (chunk != null) {
+				for (int c = 0; c < types.length; c++) {
+					int width = types[c].getWidth();
+					setMemory(chunk[c].memoryAddress() + (long) (row & chunkMask) * width, (long) length * width,
+							(byte) 0);
+				}
+			}
+			row += length;
+		}
+		commit(count);
+	}
+
+	public void setShort(int column, int row, short value) {
+		putShort(address(column, row, FixedWidthType.SMALLINT), value);
+	}
+
+	public void setInt(int column, int row, int value) {
+		putInt(address(column, row, FixedWidthType.INT), value);
+	}
+
+	public void setLong(int column, int row, long value) {
+		putLong(address(column, row, FixedWidthType.BIGINT), value);
+	}
+
+	public void setFloat(int column, int row, float value) {
+		putInt(address(column, row, FixedWidthType.FLOAT4), Float.floatToRawIntBits(value));
+	}
+
+	public void setDouble(int column, int row, double value) {
+		putLong(address(column, row, FixedWidthType.FLOAT8), Double.doubleToRawLongBits(value));
+	}
+
+	private long address(int column, int row, FixedWidthType type) {
+		if (types[column] != type) {
+			throw new IllegalArgumentException("Column " + column + " holds " + types[column] + " values, not " + type);
+		}
+		if (row < 0 || row >= capacity) {
+			throw new IndexOutOfBoundsException("Row " + row + " is outside of a builder for " + capacity + " rows");
+		}
+		ArrowBuf[] chunk = chunks.get(row >>> chunkShift);
+		if (chunk == null) {
+			chunk = allocateChunk(row >>> chunkShift);
+		}
+		return chunk[column].memoryAddress() + (long) (row & chunkMask) * type.getWidth();
+	}
+
+	private ArrowBuf[] allocateChunk(int index) {
+		ArrowBuf[] chunk = new ArrowBuf[types.length];
+		try {
+			for (int i = 0; i < types.length; i++) {
+				chunk[i] = allocator.buffer((chunkMask + 1) * types[i].getWidth());
+				// rows that are aborted after the chunk exists read as zeros
+				chunk[i].setZero(0, chunk[i].capacity());
+			}
+		} catch (RuntimeException e) {
+			release(chunk);
+			throw e;
+		}
+		if (chunks.compareAndSet(index, null, chunk)) {
+			return chunk;
+		}
+		// another producer installed the chunk first
+		release(chunk);
+		return chunks.get(index);
+	}
+
+	public int getReservedCount() {
+		int current = reserved.get();
+		return current < 0 ? -1 - current : current;
+	}
+
+	public int getCommittedCount() {
+		return committed.get();
+	}
+
+	public boolean isSealed() {
+		return reserved.get() < 0;
+	}
+
+	/**
+	 * Stops new reservations, waits until every reserved row is committed or
+	 * aborted and copies the chunks into vectors allocated from the builder
+	 * allocator.
+	 * The chunks are released, so the builder can only be sealed once.
+	 *
+	 * @return the rows, in reservation order; owned by the caller
+	 */
+	public ColumnBatch seal() throws InterruptedException {
+		int rows;
+		while (true) {
+			int current = reserved.get();
+			if (current < 0) {
+				throw new IllegalStateException("Builder is already sealed");
+			}
+			if (reserved.compareAndSet(current, -1 - current)) {
+				rows = current;
+				break;
+			}
+		}
+		while (committed.get() < rows) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			Thread.yield();
+		}
+
+		List<Field> fields = schema.getFields();
+		List<BaseDataValueVector> columns = new ArrayList<>(types.length);
+		try {
+			for (int c = 0; c < types.length; c++) {
+				BaseDataValueVector vector = types[c].allocateVector(fields.get(c).getName(), allocator, rows);
+				columns.add(vector);
+				long target = vector.getBuffer().memoryAddress();
+				int width = types[c].getWidth();
+				for (int start = 0; start < rows; start += chunkMask + 1) {
+					int length = Math.min(rows - start, chunkMask + 1);
+					ArrowBuf[] chunk = chunks.get(start >>> chunkShift);
+					if (chunk == null) {
+						// only aborted rows, never written
+						setMemory(target + (long) start * width, (long) length * width, (byte) 0);
+					} else {
+						copyMemory(chunk[c].memoryAddress(), target + (long) start * width, (long) length * width);
+					}
+				}
+				vector.getMutator().setValueCount(rows);
+			}
+		} catch (RuntimeException e) {
+			for (BaseDataValueVector column : columns) {
+				column.close();
+			}
+			throw e;
+		} finally {
+			releaseChunks();
+		}
+		return new ColumnBatch(schema, columns);
+	}
+
+	private void releaseChunks() {
+		for (int i = 0; i < chunks.length(); i++) {
+			release(chunks.getAndSet(i, null));
+		}
+	}
+
+	private static void release(ArrowBuf[] chunk) {
+		if (chunk != null) {
+			for (ArrowBuf buffer : chunk) {
+				if (buffer != null) {
+					buffer.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Seals the builder if needed and releases the chunks, discarding the
+	 * rows. Producers must be done writing.
+	 */
+	@Override
+	public void close() {
+		int current = reserved.get();
+		while (current >= 0 && !reserved.compareAndSet(current, -1 - current)) {
+			current = reserved.get();
+		}
+		releaseChunks();
+	}
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.ipc;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.file.ArrowBlock;
+import org.apache.arrow.vector.file.ArrowFooter;
+import org.apache.arrow.vector.file.ArrowMagic;
+import org.apache.arrow.vector.file.WriteChannel;
+import org.apache.arrow.vector.schema.ArrowFieldNode;
+import org.apache.arrow.vector.schema.ArrowRecordBatch;
+import org.apache.arrow.vector.stream.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.stats.ZoneMapIndex;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+
+/**
+ * Writes column batches in the Arrow file format: magic, schema message, one
+ * record batch message per batch and the footer indexing them. The output can
+ * be read by {@link MappedColumnFileReader} as well as by the regular
+ * ArrowFileReader.
+ *
+ * The vectors are written directly, without going through a
+ * VectorSchemaRoot: the data buffer of every column is sliced to its value
+ * count and emitted together with an empty validity buffer, since the sample
+ * vectors never hold nulls.
+ *
+ * When given a chunk size, the writer also computes the {@link ZoneMapIndex}
+ * of the batches and stores it between the last batch and the footer. Its
+ * offset is recorded in the custom metadata of the footer schema, where
+ * {@link MappedColumnFileReader} looks for it and other readers ignore it.
+ */
+public class ColumnFileWriter implements AutoCloseable {
+
+	/** Footer schema metadata holding the offset of the zone maps */
+	static final String ZONE_MAPS_KEY = "my.org.apache.arrow.samples.zonemaps";
+
+	private final WriteChannel out;
+	private final Schema schema;
+	private final List<ArrowBlock> recordBlocks = new ArrayList<>();
+	private final ZoneMapIndex zoneMaps;
+	private boolean started;
+	private boolean ended;
+
+	public ColumnFileWriter(WritableByteChannel channel, Schema schema) {
+		this.out = new WriteChannel(channel);
+		this.schema = schema;
+		this.zoneMaps = null;
+	}
+
+	/**
+	 * @param zoneMapChunkSize rows per chunk of the zone maps stored with the
+	 *        batches
+	 */
+	public ColumnFileWriter(WritableByteChannel channel, Schema schema, int zoneMapChunkSize) {
+		this.out = new WriteChannel(channel);
+		this.schema = schema;
+		this.zoneMaps = new ZoneMapIndex(schema, zoneMapChunkSize);
+	}
+
+	/**
+	 * Creates (or truncates) the file at the given path.
+	 */
+	public static ColumnFileWriter create(Path path, Schema schema) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		return new ColumnFileWriter(channel, schema);
+	}
+
+	/**
+	 * Creates (or truncates) the file at the given path, storing zone maps
+	 * with the batches.
+	 */
+	public static ColumnFileWriter create(Path path, Schema schema, int zoneMapChunkSize) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		return new ColumnFileWriter(channel, schema, zoneMapChunkSize);
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Appends the batch to the file. The batch stays owned by the caller.
+	 */
+	public void writeBatch(ColumnBatch batch) throws IOException {
+		if (!batch.getSchema().equals(schema)) {
+			throw new IllegalArgumentException("Batch schema " + batch.getSchema() + " does not match " + schema);
+		}
+		if (ended) {
+			throw new IllegalStateException("Writer already closed");
+		}
+		ensureStarted();
+		int rowCount = batch.getRowCount();
+		List<ArrowFieldNode> nodes = new ArrayList<>(batch.getColumnCount());
+		List<ArrowBuf> buffers = new ArrayList<>(batch.getColumnCount() * 2);
+		for (int i = 0; i < batch.getColumnCount(); i++) {
+			BaseDataValueVector column = batch.getColumn(i);
+			nodes.add(new ArrowFieldNode(rowCount, 0));
+			buffers.add(column.getAllocator().getEmpty());
+			buffers.add(column.getBuffer().slice(0, rowCount * batch.getType(i).getWidth()));
+		}
+		try (ArrowRecordBatch recordBatch = new ArrowRecordBatch(rowCount, nodes, buffers)) {
+			recordBlocks.add(MessageSerializer.serialize(out, recordBatch));
+		}
+		if (zoneMaps != null) {
+			zoneMaps.addBatch(batch);
+		}
+	}
+
+	/**
+	 * @return the zone maps of the batches written so far, or null if the
+	 *         writer does not store them
+	 */
+	public ZoneMapIndex getZoneMaps() {
+		return zoneMaps;
+	}
+
+	public int getBatchCount() {
+		return recordBlocks.size();
+	}
+
+	public long bytesWritten() {
+		return out.getCurrentPosition();
+	}
+
+	private void ensureStarted() throws IOException {
+		if (!started) {
+			started = true;
+			ArrowMagic.writeMagic(out);
+			MessageSerializer.serialize(out, schema);
+		}
+	}
+
+	/**
+	 * Writes the footer and closes the underlying channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (ended) {
+			return;
+		}
+		ended = true;
+		try {
+			ensureStarted();
+			Schema footerSchema = schema;
+			if (zoneMaps != null) {
+				out.align();
+				Map<String, String> metadata = new HashMap<>(schema.getCustomMetadata());
+				metadata.put(ZONE_MAPS_KEY, Long.toString(out.getCurrentPosition()));
+				footerSchema = new Schema(schema.getFields(), metadata);
+				out.write(zoneMaps.serialize());
+			}
+			long footerStart = out.getCurrentPosition();
+			out.write(new ArrowFooter(footerSchema, new ArrayList<ArrowBlock>(), recordBlocks), false);
+			out.writeIntLittleEndian((int) (out.getCurrentPosition() - footerStart));
+			ArrowMagic.writeMagic(out);
+		} finally {
+			out.close();
+		}
+	}
+}
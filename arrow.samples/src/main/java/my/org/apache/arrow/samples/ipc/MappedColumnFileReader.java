@@ -0,0 +1,244 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.ipc;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.Footer;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.file.ArrowBlock;
+import org.apache.arrow.vector.file.ArrowFooter;
+import org.apache.arrow.vector.file.ArrowMagic;
+import org.apache.arrow.vector.file.InvalidArrowFileException;
+import org.apache.arrow.vector.schema.ArrowFieldNode;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.DirectArrowBufs;
+import my.org.apache.arrow.samples.stats.ZoneMapIndex;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Reads Arrow files of fixed-width columns by memory mapping them. Only the
+ * footer is read eagerly; {@link #readBatch(int, BufferAllocator)} maps the
+ * region of one record batch and wraps the data buffers in place, so opening
+ * a file costs the same regardless of its size and no value is copied into
+ * allocator memory.
+ *
+ * The vectors returned are read-only views of the file: the mapping is
+ * read-only, so writing through their mutators crashes the JVM. The mapped
+ * memory is not accounted by the allocator and is unmapped once the vectors
+ * become unreachable; closing the batch only drops the references. Columns
+ * with nulls are rejected since the sample vectors cannot represent them.
+ *
+ * The {@link ZoneMapIndex} stored by {@link ColumnFileWriter} is read along
+ * with the footer when the footer schema records its offset, to plan scans
+ * that skip batches.
+ */
+public class MappedColumnFileReader implements AutoCloseable {
+
+	private final FileChannel channel;
+	private final ArrowFooter footer;
+	// the footer schema without the zone map offset
+	private final Schema schema;
+	private final ZoneMapIndex zoneMaps;
+
+	private MappedColumnFileReader(FileChannel channel, ArrowFooter footer, Schema schema, ZoneMapIndex zoneMaps) {
+		this.channel = channel;
+		this.footer = footer;
+		this.schema = schema;
+		this.zoneMaps = zoneMaps;
+	}
+
+	public static MappedColumnFileReader open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long footerStart = footerStart(channel);
+			ArrowFooter footer = readFooter(channel, footerStart);
+			Map<String, String> metadata = new HashMap<>(footer.getSchema().getCustomMetadata());
+			String zoneMapOffset = metadata.remove(ColumnFileWriter.ZONE_MAPS_KEY);
+			Schema schema = new Schema(footer.getSchema().getFields(), metadata);
+			if (zoneMapOffset == null) {
+				return new MappedColumnFileReader(channel, footer, schema, null);
+			}
+			long zoneMapStart;
+			try {
+				zoneMapStart = Long.parseLong(zoneMapOffset);
+			} catch (NumberFormatException e) {
+				throw new InvalidArrowFileException("invalid zone map offset: " + zoneMapOffset);
+			}
+			if (zoneMapStart < ArrowMagic.MAGIC_LENGTH || zoneMapStart > footerStart) {
+				throw new InvalidArrowFileException("invalid zone map offset: " + zoneMapStart);
+			}
+			ZoneMapIndex zoneMaps = ZoneMapIndex.read(channel, zoneMapStart, footerStart, schema);
+			if (zoneMaps.getBatchCount() != footer.getRecordBatches().size()) {
+				throw new InvalidArrowFileException("zone maps of " + zoneMaps.getBatchCount() + " batches, expected "
+						+ footer.getRecordBatches().size());
+			}
+			return new MappedColumnFileReader(channel, footer, schema, zoneMaps);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return position of the footer, validated against the file size
+	 */
+	private static long footerStart(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size <= ArrowMagic.MAGIC_LENGTH * 2 + 4) {
+			throw new InvalidArrowFileException("file too small: " + size);
+		}
+		ByteBuffer trailer = readFully(channel, size - 4 - ArrowMagic.MAGIC_LENGTH, 4 + ArrowMagic.MAGIC_LENGTH);
+		byte[] magic = Arrays.copyOfRange(trailer.array(), 4, trailer.capacity());
+		if (!ArrowMagic.validateMagic(magic)) {
+			throw new InvalidArrowFileException("missing magic number");
+		}
+		int footerLength = trailer.order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+		if (footerLength <= 0 || footerLength + ArrowMagic.MAGIC_LENGTH * 2 + 4 > size) {
+			throw new InvalidArrowFileException("invalid footer length: " + footerLength);
+		}
+		return size - 4 - ArrowMagic.MAGIC_LENGTH - footerLength;
+	}
+
+	private static ArrowFooter readFooter(FileChannel channel, long footerStart) throws IOException {
+		int footerLength = (int) (channel.size() - 4 - ArrowMagic.MAGIC_LENGTH - footerStart);
+		ByteBuffer footerBuffer = readFully(channel, footerStart, footerLength);
+		return new ArrowFooter(Footer.getRootAsFooter(footerBuffer));
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public int getBatchCount() {
+		return footer.getRecordBatches().size();
+	}
+
+	public List<ArrowBlock> getRecordBlocks() {
+		return footer.getRecordBatches();
+	}
+
+	/**
+	 * @return the zone maps stored with the batches, or null if the file was
+	 *         written without them
+	 */
+	public ZoneMapIndex getZoneMaps() {
+		return zoneMaps;
+	}
+
+	/**
+	 * Maps the given record batch. The allocator is only used for the
+	 * (empty) vectors of zero-row columns.
+	 */
+	public ColumnBatch readBatch(int index, BufferAllocator allocator) throws IOException {
+		ArrowBlock block = footer.getRecordBatches().get(index);
+		long length = block.getMetadataLength() + block.getBodyLength();
+		MappedByteBuffer region = channel.map(MapMode.READ_ONLY, block.getOffset(), length);
+
+		ByteBuffer metadata = slice(region, 4, block.getMetadataLength() - 4);
+		Message message = Message.getRootAsMessage(metadata);
+		if (message.headerType() != MessageHeader.RecordBatch) {
+			throw new InvalidArrowFileException("Block " + index + " is not a record batch");
+		}
+		RecordBatch recordBatch = (RecordBatch) message.header(new RecordBatch());
+
+		Schema schema = getSchema();
+		List<Field> fields = schema.getFields();
+		if (recordBatch.nodesLength() != fields.size() || recordBatch.buffersLength() != fields.size() * 2) {
+			throw new InvalidArrowFileException("Record batch " + index + " does not match the schema");
+		}
+		List<BaseDataValueVector> columns = new ArrayList<>(fields.size());
+		try {
+			for (int i = 0; i < fields.size(); i++) {
+				Field field = fields.get(i);
+				FixedWidthType type = FixedWidthType.of(field.getType());
+				FieldNode node = recordBatch.nodes(i);
+				if (node.nullCount() != 0) {
+					throw new InvalidArrowFileException("Column " + field.getName() + " contains nulls");
+				}
+				int valueCount = (int) node.length();
+				BaseDataValueVector vector = type.newVector(field.getName(), allocator);
+				columns.add(vector);
+				if (valueCount > 0) {
+					Buffer data = recordBatch.buffers(i * 2 + 1);
+					long dataLength = (long) valueCount * type.getWidth();
+					if (data.length() < dataLength) {
+						throw new InvalidArrowFileException("Column " + field.getName() + " is truncated");
+					}
+					ByteBuffer values = slice(region, block.getMetadataLength() + data.offset(), dataLength);
+					vector.load(new ArrowFieldNode(valueCount, 0), DirectArrowBufs.wrap(values));
+				}
+			}
+			return new ColumnBatch(schema, columns);
+		} catch (RuntimeException e) {
+			for (BaseDataValueVector column : columns) {
+				column.close();
+			}
+			throw e;
+		}
+	}
+
+	private static ByteBuffer slice(ByteBuffer region, long offset, long length) {
+		if (offset < 0 || offset + length > region.capacity()) {
+			throw new IndexOutOfBoundsException("Buffer [" + offset + ", " + (offset + length)
+					+ ") is outside of the record batch");
+		}
+		ByteBuffer duplicate = region.duplicate();
+		duplicate.position((int) offset);
+		duplicate.limit((int) (offset + length));
+		return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
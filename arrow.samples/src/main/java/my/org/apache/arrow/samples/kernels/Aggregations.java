@@ -0,0 +1,1300 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.NullableBigIntVector;
+import org.apache.arrow.vector.NullableFloat4Vector;
+import org.apache.arrow.vector.NullableFloat8Vector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.apache.arrow.vector.SmallIntVector;
+
+import my.org.apache.arrow.samples.dictionary.EncodedColumn;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.vector.ValidityWords;
+
+/**
+ * Aggregations (sum, min, max, mean, count, histogram) over the first
+ * {@code getAccessor().getValueCount()} values of a fixed-width vector.
+ *
+ * The kernels read the data buffer directly through its memory address instead
+ * of calling Accessor.get per element, so there is no bounds check or virtual
+ * call in the inner loop. Sums are accumulated four values at a time into
+ * independent accumulators; for floating point vectors this means the result
+ * can differ in the last bits from a strictly sequential sum.
+ *
+ * The overloads taking a {@link SelectionVector} only aggregate the selected
+ * rows, typically the output of a filter, without copying them first. The
+ * overloads taking a Nullable* vector skip nulls.
+ */
+public final class Aggregations {
+
+	private Aggregations() {
+	}
+
+	/*
+	 * IntVector
+	 */
+
+	public static long sum(IntVector vector) {
+		return sumInts(address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static int min(IntVector vector) {
+		int count = nonEmptyCount(vector, "min");
+		return minInts(address(vector), count);
+	}
+
+	public static int max(IntVector vector) {
+		int count = nonEmptyCount(vector, "max");
+		return maxInts(address(vector), count);
+	}
+
+	public static double mean(IntVector vector) {
+		return mean(sum(vector), count(vector));
+	}
+
+	public static int count(IntVector vector) {
+		return vector.getAccessor().getValueCount();
+	}
+
+	/**
+	 * @return the sum of the selected values
+	 */
+	public static long sum(IntVector vector, SelectionVector selection) {
+		return sumIntsSelected(address(vector), count(vector), selection);
+	}
+
+	public static int min(IntVector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "min");
+		return minIntsSelected(address(vector), count(vector), selection);
+	}
+
+	public static int max(IntVector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "max");
+		return maxIntsSelected(address(vector), count(vector), selection);
+	}
+
+	public static double mean(IntVector vector, SelectionVector selection) {
+		return mean(sum(vector, selection), selection.getCount());
+	}
+
+	public static Histogram histogram(IntVector vector, double lower, double upper, int buckets) {
+		Histogram histogram = new Histogram(lower, upper, buckets);
+		histogramInts(address(vector), count(vector), histogram);
+		return histogram;
+	}
+
+	/*
+	 * BigIntVector
+	 */
+
+	/**
+	 * @return the sum of all values; overflow wraps around like Java long
+	 *         arithmetic
+	 */
+	public static long sum(BigIntVector vector) {
+		return sumLongs(address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static long min(BigIntVector vector) {
+		int count = nonEmptyCount(vector, "min");
+		return minLongs(address(vector), count);
+	}
+
+	public static long max(BigIntVector vector) {
+		int count = nonEmptyCount(vector, "max");
+		return maxLongs(address(vector), count);
+	}
+
+	/**
+	 * @return the mean of all values; unlike {@link #sum(BigIntVector)} it is
+	 *         accumulated in double precision and does not overflow
+	 */
+	public static double mean(BigIntVector vector) {
+		return mean(sumLongsAsDoubles(address(vector), count(vector)), count(vector));
+	}
+
+	public static int count(BigIntVector vector) {
+		return vector.getAccessor().getValueCount();
+	}
+
+	/**
+	 * @return the sum of the selected values
+	 */
+	public static long sum(BigIntVector vector, SelectionVector selection) {
+		return sumLongsSelected(address(vector), count(vector), selection);
+	}
+
+	public static long min(BigIntVector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "min");
+		return minLongsSelected(address(vector), count(vector), selection);
+	}
+
+	public static long max(BigIntVector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "max");
+		return maxLongsSelected(address(vector), count(vector), selection);
+	}
+
+	/**
+	 * @return the mean of the selected values, accumulated in double
+	 *         precision like {@link #mean(BigIntVector)}
+	 */
+	public static double mean(BigIntVector vector, SelectionVector selection) {
+		return mean(sumLongsSelectedAsDoubles(address(vector), count(vector), selection), selection.getCount());
+	}
+
+	public static Histogram histogram(BigIntVector vector, double lower, double upper, int buckets) {
+		Histogram histogram = new Histogram(lower, upper, buckets);
+		histogramLongs(address(vector), count(vector), histogram);
+		return histogram;
+	}
+
+	/*
+	 * SmallIntVector
+	 */
+
+	public static long sum(SmallIntVector vector) {
+		return sumShorts(address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static short min(SmallIntVector vector) {
+		int count = nonEmptyCount(vector, "min");
+		return minShorts(address(vector), count);
+	}
+
+	public static short max(SmallIntVector vector) {
+		int count = nonEmptyCount(vector, "max");
+		return maxShorts(address(vector), count);
+	}
+
+	public static double mean(SmallIntVector vector) {
+		return mean(sum(vector), count(vector));
+	}
+
+	public static int count(SmallIntVector vector) {
+		return vector.getAccessor().getValueCount();
+	}
+
+	/**
+	 * @return the sum of the selected values
+	 */
+	public static long sum(SmallIntVector vector, SelectionVector selection) {
+		return sumShortsSelected(address(vector), count(vector), selection);
+	}
+
+	public static short min(SmallIntVector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "min");
+		return minShortsSelected(address(vector), count(vector), selection);
+	}
+
+	public static short max(SmallIntVector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "max");
+		return maxShortsSelected(address(vector), count(vector), selection);
+	}
+
+	public static double mean(SmallIntVector vector, SelectionVector selection) {
+		return mean(sum(vector, selection), selection.getCount());
+	}
+
+	public static Histogram histogram(SmallIntVector vector, double lower, double upper, int buckets) {
+		Histogram histogram = new Histogram(lower, upper, buckets);
+		histogramShorts(address(vector), count(vector), histogram);
+		return histogram;
+	}
+
+	/*
+	 * Float4Vector
+	 */
+
+	public static double sum(Float4Vector vector) {
+		return sumFloats(address(vector), vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return the smallest value, or NaN if any value is NaN (see
+	 *         {@link Math#min(float, float)})
+	 */
+	public static float min(Float4Vector vector) {
+		int count = nonEmptyCount(vector, "min");
+		return minFloats(address(vector), count);
+	}
+
+	/**
+	 * @return the largest value, or NaN if any value is NaN (see
+	 *         {@link Math#max(float, float)})
+	 */
+	public static float max(Float4Vector vector) {
+		int count = nonEmptyCount(vector, "max");
+		return maxFloats(address(vector), count);
+	}
+
+	public static double mean(Float4Vector vector) {
+		return mean(sum(vector), count(vector));
+	}
+
+	public static int count(Float4Vector vector) {
+		return vector.getAccessor().getValueCount();
+	}
+
+	/**
+	 * @return the sum of the selected values
+	 */
+	public static double sum(Float4Vector vector, SelectionVector selection) {
+		return sumFloatsSelected(address(vector), count(vector), selection);
+	}
+
+	public static float min(Float4Vector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "min");
+		return minFloatsSelected(address(vector), count(vector), selection);
+	}
+
+	public static float max(Float4Vector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "max");
+		return maxFloatsSelected(address(vector), count(vector), selection);
+	}
+
+	public static double mean(Float4Vector vector, SelectionVector selection) {
+		return mean(sum(vector, selection), selection.getCount());
+	}
+
+	public static Histogram histogram(Float4Vector vector, double lower, double upper, int buckets) {
+		Histogram histogram = new Histogram(lower, upper, buckets);
+		histogramFloats(address(vector), count(vector), histogram);
+		return histogram;
+	}
+
+	/*
+	 * Float8Vector
+	 */
+
+	public static double sum(Float8Vector vector) {
+		return sumDoubles(address(vector), vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return the smallest value, or NaN if any value is NaN (see
+	 *         {@link Math#min(double, double)})
+	 */
+	public static double min(Float8Vector vector) {
+		int count = nonEmptyCount(vector, "min");
+		return minDoubles(address(vector), count);
+	}
+
+	/**
+	 * @return the largest value, or NaN if any value is NaN (see
+	 *         {@link Math#max(double, double)})
+	 */
+	public static double max(Float8Vector vector) {
+		int count = nonEmptyCount(vector, "max");
+		return maxDoubles(address(vector), count);
+	}
+
+	public static double mean(Float8Vector vector) {
+		return mean(sum(vector), count(vector));
+	}
+
+	public static int count(Float8Vector vector) {
+		return vector.getAccessor().getValueCount();
+	}
+
+	/**
+	 * @return the sum of the selected values
+	 */
+	public static double sum(Float8Vector vector, SelectionVector selection) {
+		return sumDoublesSelected(address(vector), count(vector), selection);
+	}
+
+	public static double min(Float8Vector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "min");
+		return minDoublesSelected(address(vector), count(vector), selection);
+	}
+
+	public static double max(Float8Vector vector, SelectionVector selection) {
+		nonEmptySelection(selection, "max");
+		return maxDoublesSelected(address(vector), count(vector), selection);
+	}
+
+	public static double mean(Float8Vector vector, SelectionVector selection) {
+		return mean(sum(vector, selection), selection.getCount());
+	}
+
+	public static Histogram histogram(Float8Vector vector, double lower, double upper, int buckets) {
+		Histogram histogram = new Histogram(lower, upper, buckets);
+		histogramDoubles(address(vector), count(vector), histogram);
+		return histogram;
+	}
+
+	/*
+	 * Dictionary encoded columns. The dictionary only holds values present in
+	 * the column and is sorted, so min and max are its first and last entry;
+	 * sums count the occurrences of every code and multiply once per entry.
+	 */
+
+	/**
+	 * @return the sum of all values; overflow wraps around like Java long
+	 *         arithmetic
+	 */
+	public static long sum(EncodedColumn column) {
+		return sumCounted(column, codeCounts(column));
+	}
+
+	public static long sum(EncodedColumn column, SelectionVector selection) {
+		return sumCounted(column, codeCounts(column, selection));
+	}
+
+	public static long min(EncodedColumn column) {
+		if (column.getValueCount() == 0) {
+			throw new IllegalArgumentException("Cannot compute min of an empty vector");
+		}
+		return column.getDictionaryValue(0);
+	}
+
+	public static long max(EncodedColumn column) {
+		if (column.getValueCount() == 0) {
+			throw new IllegalArgumentException("Cannot compute max of an empty vector");
+		}
+		return column.getDictionaryValue(column.getDictionarySize() - 1);
+	}
+
+	public static double mean(EncodedColumn column) {
+		long[] counts = codeCounts(column);
+		double sum = 0;
+		for (int code = 0; code < counts.length; code++) {
+			sum += (double) counts[code] * column.getDictionaryValue(code);
+		}
+		return mean(sum, column.getValueCount());
+	}
+
+	public static int count(EncodedColumn column) {
+		return column.getValueCount();
+	}
+
+	public static int countDistinct(EncodedColumn column) {
+		return column.getDictionarySize();
+	}
+
+	/**
+	 * @return the number of rows holding each code
+	 */
+	public static long[] codeCounts(EncodedColumn column) {
+		long[] counts = new long[column.getDictionarySize()];
+		int count = column.getValueCount();
+		long address = address(column.getCodes());
+		if (column.hasSmallIntCodes()) {
+			for (int i = 0; i < count; i++) {
+				counts[getShort(address + ((long) i << 1)) & 0xFFFF]++;
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				counts[getInt(address + ((long) i << 2))]++;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @return the number of selected rows holding each code
+	 */
+	public static long[] codeCounts(EncodedColumn column, SelectionVector selection) {
+		long[] counts = new long[column.getDictionarySize()];
+		int valueCount = column.getValueCount();
+		long address = address(column.getCodes());
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		boolean smallCodes = column.hasSmallIntCodes();
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			counts[smallCodes ? getShort(address + ((long) index << 1)) & 0xFFFF
+					: getInt(address + ((long) index << 2))]++;
+		}
+		return counts;
+	}
+
+	private static long sumCounted(EncodedColumn column, long[] counts) {
+		long sum = 0;
+		for (int code = 0; code < counts.length; code++) {
+			sum += counts[code] * column.getDictionaryValue(code);
+		}
+		return sum;
+	}
+
+	/*
+	 * Nullable vectors. Null values are skipped; the validity bits are read
+	 * 64 at a time (see ValidityWords) so words of nulls cost one test and
+	 * words without nulls run the same loops as the non-nullable vectors.
+	 * min and max require at least one non-null value.
+	 */
+
+	public static long sum(NullableIntVector vector) {
+		return sumIntsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static int min(NullableIntVector vector) {
+		nonNullCount(vector, "min");
+		return minIntsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static int max(NullableIntVector vector) {
+		nonNullCount(vector, "max");
+		return maxIntsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return mean of the non-null values, NaN if there are none
+	 */
+	public static double mean(NullableIntVector vector) {
+		return mean(sum(vector), count(vector));
+	}
+
+	/**
+	 * @return number of non-null values
+	 */
+	public static int count(NullableIntVector vector) {
+		return ValidityWords.countValid(vector);
+	}
+
+	public static long sum(NullableBigIntVector vector) {
+		return sumLongsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static long min(NullableBigIntVector vector) {
+		nonNullCount(vector, "min");
+		return minLongsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static long max(NullableBigIntVector vector) {
+		nonNullCount(vector, "max");
+		return maxLongsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return mean of the non-null values, NaN if there are none; accumulated
+	 *         in double precision like {@link #mean(BigIntVector)}
+	 */
+	public static double mean(NullableBigIntVector vector) {
+		return mean(sumLongsValidAsDoubles(address(vector), ValidityWords.address(vector),
+				vector.getAccessor().getValueCount()), count(vector));
+	}
+
+	/**
+	 * @return number of non-null values
+	 */
+	public static int count(NullableBigIntVector vector) {
+		return ValidityWords.countValid(vector);
+	}
+
+	public static double sum(NullableFloat4Vector vector) {
+		return sumFloatsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static float min(NullableFloat4Vector vector) {
+		nonNullCount(vector, "min");
+		return minFloatsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static float max(NullableFloat4Vector vector) {
+		nonNullCount(vector, "max");
+		return maxFloatsValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return mean of the non-null values, NaN if there are none
+	 */
+	public static double mean(NullableFloat4Vector vector) {
+		return mean(sum(vector), count(vector));
+	}
+
+	/**
+	 * @return number of non-null values
+	 */
+	public static int count(NullableFloat4Vector vector) {
+		return ValidityWords.countValid(vector);
+	}
+
+	public static double sum(NullableFloat8Vector vector) {
+		return sumDoublesValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static double min(NullableFloat8Vector vector) {
+		nonNullCount(vector, "min");
+		return minDoublesValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	public static double max(NullableFloat8Vector vector) {
+		nonNullCount(vector, "max");
+		return maxDoublesValid(address(vector), ValidityWords.address(vector), vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return mean of the non-null values, NaN if there are none
+	 */
+	public static double mean(NullableFloat8Vector vector) {
+		return mean(sum(vector), count(vector));
+	}
+
+	/**
+	 * @return number of non-null values
+	 */
+	public static int count(NullableFloat8Vector vector) {
+		return ValidityWords.countValid(vector);
+	}
+
+	/*
+	 * Loops over raw memory. All of them expect count values of the given
+	 * width starting at address.
+	 */
+
+	static long sumInts(long address, int count) {
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 4 <= count; i += 4) {
+			long a = address + ((long) i << 2);
+			s0 += getInt(a);
+			s1 += getInt(a + 4);
+			s2 += getInt(a + 8);
+			s3 += getInt(a + 12);
+		}
+		for (; i < count; i++) {
+			s0 += getInt(address + ((long) i << 2));
+		}
+		return s0 + s1 + s2 + s3;
+	}
+
+	static int minInts(long address, int count) {
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			int v = getInt(address + ((long) i << 2));
+			if (v < min) {
+				min = v;
+			}
+		}
+		return min;
+	}
+
+	static int maxInts(long address, int count) {
+		int max = Integer.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			int v = getInt(address + ((long) i << 2));
+			if (v > max) {
+				max = v;
+			}
+		}
+		return max;
+	}
+
+	static long sumLongs(long address, int count) {
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 4 <= count; i += 4) {
+			long a = address + ((long) i << 3);
+			s0 += getLong(a);
+			s1 += getLong(a + 8);
+			s2 += getLong(a + 16);
+			s3 += getLong(a + 24);
+		}
+		for (; i < count; i++) {
+			s0 += getLong(address + ((long) i << 3));
+		}
+		return s0 + s1 + s2 + s3;
+	}
+
+	static double sumLongsAsDoubles(long address, int count) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 4 <= count; i += 4) {
+			long a = address + ((long) i << 3);
+			s0 += getLong(a);
+			s1 += getLong(a + 8);
+			s2 += getLong(a + 16);
+			s3 += getLong(a + 24);
+		}
+		for (; i < count; i++) {
+			s0 += getLong(address + ((long) i << 3));
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	static double sumLongsValidAsDoubles(long address, long validity, int count) {
+		double sum = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 9);
+			if (bits == ValidityWords.ALL_VALID) {
+				sum += sumLongsAsDoubles(base, 64);
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					sum += getLong(base + (Long.numberOfTrailingZeros(bits) << 3));
+				}
+			}
+		}
+		return sum;
+	}
+
+	static long minLongs(long address, int count) {
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			long v = getLong(address + ((long) i << 3));
+			if (v < min) {
+				min = v;
+			}
+		}
+		return min;
+	}
+
+	static long maxLongs(long address, int count) {
+		long max = Long.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			long v = getLong(address + ((long) i << 3));
+			if (v > max) {
+				max = v;
+			}
+		}
+		return max;
+	}
+
+	static long sumShorts(long address, int count) {
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 4 <= count; i += 4) {
+			long a = address + ((long) i << 1);
+			s0 += getShort(a);
+			s1 += getShort(a + 2);
+			s2 += getShort(a + 4);
+			s3 += getShort(a + 6);
+		}
+		for (; i < count; i++) {
+			s0 += getShort(address + ((long) i << 1));
+		}
+		return s0 + s1 + s2 + s3;
+	}
+
+	static short minShorts(long address, int count) {
+		short min = Short.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			short v = getShort(address + ((long) i << 1));
+			if (v < min) {
+				min = v;
+			}
+		}
+		return min;
+	}
+
+	static short maxShorts(long address, int count) {
+		short max = Short.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			short v = getShort(address + ((long) i << 1));
+			if (v > max) {
+				max = v;
+			}
+		}
+		return max;
+	}
+
+	static double sumFloats(long address, int count) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 4 <= count; i += 4) {
+			long a = address + ((long) i << 2);
+			s0 += Float.intBitsToFloat(getInt(a));
+			s1 += Float.intBitsToFloat(getInt(a + 4));
+			s2 += Float.intBitsToFloat(getInt(a + 8));
+			s3 += Float.intBitsToFloat(getInt(a + 12));
+		}
+		for (; i < count; i++) {
+			s0 += Float.intBitsToFloat(getInt(address + ((long) i << 2)));
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	static float minFloats(long address, int count) {
+		float min = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			min = Math.min(min, Float.intBitsToFloat(getInt(address + ((long) i << 2))));
+		}
+		return min;
+	}
+
+	static float maxFloats(long address, int count) {
+		float max = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			max = Math.max(max, Float.intBitsToFloat(getInt(address + ((long) i << 2))));
+		}
+		return max;
+	}
+
+	static double sumDoubles(long address, int count) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 4 <= count; i += 4) {
+			long a = address + ((long) i << 3);
+			s0 += Double.longBitsToDouble(getLong(a));
+			s1 += Double.longBitsToDouble(getLong(a + 8));
+			s2 += Double.longBitsToDouble(getLong(a + 16));
+			s3 += Double.longBitsToDouble(getLong(a + 24));
+		}
+		for (; i < count; i++) {
+			s0 += Double.longBitsToDouble(getLong(address + ((long) i << 3)));
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	static double minDoubles(long address, int count) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			min = Math.min(min, Double.longBitsToDouble(getLong(address + ((long) i << 3))));
+		}
+		return min;
+	}
+
+	static double maxDoubles(long address, int count) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			max = Math.max(max, Double.longBitsToDouble(getLong(address + ((long) i << 3))));
+		}
+		return max;
+	}
+
+	static void histogramInts(long address, int count, Histogram histogram) {
+		for (int i = 0; i < count; i++) {
+			histogram.add(getInt(address + ((long) i << 2)));
+		}
+	}
+
+	static void histogramLongs(long address, int count, Histogram histogram) {
+		for (int i = 0; i < count; i++) {
+			histogram.add(getLong(address + ((long) i << 3)));
+		}
+	}
+
+	static void histogramShorts(long address, int count, Histogram histogram) {
+		for (int i = 0; i < count; i++) {
+			histogram.add(getShort(address + ((long) i << 1)));
+		}
+	}
+
+	static void histogramFloats(long address, int count, Histogram histogram) {
+		for (int i = 0; i < count; i++) {
+			histogram.add(Float.intBitsToFloat(getInt(address + ((long) i << 2))));
+		}
+	}
+
+	static void histogramDoubles(long address, int count, Histogram histogram) {
+		for (int i = 0; i < count; i++) {
+			histogram.add(Double.longBitsToDouble(getLong(address + ((long) i << 3))));
+		}
+	}
+
+	/*
+	 * Loops over the non-null values among count values starting at address,
+	 * with the validity bits at validity.
+	 */
+
+	static long sumIntsValid(long address, long validity, int count) {
+		long sum = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 8);
+			if (bits == ValidityWords.ALL_VALID) {
+				sum += sumInts(base, 64);
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					sum += getInt(base + (Long.numberOfTrailingZeros(bits) << 2));
+				}
+			}
+		}
+		return sum;
+	}
+
+	static int minIntsValid(long address, long validity, int count) {
+		int min = Integer.MAX_VALUE;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 8);
+			if (bits == ValidityWords.ALL_VALID) {
+				min = Math.min(min, minInts(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					min = Math.min(min, getInt(base + (Long.numberOfTrailingZeros(bits) << 2)));
+				}
+			}
+		}
+		return min;
+	}
+
+	static int maxIntsValid(long address, long validity, int count) {
+		int max = Integer.MIN_VALUE;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 8);
+			if (bits == ValidityWords.ALL_VALID) {
+				max = Math.max(max, maxInts(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					max = Math.max(max, getInt(base + (Long.numberOfTrailingZeros(bits) << 2)));
+				}
+			}
+		}
+		return max;
+	}
+
+	static long sumLongsValid(long address, long validity, int count) {
+		long sum = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 9);
+			if (bits == ValidityWords.ALL_VALID) {
+				sum += sumLongs(base, 64);
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					sum += getLong(base + (Long.numberOfTrailingZeros(bits) << 3));
+				}
+			}
+		}
+		return sum;
+	}
+
+	static long minLongsValid(long address, long validity, int count) {
+		long min = Long.MAX_VALUE;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 9);
+			if (bits == ValidityWords.ALL_VALID) {
+				min = Math.min(min, minLongs(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					min = Math.min(min, getLong(base + (Long.numberOfTrailingZeros(bits) << 3)));
+				}
+			}
+		}
+		return min;
+	}
+
+	static long maxLongsValid(long address, long validity, int count) {
+		long max = Long.MIN_VALUE;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 9);
+			if (bits == ValidityWords.ALL_VALID) {
+				max = Math.max(max, maxLongs(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					max = Math.max(max, getLong(base + (Long.numberOfTrailingZeros(bits) << 3)));
+				}
+			}
+		}
+		return max;
+	}
+
+	static double sumFloatsValid(long address, long validity, int count) {
+		double sum = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 8);
+			if (bits == ValidityWords.ALL_VALID) {
+				sum += sumFloats(base, 64);
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					sum += Float.intBitsToFloat(getInt(base + (Long.numberOfTrailingZeros(bits) << 2)));
+				}
+			}
+		}
+		return sum;
+	}
+
+	static float minFloatsValid(long address, long validity, int count) {
+		float min = Float.POSITIVE_INFINITY;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 8);
+			if (bits == ValidityWords.ALL_VALID) {
+				min = Math.min(min, minFloats(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					min = Math.min(min, Float.intBitsToFloat(getInt(base + (Long.numberOfTrailingZeros(bits) << 2))));
+				}
+			}
+		}
+		return min;
+	}
+
+	static float maxFloatsValid(long address, long validity, int count) {
+		float max = Float.NEGATIVE_INFINITY;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 8);
+			if (bits == ValidityWords.ALL_VALID) {
+				max = Math.max(max, maxFloats(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					max = Math.max(max, Float.intBitsToFloat(getInt(base + (Long.numberOfTrailingZeros(bits) << 2))));
+				}
+			}
+		}
+		return max;
+	}
+
+	static double sumDoublesValid(long address, long validity, int count) {
+		double sum = 0;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 9);
+			if (bits == ValidityWords.ALL_VALID) {
+				sum += sumDoubles(base, 64);
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					sum += Double.longBitsToDouble(getLong(base + (Long.numberOfTrailingZeros(bits) << 3)));
+				}
+			}
+		}
+		return sum;
+	}
+
+	static double minDoublesValid(long address, long validity, int count) {
+		double min = Double.POSITIVE_INFINITY;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 9);
+			if (bits == ValidityWords.ALL_VALID) {
+				min = Math.min(min, minDoubles(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					min = Math.min(min, Double.longBitsToDouble(getLong(base + (Long.numberOfTrailingZeros(bits) << 3))));
+				}
+			}
+		}
+		return min;
+	}
+
+	static double maxDoublesValid(long address, long validity, int count) {
+		double max = Double.NEGATIVE_INFINITY;
+		int words = ValidityWords.wordCount(count);
+		for (int w = 0; w < words; w++) {
+			long bits = ValidityWords.word(validity, w, count);
+			if (bits == 0) {
+				continue;
+			}
+			long base = address + ((long) w << 9);
+			if (bits == ValidityWords.ALL_VALID) {
+				max = Math.max(max, maxDoubles(base, 64));
+			} else {
+				for (; bits != 0; bits &= bits - 1) {
+					max = Math.max(max, Double.longBitsToDouble(getLong(base + (Long.numberOfTrailingZeros(bits) << 3))));
+				}
+			}
+		}
+		return max;
+	}
+
+	/*
+	 * Loops over the rows of a selection vector
+	 */
+
+	static long sumIntsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			sum += getInt(address + ((long) index << 2));
+		}
+		return sum;
+	}
+
+	static int minIntsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			int v = getInt(address + ((long) index << 2));
+			if (v < min) {
+				min = v;
+			}
+		}
+		return min;
+	}
+
+	static int maxIntsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		int max = Integer.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			int v = getInt(address + ((long) index << 2));
+			if (v > max) {
+				max = v;
+			}
+		}
+		return max;
+	}
+
+	static long sumLongsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			sum += getLong(address + ((long) index << 3));
+		}
+		return sum;
+	}
+
+	static double sumLongsSelectedAsDoubles(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		double sum = 0;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			sum += getLong(address + ((long) index << 3));
+		}
+		return sum;
+	}
+
+	static long minLongsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			long v = getLong(address + ((long) index << 3));
+			if (v < min) {
+				min = v;
+			}
+		}
+		return min;
+	}
+
+	static long maxLongsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		long max = Long.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			long v = getLong(address + ((long) index << 3));
+			if (v > max) {
+				max = v;
+			}
+		}
+		return max;
+	}
+
+	static long sumShortsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			sum += getShort(address + ((long) index << 1));
+		}
+		return sum;
+	}
+
+	static short minShortsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		short min = Short.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			short v = getShort(address + ((long) index << 1));
+			if (v < min) {
+				min = v;
+			}
+		}
+		return min;
+	}
+
+	static short maxShortsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		short max = Short.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			short v = getShort(address + ((long) index << 1));
+			if (v > max) {
+				max = v;
+			}
+		}
+		return max;
+	}
+
+	static double sumFloatsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		double sum = 0;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			sum += Float.intBitsToFloat(getInt(address + ((long) index << 2)));
+		}
+		return sum;
+	}
+
+	static float minFloatsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		float min = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			min = Math.min(min, Float.intBitsToFloat(getInt(address + ((long) index << 2))));
+		}
+		return min;
+	}
+
+	static float maxFloatsSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		float max = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			max = Math.max(max, Float.intBitsToFloat(getInt(address + ((long) index << 2))));
+		}
+		return max;
+	}
+
+	static double sumDoublesSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		double sum = 0;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			sum += Double.longBitsToDouble(getLong(address + ((long) index << 3)));
+		}
+		return sum;
+	}
+
+	static double minDoublesSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			min = Math.min(min, Double.longBitsToDouble(getLong(address + ((long) index << 3))));
+		}
+		return min;
+	}
+
+	static double maxDoublesSelected(long address, int valueCount, SelectionVector selection) {
+		long indices = selection.getBuffer().memoryAddress();
+		int count = selection.getCount();
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			int index = checkIndex(getInt(indices + ((long) i << 2)), valueCount);
+			max = Math.max(max, Double.longBitsToDouble(getLong(address + ((long) index << 3))));
+		}
+		return max;
+	}
+
+	/*
+	 * Helpers
+	 */
+
+	/**
+	 * @return address of the first value; only valid while the vector keeps
+	 *         its current buffer
+	 */
+	static long address(BaseDataValueVector vector) {
+		return vector.getBuffer().memoryAddress();
+	}
+
+	private static int nonEmptyCount(BaseDataValueVector vector, String aggregation) {
+		int count = vector.getAccessor().getValueCount();
+		if (count == 0) {
+			throw new IllegalArgumentException("Cannot compute " + aggregation + " of an empty vector");
+		}
+		return count;
+	}
+
+	private static void nonNullCount(BaseDataValueVector vector, String aggregation) {
+		if (ValidityWords.countValid(vector) == 0) {
+			throw new IllegalArgumentException("Cannot compute " + aggregation + " of a vector without non-null values");
+		}
+	}
+
+	private static void nonEmptySelection(SelectionVector selection, String aggregation) {
+		if (selection.getCount() == 0) {
+			throw new IllegalArgumentException("Cannot compute " + aggregation + " of an empty selection");
+		}
+	}
+
+	private static int checkIndex(int index, int valueCount) {
+		if (index < 0 || index >= valueCount) {
+			throw new IndexOutOfBoundsException("Selected index " + index + " is outside of a vector with " + valueCount + " values");
+		}
+		return index;
+	}
+
+	private static double mean(double sum, int count) {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+}
@@ -0,0 +1,308 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import static io.netty.util.internal.PlatformDependent.copyMemory;
+import static io.netty.util.internal.PlatformDependent.getByte;
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+import static io.netty.util.internal.PlatformDependent.putByte;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+import static io.netty.util.internal.PlatformDependent.putShort;
+import static io.netty.util.internal.PlatformDependent.setMemory;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FixedWidthVector;
+import org.apache.arrow.vector.NullableVector;
+import org.apache.arrow.vector.ValueVector;
+
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+import my.org.apache.arrow.samples.vector.ValidityWords;
+
+/**
+ * Copies values between fixed-width vectors of the same type in bulk, reading
+ * and writing the data buffers directly instead of calling copyFrom once per
+ * row. Besides the five non-nullable types, the matching Nullable* vectors
+ * are supported; their validity bits are copied along with the values, by
+ * whole words where the layout allows it.
+ */
+public final class BulkCopy {
+
+	private static final long BITS_56 = (1L << 56) - 1;
+
+	private BulkCopy() {
+	}
+
+	/**
+	 * Sets {@code target[i] = source[indices[i]]} for every index of the
+	 * selection, reallocating the target if it is too small, and sets the
+	 * target value count to the number of indices. The indices do not need to
+	 * be sorted and may repeat.
+	 *
+	 * @return the target
+	 */
+	public static <V extends BaseDataValueVector> V gather(V source, SelectionVector indices, V target) {
+		FixedWidthType type = checkTypes(source, target);
+		int count = indices.getCount();
+		ensureCapacity(target, count);
+		int valueCount = source.getAccessor().getValueCount();
+		long from = Aggregations.address(source);
+		long to = Aggregations.address(target);
+		long positions = indices.getBuffer().memoryAddress();
+		switch (type.getWidth()) {
+		case 2:
+			for (int i = 0; i < count; i++) {
+				int index = checkIndex(getInt(positions + ((long) i << 2)), valueCount);
+				putShort(to + ((long) i << 1), getShort(from + ((long) index << 1)));
+			}
+			break;
+		case 4:
+			for (int i = 0; i < count; i++) {
+				int index = checkIndex(getInt(positions + ((long) i << 2)), valueCount);
+				putInt(to + ((long) i << 2), getInt(from + ((long) index << 2)));
+			}
+			break;
+		default:
+			for (int i = 0; i < count; i++) {
+				int index = checkIndex(getInt(positions + ((long) i << 2)), valueCount);
+				putLong(to + ((long) i << 3), getLong(from + ((long) index << 3)));
+			}
+			break;
+		}
+		if (source instanceof NullableVector) {
+			long fromBits = validityAddress(source);
+			int valid = ValidityWords.countValid(fromBits, valueCount);
+			if (valid == valueCount || valid == 0) {
+				fillBits(validityAddress(target), count, valid != 0);
+			} else {
+				gatherBits(fromBits, positions, count, validityAddress(target));
+			}
+		}
+		target.getMutator().setValueCount(count);
+		return target;
+	}
+
+	/**
+	 * Sets {@code target[indices[i]] = source[i]} for the first
+	 * {@code indices.getCount()} values of the source. Every index must be
+	 * below the capacity of the target; the target value count is raised to
+	 * cover the largest index, leaving the rows in between untouched.
+	 *
+	 * @return the target
+	 */
+	public static <V extends BaseDataValueVector> V scatter(V source, SelectionVector indices, V target) {
+		FixedWidthType type = checkTypes(source, target);
+		int count = indices.getCount();
+		checkRange(0, count, source.getAccessor().getValueCount());
+		int capacity = ((FixedWidthVector) target).getValueCapacity();
+		long from = Aggregations.address(source);
+		long to = Aggregations.address(target);
+		long positions = indices.getBuffer().memoryAddress();
+		int end = target.getAccessor().getValueCount();
+		switch (type.getWidth()) {
+		case 2:
+			for (int i = 0; i < count; i++) {
+				int index = checkIndex(getInt(positions + ((long) i << 2)), capacity);
+				putShort(to + ((long) index << 1), getShort(from + ((long) i << 1)));
+				end = Math.max(end, index + 1);
+			}
+			break;
+		case 4:
+			for (int i = 0; i < count; i++) {
+				int index = checkIndex(getInt(positions + ((long) i << 2)), capacity);
+				putInt(to + ((long) index << 2), getInt(from + ((long) i << 2)));
+				end = Math.max(end, index + 1);
+			}
+			break;
+		default:
+			for (int i = 0; i < count; i++) {
+				int index = checkIndex(getInt(positions + ((long) i << 2)), capacity);
+				putLong(to + ((long) index << 3), getLong(from + ((long) i << 3)));
+				end = Math.max(end, index + 1);
+			}
+			break;
+		}
+		if (source instanceof NullableVector) {
+			long fromBits = validityAddress(source);
+			long toBits = validityAddress(target);
+			for (int i = 0; i < count; i++) {
+				setBit(toBits, getInt(positions + ((long) i << 2)), getBit(fromBits, i));
+			}
+		}
+		target.getMutator().setValueCount(end);
+		return target;
+	}
+
+	/**
+	 * Copies {@code length} values starting at {@code sourceIndex} to the
+	 * target starting at {@code targetIndex}, with one memory copy for the
+	 * values and, when the validity bits are byte aligned on both sides, one
+	 * for the bits. The target is grown, keeping its values, until the range
+	 * fits, and its value count is raised to cover the range. This is the
+	 * range version of {@code target.copyFrom(fromIndex, thisIndex, source)}.
+	 *
+	 * @return the target
+	 */
+	public static <V extends BaseDataValueVector> V copyRange(V source, int sourceIndex, V target, int targetIndex,
+			int length) {
+		FixedWidthType type = checkTypes(source, target);
+		checkRange(sourceIndex, length, source.getAccessor().getValueCount());
+		if (targetIndex < 0 || length < 0) {
+			throw new IndexOutOfBoundsException("Cannot copy " + length + " values to index " + targetIndex);
+		}
+		int end = targetIndex + length;
+		grow(target, end);
+		int width = type.getWidth();
+		copyMemory(Aggregations.address(source) + (long) sourceIndex * width,
+				Aggregations.address(target) + (long) targetIndex * width, (long) length * width);
+		if (source instanceof NullableVector) {
+			copyBits(validityAddress(source), sourceIndex, validityAddress(target), targetIndex, length);
+		}
+		target.getMutator().setValueCount(Math.max(end, target.getAccessor().getValueCount()));
+		return target;
+	}
+
+	/*
+	 * Validity bits
+	 */
+
+	private static void gatherBits(long from, long positions, int count, long to) {
+		int bits = 0;
+		for (int i = 0; i < count; i++) {
+			bits |= getBit(from, getInt(positions + ((long) i << 2))) << (i & 7);
+			if ((i & 7) == 7) {
+				putByte(to + (i >>> 3), (byte) bits);
+				bits = 0;
+			}
+		}
+		if ((count & 7) != 0) {
+			putByte(to + (count >>> 3), (byte) bits);
+		}
+	}
+
+	/**
+	 * Sets the first count bits to all ones or all zeros.
+	 */
+	private static void fillBits(long to, int count, boolean ones) {
+		setMemory(to, count >>> 3, ones ? (byte) 0xFF : 0);
+		if ((count & 7) != 0) {
+			putByte(to + (count >>> 3), ones ? (byte) ((1 << (count & 7)) - 1) : 0);
+		}
+	}
+
+	/**
+	 * Unaligned ranges move 56 bits per step: one 8 byte read or write covers
+	 * 56 bits at any bit offset. The last steps stop 64 bits before the end so
+	 * no byte past the range is read.
+	 */
+	private static void copyBits(long from, int fromIndex, long to, int toIndex, int length) {
+		int copied = 0;
+		if ((fromIndex & 7) == 0 && (toIndex & 7) == 0) {
+			copied = length & ~7;
+			copyMemory(from + (fromIndex >>> 3), to + (toIndex >>> 3), copied >>> 3);
+		} else {
+			for (; copied + 64 <= length; copied += 56) {
+				int source = fromIndex + copied;
+				int target = toIndex + copied;
+				long bits = (getLong(from + (source >>> 3)) >>> (source & 7)) & BITS_56;
+				long address = to + (target >>> 3);
+				int shift = target & 7;
+				putLong(address, (getLong(address) & ~(BITS_56 << shift)) | (bits << shift));
+			}
+		}
+		for (int i = copied; i < length; i++) {
+			setBit(to, toIndex + i, getBit(from, fromIndex + i));
+		}
+	}
+
+	private static int getBit(long address, int index) {
+		return (getByte(address + (index >>> 3)) >>> (index & 7)) & 1;
+	}
+
+	private static void setBit(long address, int index, int bit) {
+		long byteAddress = address + (index >>> 3);
+		int shift = index & 7;
+		putByte(byteAddress, (byte) ((getByte(byteAddress) & ~(1 << shift)) | (bit << shift)));
+	}
+
+	private static long validityAddress(BaseDataValueVector vector) {
+		BitVector bits = ((NullableVector) vector).getValidityVector();
+		return bits.getBuffer().memoryAddress();
+	}
+
+	/*
+	 * Checks and allocation
+	 */
+
+	/**
+	 * @return the type of the values of both vectors, which must be of the same
+	 *         class
+	 */
+	static FixedWidthType checkTypes(BaseDataValueVector source, BaseDataValueVector target) {
+		FixedWidthType type = FixedWidthType.of(values(source));
+		if (source.getClass() != target.getClass()) {
+			throw new IllegalArgumentException("Cannot copy " + source.getClass().getSimpleName() + " values into a "
+					+ target.getClass().getSimpleName());
+		}
+		return type;
+	}
+
+	static void ensureCapacity(BaseDataValueVector vector, int valueCount) {
+		FixedWidthVector fixedWidth = (FixedWidthVector) vector;
+		if (fixedWidth.getValueCapacity() < valueCount) {
+			fixedWidth.allocateNew(valueCount);
+		}
+	}
+
+	/**
+	 * Like {@link #ensureCapacity} but keeps the values of a non-empty vector.
+	 */
+	static void grow(BaseDataValueVector vector, int valueCount) {
+		FixedWidthVector fixedWidth = (FixedWidthVector) vector;
+		if (vector.getAccessor().getValueCount() == 0) {
+			ensureCapacity(vector, valueCount);
+		}
+		while (fixedWidth.getValueCapacity() < valueCount) {
+			vector.reAlloc();
+		}
+	}
+
+	private static ValueVector values(BaseDataValueVector vector) {
+		return vector instanceof NullableVector ? ((NullableVector) vector).getValuesVector() : vector;
+	}
+
+	private static int checkIndex(int index, int valueCount) {
+		if (index < 0 || index >= valueCount) {
+			throw new IndexOutOfBoundsException(
+					"Index " + index + " is outside of a vector with " + valueCount + " values");
+		}
+		return index;
+	}
+
+	private static void checkRange(int index, int length, int valueCount) {
+		if (index < 0 || length < 0 || index > valueCount - length) {
+			throw new IndexOutOfBoundsException(
+					"Range [" + index + ", " + index + " + " + length + ") is outside of a vector with " + valueCount
+							+ " values");
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import java.util.Arrays;
+
+/**
+ * Equal-width histogram over the range [lower, upper). Values below the range
+ * are counted as underflow, values at or above it as overflow, and NaN values
+ * are not counted at all.
+ */
+public final class Histogram {
+
+	private final double lower;
+	private final double upper;
+	private final double scale;
+	private final long[] counts;
+	private long underflow;
+	private long overflow;
+
+	public Histogram(double lower, double upper, int buckets) {
+		if (!(lower < upper)) {
+			throw new IllegalArgumentException("Histogram range [" + lower + ", " + upper + ") is empty");
+		}
+		if (buckets <= 0) {
+			throw new IllegalArgumentException("Histogram needs at least one bucket, got " + buckets);
+		}
+		this.lower = lower;
+		this.upper = upper;
+		this.scale = buckets / (upper - lower);
+		this.counts = new long[buckets];
+	}
+
+	void add(double value) {
+		if (value < lower) {
+			underflow++;
+		} else if (value >= upper) {
+			overflow++;
+		} else if (value == value) {
+			// rounding can push values just below upper into the next bucket
+			int bucket = Math.min((int) ((value - lower) * scale), counts.length - 1);
+			counts[bucket]++;
+		}
+	}
+
+	/**
+	 * Adds the counts of a histogram with the same range and bucket count.
+	 */
+	void merge(Histogram other) {
+		if (other.lower != lower || other.upper != upper || other.counts.length != counts.length) {
+			throw new IllegalArgumentException("Cannot merge histograms with different buckets");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		underflow += other.underflow;
+		overflow += other.overflow;
+	}
+
+	public double getLower() {
+		return lower;
+	}
+
+	public double getUpper() {
+		return upper;
+	}
+
+	public int getBucketCount() {
+		return counts.length;
+	}
+
+	public long getCount(int bucket) {
+		return counts[bucket];
+	}
+
+	/**
+	 * @return inclusive lower bound of the bucket
+	 */
+	public double getBucketLower(int bucket) {
+		return lower + bucket / scale;
+	}
+
+	public long getUnderflow() {
+		return underflow;
+	}
+
+	public long getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * @return number of counted values, including underflow and overflow
+	 */
+	public long getTotalCount() {
+		long total = underflow + overflow;
+		for (long count : counts) {
+			total += count;
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram[" + lower + ", " + upper + ") counts=" + Arrays.toString(counts) + " underflow=" + underflow
+				+ " overflow=" + overflow;
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import java.nio.ByteBuffer;
+
+import my.org.apache.arrow.samples.expr.ArithmeticOp;
+import my.org.apache.arrow.samples.filter.CompareOp;
+
+/**
+ * Kernels processing a full register of values per instruction, implemented
+ * with the incubating Vector API in src/main/java-simd and loaded by
+ * {@link SimdKernels} when available.
+ *
+ * Buffers are little endian views of the data buffers, covering at least
+ * {@code count} values; arguments have been checked by the caller.
+ */
+interface LaneKernels {
+
+	/**
+	 * @return description of the implementation, such as the register width
+	 */
+	String describe();
+
+	long sumInts(ByteBuffer values, int count);
+
+	long sumLongs(ByteBuffer values, int count);
+
+	double sumFloats(ByteBuffer values, int count);
+
+	double sumDoubles(ByteBuffer values, int count);
+
+	int minInts(ByteBuffer values, int count);
+
+	int maxInts(ByteBuffer values, int count);
+
+	long minLongs(ByteBuffer values, int count);
+
+	long maxLongs(ByteBuffer values, int count);
+
+	float minFloats(ByteBuffer values, int count);
+
+	float maxFloats(ByteBuffer values, int count);
+
+	double minDoubles(ByteBuffer values, int count);
+
+	double maxDoubles(ByteBuffer values, int count);
+
+	/**
+	 * Writes the index of every matching value at {@code indices}, which has
+	 * room for count indices.
+	 *
+	 * @return number of matches
+	 */
+	int selectInts(ByteBuffer values, int count, CompareOp op, int value, long indices);
+
+	int selectLongs(ByteBuffer values, int count, CompareOp op, long value, long indices);
+
+	int selectFloats(ByteBuffer values, int count, CompareOp op, float value, long indices);
+
+	int selectDoubles(ByteBuffer values, int count, CompareOp op, double value, long indices);
+
+	/**
+	 * Sets {@code out[i] = left[i] op right[i]}.
+	 */
+	void applyInts(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count);
+
+	void applyLongs(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count);
+
+	void applyFloats(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count);
+
+	void applyDoubles(ArithmeticOp op, ByteBuffer left, ByteBuffer right, ByteBuffer out, int count);
+}
@@ -0,0 +1,269 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.util.TransferPair;
+
+/**
+ * Runs {@link Aggregations} on a ForkJoinPool. A large vector is cut into one
+ * slice per worker with splitAndTransferTo, which shares the underlying buffer
+ * instead of copying it; the slices are reduced in parallel and the partial
+ * results merged.
+ *
+ * The source vector must not be modified or cleared while an aggregation is
+ * running. Vectors with fewer than {@code 2 * minSliceSize} values are
+ * aggregated on the calling thread.
+ */
+public final class ParallelAggregations {
+
+	public static final int DEFAULT_MIN_SLICE_SIZE = 1 << 16;
+
+	private final ForkJoinPool pool;
+	private final int minSliceSize;
+
+	public ParallelAggregations(ForkJoinPool pool) {
+		this(pool, DEFAULT_MIN_SLICE_SIZE);
+	}
+
+	public ParallelAggregations(ForkJoinPool pool, int minSliceSize) {
+		if (minSliceSize <= 0) {
+			throw new IllegalArgumentException("Slice size must be positive, got " + minSliceSize);
+		}
+		this.pool = pool;
+		this.minSliceSize = minSliceSize;
+	}
+
+	/*
+	 * Float8Vector
+	 */
+
+	public double sum(Float8Vector vector) {
+		return reduce(vector, new Reducer<Float8Vector, Double>() {
+			@Override
+			Double reduce(Float8Vector slice) {
+				return Aggregations.sum(slice);
+			}
+
+			@Override
+			Double merge(Double left, Double right) {
+				return left + right;
+			}
+		});
+	}
+
+	public double min(Float8Vector vector) {
+		return reduce(vector, new Reducer<Float8Vector, Double>() {
+			@Override
+			Double reduce(Float8Vector slice) {
+				return Aggregations.min(slice);
+			}
+
+			@Override
+			Double merge(Double left, Double right) {
+				return Math.min(left, right);
+			}
+		});
+	}
+
+	public double max(Float8Vector vector) {
+		return reduce(vector, new Reducer<Float8Vector, Double>() {
+			@Override
+			Double reduce(Float8Vector slice) {
+				return Aggregations.max(slice);
+			}
+
+			@Override
+			Double merge(Double left, Double right) {
+				return Math.max(left, right);
+			}
+		});
+	}
+
+	public Histogram histogram(Float8Vector vector, final double lower, final double upper, final int buckets) {
+		return reduce(vector, new HistogramReducer<Float8Vector>() {
+			@Override
+			Histogram reduce(Float8Vector slice) {
+				return Aggregations.histogram(slice, lower, upper, buckets);
+			}
+		});
+	}
+
+	/*
+	 * BigIntVector
+	 */
+
+	public long sum(BigIntVector vector) {
+		return reduce(vector, new Reducer<BigIntVector, Long>() {
+			@Override
+			Long reduce(BigIntVector slice) {
+				return Aggregations.sum(slice);
+			}
+
+			@Override
+			Long merge(Long left, Long right) {
+				return left + right;
+			}
+		});
+	}
+
+	public long min(BigIntVector vector) {
+		return reduce(vector, new Reducer<BigIntVector, Long>() {
+			@Override
+			Long reduce(BigIntVector slice) {
+				return Aggregations.min(slice);
+			}
+
+			@Override
+			Long merge(Long left, Long right) {
+				return Math.min(left, right);
+			}
+		});
+	}
+
+	public long max(BigIntVector vector) {
+		return reduce(vector, new Reducer<BigIntVector, Long>() {
+			@Override
+			Long reduce(BigIntVector slice) {
+				return Aggregations.max(slice);
+			}
+
+			@Override
+			Long merge(Long left, Long right) {
+				return Math.max(left, right);
+			}
+		});
+	}
+
+	public Histogram histogram(BigIntVector vector, final double lower, final double upper, final int buckets) {
+		return reduce(vector, new HistogramReducer<BigIntVector>() {
+			@Override
+			Histogram reduce(BigIntVector slice) {
+				return Aggregations.histogram(slice, lower, upper, buckets);
+			}
+		});
+	}
+
+	/*
+	 * Splitting and merging
+	 */
+
+	private <V extends ValueVector, R> R reduce(V vector, Reducer<V, R> reducer) {
+		int count = vector.getAccessor().getValueCount();
+		int slices = sliceCount(count);
+		if (slices <= 1) {
+			return reducer.reduce(vector);
+		}
+		List<V> parts = split(vector, count, slices);
+		try {
+			return pool.invoke(new SliceTask<V, R>(parts, 0, parts.size(), reducer));
+		} finally {
+			for (V part : parts) {
+				part.close();
+			}
+		}
+	}
+
+	int sliceCount(int count) {
+		if (count < 2L * minSliceSize) {
+			return 1;
+		}
+		return Math.max(1, Math.min(pool.getParallelism(), count / minSliceSize));
+	}
+
+	/**
+	 * Cuts the first count values of the vector into slices of nearly equal
+	 * size. The slices share the vector's buffer and must be closed by the
+	 * caller.
+	 */
+	@SuppressWarnings("unchecked")
+	static <V extends ValueVector> List<V> split(V vector, int count, int slices) {
+		List<V> parts = new ArrayList<>(slices);
+		try {
+			int start = 0;
+			for (int i = 0; i < slices; i++) {
+				int end = (int) ((long) count * (i + 1) / slices);
+				TransferPair pair = vector.getTransferPair(vector.getAllocator());
+				pair.splitAndTransfer(start, end - start);
+				parts.add((V) pair.getTo());
+				start = end;
+			}
+		} catch (RuntimeException e) {
+			for (V part : parts) {
+				part.close();
+			}
+			throw e;
+		}
+		return parts;
+	}
+
+	private abstract static class Reducer<V, R> {
+
+		abstract R reduce(V slice);
+
+		abstract R merge(R left, R right);
+	}
+
+	private abstract static class HistogramReducer<V> extends Reducer<V, Histogram> {
+
+		@Override
+		Histogram merge(Histogram left, Histogram right) {
+			left.merge(right);
+			return left;
+		}
+	}
+
+	/**
+	 * Reduces the slices [from, to) by recursive halving.
+	 */
+	private static final class SliceTask<V, R> extends RecursiveTask<R> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<V> slices;
+		private final int from;
+		private final int to;
+		private final Reducer<V, R> reducer;
+
+		SliceTask(List<V> slices, int from, int to, Reducer<V, R> reducer) {
+			this.slices = slices;
+			this.from = from;
+			this.to = to;
+			this.reducer = reducer;
+		}
+
+		@Override
+		protected R compute() {
+			if (to - from == 1) {
+				return reducer.reduce(slices.get(from));
+			}
+			int mid = (from + to) >>> 1;
+			SliceTask<V, R> left = new SliceTask<>(slices, from, mid, reducer);
+			left.fork();
+			R right = new SliceTask<>(slices, mid, to, reducer).compute();
+			return reducer.merge(left.join(), right);
+		}
+	}
+}
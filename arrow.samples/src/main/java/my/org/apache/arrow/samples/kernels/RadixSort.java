@@ -0,0 +1,326 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import static io.netty.util.internal.PlatformDependent.copyMemory;
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Stable ascending sort of fixed-width columns, returned as a permutation:
+ * position i of the permutation holds the row that sorts at i. The columns
+ * themselves are not modified; {@link #apply} gathers them in sorted order.
+ *
+ * This is an LSD radix sort over the data buffers. Each key is first copied
+ * into an off-heap scratch buffer as an unsigned integer with the same order
+ * (sign bit flipped for ints; all bits flipped for negative floats), then
+ * sorted one byte at a time, skipping the bytes all values share. Floats
+ * order like {@link Double#compare}: -0.0 before 0.0 and NaN last. Several
+ * keys are sorted from the last to the first, each pass keeping the order
+ * of the previous ones.
+ */
+public final class RadixSort {
+
+	private static final int BUCKETS = 256;
+
+	private RadixSort() {
+	}
+
+	public static SelectionVector sort(BaseDataValueVector key, SelectionVector permutation) {
+		return sort(Collections.singletonList(key), permutation);
+	}
+
+	/**
+	 * Sorts by the first key, then the second for equal first keys, and so on.
+	 * Rows with equal keys keep their original order. The permutation is
+	 * reallocated if it is too small, and the scratch buffers come from its
+	 * allocator.
+	 */
+	public static SelectionVector sort(List<? extends BaseDataValueVector> keys, SelectionVector permutation) {
+		if (keys.isEmpty()) {
+			throw new IllegalArgumentException("At least one sort key is required");
+		}
+		int count = keys.get(0).getAccessor().getValueCount();
+		int keyWidth = 4;
+		FixedWidthType[] types = new FixedWidthType[keys.size()];
+		for (int k = 0; k < types.length; k++) {
+			types[k] = FixedWidthType.of(keys.get(k));
+			keyWidth = Math.max(keyWidth, types[k].getWidth());
+			if (keys.get(k).getAccessor().getValueCount() != count) {
+				throw new IllegalArgumentException("Sort key " + k + " has "
+						+ keys.get(k).getAccessor().getValueCount() + " values, expected " + count);
+			}
+		}
+		permutation.ensureCapacity(count);
+		BufferAllocator allocator = permutation.getAllocator();
+		ArrowBuf spareIndices = allocator.buffer(count * SelectionVector.INDEX_WIDTH);
+		ArrowBuf sortKeys = null;
+		ArrowBuf spareKeys = null;
+		try {
+			sortKeys = allocator.buffer(count * keyWidth);
+			spareKeys = allocator.buffer(count * keyWidth);
+			long indices = permutation.getBuffer().memoryAddress();
+			long spare = spareIndices.memoryAddress();
+			for (int i = 0; i < count; i++) {
+				putInt(indices + ((long) i << 2), i);
+			}
+			for (int k = keys.size() - 1; k >= 0; k--) {
+				int passes;
+				if (types[k].getWidth() == 8) {
+					loadLongKeys(keys.get(k), types[k], indices, sortKeys.memoryAddress(), count);
+					passes = sortLongs(sortKeys.memoryAddress(), spareKeys.memoryAddress(), indices, spare, count);
+				} else {
+					loadIntKeys(keys.get(k), types[k], indices, sortKeys.memoryAddress(), count);
+					passes = sortInts(sortKeys.memoryAddress(), spareKeys.memoryAddress(), indices, spare, count,
+							types[k].getWidth());
+				}
+				if ((passes & 1) != 0) {
+					long sorted = spare;
+					spare = indices;
+					indices = sorted;
+				}
+			}
+			if (indices != permutation.getBuffer().memoryAddress()) {
+				copyMemory(indices, permutation.getBuffer().memoryAddress(), (long) count << 2);
+			}
+			permutation.setCount(count);
+			return permutation;
+		} finally {
+			spareIndices.release();
+			if (sortKeys != null) {
+				sortKeys.release();
+			}
+			if (spareKeys != null) {
+				spareKeys.release();
+			}
+		}
+	}
+
+	/**
+	 * Sorts a batch by the named columns.
+	 *
+	 * @return a new batch allocated from allocator; the input batch is left as
+	 *         is
+	 */
+	public static ColumnBatch sort(ColumnBatch batch, List<String> keyColumns, BufferAllocator allocator) {
+		List<BaseDataValueVector> keys = new ArrayList<>(keyColumns.size());
+		for (String name : keyColumns) {
+			keys.add(batch.getColumn(name));
+		}
+		try (SelectionVector permutation = new SelectionVector(allocator)) {
+			sort(keys, permutation);
+			return apply(batch, permutation, allocator);
+		}
+	}
+
+	/**
+	 * Gathers every column of the batch through the permutation, or any other
+	 * selection of its rows.
+	 *
+	 * @return a new batch allocated from allocator
+	 */
+	public static ColumnBatch apply(ColumnBatch batch, SelectionVector permutation, BufferAllocator allocator) {
+		List<Field> fields = batch.getSchema().getFields();
+		List<BaseDataValueVector> columns = new ArrayList<>(fields.size());
+		try {
+			for (int i = 0; i < fields.size(); i++) {
+				BaseDataValueVector column = batch.getType(i).newVector(fields.get(i).getName(), allocator);
+				columns.add(column);
+				BulkCopy.gather(batch.getColumn(i), permutation, column);
+			}
+			return new ColumnBatch(batch.getSchema(), columns);
+		} catch (RuntimeException e) {
+			for (BaseDataValueVector column : columns) {
+				column.close();
+			}
+			throw e;
+		}
+	}
+
+	/*
+	 * Sort keys
+	 */
+
+	private static void loadIntKeys(BaseDataValueVector vector, FixedWidthType type, long indices, long keys,
+			int count) {
+		long address = Aggregations.address(vector);
+		switch (type) {
+		case SMALLINT:
+			for (int i = 0; i < count; i++) {
+				int row = getInt(indices + ((long) i << 2));
+				putInt(keys + ((long) i << 2), (getShort(address + ((long) row << 1)) ^ 0x8000) & 0xFFFF);
+			}
+			break;
+		case INT:
+			for (int i = 0; i < count; i++) {
+				int row = getInt(indices + ((long) i << 2));
+				putInt(keys + ((long) i << 2), getInt(address + ((long) row << 2)) ^ Integer.MIN_VALUE);
+			}
+			break;
+		case FLOAT4:
+			for (int i = 0; i < count; i++) {
+				int row = getInt(indices + ((long) i << 2));
+				putInt(keys + ((long) i << 2), floatKey(getInt(address + ((long) row << 2))));
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Not a 2 or 4 byte type: " + type);
+		}
+	}
+
+	private static void loadLongKeys(BaseDataValueVector vector, FixedWidthType type, long indices, long keys,
+			int count) {
+		long address = Aggregations.address(vector);
+		if (type == FixedWidthType.BIGINT) {
+			for (int i = 0; i < count; i++) {
+				int row = getInt(indices + ((long) i << 2));
+				putLong(keys + ((long) i << 3), getLong(address + ((long) row << 3)) ^ Long.MIN_VALUE);
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				int row = getInt(indices + ((long) i << 2));
+				putLong(keys + ((long) i << 3), doubleKey(getLong(address + ((long) row << 3))));
+			}
+		}
+	}
+
+	static int floatKey(int bits) {
+		if ((bits & Integer.MAX_VALUE) > 0x7F800000) {
+			bits = 0x7FC00000;
+		}
+		return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+	}
+
+	static long doubleKey(long bits) {
+		if ((bits & Long.MAX_VALUE) > 0x7FF0000000000000L) {
+			bits = 0x7FF8000000000000L;
+		}
+		return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+	}
+
+	/*
+	 * Radix passes
+	 */
+
+	/**
+	 * Each pass scatters keys and indices into the spare buffers, which then
+	 * swap roles with the others for the next pass.
+	 *
+	 * @return number of passes; the sorted indices are in the spare buffer when
+	 *         it is odd
+	 */
+	private static int sortInts(long keys, long spareKeys, long indices, long spareIndices, int count, int bytes) {
+		if (count < 2) {
+			return 0;
+		}
+		int[][] offsets = new int[bytes][BUCKETS];
+		for (int i = 0; i < count; i++) {
+			int key = getInt(keys + ((long) i << 2));
+			for (int b = 0; b < bytes; b++) {
+				offsets[b][(key >>> (b << 3)) & 0xFF]++;
+			}
+		}
+		int passes = 0;
+		for (int b = 0; b < bytes; b++) {
+			int shift = b << 3;
+			int[] offset = offsets[b];
+			if (offset[(getInt(keys) >>> shift) & 0xFF] == count) {
+				continue;
+			}
+			toOffsets(offset);
+			for (int i = 0; i < count; i++) {
+				int key = getInt(keys + ((long) i << 2));
+				int position = offset[(key >>> shift) & 0xFF]++;
+				putInt(spareKeys + ((long) position << 2), key);
+				putInt(spareIndices + ((long) position << 2), getInt(indices + ((long) i << 2)));
+			}
+			long swap = keys;
+			keys = spareKeys;
+			spareKeys = swap;
+			swap = indices;
+			indices = spareIndices;
+			spareIndices = swap;
+			passes++;
+		}
+		return passes;
+	}
+
+	private static int sortLongs(long keys, long spareKeys, long indices, long spareIndices, int count) {
+		if (count < 2) {
+			return 0;
+		}
+		int[][] offsets = new int[8][BUCKETS];
+		for (int i = 0; i < count; i++) {
+			long key = getLong(keys + ((long) i << 3));
+			for (int b = 0; b < 8; b++) {
+				offsets[b][(int) (key >>> (b << 3)) & 0xFF]++;
+			}
+		}
+		int passes = 0;
+		for (int b = 0; b < 8; b++) {
+			int shift = b << 3;
+			int[] offset = offsets[b];
+			if (offset[(int) (getLong(keys) >>> shift) & 0xFF] == count) {
+				continue;
+			}
+			toOffsets(offset);
+			for (int i = 0; i < count; i++) {
+				long key = getLong(keys + ((long) i << 3));
+				int position = offset[(int) (key >>> shift) & 0xFF]++;
+				putLong(spareKeys + ((long) position << 3), key);
+				putInt(spareIndices + ((long) position << 2), getInt(indices + ((long) i << 2)));
+			}
+			long swap = keys;
+			keys = spareKeys;
+			spareKeys = swap;
+			swap = indices;
+			indices = spareIndices;
+			spareIndices = swap;
+			passes++;
+		}
+		return passes;
+	}
+
+	/**
+	 * Turns bucket counts into the position of the first value of each bucket.
+	 */
+	private static void toOffsets(int[] counts) {
+		int sum = 0;
+		for (int i = 0; i < counts.length; i++) {
+			int bucketCount = counts[i];
+			counts[i] = sum;
+			sum += bucketCount;
+		}
+	}
+}
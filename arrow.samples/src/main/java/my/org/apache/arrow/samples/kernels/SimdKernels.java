@@ -0,0 +1,389 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.kernels;
+
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.putInt;
+import static io.netty.util.internal.PlatformDependent.putLong;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+
+import my.org.apache.arrow.samples.expr.ArithmeticOp;
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Aggregation, comparison and element-wise arithmetic kernels for int,
+ * bigint, float4 and float8 vectors that use SIMD instructions through the
+ * incubating Vector API (jdk.incubator.vector) when it is available, and
+ * scalar loops otherwise.
+ *
+ * The vectorized kernels are compiled by the simd profile on JDK 17 and 18
+ * and used when the JVM runs with {@code --add-modules jdk.incubator.vector};
+ * {@code -Darrow.samples.simd=false} disables them. The scalar path is
+ * {@link Aggregations} and {@link Filters}, and results are the same except
+ * for floating point sums, which are added in a different order.
+ */
+public final class SimdKernels {
+
+	private static final String IMPLEMENTATION = "my.org.apache.arrow.samples.kernels.VectorApiKernels";
+
+	private static final LaneKernels LANES = load();
+
+	private SimdKernels() {
+	}
+
+	private static LaneKernels load() {
+		if (!Boolean.parseBoolean(System.getProperty("arrow.samples.simd", "true"))) {
+			return null;
+		}
+		try {
+			return (LaneKernels) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// not compiled in, or the jdk.incubator.vector module is missing
+			return null;
+		}
+	}
+
+	/**
+	 * @return whether the Vector API kernels are in use
+	 */
+	public static boolean isVectorized() {
+		return LANES != null;
+	}
+
+	public static String describe() {
+		return LANES == null ? "scalar" : LANES.describe();
+	}
+
+	/*
+	 * Aggregations
+	 */
+
+	public static long sum(IntVector vector) {
+		return LANES == null ? Aggregations.sum(vector) : LANES.sumInts(values(vector), count(vector));
+	}
+
+	public static long sum(BigIntVector vector) {
+		return LANES == null ? Aggregations.sum(vector) : LANES.sumLongs(values(vector), count(vector));
+	}
+
+	public static double sum(Float4Vector vector) {
+		return LANES == null ? Aggregations.sum(vector) : LANES.sumFloats(values(vector), count(vector));
+	}
+
+	public static double sum(Float8Vector vector) {
+		return LANES == null ? Aggregations.sum(vector) : LANES.sumDoubles(values(vector), count(vector));
+	}
+
+	public static int min(IntVector vector) {
+		return LANES == null ? Aggregations.min(vector) : LANES.minInts(values(vector), nonEmptyCount(vector, "min"));
+	}
+
+	public static int max(IntVector vector) {
+		return LANES == null ? Aggregations.max(vector) : LANES.maxInts(values(vector), nonEmptyCount(vector, "max"));
+	}
+
+	public static long min(BigIntVector vector) {
+		return LANES == null ? Aggregations.min(vector) : LANES.minLongs(values(vector), nonEmptyCount(vector, "min"));
+	}
+
+	public static long max(BigIntVector vector) {
+		return LANES == null ? Aggregations.max(vector) : LANES.maxLongs(values(vector), nonEmptyCount(vector, "max"));
+	}
+
+	/**
+	 * @return the smallest value, or NaN if any value is NaN
+	 */
+	public static float min(Float4Vector vector) {
+		return LANES == null ? Aggregations.min(vector)
+				: LANES.minFloats(values(vector), nonEmptyCount(vector, "min"));
+	}
+
+	/**
+	 * @return the largest value, or NaN if any value is NaN
+	 */
+	public static float max(Float4Vector vector) {
+		return LANES == null ? Aggregations.max(vector)
+				: LANES.maxFloats(values(vector), nonEmptyCount(vector, "max"));
+	}
+
+	/**
+	 * @return the smallest value, or NaN if any value is NaN
+	 */
+	public static double min(Float8Vector vector) {
+		return LANES == null ? Aggregations.min(vector)
+				: LANES.minDoubles(values(vector), nonEmptyCount(vector, "min"));
+	}
+
+	/**
+	 * @return the largest value, or NaN if any value is NaN
+	 */
+	public static double max(Float8Vector vector) {
+		return LANES == null ? Aggregations.max(vector)
+				: LANES.maxDoubles(values(vector), nonEmptyCount(vector, "max"));
+	}
+
+	/*
+	 * Comparisons, same results as Filters.compare
+	 */
+
+	public static SelectionVector compare(IntVector vector, CompareOp op, int value, SelectionVector out) {
+		if (LANES == null) {
+			return Filters.compare(vector, op, value, out);
+		}
+		out.ensureCapacity(count(vector));
+		out.setCount(LANES.selectInts(values(vector), count(vector), op, value, out.getBuffer().memoryAddress()));
+		return out;
+	}
+
+	public static SelectionVector compare(BigIntVector vector, CompareOp op, long value, SelectionVector out) {
+		if (LANES == null) {
+			return Filters.compare(vector, op, value, out);
+		}
+		out.ensureCapacity(count(vector));
+		out.setCount(LANES.selectLongs(values(vector), count(vector), op, value, out.getBuffer().memoryAddress()));
+		return out;
+	}
+
+	public static SelectionVector compare(Float4Vector vector, CompareOp op, float value, SelectionVector out) {
+		if (LANES == null) {
+			return Filters.compare(vector, op, value, out);
+		}
+		out.ensureCapacity(count(vector));
+		out.setCount(LANES.selectFloats(values(vector), count(vector), op, value, out.getBuffer().memoryAddress()));
+		return out;
+	}
+
+	public static SelectionVector compare(Float8Vector vector, CompareOp op, double value, SelectionVector out) {
+		if (LANES == null) {
+			return Filters.compare(vector, op, value, out);
+		}
+		out.ensureCapacity(count(vector));
+		out.setCount(LANES.selectDoubles(values(vector), count(vector), op, value, out.getBuffer().memoryAddress()));
+		return out;
+	}
+
+	/*
+	 * Arithmetic
+	 */
+
+	/**
+	 * Sets {@code target[i] = left[i] op right[i]} with the semantics of the
+	 * Java operators, reallocating the target if it is too small. All three
+	 * vectors must be of the same type, one of int, bigint, float4 or float8.
+	 *
+	 * @return the target
+	 * @throws ArithmeticException
+	 *             on integer division by zero
+	 */
+	public static <V extends BaseDataValueVector> V apply(ArithmeticOp op, V left, V right, V target) {
+		FixedWidthType type = FixedWidthType.of(left);
+		if (type == FixedWidthType.SMALLINT) {
+			throw new IllegalArgumentException("Unsupported type " + type);
+		}
+		BulkCopy.checkTypes(left, right);
+		BulkCopy.checkTypes(left, target);
+		int count = count(left);
+		if (count(right) != count) {
+			throw new IllegalArgumentException(
+					"Operands have " + count + " and " + count(right) + " values");
+		}
+		BulkCopy.ensureCapacity(target, count);
+		if (count > 0) {
+			switch (type) {
+			case INT:
+				if (LANES == null) {
+					applyInts(op, Aggregations.address(left), Aggregations.address(right),
+							Aggregations.address(target), count);
+				} else {
+					LANES.applyInts(op, values(left), values(right), buffer(target, count), count);
+				}
+				break;
+			case BIGINT:
+				if (LANES == null) {
+					applyLongs(op, Aggregations.address(left), Aggregations.address(right),
+							Aggregations.address(target), count);
+				} else {
+					LANES.applyLongs(op, values(left), values(right), buffer(target, count), count);
+				}
+				break;
+			case FLOAT4:
+				if (LANES == null) {
+					applyFloats(op, Aggregations.address(left), Aggregations.address(right),
+							Aggregations.address(target), count);
+				} else {
+					LANES.applyFloats(op, values(left), values(right), buffer(target, count), count);
+				}
+				break;
+			case FLOAT8:
+				if (LANES == null) {
+					applyDoubles(op, Aggregations.address(left), Aggregations.address(right),
+							Aggregations.address(target), count);
+				} else {
+					LANES.applyDoubles(op, values(left), values(right), buffer(target, count), count);
+				}
+				break;
+			default:
+				throw new IllegalStateException("Unexpected type " + type);
+			}
+		}
+		target.getMutator().setValueCount(count);
+		return target;
+	}
+
+	private static void applyInts(ArithmeticOp op, long left, long right, long out, int count) {
+		switch (op) {
+		case ADD:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 2;
+				putInt(out + offset, getInt(left + offset) + getInt(right + offset));
+			}
+			break;
+		case SUBTRACT:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 2;
+				putInt(out + offset, getInt(left + offset) - getInt(right + offset));
+			}
+			break;
+		case MULTIPLY:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 2;
+				putInt(out + offset, getInt(left + offset) * getInt(right + offset));
+			}
+			break;
+		default:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 2;
+				putInt(out + offset, getInt(left + offset) / getInt(right + offset));
+			}
+			break;
+		}
+	}
+
+	private static void applyLongs(ArithmeticOp op, long left, long right, long out, int count) {
+		switch (op) {
+		case ADD:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 3;
+				putLong(out + offset, getLong(left + offset) + getLong(right + offset));
+			}
+			break;
+		case SUBTRACT:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 3;
+				putLong(out + offset, getLong(left + offset) - getLong(right + offset));
+			}
+			break;
+		case MULTIPLY:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 3;
+				putLong(out + offset, getLong(left + offset) * getLong(right + offset));
+			}
+			break;
+		default:
+			for (int i = 0; i < count; i++) {
+				long offset = (long) i << 3;
+				putLong(out + offset, getLong(left + offset) / getLong(right + offset));
+			}
+			break;
+		}
+	}
+
+	private static void applyFloats(ArithmeticOp op, long left, long right, long out, int count) {
+		for (int i = 0; i < count; i++) {
+			long offset = (long) i << 2;
+			float a = Float.intBitsToFloat(getInt(left + offset));
+			float b = Float.intBitsToFloat(getInt(right + offset));
+			putInt(out + offset, Float.floatToRawIntBits(apply(op, a, b)));
+		}
+	}
+
+	private static void applyDoubles(ArithmeticOp op, long left, long right, long out, int count) {
+		for (int i = 0; i < count; i++) {
+			long offset = (long) i << 3;
+			double a = Double.longBitsToDouble(getLong(left + offset));
+			double b = Double.longBitsToDouble(getLong(right + offset));
+			putLong(out + offset, Double.doubleToRawLongBits(apply(op, a, b)));
+		}
+	}
+
+	private static float apply(ArithmeticOp op, float a, float b) {
+		switch (op) {
+		case ADD:
+			return a + b;
+		case SUBTRACT:
+			return a - b;
+		case MULTIPLY:
+			return a * b;
+		default:
+			return a / b;
+		}
+	}
+
+	private static double apply(ArithmeticOp op, double a, double b) {
+		switch (op) {
+		case ADD:
+			return a + b;
+		case SUBTRACT:
+			return a - b;
+		case MULTIPLY:
+			return a * b;
+		default:
+			return a / b;
+		}
+	}
+
+	/*
+	 * Buffers
+	 */
+
+	private static int count(BaseDataValueVector vector) {
+		return vector.getAccessor().getValueCount();
+	}
+
+	private static int nonEmptyCount(BaseDataValueVector vector, String aggregation) {
+		int count = count(vector);
+		if (count == 0) {
+			throw new IllegalArgumentException("Cannot compute " + aggregation + " of an empty vector");
+		}
+		return count;
+	}
+
+	private static ByteBuffer values(BaseDataValueVector vector) {
+		return buffer(vector, count(vector));
+	}
+
+	private static ByteBuffer buffer(BaseDataValueVector vector, int count) {
+		int size = count * FixedWidthType.of(vector).getWidth();
+		if (size == 0) {
+			return ByteBuffer.allocateDirect(0).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return vector.getBuffer().nioBuffer(0, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.memory;
+
+/**
+ * Receives the events recorded by an {@link InstrumentedAllocator}. Called on
+ * the allocating thread, so implementations must be thread safe and cheap.
+ */
+public interface AllocationSink {
+
+	/**
+	 * @param allocatorName
+	 *            name of the allocator, the vector name for allocators created
+	 *            with {@link InstrumentedAllocator#newVectorAllocator(String)}
+	 * @param size
+	 *            requested size in bytes
+	 * @param nanos
+	 *            time spent in the allocator
+	 * @param reAlloc
+	 *            whether the allocation grew a vector that already held a
+	 *            buffer
+	 * @param allocatedMemory
+	 *            memory held by the allocator after the allocation
+	 */
+	void onAllocation(String allocatorName, long size, long nanos, boolean reAlloc, long allocatedMemory);
+
+	/**
+	 * Called when an allocation fails because of the allocator limits.
+	 */
+	void onFailure(String allocatorName, long size);
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of all allocators sharing one name. Updated concurrently, so a
+ * reader may see the counters of an allocation partially applied.
+ */
+public final class AllocatorMetrics implements AllocatorMetricsMXBean {
+
+	private final String name;
+	private final AtomicLong allocationCount = new AtomicLong();
+	private final AtomicLong allocatedBytes = new AtomicLong();
+	private final AtomicLong reAllocCount = new AtomicLong();
+	private final AtomicLong failureCount = new AtomicLong();
+	private final AtomicLong allocationNanos = new AtomicLong();
+	private final AtomicLong peakMemory = new AtomicLong();
+
+	AllocatorMetrics(String name) {
+		this.name = name;
+	}
+
+	void recordAllocation(long size, long nanos, boolean reAlloc, long allocatedMemory) {
+		allocationCount.incrementAndGet();
+		allocatedBytes.addAndGet(size);
+		allocationNanos.addAndGet(nanos);
+		if (reAlloc) {
+			reAllocCount.incrementAndGet();
+		}
+		long peak = peakMemory.get();
+		while (allocatedMemory > peak && !peakMemory.compareAndSet(peak, allocatedMemory)) {
+			peak = peakMemory.get();
+		}
+	}
+
+	void recordFailure() {
+		failureCount.incrementAndGet();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return number of buffers requested
+	 */
+	@Override
+	public long getAllocationCount() {
+		return allocationCount.get();
+	}
+
+	/**
+	 * @return total bytes requested, before the allocator rounds them up
+	 */
+	@Override
+	public long getAllocatedBytes() {
+		return allocatedBytes.get();
+	}
+
+	@Override
+	public long getReAllocCount() {
+		return reAllocCount.get();
+	}
+
+	/**
+	 * @return number of allocations rejected because of a limit
+	 */
+	@Override
+	public long getFailureCount() {
+		return failureCount.get();
+	}
+
+	@Override
+	public long getAllocationNanos() {
+		return allocationNanos.get();
+	}
+
+	/**
+	 * @return the most memory a single allocator of this name held
+	 */
+	@Override
+	public long getPeakMemory() {
+		return peakMemory.get();
+	}
+
+	@Override
+	public String toString() {
+		return name + "[allocations=" + getAllocationCount() + ", bytes=" + getAllocatedBytes() + ", reAllocs="
+				+ getReAllocCount() + ", failures=" + getFailureCount() + ", nanos=" + getAllocationNanos()
+				+ ", peak=" + getPeakMemory() + "]";
+	}
+}
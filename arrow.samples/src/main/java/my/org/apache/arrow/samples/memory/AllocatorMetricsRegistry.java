@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Sink keeping one {@link AllocatorMetrics} per allocator name. Once
+ * {@link #registerMBeans(MBeanServer)} is called every metrics object, present
+ * or future, is also published as an MXBean named
+ * {@code my.org.apache.arrow.samples:type=BufferAllocator,name=<allocator name>}.
+ */
+public final class AllocatorMetricsRegistry implements AllocationSink, AutoCloseable {
+
+	public static final String JMX_DOMAIN = "my.org.apache.arrow.samples";
+
+	private final ConcurrentMap<String, AllocatorMetrics> metrics = new ConcurrentHashMap<>();
+	private final List<ObjectName> registered = new ArrayList<>();
+	private MBeanServer server;
+
+	@Override
+	public void onAllocation(String allocatorName, long size, long nanos, boolean reAlloc, long allocatedMemory) {
+		getMetrics(allocatorName).recordAllocation(size, nanos, reAlloc, allocatedMemory);
+	}
+
+	@Override
+	public void onFailure(String allocatorName, long size) {
+		getMetrics(allocatorName).recordFailure();
+	}
+
+	/**
+	 * @return the metrics of the given name, created empty if nothing was
+	 *         recorded for it yet
+	 */
+	public AllocatorMetrics getMetrics(String allocatorName) {
+		AllocatorMetrics current = metrics.get(allocatorName);
+		if (current != null) {
+			return current;
+		}
+		AllocatorMetrics created = new AllocatorMetrics(allocatorName);
+		current = metrics.putIfAbsent(allocatorName, created);
+		if (current != null) {
+			return current;
+		}
+		register(created);
+		return created;
+	}
+
+	public Collection<AllocatorMetrics> getAllMetrics() {
+		return Collections.unmodifiableCollection(metrics.values());
+	}
+
+	public synchronized void registerMBeans(MBeanServer server) {
+		if (this.server != null) {
+			throw new IllegalStateException("MBeans already registered");
+		}
+		this.server = server;
+		for (AllocatorMetrics existing : metrics.values()) {
+			register(existing);
+		}
+	}
+
+	public static ObjectName objectName(String allocatorName) {
+		try {
+			return new ObjectName(JMX_DOMAIN + ":type=BufferAllocator,name=" + ObjectName.quote(allocatorName));
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Invalid allocator name " + allocatorName, e);
+		}
+	}
+
+	private synchronized void register(AllocatorMetrics allocatorMetrics) {
+		if (server == null) {
+			return;
+		}
+		ObjectName name = objectName(allocatorMetrics.getName());
+		if (registered.contains(name)) {
+			return;
+		}
+		try {
+			server.registerMBean(allocatorMetrics, name);
+			registered.add(name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register " + name, e);
+		}
+	}
+
+	/**
+	 * Unregisters the MBeans; the metrics remain readable.
+	 */
+	@Override
+	public synchronized void close() {
+		if (server == null) {
+			return;
+		}
+		for (ObjectName name : registered) {
+			try {
+				server.unregisterMBean(name);
+			} catch (JMException e) {
+				// already unregistered by someone else
+			}
+		}
+		registered.clear();
+		server = null;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.memory;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import org.apache.arrow.memory.BaseAllocator;
+
+/**
+ * Support for allocators that extend BaseAllocator directly instead of being
+ * created by newChildAllocator. Prefer wrapping a regular child allocator;
+ * extending BaseAllocator is only needed when buffers must be transferred
+ * into the allocator, since Arrow 0.5 casts the target of a transfer to
+ * BaseAllocator. {@link InstrumentedAllocator} is such a case.
+ */
+public final class Allocators {
+
+	private Allocators() {
+	}
+
+	/**
+	 * In debug mode (enabled with assertions) an allocator verifies that its
+	 * children were created by its own newChildAllocator, which keeps them in
+	 * a private map; registers the child there the same way. Does nothing
+	 * when debug mode is off.
+	 *
+	 * This relies on the private DEBUG_LOCK and childAllocators fields of
+	 * Arrow 0.5 and fails with an IllegalStateException, rather than leaving
+	 * the child unregistered, if they change.
+	 */
+	@SuppressWarnings("unchecked")
+	public static void registerChild(BaseAllocator parent, BaseAllocator child) {
+		if (!BaseAllocator.DEBUG) {
+			return;
+		}
+		try {
+			Field lockField = BaseAllocator.class.getDeclaredField("DEBUG_LOCK");
+			Field childrenField = BaseAllocator.class.getDeclaredField("childAllocators");
+			if (!Map.class.isAssignableFrom(childrenField.getType())) {
+				throw new IllegalStateException("BaseAllocator.childAllocators is a " + childrenField.getType().getName()
+						+ ", not a Map; cannot register allocator " + child.getName() + " in debug mode");
+			}
+			lockField.setAccessible(true);
+			childrenField.setAccessible(true);
+			synchronized (lockField.get(parent)) {
+				((Map<BaseAllocator, Object>) childrenField.get(parent)).put(child, child);
+			}
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalStateException("Cannot register allocator " + child.getName() + " in debug mode", e);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.memory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.arrow.memory.BaseAllocator;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.BufferManager;
+import org.apache.arrow.memory.OutOfMemoryException;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * An allocator reporting every buffer it hands out to an
+ * {@link AllocationSink}, together with the time spent allocating it. It is a
+ * regular child allocator, so buffers can be transferred to and from it like
+ * with any other allocator.
+ *
+ * Children created with newChildAllocator are instrumented too and report
+ * under their own name. {@link #newVectorAllocator(String)} creates a child
+ * meant to back a single vector and named after it: allocations of twice the
+ * size of a buffer such an allocator still holds are the vector growing, and
+ * are reported as reAlloc events. Vectors grow by allocating a buffer of
+ * twice the size, copying and only then releasing the old one, while the
+ * buffers allocated together by allocateNew, such as the validity and value
+ * buffers of a nullable vector, never differ by exactly a factor of two.
+ */
+public class InstrumentedAllocator extends BaseAllocator {
+
+	private final AllocationSink sink;
+	private final boolean vectorScope;
+	// buffers handed out while vectorScope, to recognize the ones regrown
+	private final List<ArrowBuf> vectorBuffers = new ArrayList<>();
+
+	private InstrumentedAllocator(BaseAllocator parent, String name, long initReservation, long limit,
+			AllocationSink sink, boolean vectorScope) {
+		super(parent, name, initReservation, limit);
+		this.sink = sink;
+		this.vectorScope = vectorScope;
+		Allocators.registerChild(parent, this);
+	}
+
+	/**
+	 * Creates an instrumented child of the given allocator, which must be a
+	 * RootAllocator or one of its descendants.
+	 */
+	public static InstrumentedAllocator instrument(BufferAllocator parent, String name, long limit,
+			AllocationSink sink) {
+		if (!(parent instanceof BaseAllocator)) {
+			throw new IllegalArgumentException("Cannot instrument a child of " + parent.getClass().getName());
+		}
+		return new InstrumentedAllocator((BaseAllocator) parent, name, 0, limit, sink, false);
+	}
+
+	public AllocationSink getSink() {
+		return sink;
+	}
+
+	@Override
+	public ArrowBuf buffer(int initialRequestSize, BufferManager manager) {
+		if (initialRequestSize == 0) {
+			return super.buffer(initialRequestSize, manager);
+		}
+		boolean reAlloc = vectorScope && growsBuffer(initialRequestSize);
+		long start = System.nanoTime();
+		ArrowBuf buffer;
+		try {
+			buffer = super.buffer(initialRequestSize, manager);
+		} catch (OutOfMemoryException e) {
+			sink.onFailure(getName(), initialRequestSize);
+			throw e;
+		}
+		if (vectorScope) {
+			synchronized (vectorBuffers) {
+				vectorBuffers.add(buffer);
+			}
+		}
+		sink.onAllocation(getName(), initialRequestSize, System.nanoTime() - start, reAlloc, getAllocatedMemory());
+		return buffer;
+	}
+
+	/**
+	 * @return whether a buffer still held is half the requested size; the
+	 *         released ones are forgotten along the way. Sizes are compared
+	 *         rounded up to powers of two, like the allocator rounds the
+	 *         capacity of small buffers.
+	 */
+	private boolean growsBuffer(int requestSize) {
+		boolean grows = false;
+		synchronized (vectorBuffers) {
+			Iterator<ArrowBuf> buffers = vectorBuffers.iterator();
+			while (buffers.hasNext()) {
+				ArrowBuf held = buffers.next();
+				if (held.refCnt() == 0) {
+					buffers.remove();
+				} else if (2 * roundedSize(held.capacity()) == roundedSize(requestSize)) {
+					grows = true;
+				}
+			}
+		}
+		return grows;
+	}
+
+	private static long roundedSize(long size) {
+		return size <= 1 ? size : Long.highestOneBit(size - 1) << 1;
+	}
+
+	@Override
+	public InstrumentedAllocator newChildAllocator(String name, long initReservation, long maxAllocation) {
+		assertOpen();
+		return new InstrumentedAllocator(this, name, initReservation, maxAllocation, sink, false);
+	}
+
+	/**
+	 * @return a child allocator for a single vector of the given name,
+	 *         bounded by this allocator only
+	 */
+	public InstrumentedAllocator newVectorAllocator(String vectorName) {
+		assertOpen();
+		return new InstrumentedAllocator(this, vectorName, 0, Long.MAX_VALUE, sink, true);
+	}
+}
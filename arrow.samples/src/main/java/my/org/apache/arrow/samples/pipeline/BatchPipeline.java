@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Streams fixed-size record batches from a producer thread to a consumer
+ * through a bounded queue. When the consumer falls behind the queue fills up
+ * and the producer blocks, so at most {@code queueCapacity + 2} batches exist
+ * at any time: the queued ones, the one being filled and the one being
+ * consumed.
+ *
+ * Every batch is allocated with allocateNew(batchSize) and never grown, from
+ * a child allocator whose limit is exactly that many batches. Peak off-heap
+ * usage therefore depends on the batch size and queue capacity only, not on
+ * the length of the input; a producer that needs more memory than that fails
+ * with an OutOfMemoryException instead of exhausting the parent allocator.
+ */
+public class BatchPipeline implements AutoCloseable {
+
+	private static final AtomicInteger PIPELINE_IDS = new AtomicInteger();
+
+	private final Schema schema;
+	private final int batchSize;
+	private final int queueCapacity;
+	private final BufferAllocator allocator;
+
+	public BatchPipeline(BufferAllocator parent, Schema schema, int batchSize, int queueCapacity) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+		}
+		if (queueCapacity <= 0) {
+			throw new IllegalArgumentException("Queue capacity must be positive, got " + queueCapacity);
+		}
+		this.schema = schema;
+		this.batchSize = batchSize;
+		this.queueCapacity = queueCapacity;
+		long limit = batchAllocationSize(schema, batchSize) * (queueCapacity + 2);
+		this.allocator = parent.newChildAllocator("pipeline-" + PIPELINE_IDS.incrementAndGet(), 0, limit);
+	}
+
+	/**
+	 * @return bytes allocated for one batch; the allocator rounds every buffer
+	 *         up to a power of two
+	 */
+	static long batchAllocationSize(Schema schema, int batchSize) {
+		long size = 0;
+		for (Field field : schema.getFields()) {
+			long bytes = (long) batchSize * FixedWidthType.of(field.getType()).getWidth();
+			long rounded = Long.highestOneBit(bytes);
+			size += rounded == bytes ? bytes : rounded << 1;
+		}
+		return size;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @return the off-heap bound of the pipeline
+	 */
+	public long getMemoryLimit() {
+		return allocator.getLimit();
+	}
+
+	public long getPeakMemoryAllocation() {
+		return allocator.getPeakMemoryAllocation();
+	}
+
+	/**
+	 * Runs the producer on a new thread and the consumer on the calling thread
+	 * until the producer signals the end of its input.
+	 *
+	 * @return number of rows streamed
+	 * @throws ExecutionException
+	 *             wrapping the first exception thrown by either stage; the
+	 *             other stage is stopped and all batches are released
+	 */
+	public long run(BatchProducer producer, BatchConsumer consumer)
+			throws InterruptedException, ExecutionException {
+		BlockingQueue<Item> queue = new ArrayBlockingQueue<>(queueCapacity);
+		ProducerThread thread = new ProducerThread(producer, queue);
+		thread.start();
+		long rows = 0;
+		try {
+			while (true) {
+				Item item = queue.take();
+				if (item.batch == null) {
+					if (item.failure != null) {
+						throw new ExecutionException("Producer failed", item.failure);
+					}
+					return rows;
+				}
+				try (ColumnBatch batch = item.batch) {
+					consumer.consume(batch);
+					rows += batch.getRowCount();
+				} catch (Exception e) {
+					throw new ExecutionException("Consumer failed", e);
+				}
+			}
+		} finally {
+			thread.shutdown();
+			// the producer may be blocked on a full queue that is no longer consumed
+			while (thread.isAlive()) {
+				drain(queue);
+				thread.join(10);
+			}
+			drain(queue);
+		}
+	}
+
+	private static void drain(BlockingQueue<Item> queue) {
+		Item item;
+		while ((item = queue.poll()) != null) {
+			if (item.batch != null) {
+				item.batch.close();
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		allocator.close();
+	}
+
+	/**
+	 * A queued batch, or the end of the stream when batch is null.
+	 */
+	private static final class Item {
+
+		private final ColumnBatch batch;
+		private final Throwable failure;
+
+		Item(ColumnBatch batch, Throwable failure) {
+			this.batch = batch;
+			this.failure = failure;
+		}
+	}
+
+	private final class ProducerThread extends Thread {
+
+		private final BatchProducer producer;
+		private final BlockingQueue<Item> queue;
+		private volatile boolean stopped;
+
+		ProducerThread(BatchProducer producer, BlockingQueue<Item> queue) {
+			super(allocator.getName() + "-producer");
+			setDaemon(true);
+			this.producer = producer;
+			this.queue = queue;
+		}
+
+		/**
+		 * Stops the producer once the consumer no longer takes batches; the
+		 * interrupt may be swallowed by the producer, the flag is not.
+		 */
+		void shutdown() {
+			stopped = true;
+			interrupt();
+		}
+
+		@Override
+		public void run() {
+			Throwable failure = null;
+			try {
+				while (!stopped) {
+					ColumnBatch batch = nextBatch();
+					if (batch == null) {
+						break;
+					}
+					try {
+						queue.put(new Item(batch, null));
+					} catch (InterruptedException e) {
+						batch.close();
+						return;
+					}
+				}
+			} catch (Throwable t) {
+				failure = t;
+			}
+			if (stopped) {
+				// the consumer has stopped and no longer waits for the end marker
+				return;
+			}
+			try {
+				queue.put(new Item(null, failure));
+			} catch (InterruptedException e) {
+				// stopped while waiting for room in the queue
+			}
+		}
+
+		private ColumnBatch nextBatch() throws Exception {
+			List<BaseDataValueVector> columns = new ArrayList<>(schema.getFields().size());
+			try {
+				for (Field field : schema.getFields()) {
+					columns.add(FixedWidthType.of(field.getType()).allocateVector(field.getName(), allocator,
+							batchSize));
+				}
+				int rows = producer.produce(columns, batchSize);
+				if (rows < 0 || rows > batchSize) {
+					throw new IllegalStateException("Producer wrote " + rows + " rows into a batch of " + batchSize);
+				}
+				if (rows == 0) {
+					close(columns);
+					return null;
+				}
+				for (BaseDataValueVector column : columns) {
+					column.getMutator().setValueCount(rows);
+				}
+				return new ColumnBatch(schema, columns);
+			} catch (Exception | Error e) {
+				close(columns);
+				throw e;
+			}
+		}
+	}
+
+	private static void close(List<BaseDataValueVector> columns) {
+		for (BaseDataValueVector column : columns) {
+			column.close();
+		}
+	}
+}
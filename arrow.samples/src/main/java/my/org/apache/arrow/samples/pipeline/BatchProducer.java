@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.pipeline;
+
+import java.util.List;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+
+/**
+ * Source stage of a {@link BatchPipeline}. Called repeatedly on the producer
+ * thread, each time with freshly allocated columns matching the pipeline
+ * schema.
+ */
+public interface BatchProducer {
+
+	/**
+	 * Writes up to {@code capacity} rows into the columns, starting at index 0.
+	 * The value counts are set by the pipeline.
+	 *
+	 * @return number of rows written; 0 signals the end of the input
+	 */
+	int produce(List<BaseDataValueVector> columns, int capacity) throws Exception;
+}
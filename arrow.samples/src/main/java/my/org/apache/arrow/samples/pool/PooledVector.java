@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.pool;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * A vector borrowed from a {@link VectorPool}. Closing it hands the vector back
+ * to the pool instead of releasing its buffer; the vector must not be used
+ * afterwards.
+ */
+public final class PooledVector implements AutoCloseable {
+
+	private final VectorPool pool;
+	private final FixedWidthType type;
+	private final BaseDataValueVector vector;
+	private boolean closed;
+
+	PooledVector(VectorPool pool, FixedWidthType type, BaseDataValueVector vector) {
+		this.pool = pool;
+		this.type = type;
+		this.vector = vector;
+	}
+
+	public FixedWidthType getType() {
+		return type;
+	}
+
+	public BaseDataValueVector getVector() {
+		if (closed) {
+			throw new IllegalStateException("Vector already returned to the pool");
+		}
+		return vector;
+	}
+
+	public <V extends BaseDataValueVector> V getVector(Class<V> vectorClass) {
+		return vectorClass.cast(getVector());
+	}
+
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			pool.release(type, vector);
+		}
+	}
+}
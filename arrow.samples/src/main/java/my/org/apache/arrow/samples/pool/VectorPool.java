@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.pool;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.FixedWidthVector;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Recycles fixed-width vectors instead of allocating and releasing a buffer
+ * for every short-lived vector. Vectors are keyed by type and capacity class,
+ * the requested value count rounded up to a power of two; allocateNew with
+ * such a count asks the allocator for a power-of-two buffer, so a class wastes
+ * no memory the allocator would not have rounded up anyway.
+ *
+ * Returned vectors are kept idle until {@code maxIdleBytes} is exceeded, at
+ * which point the least recently returned vectors are closed. A vector is
+ * reset() (zeroed, value count 0) before it is handed out again, and new
+ * vectors are zeroed as well, so callers always see the same state. Once the
+ * pool has warmed up, a steady workload allocates no new buffers. Vectors that
+ * were grown with reAlloc are pooled in their new class; vectors whose buffer
+ * was transferred away are simply closed.
+ *
+ * All methods are thread safe.
+ */
+public final class VectorPool implements AutoCloseable {
+
+	/** The smallest class, matching the default initial allocation of the vectors. */
+	public static final int MIN_CAPACITY = 1024;
+
+	private final BufferAllocator allocator;
+	private final long maxIdleBytes;
+
+	private final Map<Key, ArrayDeque<BaseDataValueVector>> idleByKey = new HashMap<>();
+	/** Idle vectors in the order they were returned, oldest first. */
+	private final LinkedHashMap<BaseDataValueVector, Key> idle = new LinkedHashMap<>();
+	private final Map<BaseDataValueVector, Boolean> borrowed = new IdentityHashMap<>();
+	private long idleBytes;
+	private boolean closed;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public VectorPool(BufferAllocator allocator, long maxIdleBytes) {
+		if (maxIdleBytes < 0) {
+			throw new IllegalArgumentException("Idle limit must not be negative, got " + maxIdleBytes);
+		}
+		this.allocator = allocator;
+		this.maxIdleBytes = maxIdleBytes;
+	}
+
+	/**
+	 * @return the capacity class holding {@code valueCount} values
+	 */
+	public static int capacityClass(int valueCount) {
+		if (valueCount <= MIN_CAPACITY) {
+			return MIN_CAPACITY;
+		}
+		int highest = Integer.highestOneBit(valueCount);
+		if (highest == valueCount) {
+			return valueCount;
+		}
+		if (highest == 1 << 30) {
+			throw new IllegalArgumentException("No capacity class for " + valueCount + " values");
+		}
+		return highest << 1;
+	}
+
+	/**
+	 * Hands out an empty vector with room for at least {@code valueCount}
+	 * values, recycled if one of the same class is idle.
+	 */
+	public synchronized PooledVector acquire(FixedWidthType type, int valueCount) {
+		if (closed) {
+			throw new IllegalStateException("Pool is closed");
+		}
+		Key key = new Key(type, capacityClass(valueCount));
+		ArrayDeque<BaseDataValueVector> vectors = idleByKey.get(key);
+		BaseDataValueVector vector = vectors == null ? null : vectors.pollLast();
+		if (vector != null) {
+			idle.remove(vector);
+			idleBytes -= key.bytes();
+			vector.reset();
+			vector.getMutator().setValueCount(0);
+			hits++;
+		} else {
+			vector = type.allocateVector(type.name().toLowerCase(Locale.ROOT) + "-" + key.capacity, allocator, key.capacity);
+			// allocateNew does not clear the buffer; hand out the same zeroed state as a recycled vector
+			((FixedWidthVector) vector).zeroVector();
+			misses++;
+		}
+		borrowed.put(vector, Boolean.TRUE);
+		return new PooledVector(this, type, vector);
+	}
+
+	synchronized void release(FixedWidthType type, BaseDataValueVector vector) {
+		if (borrowed.remove(vector) == null) {
+			throw new IllegalStateException("Vector does not belong to this pool");
+		}
+		int capacity = ((FixedWidthVector) vector).getValueCapacity();
+		if (closed || vector.getAllocator() != allocator || capacity < MIN_CAPACITY
+				|| Integer.bitCount(capacity) != 1) {
+			vector.close();
+			return;
+		}
+		Key key = new Key(type, capacity);
+		if (key.bytes() > maxIdleBytes) {
+			vector.close();
+			evictions++;
+			return;
+		}
+		ArrayDeque<BaseDataValueVector> vectors = idleByKey.get(key);
+		if (vectors == null) {
+			vectors = new ArrayDeque<>();
+			idleByKey.put(key, vectors);
+		}
+		vectors.addLast(vector);
+		idle.put(vector, key);
+		idleBytes += key.bytes();
+		evict();
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<BaseDataValueVector, Key>> oldest = idle.entrySet().iterator();
+		while (idleBytes > maxIdleBytes) {
+			Map.Entry<BaseDataValueVector, Key> entry = oldest.next();
+			oldest.remove();
+			Key key = entry.getValue();
+			// the oldest idle vector is also the oldest one of its class
+			idleByKey.get(key).pollFirst().close();
+			idleBytes -= key.bytes();
+			evictions++;
+		}
+	}
+
+	public BufferAllocator getAllocator() {
+		return allocator;
+	}
+
+	public long getMaxIdleBytes() {
+		return maxIdleBytes;
+	}
+
+	public synchronized long getIdleBytes() {
+		return idleBytes;
+	}
+
+	public synchronized int getIdleCount() {
+		return idle.size();
+	}
+
+	public synchronized int getBorrowedCount() {
+		return borrowed.size();
+	}
+
+	/**
+	 * @return number of acquisitions served by an idle vector
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return number of acquisitions that allocated a new vector
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return number of returned vectors closed to respect the idle limit
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Closes the idle vectors. Vectors still borrowed are closed when they are
+	 * returned.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		for (BaseDataValueVector vector : idle.keySet()) {
+			vector.close();
+		}
+		idle.clear();
+		idleByKey.clear();
+		idleBytes = 0;
+	}
+
+	private static final class Key {
+
+		private final FixedWidthType type;
+		private final int capacity;
+
+		Key(FixedWidthType type, int capacity) {
+			this.type = type;
+			this.capacity = capacity;
+		}
+
+		long bytes() {
+			return (long) capacity * type.getWidth();
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode() * 31 + capacity;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return type == other.type && capacity == other.capacity;
+		}
+	}
+}
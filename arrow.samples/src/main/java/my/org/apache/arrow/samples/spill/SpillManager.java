@@ -0,0 +1,296 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.spill;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import my.org.apache.arrow.samples.ipc.ColumnFileWriter;
+import my.org.apache.arrow.samples.ipc.MappedColumnFileReader;
+import my.org.apache.arrow.samples.kernels.BulkCopy;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+
+/**
+ * Keeps the memory of an operator under a soft limit by spilling batches to
+ * local files. Operators allocate from {@link #getAllocator()} and hand the
+ * batches they want to keep to {@link #add(ColumnBatch)}. Whenever an
+ * allocation would take the allocator past the soft limit, the least recently
+ * used unpinned batches are written to the spill directory in the Arrow file
+ * format and their buffers are freed; pinning a spilled batch reloads it.
+ *
+ * The soft limit only triggers spilling: if every batch is pinned the
+ * allocation goes through anyway, up to the limits of the parent allocator.
+ * A batch is written at most once, since batches are not modified after they
+ * are added; a reloaded batch that is spilled again just frees its memory.
+ * Spill files are deleted when their batch or the manager is closed.
+ *
+ * All methods are thread safe.
+ */
+public final class SpillManager implements AutoCloseable {
+
+	private final String name;
+	private final long softLimit;
+	private final Path directory;
+	private final SpillingAllocator allocator;
+	/** batches in memory, least recently used first */
+	private final LinkedHashMap<SpillableBatch, Boolean> resident = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<SpillableBatch, Boolean> batches = new IdentityHashMap<>();
+	private int fileSequence;
+	private boolean spilling;
+	private boolean closed;
+
+	private long spillCount;
+	private long spilledBytes;
+	private long reloadCount;
+	private long bytesWritten;
+
+	/**
+	 * @param parent allocator the spill allocator is a child of
+	 * @param directory where spill files are created
+	 */
+	public SpillManager(BufferAllocator parent, String name, long softLimit, Path directory) {
+		this.name = name;
+		this.softLimit = softLimit;
+		this.directory = directory;
+		this.allocator = new SpillingAllocator(parent.newChildAllocator(name, 0, Long.MAX_VALUE), this);
+	}
+
+	/**
+	 * @return the allocator whose memory is kept under the soft limit
+	 */
+	public BufferAllocator getAllocator() {
+		return allocator;
+	}
+
+	public long getSoftLimit() {
+		return softLimit;
+	}
+
+	/**
+	 * Takes ownership of the batch, which should be allocated from
+	 * {@link #getAllocator()} to count towards the soft limit.
+	 */
+	public synchronized SpillableBatch add(ColumnBatch batch) {
+		if (closed) {
+			throw new IllegalStateException("Spill manager is closed");
+		}
+		SpillableBatch spillable = new SpillableBatch(this, batch);
+		batches.put(spillable, Boolean.TRUE);
+		resident.put(spillable, Boolean.TRUE);
+		makeRoom(0);
+		return spillable;
+	}
+
+	synchronized ColumnBatch pin(SpillableBatch spillable) throws IOException {
+		if (spillable.closed) {
+			throw new IllegalStateException("Batch is closed");
+		}
+		if (spillable.batch == null) {
+			spillable.batch = reload(spillable);
+			reloadCount++;
+		}
+		spillable.pins++;
+		resident.put(spillable, Boolean.TRUE);
+		return spillable.batch;
+	}
+
+	synchronized void unpin(SpillableBatch spillable) {
+		if (spillable.pins == 0) {
+			throw new IllegalStateException("Batch is not pinned");
+		}
+		spillable.pins--;
+		if (spillable.pins == 0) {
+			// the soft limit may have been exceeded while everything was pinned
+			makeRoom(0);
+		}
+	}
+
+	synchronized void remove(SpillableBatch spillable) {
+		if (spillable.closed) {
+			return;
+		}
+		spillable.closed = true;
+		batches.remove(spillable);
+		resident.remove(spillable);
+		if (spillable.batch != null) {
+			spillable.batch.close();
+			spillable.batch = null;
+		}
+		deleteFile(spillable);
+	}
+
+	/**
+	 * Spills unpinned batches, least recently used first, until bytes more
+	 * can be allocated without exceeding the soft limit.
+	 *
+	 * @throws OutOfMemoryException if a batch cannot be written
+	 */
+	void makeRoom(long bytes) {
+		// most allocations fit: they only take the lock when they may need a spill
+		if (allocator.getAllocatedMemory() + bytes > softLimit) {
+			spillUntilRoom(bytes);
+		}
+	}
+
+	private synchronized void spillUntilRoom(long bytes) {
+		if (spilling) {
+			return;
+		}
+		spilling = true;
+		try {
+			Iterator<SpillableBatch> candidates = resident.keySet().iterator();
+			while (allocator.getAllocatedMemory() + bytes > softLimit && candidates.hasNext()) {
+				SpillableBatch candidate = candidates.next();
+				if (candidate.pins == 0) {
+					spill(candidate);
+					candidates.remove();
+				}
+			}
+		} finally {
+			spilling = false;
+		}
+	}
+
+	private void spill(SpillableBatch spillable) {
+		if (spillable.file == null) {
+			Path file = directory.resolve(name + "-" + fileSequence++ + ".arrow");
+			try {
+				ColumnFileWriter writer = ColumnFileWriter.create(file, spillable.getSchema());
+				spillable.file = file;
+				try {
+					writer.writeBatch(spillable.batch);
+				} finally {
+					writer.close();
+				}
+				// read once closed, to count the footer
+				bytesWritten += writer.bytesWritten();
+			} catch (IOException e) {
+				deleteFile(spillable);
+				throw new OutOfMemoryException("Failed to spill " + spillable + " to " + file, e);
+			}
+		}
+		spillable.batch.close();
+		spillable.batch = null;
+		spillCount++;
+		spilledBytes += spillable.getDataSize();
+	}
+
+	/**
+	 * Maps the spill file and copies the columns into allocator memory, so
+	 * the reloaded batch is accounted and writable like the original.
+	 */
+	private ColumnBatch reload(SpillableBatch spillable) throws IOException {
+		List<Field> fields = spillable.getSchema().getFields();
+		List<BaseDataValueVector> columns = new ArrayList<>(fields.size());
+		try (MappedColumnFileReader reader = MappedColumnFileReader.open(spillable.file);
+				ColumnBatch mapped = reader.readBatch(0, allocator)) {
+			for (int i = 0; i < fields.size(); i++) {
+				BaseDataValueVector column = mapped.getType(i).newVector(fields.get(i).getName(), allocator);
+				columns.add(column);
+				BulkCopy.copyRange(mapped.getColumn(i), 0, column, 0, mapped.getRowCount());
+			}
+			return new ColumnBatch(spillable.getSchema(), columns);
+		} catch (IOException | RuntimeException e) {
+			for (BaseDataValueVector column : columns) {
+				column.close();
+			}
+			throw e;
+		}
+	}
+
+	private static void deleteFile(SpillableBatch spillable) {
+		if (spillable.file != null) {
+			try {
+				Files.deleteIfExists(spillable.file);
+			} catch (IOException e) {
+				// the directory is temporary storage; a leftover file only wastes space
+			}
+			spillable.file = null;
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public synchronized int getBatchCount() {
+		return batches.size();
+	}
+
+	public synchronized int getResidentBatchCount() {
+		return resident.size();
+	}
+
+	/**
+	 * @return number of times a batch was freed to make room
+	 */
+	public synchronized long getSpillCount() {
+		return spillCount;
+	}
+
+	/**
+	 * @return value bytes freed by spilling, counting every spill
+	 */
+	public synchronized long getSpilledBytes() {
+		return spilledBytes;
+	}
+
+	public synchronized long getReloadCount() {
+		return reloadCount;
+	}
+
+	/**
+	 * @return size of the spill files written so far
+	 */
+	public synchronized long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * Closes all batches, deletes the spill files and closes the allocator.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (SpillableBatch spillable : new ArrayList<>(batches.keySet())) {
+			remove(spillable);
+		}
+		allocator.close();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SpillManager[" + name + ", allocated=" + allocator.getAllocatedMemory() + ", softLimit=" + softLimit
+				+ ", batches=" + batches.size() + ", resident=" + resident.size() + "]";
+	}
+}
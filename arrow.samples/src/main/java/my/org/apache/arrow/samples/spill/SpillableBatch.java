@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.spill;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+
+/**
+ * Handle of a batch owned by a {@link SpillManager}. The batch may be written
+ * to disk and freed whenever it is not pinned; {@link #pin()} brings it back
+ * into memory if needed and keeps it there until the matching
+ * {@link #unpin()}. Pins nest.
+ *
+ * The manager treats batches as immutable: a spilled batch is written once
+ * and later spills only free the memory again, so values changed through a
+ * pinned batch may be lost.
+ */
+public final class SpillableBatch implements AutoCloseable {
+
+	private final SpillManager manager;
+	private final Schema schema;
+	private final int rowCount;
+	private final long dataSize;
+	ColumnBatch batch;
+	Path file;
+	int pins;
+	boolean closed;
+
+	SpillableBatch(SpillManager manager, ColumnBatch batch) {
+		this.manager = manager;
+		this.schema = batch.getSchema();
+		this.rowCount = batch.getRowCount();
+		this.dataSize = batch.getDataSize();
+		this.batch = batch;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public long getDataSize() {
+		return dataSize;
+	}
+
+	/**
+	 * @return the batch, reloaded from disk if it was spilled; valid until
+	 *         the matching unpin
+	 */
+	public ColumnBatch pin() throws IOException {
+		return manager.pin(this);
+	}
+
+	public void unpin() {
+		manager.unpin(this);
+	}
+
+	public boolean isSpilled() {
+		synchronized (manager) {
+			return batch == null && !closed;
+		}
+	}
+
+	public boolean isPinned() {
+		synchronized (manager) {
+			return pins > 0;
+		}
+	}
+
+	/**
+	 * Frees the batch and deletes its spill file, pinned or not.
+	 */
+	@Override
+	public void close() {
+		manager.remove(this);
+	}
+
+	@Override
+	public String toString() {
+		return "SpillableBatch[rows=" + rowCount + ", spilled=" + isSpilled() + ", pins=" + pins + "]";
+	}
+}
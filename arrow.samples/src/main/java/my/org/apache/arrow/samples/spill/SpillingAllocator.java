@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.spill;
+
+import org.apache.arrow.memory.AllocationReservation;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.BufferManager;
+
+import io.netty.buffer.ArrowBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Wraps a regular child allocator and asks its {@link SpillManager} to make
+ * room before every allocation, so the manager can spill batches when the
+ * allocation would take it past its soft limit. Children of this allocator do
+ * the same.
+ *
+ * Arrow only transfers buffers into a BaseAllocator, so buffers can be
+ * transferred out of vectors backed by this allocator but not into them.
+ * Netty-style allocations through {@link #getAsByteBufAllocator()} and
+ * reservations do not trigger spilling.
+ */
+final class SpillingAllocator implements BufferAllocator {
+
+	private final BufferAllocator delegate;
+	private final SpillManager manager;
+
+	SpillingAllocator(BufferAllocator delegate, SpillManager manager) {
+		this.delegate = delegate;
+		this.manager = manager;
+	}
+
+	@Override
+	public ArrowBuf buffer(int initialRequestSize) {
+		return buffer(initialRequestSize, null);
+	}
+
+	@Override
+	public ArrowBuf buffer(int initialRequestSize, BufferManager bufferManager) {
+		if (initialRequestSize > 0) {
+			manager.makeRoom(initialRequestSize);
+		}
+		return delegate.buffer(initialRequestSize, bufferManager);
+	}
+
+	@Override
+	public ByteBufAllocator getAsByteBufAllocator() {
+		return delegate.getAsByteBufAllocator();
+	}
+
+	@Override
+	public SpillingAllocator newChildAllocator(String name, long initReservation, long maxAllocation) {
+		return new SpillingAllocator(delegate.newChildAllocator(name, initReservation, maxAllocation), manager);
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	@Override
+	public long getAllocatedMemory() {
+		return delegate.getAllocatedMemory();
+	}
+
+	@Override
+	public long getLimit() {
+		return delegate.getLimit();
+	}
+
+	@Override
+	public void setLimit(long newLimit) {
+		delegate.setLimit(newLimit);
+	}
+
+	@Override
+	public long getPeakMemoryAllocation() {
+		return delegate.getPeakMemoryAllocation();
+	}
+
+	@Override
+	public long getHeadroom() {
+		return delegate.getHeadroom();
+	}
+
+	@Override
+	public AllocationReservation newReservation() {
+		return delegate.newReservation();
+	}
+
+	@Override
+	public ArrowBuf getEmpty() {
+		return delegate.getEmpty();
+	}
+
+	@Override
+	public String getName() {
+		return delegate.getName();
+	}
+
+	@Override
+	public boolean isOverLimit() {
+		return delegate.isOverLimit();
+	}
+
+	@Override
+	public String toVerboseString() {
+		return delegate.toVerboseString();
+	}
+
+	@Override
+	public void assertOpen() {
+		delegate.assertOpen();
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+}
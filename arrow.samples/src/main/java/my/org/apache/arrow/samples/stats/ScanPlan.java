@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.stats;
+
+import java.util.Arrays;
+
+/**
+ * The batches of a file a scan has to read for a {@link ScanPredicate}, and
+ * within each of them the row ranges whose chunks may hold matching rows.
+ * Rows outside of the ranges, and every row of the other batches, are known
+ * not to match.
+ */
+public final class ScanPlan {
+
+	private final int[] batches;
+	// per batch of the file: start, end pairs, null for skipped batches
+	private final int[][] ranges;
+	private final long rowCount;
+	private final long candidateRowCount;
+
+	ScanPlan(int[] batches, int[][] ranges, long rowCount, long candidateRowCount) {
+		this.batches = batches;
+		this.ranges = ranges;
+		this.rowCount = rowCount;
+		this.candidateRowCount = candidateRowCount;
+	}
+
+	/**
+	 * @return indices of the batches to read, in file order
+	 */
+	public int[] getBatches() {
+		return batches.clone();
+	}
+
+	public boolean includes(int batch) {
+		return ranges[batch] != null;
+	}
+
+	/**
+	 * @return start (inclusive) and end (exclusive) rows of the ranges to scan
+	 *         in a batch, one pair after the other; empty for skipped batches
+	 */
+	public int[] getRowRanges(int batch) {
+		return ranges[batch] == null ? new int[0] : ranges[batch].clone();
+	}
+
+	/**
+	 * @return number of batches of the file
+	 */
+	public int getBatchCount() {
+		return ranges.length;
+	}
+
+	public int getSkippedBatchCount() {
+		return ranges.length - batches.length;
+	}
+
+	/**
+	 * @return number of rows of the file
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return number of rows within the ranges to scan
+	 */
+	public long getCandidateRowCount() {
+		return candidateRowCount;
+	}
+
+	@Override
+	public String toString() {
+		return "ScanPlan[batches=" + Arrays.toString(batches) + " of " + ranges.length + ", rows=" + candidateRowCount
+				+ " of " + rowCount + "]";
+	}
+}
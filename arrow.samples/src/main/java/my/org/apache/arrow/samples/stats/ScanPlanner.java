@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.stats;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans the scan of a file from its {@link ZoneMapIndex}: a batch is read
+ * only if the zone maps of the batch allow every comparison of the predicate
+ * to hold, and within it only the chunks whose zone maps do. Adjacent chunks
+ * are merged into one row range.
+ */
+public final class ScanPlanner {
+
+	private ScanPlanner() {
+	}
+
+	public static ScanPlan plan(ZoneMapIndex index, ScanPredicate predicate) {
+		List<ScanPredicate.Term> terms = predicate.getTerms();
+		int[] columns = new int[terms.size()];
+		for (int t = 0; t < columns.length; t++) {
+			columns[t] = index.getColumnIndex(terms.get(t).getColumn());
+		}
+		int batchCount = index.getBatchCount();
+		int[] batches = new int[batchCount];
+		int selected = 0;
+		int[][] ranges = new int[batchCount][];
+		long rowCount = 0;
+		long candidateRowCount = 0;
+		for (int batch = 0; batch < batchCount; batch++) {
+			int rows = index.getRowCount(batch);
+			rowCount += rows;
+			if (!mayMatch(index, terms, columns, batch, -1)) {
+				continue;
+			}
+			int[] batchRanges = new int[2 * index.getChunkCount(batch)];
+			int length = 0;
+			for (int chunk = 0; chunk < index.getChunkCount(batch); chunk++) {
+				if (!mayMatch(index, terms, columns, batch, chunk)) {
+					continue;
+				}
+				int start = chunk * index.getChunkSize();
+				int end = Math.min(start + index.getChunkSize(), rows);
+				candidateRowCount += end - start;
+				if (length > 0 && batchRanges[length - 1] == start) {
+					batchRanges[length - 1] = end;
+				} else {
+					batchRanges[length++] = start;
+					batchRanges[length++] = end;
+				}
+			}
+			// the chunks may exclude a batch its own zone maps did not
+			if (length > 0 || rows == 0) {
+				batches[selected++] = batch;
+				ranges[batch] = Arrays.copyOf(batchRanges, length);
+			}
+		}
+		return new ScanPlan(Arrays.copyOf(batches, selected), ranges, rowCount, candidateRowCount);
+	}
+
+	/**
+	 * @param chunk chunk of the batch, or -1 for the whole batch
+	 */
+	private static boolean mayMatch(ZoneMapIndex index, List<ScanPredicate.Term> terms, int[] columns, int batch,
+			int chunk) {
+		for (int t = 0; t < columns.length; t++) {
+			ZoneMap zone = chunk < 0 ? index.getBatchZoneMap(batch, columns[t])
+					: index.getChunkZoneMap(batch, columns[t], chunk);
+			if (!terms.get(t).mayMatch(zone)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import my.org.apache.arrow.samples.filter.CompareOp;
+
+/**
+ * A conjunction of comparisons between named columns and constants, such as
+ * {@code ts >= 1000 AND ts < 2000 AND price > 10.5}, that {@link ScanPlanner}
+ * evaluates against zone maps. The comparisons follow {@link CompareOp}, like
+ * the filters that then run on the rows of the batches kept.
+ */
+public final class ScanPredicate {
+
+	private final List<Term> terms;
+
+	private ScanPredicate(List<Term> terms) {
+		this.terms = Collections.unmodifiableList(terms);
+	}
+
+	public static ScanPredicate compare(String column, CompareOp op, long value) {
+		return new ScanPredicate(Collections.singletonList(new Term(column, op, false, value, value)));
+	}
+
+	public static ScanPredicate compare(String column, CompareOp op, double value) {
+		return new ScanPredicate(Collections.singletonList(new Term(column, op, true, 0, value)));
+	}
+
+	/**
+	 * @return lower &lt;= column &lt;= upper
+	 */
+	public static ScanPredicate between(String column, long lower, long upper) {
+		return compare(column, CompareOp.GE, lower).and(compare(column, CompareOp.LE, upper));
+	}
+
+	/**
+	 * @return lower &lt;= column &lt;= upper
+	 */
+	public static ScanPredicate between(String column, double lower, double upper) {
+		return compare(column, CompareOp.GE, lower).and(compare(column, CompareOp.LE, upper));
+	}
+
+	/**
+	 * @return a predicate matching the rows both predicates match
+	 */
+	public ScanPredicate and(ScanPredicate other) {
+		List<Term> both = new ArrayList<>(terms.size() + other.terms.size());
+		both.addAll(terms);
+		both.addAll(other.terms);
+		return new ScanPredicate(both);
+	}
+
+	List<Term> getTerms() {
+		return terms;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (Term term : terms) {
+			if (builder.length() > 0) {
+				builder.append(" AND ");
+			}
+			builder.append(term);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * One comparison of the conjunction.
+	 */
+	static final class Term {
+
+		private final String column;
+		private final CompareOp op;
+		private final boolean floatingPoint;
+		private final long longValue;
+		private final double doubleValue;
+
+		Term(String column, CompareOp op, boolean floatingPoint, long longValue, double doubleValue) {
+			this.column = column;
+			this.op = op;
+			this.floatingPoint = floatingPoint;
+			this.longValue = longValue;
+			this.doubleValue = doubleValue;
+		}
+
+		String getColumn() {
+			return column;
+		}
+
+		boolean mayMatch(ZoneMap zone) {
+			return floatingPoint ? zone.mayMatch(op, doubleValue) : zone.mayMatch(op, longValue);
+		}
+
+		@Override
+		public String toString() {
+			return column + " " + op + " " + (floatingPoint ? (Object) doubleValue : (Object) longValue);
+		}
+	}
+}
@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.stats;
+
+import java.nio.ByteBuffer;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Statistics of a range of rows of one column: row count, null count, an
+ * estimate of the number of distinct values, and the minimum and maximum of
+ * the values. Nulls and NaN do not take part in the minimum and maximum; a
+ * zone map without any other value is empty.
+ *
+ * Zone maps are computed by {@link #of} or, for every batch and chunk of
+ * a file, by {@link ZoneMapIndex}.
+ *
+ * {@link #mayMatch} tells whether a comparison can hold for any row of the
+ * range with the semantics of {@link my.org.apache.arrow.samples.filter.Filters}:
+ * false means no row matches, true that some may.
+ */
+public final class ZoneMap {
+
+	/** Size of a serialized zone map */
+	static final int ENTRY_SIZE = 32;
+
+	private static final int HAS_NAN = 1;
+	private static final int EMPTY = 2;
+
+	private final FixedWidthType type;
+	private final int rowCount;
+	private final int nullCount;
+	private final int distinctCount;
+	private final boolean hasNaN;
+	private final boolean empty;
+	// longs for the integer types, the bits of a double for the others
+	private final long min;
+	private final long max;
+
+	ZoneMap(FixedWidthType type, int rowCount, int nullCount, int distinctCount, boolean hasNaN, boolean empty,
+			long min, long max) {
+		this.type = type;
+		this.rowCount = rowCount;
+		this.nullCount = nullCount;
+		this.distinctCount = distinctCount;
+		this.hasNaN = hasNaN;
+		this.empty = empty;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * @return the zone map of every value of a fixed-width vector, nullable or
+	 *         not
+	 */
+	public static ZoneMap of(BaseDataValueVector vector) {
+		return of(vector, 0, vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return the zone map of the values [start, start + length) of a
+	 *         fixed-width vector
+	 */
+	public static ZoneMap of(BaseDataValueVector vector, int start, int length) {
+		ZoneMapBuilder builder = new ZoneMapBuilder(FixedWidthType.of(ZoneMapBuilder.valuesOf(vector)));
+		builder.add(vector, start, length);
+		return builder.build();
+	}
+
+	public FixedWidthType getType() {
+		return type;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getNullCount() {
+		return nullCount;
+	}
+
+	/**
+	 * @return estimated number of distinct values other than null and NaN,
+	 *         within a few percent
+	 */
+	public int getDistinctCount() {
+		return distinctCount;
+	}
+
+	public boolean hasNaN() {
+		return hasNaN;
+	}
+
+	/**
+	 * @return whether every row is null or NaN, in which case there is no
+	 *         minimum nor maximum
+	 */
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	public long getLongMin() {
+		checkLongs();
+		return min;
+	}
+
+	public long getLongMax() {
+		checkLongs();
+		return max;
+	}
+
+	public double getDoubleMin() {
+		checkNotEmpty();
+		return isFloatingPoint() ? Double.longBitsToDouble(min) : min;
+	}
+
+	public double getDoubleMax() {
+		checkNotEmpty();
+		return isFloatingPoint() ? Double.longBitsToDouble(max) : max;
+	}
+
+	/**
+	 * @return false if no row compares to the value with op
+	 */
+	public boolean mayMatch(CompareOp op, long value) {
+		if (isFloatingPoint()) {
+			return mayMatch(op, (double) value);
+		}
+		if (empty) {
+			return false;
+		}
+		switch (op) {
+		case LT:
+			return min < value;
+		case LE:
+			return min <= value;
+		case GT:
+			return max > value;
+		case GE:
+			return max >= value;
+		case EQ:
+			return min <= value && value <= max;
+		case NE:
+			return min != value || max != value;
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	/**
+	 * @return false if no row compares to the value with op
+	 */
+	public boolean mayMatch(CompareOp op, double value) {
+		if (type == FixedWidthType.FLOAT4) {
+			// the filters compare FLOAT4 columns to a float
+			value = (float) value;
+		}
+		if (op == CompareOp.NE && hasNaN) {
+			return true;
+		}
+		if (empty) {
+			return false;
+		}
+		double low = getDoubleMin();
+		double high = getDoubleMax();
+		boolean exact = isFloatingPoint();
+		switch (op) {
+		case LT:
+			// a long minimum may have been rounded up to the value
+			return exact ? low < value : low <= value;
+		case LE:
+			return low <= value;
+		case GT:
+			return exact ? high > value : high >= value;
+		case GE:
+			return high >= value;
+		case EQ:
+			return low <= value && value <= high;
+		case NE:
+			return !(low == value && high == value && (exact || min == max));
+		default:
+			throw new IllegalArgumentException("Unsupported comparison " + op);
+		}
+	}
+
+	private boolean isFloatingPoint() {
+		return type == FixedWidthType.FLOAT4 || type == FixedWidthType.FLOAT8;
+	}
+
+	private void checkLongs() {
+		if (isFloatingPoint()) {
+			throw new IllegalStateException("The bounds of " + type + " values are doubles");
+		}
+		checkNotEmpty();
+	}
+
+	private void checkNotEmpty() {
+		if (empty) {
+			throw new IllegalStateException("No minimum nor maximum without non-null values");
+		}
+	}
+
+	/*
+	 * Serialization: byte type, byte flags, short 0, int rows, int nulls,
+	 * int distinct, long min, long max
+	 */
+
+	void write(ByteBuffer out) {
+		out.put((byte) type.ordinal()).put((byte) ((hasNaN ? HAS_NAN : 0) | (empty ? EMPTY : 0))).putShort((short) 0);
+		out.putInt(rowCount).putInt(nullCount).putInt(distinctCount).putLong(min).putLong(max);
+	}
+
+	static ZoneMap read(ByteBuffer in, FixedWidthType expected) {
+		int ordinal = in.get();
+		if (ordinal != expected.ordinal()) {
+			throw new IllegalArgumentException("Expected a zone map of " + expected + " values, got type " + ordinal);
+		}
+		int flags = in.get();
+		in.getShort();
+		int rowCount = in.getInt();
+		int nullCount = in.getInt();
+		int distinctCount = in.getInt();
+		long min = in.getLong();
+		long max = in.getLong();
+		return new ZoneMap(expected, rowCount, nullCount, distinctCount, (flags & HAS_NAN) != 0,
+				(flags & EMPTY) != 0, min, max);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("ZoneMap[").append(type).append(", rows=").append(rowCount)
+				.append(", nulls=").append(nullCount).append(", distinct~").append(distinctCount);
+		if (!empty) {
+			builder.append(", min=").append(isFloatingPoint() ? (Object) getDoubleMin() : (Object) min)
+					.append(", max=").append(isFloatingPoint() ? (Object) getDoubleMax() : (Object) max);
+		}
+		if (hasNaN) {
+			builder.append(", NaN");
+		}
+		return builder.append(']').toString();
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.stats;
+
+import static io.netty.util.internal.PlatformDependent.getInt;
+import static io.netty.util.internal.PlatformDependent.getLong;
+import static io.netty.util.internal.PlatformDependent.getShort;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.NullableVector;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+import my.org.apache.arrow.samples.vector.ValidityWords;
+
+/**
+ * Accumulates the statistics of a zone map over ranges of vectors of one
+ * type. Builders of adjacent ranges merge into the builder of the whole, so
+ * a batch is scanned once for the zone maps of its chunks and its own.
+ */
+final class ZoneMapBuilder {
+
+	private final FixedWidthType type;
+	private final HyperLogLog distinct = new HyperLogLog();
+	private final boolean floatingPoint;
+	private int rowCount;
+	private int nullCount;
+	private boolean hasNaN;
+	private boolean seen;
+	private long longMin = Long.MAX_VALUE;
+	private long longMax = Long.MIN_VALUE;
+	private double doubleMin = Double.POSITIVE_INFINITY;
+	private double doubleMax = Double.NEGATIVE_INFINITY;
+
+	ZoneMapBuilder(FixedWidthType type) {
+		this.type = type;
+		this.floatingPoint = type == FixedWidthType.FLOAT4 || type == FixedWidthType.FLOAT8;
+	}
+
+	/**
+	 * Adds the values [start, start + length) of the vector. The nulls of a
+	 * Nullable* vector are skipped 64 at a time.
+	 */
+	void add(BaseDataValueVector vector, int start, int length) {
+		int valueCount = vector.getAccessor().getValueCount();
+		if (start < 0 || length < 0 || start > valueCount - length) {
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + start + " + " + length
+					+ ") is outside of a vector with " + valueCount + " values");
+		}
+		BaseDataValueVector values = valuesOf(vector);
+		if (FixedWidthType.of(values) != type) {
+			throw new IllegalArgumentException("Expected a " + type + " vector, got " + FixedWidthType.of(values));
+		}
+		rowCount += length;
+		if (length == 0) {
+			return;
+		}
+		long address = values.getBuffer().memoryAddress();
+		if (vector instanceof NullableVector) {
+			addValid(address, ValidityWords.address(vector), start, start + length, valueCount);
+		} else {
+			addRange(address, start, start + length);
+		}
+	}
+
+	void merge(ZoneMapBuilder other) {
+		if (other.type != type) {
+			throw new IllegalArgumentException("Cannot merge " + other.type + " statistics into " + type);
+		}
+		rowCount += other.rowCount;
+		nullCount += other.nullCount;
+		hasNaN |= other.hasNaN;
+		seen |= other.seen;
+		longMin = Math.min(longMin, other.longMin);
+		longMax = Math.max(longMax, other.longMax);
+		doubleMin = Math.min(doubleMin, other.doubleMin);
+		doubleMax = Math.max(doubleMax, other.doubleMax);
+		distinct.merge(other.distinct);
+	}
+
+	ZoneMap build() {
+		int distinctCount = (int) Math.min(distinct.estimate(), rowCount - nullCount);
+		long min = floatingPoint ? Double.doubleToLongBits(doubleMin) : longMin;
+		long max = floatingPoint ? Double.doubleToLongBits(doubleMax) : longMax;
+		return new ZoneMap(type, rowCount, nullCount, distinctCount, hasNaN, !seen, seen ? min : 0, seen ? max : 0);
+	}
+
+	static BaseDataValueVector valuesOf(BaseDataValueVector vector) {
+		if (vector instanceof NullableVector) {
+			return (BaseDataValueVector) ((NullableVector) vector).getValuesVector();
+		}
+		return vector;
+	}
+
+	/*
+	 * Scans
+	 */
+
+	private void addRange(long address, int start, int end) {
+		switch (type) {
+		case SMALLINT:
+			for (int i = start; i < end; i++) {
+				addLong(getShort(address + ((long) i << 1)));
+			}
+			break;
+		case INT:
+			for (int i = start; i < end; i++) {
+				addLong(getInt(address + ((long) i << 2)));
+			}
+			break;
+		case BIGINT:
+			for (int i = start; i < end; i++) {
+				addLong(getLong(address + ((long) i << 3)));
+			}
+			break;
+		case FLOAT4:
+			for (int i = start; i < end; i++) {
+				addDouble(Float.intBitsToFloat(getInt(address + ((long) i << 2))));
+			}
+			break;
+		case FLOAT8:
+			for (int i = start; i < end; i++) {
+				addDouble(Double.longBitsToDouble(getLong(address + ((long) i << 3))));
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported type " + type);
+		}
+	}
+
+	private void addValid(long address, long validity, int start, int end, int valueCount) {
+		int valid = 0;
+		for (int w = start >>> 6; w < ValidityWords.wordCount(end); w++) {
+			int base = w << 6;
+			long word = ValidityWords.word(validity, w, valueCount);
+			if (base < start) {
+				word &= -1L << (start - base);
+			}
+			if (end - base < 64) {
+				word &= (1L << (end - base)) - 1;
+			}
+			if (word == ValidityWords.ALL_VALID) {
+				valid += 64;
+				addRange(address, base, base + 64);
+				continue;
+			}
+			valid += Long.bitCount(word);
+			while (word != 0) {
+				int i = base + Long.numberOfTrailingZeros(word);
+				addRange(address, i, i + 1);
+				word &= word - 1;
+			}
+		}
+		nullCount += end - start - valid;
+	}
+
+	private void addLong(long value) {
+		distinct.add(value);
+		if (value < longMin) {
+			longMin = value;
+		}
+		if (value > longMax) {
+			longMax = value;
+		}
+		seen = true;
+	}
+
+	private void addDouble(double value) {
+		if (value != value) {
+			hasNaN = true;
+			return;
+		}
+		// +0.0 for -0.0, which compares equal
+		distinct.add(Double.doubleToLongBits(value + 0.0));
+		if (value < doubleMin) {
+			doubleMin = value;
+		}
+		if (value > doubleMax) {
+			doubleMax = value;
+		}
+		seen = true;
+	}
+}
@@ -0,0 +1,267 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.stats;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Zone maps of every column of the batches of a file: one for each batch and
+ * one for each chunk of chunkSize rows within it. {@link ScanPlanner} uses
+ * them to skip the batches, and the chunks of the remaining batches, that
+ * cannot match a predicate.
+ *
+ * The column file writers build the index as batches are written when asked
+ * to, and store it as a block just before their footer:
+ *
+ * <pre>
+ * int batch count, int column count, int chunk size, int 0
+ * per batch       int rows, int chunk count, then per column the zone map
+ *                 of the batch followed by the zone maps of its chunks
+ * long length of the above
+ * magic "ZONEMAP1"
+ * </pre>
+ *
+ * Every zone map takes 32 bytes. The footer of the file records where the
+ * block starts, so readers never mistake column data for it; files written
+ * without it read as before.
+ */
+public final class ZoneMapIndex {
+
+	private static final byte[] MAGIC = "ZONEMAP1".getBytes(StandardCharsets.US_ASCII);
+	private static final int HEADER_SIZE = 16;
+	private static final int BATCH_HEADER_SIZE = 8;
+	private static final int TRAILER_SIZE = 8 + MAGIC.length;
+
+	private final Schema schema;
+	private final int chunkSize;
+	private final List<Integer> batchRows = new ArrayList<>();
+	private final List<ZoneMap[]> batchZones = new ArrayList<>();
+	// per batch, per column, per chunk
+	private final List<ZoneMap[][]> chunkZones = new ArrayList<>();
+
+	/**
+	 * @param chunkSize rows per chunk within a batch; the last chunk of a batch
+	 *        may be shorter
+	 */
+	public ZoneMapIndex(Schema schema, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		this.schema = schema;
+		this.chunkSize = chunkSize;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public int getBatchCount() {
+		return batchRows.size();
+	}
+
+	public int getColumnCount() {
+		return schema.getFields().size();
+	}
+
+	public int getRowCount(int batch) {
+		return batchRows.get(batch);
+	}
+
+	/**
+	 * @return the zone map of a column over a whole batch
+	 */
+	public ZoneMap getBatchZoneMap(int batch, int column) {
+		return batchZones.get(batch)[column];
+	}
+
+	public int getChunkCount(int batch) {
+		return chunkCount(batchRows.get(batch));
+	}
+
+	/**
+	 * @return the zone map of a column over rows [chunk * chunkSize, (chunk +
+	 *         1) * chunkSize) of a batch
+	 */
+	public ZoneMap getChunkZoneMap(int batch, int column, int chunk) {
+		return chunkZones.get(batch)[column][chunk];
+	}
+
+	/**
+	 * @return index of the named column
+	 */
+	public int getColumnIndex(String name) {
+		List<Field> fields = schema.getFields();
+		for (int i = 0; i < fields.size(); i++) {
+			if (fields.get(i).getName().equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("No column " + name + " in " + schema);
+	}
+
+	/**
+	 * Computes the zone maps of the next batch, reading every column once.
+	 */
+	public void addBatch(ColumnBatch batch) {
+		if (!batch.getSchema().equals(schema)) {
+			throw new IllegalArgumentException("Batch schema " + batch.getSchema() + " does not match " + schema);
+		}
+		int rows = batch.getRowCount();
+		int chunkCount = chunkCount(rows);
+		ZoneMap[] zones = new ZoneMap[batch.getColumnCount()];
+		ZoneMap[][] chunks = new ZoneMap[batch.getColumnCount()][chunkCount];
+		for (int column = 0; column < zones.length; column++) {
+			ZoneMapBuilder whole = new ZoneMapBuilder(batch.getType(column));
+			for (int chunk = 0; chunk < chunkCount; chunk++) {
+				ZoneMapBuilder builder = new ZoneMapBuilder(batch.getType(column));
+				int start = chunk * chunkSize;
+				builder.add(batch.getColumn(column), start, Math.min(chunkSize, rows - start));
+				chunks[column][chunk] = builder.build();
+				whole.merge(builder);
+			}
+			zones[column] = whole.build();
+		}
+		batchRows.add(rows);
+		batchZones.add(zones);
+		chunkZones.add(chunks);
+	}
+
+	private int chunkCount(int rows) {
+		return (int) (((long) rows + chunkSize - 1) / chunkSize);
+	}
+
+	/*
+	 * Serialization
+	 */
+
+	/**
+	 * @return the block stored in files, ending with its length and magic
+	 */
+	public ByteBuffer serialize() {
+		int columns = getColumnCount();
+		long size = HEADER_SIZE + TRAILER_SIZE;
+		for (int batch = 0; batch < getBatchCount(); batch++) {
+			size += BATCH_HEADER_SIZE + (long) columns * (1 + getChunkCount(batch)) * ZoneMap.ENTRY_SIZE;
+		}
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Zone map index of " + size + " bytes is too large");
+		}
+		ByteBuffer block = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+		block.putInt(getBatchCount()).putInt(columns).putInt(chunkSize).putInt(0);
+		for (int batch = 0; batch < getBatchCount(); batch++) {
+			block.putInt(batchRows.get(batch)).putInt(getChunkCount(batch));
+			for (int column = 0; column < columns; column++) {
+				batchZones.get(batch)[column].write(block);
+				for (ZoneMap chunk : chunkZones.get(batch)[column]) {
+					chunk.write(block);
+				}
+			}
+		}
+		block.putLong(size - TRAILER_SIZE).put(MAGIC).flip();
+		return block;
+	}
+
+	/**
+	 * Reads the block stored between start and end, positions that the file
+	 * footer records.
+	 */
+	public static ZoneMapIndex read(FileChannel channel, long start, long end, Schema schema) throws IOException {
+		if (end - start < 0 || end - start > Integer.MAX_VALUE) {
+			throw new IOException("Invalid zone map index of " + (end - start) + " bytes");
+		}
+		return deserialize(readFully(channel, start, (int) (end - start)), schema);
+	}
+
+	/**
+	 * Reads a block returned by {@link #serialize()}.
+	 */
+	public static ZoneMapIndex deserialize(ByteBuffer block, Schema schema) throws IOException {
+		ByteBuffer in = block.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int size = in.remaining();
+		if (size < HEADER_SIZE + TRAILER_SIZE) {
+			throw new IOException("Zone map index of " + size + " bytes is too short");
+		}
+		byte[] magic = new byte[MAGIC.length];
+		((ByteBuffer) in.duplicate().position(in.limit() - MAGIC.length)).get(magic);
+		if (!Arrays.equals(MAGIC, magic) || in.getLong(in.limit() - TRAILER_SIZE) != size - TRAILER_SIZE) {
+			throw new IOException("Missing zone map index");
+		}
+		try {
+			int batchCount = in.getInt();
+			int columns = in.getInt();
+			ZoneMapIndex index = new ZoneMapIndex(schema, in.getInt());
+			in.getInt();
+			List<Field> fields = schema.getFields();
+			if (batchCount < 0 || columns != fields.size()) {
+				throw new IOException("Zone map index of " + columns + " columns does not match " + schema);
+			}
+			for (int batch = 0; batch < batchCount; batch++) {
+				int rows = in.getInt();
+				int chunkCount = in.getInt();
+				if (rows < 0 || chunkCount != index.chunkCount(rows)) {
+					throw new IOException("Invalid zone maps of batch " + batch);
+				}
+				ZoneMap[] zones = new ZoneMap[columns];
+				ZoneMap[][] chunks = new ZoneMap[columns][chunkCount];
+				for (int column = 0; column < columns; column++) {
+					FixedWidthType type = FixedWidthType.of(fields.get(column).getType());
+					zones[column] = ZoneMap.read(in, type);
+					for (int chunk = 0; chunk < chunkCount; chunk++) {
+						chunks[column][chunk] = ZoneMap.read(in, type);
+					}
+				}
+				index.batchRows.add(rows);
+				index.batchZones.add(zones);
+				index.chunkZones.add(chunks);
+			}
+			return index;
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Invalid zone map index", e);
+		}
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+}
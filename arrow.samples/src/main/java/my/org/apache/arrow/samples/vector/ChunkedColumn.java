@@ -0,0 +1,282 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.FixedWidthVector;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A column of one fixed-width type split over as many vectors as needed, so
+ * it can hold more values than the MAX_ALLOCATION_SIZE of a single vector.
+ * Values are addressed by a long index; every segment but the last holds
+ * exactly {@code segmentSize} values, a power of two, so finding a value is
+ * a shift and a mask.
+ *
+ * The size grows with {@link #setSize}, which allocates zeroed segments as
+ * needed, and the values are then written with the typed setters. Kernels
+ * that work on vectors can run segment by segment through
+ * {@link #getSegment} or {@link #forEachRange}.
+ */
+public final class ChunkedColumn implements AutoCloseable {
+
+	/**
+	 * Default number of values per segment.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+	/**
+	 * Receives the part of a range that falls in one segment.
+	 */
+	public interface SegmentVisitor {
+
+		/**
+		 * @param segment
+		 *            the vector holding the values
+		 * @param from
+		 *            first index in the segment
+		 * @param to
+		 *            end index in the segment, exclusive
+		 * @param position
+		 *            column index of the value at {@code from}
+		 */
+		void visit(BaseDataValueVector segment, int from, int to, long position);
+	}
+
+	private final FixedWidthType type;
+	private final String name;
+	private final BufferAllocator allocator;
+	private final int segmentShift;
+	private final long segmentMask;
+	private final int widthShift;
+	private final List<BaseDataValueVector> segments = new ArrayList<>();
+	private long[] addresses = new long[8];
+	private long size;
+
+	public ChunkedColumn(FixedWidthType type, String name, BufferAllocator allocator) {
+		this(type, name, allocator, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * @param segmentSize
+	 *            values per segment, a power of two that fits in one vector
+	 */
+	public ChunkedColumn(FixedWidthType type, String name, BufferAllocator allocator, int segmentSize) {
+		if (segmentSize <= 0 || Integer.bitCount(segmentSize) != 1) {
+			throw new IllegalArgumentException("Segment size must be a power of two, got " + segmentSize);
+		}
+		if (segmentSize > VectorSizing.maxCapacity(type)) {
+			throw new IllegalArgumentException(
+					"Segment size " + segmentSize + " exceeds the capacity of a " + type + " vector");
+		}
+		this.type = type;
+		this.name = name;
+		this.allocator = allocator;
+		this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+		this.segmentMask = segmentSize - 1;
+		this.widthShift = Integer.numberOfTrailingZeros(type.getWidth());
+	}
+
+	public FixedWidthType getType() {
+		return type;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public int getSegmentSize() {
+		return 1 << segmentShift;
+	}
+
+	/**
+	 * @return values the allocated segments can hold
+	 */
+	public long getCapacity() {
+		return (long) segments.size() << segmentShift;
+	}
+
+	/**
+	 * Grows or shrinks the column. New values read as zero; segments no longer
+	 * needed after shrinking are released.
+	 */
+	public void setSize(long newSize) {
+		if (newSize < 0) {
+			throw new IllegalArgumentException("Size must not be negative, got " + newSize);
+		}
+		if (newSize > size) {
+			ensureCapacity(newSize);
+		} else if (newSize < size) {
+			int keep = (int) ((newSize + segmentMask) >>> segmentShift);
+			for (int i = segments.size() - 1; i >= keep; i--) {
+				segments.remove(i).close();
+			}
+			long cut = newSize & segmentMask;
+			if (cut != 0) {
+				long end = Math.min(size - (newSize & ~segmentMask), getSegmentSize());
+				segments.get(keep - 1).getBuffer().setZero((int) cut << widthShift, (int) (end - cut) << widthShift);
+			}
+		}
+		size = newSize;
+	}
+
+	/**
+	 * Allocates segments until the column can hold the given number of values,
+	 * without changing its size.
+	 */
+	public void ensureCapacity(long capacity) {
+		while (getCapacity() < capacity) {
+			BaseDataValueVector segment = type.allocateVector(name + "-" + segments.size(), allocator,
+					getSegmentSize());
+			((FixedWidthVector) segment).zeroVector();
+			if (segments.size() == addresses.length) {
+				addresses = Arrays.copyOf(addresses, addresses.length * 2);
+			}
+			addresses[segments.size()] = segment.getBuffer().memoryAddress();
+			segments.add(segment);
+		}
+	}
+
+	/*
+	 * Segments
+	 */
+
+	public int getSegmentCount() {
+		return (int) ((size + segmentMask) >>> segmentShift);
+	}
+
+	/**
+	 * @return the segment, with its value count set to the values of the
+	 *         column it holds; it stays owned by the column
+	 */
+	public BaseDataValueVector getSegment(int index) {
+		if (index < 0 || index >= getSegmentCount()) {
+			throw new IndexOutOfBoundsException("Segment " + index + " of " + getSegmentCount());
+		}
+		BaseDataValueVector segment = segments.get(index);
+		long start = (long) index << segmentShift;
+		segment.getMutator().setValueCount((int) Math.min(size - start, getSegmentSize()));
+		return segment;
+	}
+
+	/**
+	 * @return column index of the first value of the segment
+	 */
+	public long getSegmentStart(int index) {
+		return (long) index << segmentShift;
+	}
+
+	/**
+	 * Calls the visitor once per segment overlapping {@code [start, end)}, in
+	 * order.
+	 */
+	public void forEachRange(long start, long end, SegmentVisitor visitor) {
+		if (start < 0 || start > end || end > size) {
+			throw new IndexOutOfBoundsException(
+					"Range [" + start + ", " + end + ") is outside of a column with " + size + " values");
+		}
+		long position = start;
+		while (position < end) {
+			int segment = (int) (position >>> segmentShift);
+			int from = (int) (position & segmentMask);
+			int to = (int) Math.min(getSegmentSize(), end - (position - from));
+			visitor.visit(getSegment(segment), from, to, position);
+			position += to - from;
+		}
+	}
+
+	/*
+	 * Values
+	 */
+
+	public short getShort(long index) {
+		return PlatformDependent.getShort(address(index, FixedWidthType.SMALLINT));
+	}
+
+	public void setShort(long index, short value) {
+		PlatformDependent.putShort(address(index, FixedWidthType.SMALLINT), value);
+	}
+
+	public int getInt(long index) {
+		return PlatformDependent.getInt(address(index, FixedWidthType.INT));
+	}
+
+	public void setInt(long index, int value) {
+		PlatformDependent.putInt(address(index, FixedWidthType.INT), value);
+	}
+
+	public long getLong(long index) {
+		return PlatformDependent.getLong(address(index, FixedWidthType.BIGINT));
+	}
+
+	public void setLong(long index, long value) {
+		PlatformDependent.putLong(address(index, FixedWidthType.BIGINT), value);
+	}
+
+	public float getFloat(long index) {
+		return Float.intBitsToFloat(PlatformDependent.getInt(address(index, FixedWidthType.FLOAT4)));
+	}
+
+	public void setFloat(long index, float value) {
+		PlatformDependent.putInt(address(index, FixedWidthType.FLOAT4), Float.floatToRawIntBits(value));
+	}
+
+	public double getDouble(long index) {
+		return Double.longBitsToDouble(PlatformDependent.getLong(address(index, FixedWidthType.FLOAT8)));
+	}
+
+	public void setDouble(long index, double value) {
+		PlatformDependent.putLong(address(index, FixedWidthType.FLOAT8), Double.doubleToRawLongBits(value));
+	}
+
+	private long address(long index, FixedWidthType expected) {
+		if (type != expected) {
+			throw new IllegalArgumentException("Column " + name + " holds " + type + " values, not " + expected);
+		}
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(
+					"Index " + index + " is outside of a column with " + size + " values");
+		}
+		return addresses[(int) (index >>> segmentShift)] + ((index & segmentMask) << widthShift);
+	}
+
+	@Override
+	public void close() {
+		for (BaseDataValueVector segment : segments) {
+			segment.close();
+		}
+		segments.clear();
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "ChunkedColumn [name=" + name + ", type=" + type + ", size=" + size + ", segments=" + segments.size()
+				+ "]";
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * A record batch: one fixed-width vector per field of the schema, all holding
+ * the same number of values. Closing the batch closes its vectors.
+ *
+ * The non-nullable vectors do not carry a Field of their own, so the schema
+ * supplies the column names.
+ */
+public final class ColumnBatch implements AutoCloseable {
+
+	private final Schema schema;
+	private final List<BaseDataValueVector> columns;
+	private final int rowCount;
+
+	public ColumnBatch(Schema schema, List<? extends BaseDataValueVector> columns) {
+		List<Field> fields = schema.getFields();
+		if (fields.size() != columns.size()) {
+			throw new IllegalArgumentException(
+					"Schema has " + fields.size() + " fields but " + columns.size() + " columns were given");
+		}
+		int rows = columns.isEmpty() ? 0 : columns.get(0).getAccessor().getValueCount();
+		for (int i = 0; i < columns.size(); i++) {
+			BaseDataValueVector column = columns.get(i);
+			Field field = fields.get(i);
+			if (FixedWidthType.of(column) != FixedWidthType.of(field.getType())) {
+				throw new IllegalArgumentException("Column " + i + " does not match field " + field);
+			}
+			if (column.getAccessor().getValueCount() != rows) {
+				throw new IllegalArgumentException("Column " + field.getName() + " has "
+						+ column.getAccessor().getValueCount() + " values, expected " + rows);
+			}
+		}
+		this.schema = schema;
+		this.columns = Collections.unmodifiableList(new ArrayList<BaseDataValueVector>(columns));
+		this.rowCount = rows;
+	}
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	public List<BaseDataValueVector> getColumns() {
+		return columns;
+	}
+
+	public BaseDataValueVector getColumn(int index) {
+		return columns.get(index);
+	}
+
+	public <V extends BaseDataValueVector> V getColumn(int index, Class<V> type) {
+		return type.cast(columns.get(index));
+	}
+
+	public BaseDataValueVector getColumn(String name) {
+		List<Field> fields = schema.getFields();
+		for (int i = 0; i < fields.size(); i++) {
+			if (fields.get(i).getName().equals(name)) {
+				return columns.get(i);
+			}
+		}
+		throw new IllegalArgumentException("No column named " + name);
+	}
+
+	public FixedWidthType getType(int index) {
+		return FixedWidthType.of(schema.getFields().get(index).getType());
+	}
+
+	/**
+	 * @return number of value bytes in the batch, i.e. the row count times the
+	 *         sum of the column widths
+	 */
+	public long getDataSize() {
+		long size = 0;
+		for (int i = 0; i < columns.size(); i++) {
+			size += (long) rowCount * getType(i).getWidth();
+		}
+		return size;
+	}
+
+	@Override
+	public void close() {
+		for (BaseDataValueVector column : columns) {
+			column.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnBatch[rows=" + rowCount + ", schema=" + schema + "]";
+	}
+}
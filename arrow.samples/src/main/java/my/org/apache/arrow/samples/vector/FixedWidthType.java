@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.vector;
+
+import java.util.Collections;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FixedWidthVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+/**
+ * The fixed-width vector types used throughout the samples, with their value
+ * width and the Arrow type they are stored as.
+ */
+public enum FixedWidthType {
+
+	SMALLINT(SmallIntVector.TYPE_WIDTH, new ArrowType.Int(16, true)) {
+		@Override
+		public SmallIntVector newVector(String name, BufferAllocator allocator) {
+			return new SmallIntVector(name, allocator);
+		}
+	},
+	INT(IntVector.TYPE_WIDTH, new ArrowType.Int(32, true)) {
+		@Override
+		public IntVector newVector(String name, BufferAllocator allocator) {
+			return new IntVector(name, allocator);
+		}
+	},
+	BIGINT(BigIntVector.TYPE_WIDTH, new ArrowType.Int(64, true)) {
+		@Override
+		public BigIntVector newVector(String name, BufferAllocator allocator) {
+			return new BigIntVector(name, allocator);
+		}
+	},
+	FLOAT4(Float4Vector.TYPE_WIDTH, new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE)) {
+		@Override
+		public Float4Vector newVector(String name, BufferAllocator allocator) {
+			return new Float4Vector(name, allocator);
+		}
+	},
+	FLOAT8(Float8Vector.TYPE_WIDTH, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)) {
+		@Override
+		public Float8Vector newVector(String name, BufferAllocator allocator) {
+			return new Float8Vector(name, allocator);
+		}
+	};
+
+	private final int width;
+	private final ArrowType arrowType;
+
+	private FixedWidthType(int width, ArrowType arrowType) {
+		this.width = width;
+		this.arrowType = arrowType;
+	}
+
+	/**
+	 * @return width of one value in bytes
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	public ArrowType getArrowType() {
+		return arrowType;
+	}
+
+	/**
+	 * Creates an empty vector of this type; call allocateNew before writing.
+	 */
+	public abstract BaseDataValueVector newVector(String name, BufferAllocator allocator);
+
+	/**
+	 * Creates a vector of this type with room for {@code valueCount} values.
+	 */
+	public BaseDataValueVector allocateVector(String name, BufferAllocator allocator, int valueCount) {
+		BaseDataValueVector vector = newVector(name, allocator);
+		try {
+			((FixedWidthVector) vector).allocateNew(valueCount);
+		} catch (RuntimeException e) {
+			vector.close();
+			throw e;
+		}
+		return vector;
+	}
+
+	/**
+	 * @return a non-nullable field of this type, used to describe the column in
+	 *         a schema
+	 */
+	public Field toField(String name) {
+		return new Field(name, new FieldType(false, arrowType, null), Collections.<Field> emptyList());
+	}
+
+	public static FixedWidthType of(ValueVector vector) {
+		if (vector instanceof SmallIntVector) {
+			return SMALLINT;
+		} else if (vector instanceof IntVector) {
+			return INT;
+		} else if (vector instanceof BigIntVector) {
+			return BIGINT;
+		} else if (vector instanceof Float4Vector) {
+			return FLOAT4;
+		} else if (vector instanceof Float8Vector) {
+			return FLOAT8;
+		}
+		throw new IllegalArgumentException("Unsupported vector " + vector.getClass().getSimpleName());
+	}
+
+	public static FixedWidthType of(ArrowType arrowType) {
+		for (FixedWidthType type : values()) {
+			if (type.arrowType.equals(arrowType)) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unsupported arrow type " + arrowType);
+	}
+}
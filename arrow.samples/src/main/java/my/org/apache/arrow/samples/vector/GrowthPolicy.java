@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.vector;
+
+/**
+ * Decides how much a fixed-width vector grows when it runs out of room,
+ * instead of the doubling done by reAlloc. See
+ * {@link VectorSizing#ensureCapacity}.
+ *
+ * Doubling keeps appends amortized O(1) but leaves up to half of the buffer
+ * unused, and near MAX_ALLOCATION_SIZE it fails as soon as twice the current
+ * size no longer fits, even though the values would. Growing by a smaller
+ * factor or in fixed chunks trades a few more copies for less slack.
+ */
+public abstract class GrowthPolicy {
+
+	/**
+	 * @param capacity
+	 *            current capacity in values
+	 * @param required
+	 *            values that must fit, more than capacity
+	 * @param maxCapacity
+	 *            the most values a vector can hold, at least required
+	 * @return the new capacity, between required and maxCapacity
+	 */
+	public abstract int nextCapacity(int capacity, int required, int maxCapacity);
+
+	/**
+	 * Grows to exactly the required capacity, for callers that know the final
+	 * size up front or grow rarely.
+	 */
+	public static GrowthPolicy exact() {
+		return Exact.INSTANCE;
+	}
+
+	/**
+	 * Same sizes as reAlloc, capped at the maximum capacity.
+	 */
+	public static GrowthPolicy doubling() {
+		return factor(2);
+	}
+
+	/**
+	 * Multiplies the capacity by the factor, or grows to the required
+	 * capacity if that is more.
+	 */
+	public static GrowthPolicy factor(double factor) {
+		if (!(factor > 1)) {
+			throw new IllegalArgumentException("Growth factor must be above 1, got " + factor);
+		}
+		return new Factor(factor);
+	}
+
+	/**
+	 * Rounds the required capacity up to a multiple of the chunk, so at most
+	 * one chunk is unused.
+	 */
+	public static GrowthPolicy chunked(int chunkValues) {
+		if (chunkValues <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive, got " + chunkValues);
+		}
+		return new Chunked(chunkValues);
+	}
+
+	private static final class Exact extends GrowthPolicy {
+
+		static final Exact INSTANCE = new Exact();
+
+		@Override
+		public int nextCapacity(int capacity, int required, int maxCapacity) {
+			return required;
+		}
+
+		@Override
+		public String toString() {
+			return "exact";
+		}
+	}
+
+	private static final class Factor extends GrowthPolicy {
+
+		private final double factor;
+
+		Factor(double factor) {
+			this.factor = factor;
+		}
+
+		@Override
+		public int nextCapacity(int capacity, int required, int maxCapacity) {
+			double grown = Math.ceil(capacity * factor);
+			return (int) Math.max(required, Math.min(grown, maxCapacity));
+		}
+
+		@Override
+		public String toString() {
+			return "factor(" + factor + ")";
+		}
+	}
+
+	private static final class Chunked extends GrowthPolicy {
+
+		private final int chunkValues;
+
+		Chunked(int chunkValues) {
+			this.chunkValues = chunkValues;
+		}
+
+		@Override
+		public int nextCapacity(int capacity, int required, int maxCapacity) {
+			long rounded = ((long) required + chunkValues - 1) / chunkValues * chunkValues;
+			return (int) Math.min(rounded, maxCapacity);
+		}
+
+		@Override
+		public String toString() {
+			return "chunked(" + chunkValues + ")";
+		}
+	}
+}
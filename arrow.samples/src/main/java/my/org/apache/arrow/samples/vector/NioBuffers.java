@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.NullableVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.schema.ArrowFieldNode;
+
+import io.netty.buffer.ArrowBuf;
+import io.netty.buffer.DirectArrowBufs;
+
+/**
+ * Hands the buffers of fixed-width vectors to code working on java.nio
+ * buffers, and back, without copying the values.
+ *
+ * The views are read-only, little endian and cover the current value count.
+ * They share memory with the vector, so they see later writes and must not be
+ * used once the vector is cleared, reallocated or closed. The five
+ * non-nullable types and the matching Nullable* vectors are supported.
+ */
+public final class NioBuffers {
+
+	private NioBuffers() {
+	}
+
+	/**
+	 * @return the values of the vector, {@code valueCount * width} bytes
+	 */
+	public static ByteBuffer values(BaseDataValueVector vector) {
+		FixedWidthType type = FixedWidthType.of(valuesOf(vector));
+		return view(valuesOf(vector).getBuffer(), vector.getAccessor().getValueCount() * type.getWidth());
+	}
+
+	/**
+	 * @return the validity bits of a Nullable* vector, one bit per value with
+	 *         the first value in the lowest bit of the first byte
+	 */
+	public static ByteBuffer validity(BaseDataValueVector vector) {
+		if (!(vector instanceof NullableVector)) {
+			throw new IllegalArgumentException(vector.getClass().getSimpleName() + " has no validity buffer");
+		}
+		int valueCount = vector.getAccessor().getValueCount();
+		return view(((NullableVector) vector).getValidityVector().getBuffer(), (valueCount + 7) >>> 3);
+	}
+
+	public static ShortBuffer asShortBuffer(BaseDataValueVector vector) {
+		return typedValues(vector, FixedWidthType.SMALLINT).asShortBuffer();
+	}
+
+	public static IntBuffer asIntBuffer(BaseDataValueVector vector) {
+		return typedValues(vector, FixedWidthType.INT).asIntBuffer();
+	}
+
+	public static LongBuffer asLongBuffer(BaseDataValueVector vector) {
+		return typedValues(vector, FixedWidthType.BIGINT).asLongBuffer();
+	}
+
+	public static FloatBuffer asFloatBuffer(BaseDataValueVector vector) {
+		return typedValues(vector, FixedWidthType.FLOAT4).asFloatBuffer();
+	}
+
+	public static DoubleBuffer asDoubleBuffer(BaseDataValueVector vector) {
+		return typedValues(vector, FixedWidthType.FLOAT8).asDoubleBuffer();
+	}
+
+	/**
+	 * Builds a non-nullable vector over the remaining bytes of a direct
+	 * buffer, read as little endian values whatever the order of the buffer.
+	 * The memory is not copied nor accounted to the allocator, which is only
+	 * used for the vector itself; it stays valid while the vector is
+	 * reachable. Writing to the vector writes to the buffer, so read-only
+	 * buffers are rejected, and the vector must not be reallocated.
+	 */
+	public static BaseDataValueVector wrap(FixedWidthType type, String name, ByteBuffer data,
+			BufferAllocator allocator) {
+		if (data.isReadOnly()) {
+			throw new IllegalArgumentException("Cannot wrap a read-only buffer in a writable vector");
+		}
+		if (data.remaining() % type.getWidth() != 0) {
+			throw new IllegalArgumentException(
+					data.remaining() + " bytes is not a whole number of " + type + " values");
+		}
+		int valueCount = data.remaining() / type.getWidth();
+		BaseDataValueVector vector = type.newVector(name, allocator);
+		if (valueCount > 0) {
+			vector.load(new ArrowFieldNode(valueCount, 0), DirectArrowBufs.wrap(data));
+		}
+		return vector;
+	}
+
+	private static ByteBuffer typedValues(BaseDataValueVector vector, FixedWidthType expected) {
+		FixedWidthType type = FixedWidthType.of(valuesOf(vector));
+		if (type != expected) {
+			throw new IllegalArgumentException("Expected a " + expected + " vector, got " + type);
+		}
+		return values(vector);
+	}
+
+	private static BaseDataValueVector valuesOf(BaseDataValueVector vector) {
+		if (vector instanceof NullableVector) {
+			ValueVector values = ((NullableVector) vector).getValuesVector();
+			return (BaseDataValueVector) values;
+		}
+		return vector;
+	}
+
+	private static ByteBuffer view(ArrowBuf buffer, int length) {
+		if (length == 0) {
+			return ByteBuffer.allocateDirect(0).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+		}
+		if (length > buffer.capacity()) {
+			throw new IllegalStateException(
+					"Value count needs " + length + " bytes but the buffer holds " + buffer.capacity());
+		}
+		return buffer.nioBuffer(0, length).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
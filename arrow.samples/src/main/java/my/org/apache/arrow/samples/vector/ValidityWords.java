@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.vector;
+
+import static io.netty.util.internal.PlatformDependent.getByte;
+import static io.netty.util.internal.PlatformDependent.getLong;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.NullableVector;
+
+/**
+ * Reads the validity bits of Nullable* vectors 64 at a time. Bit i of word w
+ * is set when value {@code 64 * w + i} is not null, so kernels can skip a
+ * word equal to 0 (64 nulls), run a loop without null checks over a word
+ * equal to -1 (no nulls), visit the set bits of other words with
+ * {@link Long#numberOfTrailingZeros}, and count values with
+ * {@link Long#bitCount}.
+ */
+public final class ValidityWords {
+
+	/** A word of 64 non-null values. */
+	public static final long ALL_VALID = -1L;
+
+	private ValidityWords() {
+	}
+
+	/**
+	 * @return address of the validity bits of a Nullable* vector; only valid
+	 *         while the vector keeps its current buffers
+	 */
+	public static long address(BaseDataValueVector vector) {
+		if (!(vector instanceof NullableVector)) {
+			throw new IllegalArgumentException(vector.getClass().getSimpleName() + " has no validity buffer");
+		}
+		return ((NullableVector) vector).getValidityVector().getBuffer().memoryAddress();
+	}
+
+	/**
+	 * @return number of words covering valueCount values
+	 */
+	public static int wordCount(int valueCount) {
+		return (valueCount + 63) >>> 6;
+	}
+
+	/**
+	 * @return the validity bits of values [64 * index, 64 * index + 63], with
+	 *         the bits past valueCount cleared. Only the bytes covering
+	 *         valueCount bits are read, since the buffer may end there.
+	 */
+	public static long word(long address, int index, int valueCount) {
+		int remaining = valueCount - (index << 6);
+		if (remaining >= 64) {
+			return getLong(address + ((long) index << 3));
+		}
+		long bytes = address + ((long) index << 3);
+		long word = 0;
+		for (int b = 0; b < (remaining + 7) >>> 3; b++) {
+			word |= (getByte(bytes + b) & 0xFFL) << (b << 3);
+		}
+		return word & ((1L << remaining) - 1);
+	}
+
+	/**
+	 * @return number of non-null values among the first valueCount
+	 */
+	public static int countValid(long address, int valueCount) {
+		int full = valueCount >>> 6;
+		int valid = 0;
+		for (int w = 0; w < full; w++) {
+			valid += Long.bitCount(getLong(address + ((long) w << 3)));
+		}
+		if ((valueCount & 63) != 0) {
+			valid += Long.bitCount(word(address, full, valueCount));
+		}
+		return valid;
+	}
+
+	/**
+	 * @return number of non-null values of a Nullable* vector
+	 */
+	public static int countValid(BaseDataValueVector vector) {
+		return countValid(address(vector), vector.getAccessor().getValueCount());
+	}
+
+	/**
+	 * @return number of null values of a Nullable* vector
+	 */
+	public static int countNulls(BaseDataValueVector vector) {
+		return vector.getAccessor().getValueCount() - countValid(vector);
+	}
+}
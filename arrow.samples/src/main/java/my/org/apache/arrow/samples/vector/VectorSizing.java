@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package my.org.apache.arrow.samples.vector;
+
+import static io.netty.util.internal.PlatformDependent.copyMemory;
+
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BaseValueVector;
+import org.apache.arrow.vector.FixedWidthVector;
+import org.apache.arrow.vector.schema.ArrowFieldNode;
+import org.apache.arrow.vector.util.OversizedAllocationException;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Grows and shrinks the data buffer of the five fixed-width vectors to a
+ * chosen capacity, for builders that do not want reAlloc's doubling.
+ *
+ * A resize allocates a new buffer from the vector's allocator, copies the old
+ * contents, zeroes the rest (as reAlloc does) and loads the new buffer into
+ * the vector. The allocator rounds buffers below its chunk size (16 MB by
+ * default) up to a power of two, so exact sizes only pay off for large
+ * vectors, which is where the slack of doubling hurts.
+ */
+public final class VectorSizing {
+
+	private VectorSizing() {
+	}
+
+	/**
+	 * @return the most values of the type a single buffer can hold
+	 */
+	public static int maxCapacity(FixedWidthType type) {
+		return BaseValueVector.MAX_ALLOCATION_SIZE / type.getWidth();
+	}
+
+	/**
+	 * Makes room for at least valueCount values, growing as the policy says if
+	 * the vector is too small. Values already written, including those beyond
+	 * the value count, are kept.
+	 *
+	 * @throws OversizedAllocationException
+	 *             if valueCount values cannot fit in one buffer
+	 */
+	public static void ensureCapacity(BaseDataValueVector vector, int valueCount, GrowthPolicy policy) {
+		int capacity = ((FixedWidthVector) vector).getValueCapacity();
+		if (capacity >= valueCount) {
+			return;
+		}
+		int maxCapacity = maxCapacity(FixedWidthType.of(vector));
+		if (valueCount > maxCapacity) {
+			throw new OversizedAllocationException(
+					"Cannot hold " + valueCount + " values, the maximum is " + maxCapacity);
+		}
+		int newCapacity = policy.nextCapacity(capacity, valueCount, maxCapacity);
+		if (newCapacity < valueCount || newCapacity > maxCapacity) {
+			throw new IllegalStateException(
+					policy + " returned capacity " + newCapacity + " for " + valueCount + " values");
+		}
+		resize(vector, newCapacity);
+	}
+
+	/**
+	 * Moves the values into a buffer sized for exactly the given capacity,
+	 * which may be smaller than the current one but not below the value count.
+	 */
+	public static void resize(BaseDataValueVector vector, int capacity) {
+		FixedWidthType type = FixedWidthType.of(vector);
+		int valueCount = vector.getAccessor().getValueCount();
+		if (capacity < valueCount || capacity > maxCapacity(type)) {
+			throw new IllegalArgumentException("Cannot resize a vector of " + valueCount + " values to " + capacity);
+		}
+		replaceBuffer(vector, type, valueCount, vector.getAllocator().buffer(capacity * type.getWidth()));
+	}
+
+	/**
+	 * Releases the capacity beyond the value count, if a smaller buffer would
+	 * actually be allocated for it.
+	 *
+	 * @return bytes released
+	 */
+	public static long trimToSize(BaseDataValueVector vector) {
+		FixedWidthType type = FixedWidthType.of(vector);
+		int valueCount = vector.getAccessor().getValueCount();
+		long before = vector.getBuffer().capacity();
+		if (valueCount == 0) {
+			vector.clear();
+		} else if ((long) valueCount * type.getWidth() < before) {
+			ArrowBuf trimmed = vector.getAllocator().buffer(valueCount * type.getWidth());
+			if (trimmed.capacity() >= before) {
+				trimmed.release();
+				return 0;
+			}
+			replaceBuffer(vector, type, valueCount, trimmed);
+		}
+		return before - vector.getBuffer().capacity();
+	}
+
+	/**
+	 * Copies what fits of the current buffer into the new one, zeroes the rest
+	 * and hands it to the vector, which takes over the reference.
+	 */
+	private static void replaceBuffer(BaseDataValueVector vector, FixedWidthType type, int valueCount,
+			ArrowBuf buffer) {
+		try {
+			ArrowBuf old = vector.getBuffer();
+			int kept = Math.min(old.capacity(), buffer.capacity());
+			if (kept > 0) {
+				copyMemory(old.memoryAddress(), buffer.memoryAddress(), kept);
+			}
+			buffer.setZero(kept, buffer.capacity() - kept);
+			buffer.writerIndex(valueCount * type.getWidth());
+			vector.load(new ArrowFieldNode(valueCount, 0), buffer);
+		} finally {
+			buffer.release();
+		}
+		// later reAlloc calls double from the new size
+		FixedWidthVector fixedWidth = (FixedWidthVector) vector;
+		fixedWidth.setInitialCapacity(fixedWidth.getValueCapacity());
+	}
+}
@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.kernels.Histogram;
+
+/**
+ * Test the aggregation kernels against plain Accessor.get loops
+ */
+public class TestAggregations {
+
+	private BufferAllocator allocator;
+
+	// not a multiple of the unroll factor, so the tail loop is exercised too
+	private int testSize = 1003;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		allocator.close();
+	}
+
+	@Test
+	public void testIntAggregations() {
+		try (IntVector vector = new IntVector("IntAgg", allocator)) {
+			vector.allocateNew(testSize);
+			IntVector.Mutator mutator = vector.getMutator();
+			long sum = 0;
+			for (int i = 0; i < testSize; i++) {
+				int value = (i % 2 == 0 ? i : -i) * 1000;
+				mutator.set(i, value);
+				sum += value;
+			}
+			mutator.setValueCount(testSize);
+
+			assertEquals(sum, Aggregations.sum(vector));
+			assertEquals(-1001000, Aggregations.min(vector));
+			assertEquals(1002000, Aggregations.max(vector));
+			assertEquals((double) sum / testSize, Aggregations.mean(vector), 0.0);
+			assertEquals(testSize, Aggregations.count(vector));
+		}
+	}
+
+	/**
+	 * Sums that do not fit in an int must not overflow
+	 */
+	@Test
+	public void testIntSumWidening() {
+		try (IntVector vector = new IntVector("IntAgg", allocator)) {
+			vector.allocateNew(testSize);
+			IntVector.Mutator mutator = vector.getMutator();
+			for (int i = 0; i < testSize; i++) {
+				mutator.set(i, Integer.MAX_VALUE);
+			}
+			mutator.setValueCount(testSize);
+
+			assertEquals((long) Integer.MAX_VALUE * testSize, Aggregations.sum(vector));
+		}
+	}
+
+	@Test
+	public void testBigIntAggregations() {
+		try (BigIntVector vector = new BigIntVector("BigIntAgg", allocator)) {
+			vector.allocateNew(testSize);
+			BigIntVector.Mutator mutator = vector.getMutator();
+			long sum = 0;
+			for (int i = 0; i < testSize; i++) {
+				long value = (i - 500L) * 1000000000000L;
+				mutator.set(i, value);
+				sum += value;
+			}
+			mutator.setValueCount(testSize);
+
+			assertEquals(sum, Aggregations.sum(vector));
+			assertEquals(-500000000000000L, Aggregations.min(vector));
+			assertEquals(502000000000000L, Aggregations.max(vector));
+			assertEquals((double) sum / testSize, Aggregations.mean(vector), 1.0);
+			assertEquals(testSize, Aggregations.count(vector));
+		}
+	}
+
+	/**
+	 * The mean of large longs is accumulated in double precision and does not
+	 * overflow like the long sum, with or without a selection
+	 */
+	@Test
+	public void testBigIntMeanOverflow() {
+		try (BigIntVector vector = new BigIntVector("BigIntAgg", allocator)) {
+			vector.allocateNew(4);
+			BigIntVector.Mutator mutator = vector.getMutator();
+			for (int i = 0; i < 4; i++) {
+				mutator.set(i, Long.MAX_VALUE);
+			}
+			mutator.setValueCount(4);
+
+			assertEquals((double) Long.MAX_VALUE, Aggregations.mean(vector), 1e4);
+
+			try (SelectionVector selection = new SelectionVector(allocator)) {
+				Filters.compare(vector, CompareOp.GE, 0, selection);
+				assertEquals((double) Long.MAX_VALUE, Aggregations.mean(vector, selection), 1e4);
+			}
+		}
+	}
+
+	@Test
+	public void testSmallIntAggregations() {
+		try (SmallIntVector vector = new SmallIntVector("SmallIntAgg", allocator)) {
+			vector.allocateNew(testSize);
+			SmallIntVector.Mutator mutator = vector.getMutator();
+			long sum = 0;
+			for (int i = 0; i < testSize; i++) {
+				short value = (short) (i * 97);
+				mutator.set(i, value);
+				sum += value;
+			}
+			mutator.setValueCount(testSize);
+
+			SmallIntVector.Accessor accessor = vector.getAccessor();
+			short min = Short.MAX_VALUE;
+			short max = Short.MIN_VALUE;
+			for (int i = 0; i < testSize; i++) {
+				min = (short) Math.min(min, accessor.get(i));
+				max = (short) Math.max(max, accessor.get(i));
+			}
+
+			assertEquals(sum, Aggregations.sum(vector));
+			assertEquals(min, Aggregations.min(vector));
+			assertEquals(max, Aggregations.max(vector));
+			assertTrue("values should wrap into negative shorts", min < 0);
+			assertEquals((double) sum / testSize, Aggregations.mean(vector), 0.0);
+		}
+	}
+
+	@Test
+	public void testFloat4Aggregations() {
+		try (Float4Vector vector = new Float4Vector("Float4Agg", allocator)) {
+			vector.allocateNew(testSize);
+			Float4Vector.Mutator mutator = vector.getMutator();
+			double sum = 0;
+			for (int i = 0; i < testSize; i++) {
+				float value = (i - 100) * 0.5f;
+				mutator.set(i, value);
+				sum += value;
+			}
+			mutator.setValueCount(testSize);
+
+			assertEquals(sum, Aggregations.sum(vector), 1e-6);
+			assertEquals(-50f, Aggregations.min(vector), 0f);
+			assertEquals(451f, Aggregations.max(vector), 0f);
+			assertEquals(sum / testSize, Aggregations.mean(vector), 1e-6);
+			assertEquals(testSize, Aggregations.count(vector));
+		}
+	}
+
+	@Test
+	public void testFloat8Aggregations() {
+		try (Float8Vector vector = new Float8Vector("Float8Agg", allocator)) {
+			vector.allocateNew(testSize);
+			Float8Vector.Mutator mutator = vector.getMutator();
+			double sum = 0;
+			for (int i = 0; i < testSize; i++) {
+				double value = Math.sin(i) * 100;
+				mutator.set(i, value);
+				sum += value;
+			}
+			mutator.setValueCount(testSize);
+
+			Float8Vector.Accessor accessor = vector.getAccessor();
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < testSize; i++) {
+				min = Math.min(min, accessor.get(i));
+				max = Math.max(max, accessor.get(i));
+			}
+
+			assertEquals(sum, Aggregations.sum(vector), 1e-9);
+			assertEquals(min, Aggregations.min(vector), 0.0);
+			assertEquals(max, Aggregations.max(vector), 0.0);
+			assertEquals(sum / testSize, Aggregations.mean(vector), 1e-9);
+		}
+	}
+
+	@Test
+	public void testFloat8NaN() {
+		try (Float8Vector vector = new Float8Vector("Float8Agg", allocator)) {
+			vector.allocateNew(3);
+			Float8Vector.Mutator mutator = vector.getMutator();
+			mutator.set(0, 1.0);
+			mutator.set(1, Double.NaN);
+			mutator.set(2, 3.0);
+			mutator.setValueCount(3);
+
+			assertTrue(Double.isNaN(Aggregations.min(vector)));
+			assertTrue(Double.isNaN(Aggregations.max(vector)));
+			assertTrue(Double.isNaN(Aggregations.sum(vector)));
+		}
+	}
+
+	@Test
+	public void testHistogram() {
+		try (IntVector vector = new IntVector("IntAgg", allocator)) {
+			vector.allocateNew(testSize);
+			IntVector.Mutator mutator = vector.getMutator();
+			for (int i = 0; i < testSize; i++) {
+				mutator.set(i, i - 1);
+			}
+			mutator.setValueCount(testSize);
+
+			Histogram histogram = Aggregations.histogram(vector, 0, 1000, 10);
+			assertEquals(10, histogram.getBucketCount());
+			for (int bucket = 0; bucket < 10; bucket++) {
+				assertEquals(100, histogram.getCount(bucket));
+			}
+			assertEquals(1, histogram.getUnderflow());
+			assertEquals(2, histogram.getOverflow());
+			assertEquals(testSize, histogram.getTotalCount());
+			assertEquals(300.0, histogram.getBucketLower(3), 0.0);
+		}
+	}
+
+	/**
+	 * NaN values fall into no bucket
+	 */
+	@Test
+	public void testHistogramNaN() {
+		try (Float8Vector vector = new Float8Vector("Float8Agg", allocator)) {
+			vector.allocateNew(3);
+			Float8Vector.Mutator mutator = vector.getMutator();
+			mutator.set(0, 0.25);
+			mutator.set(1, Double.NaN);
+			mutator.set(2, 0.999999999);
+			mutator.setValueCount(3);
+
+			Histogram histogram = Aggregations.histogram(vector, 0, 1, 4);
+			assertEquals(1, histogram.getCount(1));
+			assertEquals(1, histogram.getCount(3));
+			assertEquals(2, histogram.getTotalCount());
+		}
+	}
+
+	/**
+	 * Empty vectors have a count and a NaN mean, but no min or max
+	 */
+	@Test
+	public void testEmptyVector() {
+		try (IntVector vector = new IntVector("IntAgg", allocator)) {
+			vector.allocateNew(testSize);
+
+			assertEquals(0, Aggregations.count(vector));
+			assertEquals(0, Aggregations.sum(vector));
+			assertTrue(Double.isNaN(Aggregations.mean(vector)));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyVectorMin() {
+		try (Float8Vector vector = new Float8Vector("Float8Agg", allocator)) {
+			vector.allocateNew(testSize);
+			Aggregations.min(vector);
+		}
+	}
+}
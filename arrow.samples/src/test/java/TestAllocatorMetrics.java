@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.memory.AllocatorMetrics;
+import my.org.apache.arrow.samples.memory.AllocatorMetricsRegistry;
+import my.org.apache.arrow.samples.memory.InstrumentedAllocator;
+
+/**
+ * Test recording allocator usage
+ */
+public class TestAllocatorMetrics {
+
+	private BufferAllocator root;
+	private AllocatorMetricsRegistry registry;
+	private InstrumentedAllocator allocator;
+
+	@Before
+	public void init() {
+		root = new RootAllocator(Integer.MAX_VALUE);
+		registry = new AllocatorMetricsRegistry();
+		allocator = InstrumentedAllocator.instrument(root, "samples", 1 << 20, registry);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		registry.close();
+		allocator.close();
+		root.close();
+	}
+
+	@Test
+	public void testAllocationsPerVectorName() {
+		try (InstrumentedAllocator vectorAllocator = allocator.newVectorAllocator("prices");
+				Float8Vector vector = new Float8Vector("prices", vectorAllocator)) {
+			vector.allocateNew(1024);
+			vector.reAlloc();
+			vector.reAlloc();
+			assertEquals(4096 * 8, vectorAllocator.getAllocatedMemory());
+		}
+		try (InstrumentedAllocator vectorAllocator = allocator.newVectorAllocator("prices");
+				Float8Vector vector = new Float8Vector("prices", vectorAllocator)) {
+			vector.allocateNew(10);
+		}
+
+		AllocatorMetrics prices = registry.getMetrics("prices");
+		assertEquals(4, prices.getAllocationCount());
+		assertEquals(2, prices.getReAllocCount());
+		assertEquals(8192 + 16384 + 32768 + 80, prices.getAllocatedBytes());
+		// the old buffer is released after the new one is allocated
+		assertEquals(16384 + 32768, prices.getPeakMemory());
+		assertTrue(prices.getAllocationNanos() > 0);
+		assertEquals(0, registry.getMetrics("samples").getAllocationCount());
+	}
+
+	@Test
+	public void testNullableVector() {
+		try (InstrumentedAllocator vectorAllocator = allocator.newVectorAllocator("nullable");
+				NullableIntVector vector = new NullableIntVector("nullable", vectorAllocator)) {
+			// validity then values: not a reAlloc
+			vector.allocateNew(1024);
+			AllocatorMetrics metrics = registry.getMetrics("nullable");
+			assertEquals(2, metrics.getAllocationCount());
+			assertEquals(0, metrics.getReAllocCount());
+			// both buffers grow
+			vector.reAlloc();
+			assertEquals(4, metrics.getAllocationCount());
+			assertEquals(2, metrics.getReAllocCount());
+		}
+	}
+
+	@Test
+	public void testChildAllocator() {
+		try (InstrumentedAllocator child = allocator.newChildAllocator("child", 0, 1 << 16);
+				IntVector vector = new IntVector("ints", child)) {
+			vector.allocateNew(100);
+			vector.reAlloc();
+			AllocatorMetrics metrics = registry.getMetrics("child");
+			assertEquals(2, metrics.getAllocationCount());
+			// shared allocators cannot tell a reAlloc from another vector
+			assertEquals(0, metrics.getReAllocCount());
+		}
+	}
+
+	@Test
+	public void testFailures() {
+		try (IntVector vector = new IntVector("large", allocator)) {
+			vector.allocateNew(1 << 19);
+			fail("Allocation over the limit succeeded");
+		} catch (OutOfMemoryException e) {
+			assertEquals(1, registry.getMetrics("samples").getFailureCount());
+			assertEquals(0, registry.getMetrics("samples").getAllocationCount());
+		}
+	}
+
+	@Test
+	public void testTransfer() {
+		try (InstrumentedAllocator source = allocator.newVectorAllocator("source");
+				InstrumentedAllocator target = allocator.newVectorAllocator("target");
+				IntVector from = new IntVector("source", source);
+				IntVector to = new IntVector("target", target)) {
+			from.allocateNew(1024);
+			from.getMutator().set(0, 42);
+			from.getMutator().setValueCount(1024);
+			from.transferTo(to);
+			assertEquals(42, to.getAccessor().get(0));
+			assertEquals(0, source.getAllocatedMemory());
+			assertEquals(4096, target.getAllocatedMemory());
+		}
+	}
+
+	@Test
+	public void testMBeans() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		registry.registerMBeans(server);
+		try (InstrumentedAllocator vectorAllocator = allocator.newVectorAllocator("jmx");
+				IntVector vector = new IntVector("jmx", vectorAllocator)) {
+			vector.allocateNew(1024);
+			vector.reAlloc();
+		}
+		assertEquals(2L, server.getAttribute(AllocatorMetricsRegistry.objectName("jmx"), "AllocationCount"));
+		assertEquals(1L, server.getAttribute(AllocatorMetricsRegistry.objectName("jmx"), "ReAllocCount"));
+		registry.close();
+		assertTrue(!server.isRegistered(AllocatorMetricsRegistry.objectName("jmx")));
+	}
+}
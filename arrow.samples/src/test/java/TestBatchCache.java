@@ -0,0 +1,283 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import my.org.apache.arrow.samples.cache.BatchCache;
+import my.org.apache.arrow.samples.cache.BatchKey;
+import my.org.apache.arrow.samples.cache.CachedVector;
+import my.org.apache.arrow.samples.cache.EvictionPolicy;
+import my.org.apache.arrow.samples.cache.VectorLoader;
+import my.org.apache.arrow.samples.compress.Codec;
+import my.org.apache.arrow.samples.compress.CompressedColumnReader;
+import my.org.apache.arrow.samples.compress.CompressedColumnWriter;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test the batch cache: hits and misses, eviction order, pinning and loading
+ * the columns of a compressed column file
+ */
+public class TestBatchCache {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BufferAllocator allocator;
+
+	// absolute, so the keys hash the same wherever the tests run
+	private Path file = Paths.get("/data", "data.arrowz");
+
+	// every test vector takes 4 KB
+	private int valueCount = 1024;
+	private long vectorBytes = 4096;
+
+	private int loads;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	/**
+	 * Loads vectors whose values are the batch number of the key.
+	 */
+	private VectorLoader loader(final BatchKey key) {
+		return new VectorLoader() {
+			@Override
+			public BaseDataValueVector load(BufferAllocator vectorAllocator) {
+				loads++;
+				IntVector vector = new IntVector(key.getColumn(), vectorAllocator);
+				vector.allocateNew(valueCount);
+				for (int i = 0; i < valueCount; i++) {
+					vector.getMutator().set(i, key.getBatch());
+				}
+				vector.getMutator().setValueCount(valueCount);
+				return vector;
+			}
+		};
+	}
+
+	private CachedVector get(BatchCache cache, int batch) throws IOException {
+		BatchKey key = new BatchKey(file, "ints", batch);
+		return cache.get(key, loader(key));
+	}
+
+	/**
+	 * Reads and unpins the vector of a batch.
+	 */
+	private void read(BatchCache cache, int batch) throws IOException {
+		try (CachedVector cached = get(cache, batch)) {
+			assertEquals(batch, cached.getVector(IntVector.class).getAccessor().get(valueCount - 1));
+		}
+	}
+
+	private boolean contains(BatchCache cache, int batch) {
+		return cache.contains(new BatchKey(file, "ints", batch));
+	}
+
+	@Test
+	public void testHitsAndMisses() throws Exception {
+		try (BatchCache cache = new BatchCache(allocator, "cache", 4 * vectorBytes, EvictionPolicy.LRU)) {
+			try (CachedVector first = get(cache, 1); CachedVector second = get(cache, 1)) {
+				assertSame(first.getVector(), second.getVector());
+				assertTrue(first.isCached());
+				assertSame(cache.getAllocator(), first.getVector().getAllocator());
+				assertEquals(1, cache.getPinnedCount());
+			}
+			// equal paths share entries
+			BatchKey key = new BatchKey(Paths.get("/data", ".", "data.arrowz"), "ints", 1);
+			try (CachedVector third = cache.get(key, loader(key))) {
+				assertEquals(1, third.getVector(IntVector.class).getAccessor().get(0));
+			}
+			assertNull(cache.getIfPresent(new BatchKey(file, "ints", 2)));
+			assertTrue(cache.contains(key));
+			assertFalse(cache.contains(new BatchKey(file, "ints", 2)));
+			assertEquals(1, loads);
+			assertEquals(2, cache.getHitCount());
+			assertEquals(1, cache.getMissCount());
+			assertEquals(2 / 3.0, cache.getHitRate(), 1e-9);
+			assertEquals(1, cache.getEntryCount());
+			assertEquals(0, cache.getPinnedCount());
+			assertEquals(vectorBytes, cache.getCachedBytes());
+			assertEquals(vectorBytes, cache.getAllocatedBytes());
+			assertTrue(cache.getLoadNanos() > 0);
+			assertEquals(BatchCache.objectName("cache"), BatchCache.objectName("cache"));
+		}
+	}
+
+	@Test
+	public void testLruEviction() throws Exception {
+		try (BatchCache cache = new BatchCache(allocator, "lru", 4 * vectorBytes, EvictionPolicy.LRU)) {
+			for (int batch = 0; batch < 4; batch++) {
+				read(cache, batch);
+			}
+			read(cache, 0);
+			read(cache, 4);
+			assertEquals(1, cache.getEvictionCount());
+			assertEquals(vectorBytes, cache.getEvictedBytes());
+			assertFalse(contains(cache, 1));
+			assertTrue(contains(cache, 0));
+			assertTrue(contains(cache, 4));
+			assertTrue(cache.getAllocatedBytes() <= cache.getMaxBytes());
+		}
+	}
+
+	@Test
+	public void testPinning() throws Exception {
+		BatchCache cache = new BatchCache(allocator, "pins", 2 * vectorBytes, EvictionPolicy.W_TINY_LFU);
+		CachedVector pinned = get(cache, 0);
+		for (int batch = 1; batch < 10; batch++) {
+			read(cache, batch);
+		}
+		// never evicted while pinned
+		assertTrue(contains(cache, 0));
+		assertEquals(0, pinned.getVector(IntVector.class).getAccessor().get(0));
+
+		// a full cache of pinned vectors loads outside of it
+		CachedVector other = get(cache, 9);
+		assertTrue(other.isCached());
+		CachedVector bypassed = get(cache, 10);
+		assertFalse(bypassed.isCached());
+		assertEquals(1, cache.getBypassCount());
+		assertEquals(10, bypassed.getVector(IntVector.class).getAccessor().get(0));
+		bypassed.close();
+		other.close();
+
+		// invalidated and closed while pinned: freed on unpin
+		cache.invalidate(new BatchKey(file, "ints", 0));
+		assertFalse(contains(cache, 0));
+		cache.close();
+		assertEquals(0, pinned.getVector(IntVector.class).getAccessor().get(valueCount - 1));
+		assertEquals(vectorBytes, allocator.getAllocatedMemory());
+		pinned.close();
+		try {
+			pinned.getVector();
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			get(cache, 1);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * A scan over many batches read once flushes the hot batches out of an
+	 * LRU cache but not out of a W-TinyLFU one.
+	 */
+	@Test
+	public void testScanResistance() throws Exception {
+		for (EvictionPolicy policy : EvictionPolicy.values()) {
+			try (BatchCache cache = new BatchCache(allocator, policy.name(), 20 * vectorBytes, policy)) {
+				for (int round = 0; round < 5; round++) {
+					for (int batch = 0; batch < 10; batch++) {
+						read(cache, batch);
+					}
+				}
+				for (int batch = 100; batch < 200; batch++) {
+					read(cache, batch);
+				}
+				int hot = 0;
+				for (int batch = 0; batch < 10; batch++) {
+					hot += contains(cache, batch) ? 1 : 0;
+				}
+				if (policy == EvictionPolicy.LRU) {
+					assertEquals(0, hot);
+				} else {
+					assertEquals(10, hot);
+				}
+				assertEquals(20, cache.getEntryCount());
+			}
+		}
+	}
+
+	@Test
+	public void testCompressedColumnFile() throws Exception {
+		File data = folder.newFile("cached.arrowz");
+		Schema schema = new Schema(Arrays.asList(FixedWidthType.INT.toField("a"), FixedWidthType.BIGINT.toField("b")));
+		try (CompressedColumnWriter writer = CompressedColumnWriter.create(data.toPath(), schema, allocator,
+				Codec.DEFLATE)) {
+			for (int batch = 0; batch < 3; batch++) {
+				IntVector a = new IntVector("a", allocator);
+				BigIntVector b = new BigIntVector("b", allocator);
+				a.allocateNew(500);
+				b.allocateNew(500);
+				for (int i = 0; i < 500; i++) {
+					a.getMutator().set(i, batch * 1000 + i);
+					b.getMutator().set(i, -batch * 1000L - i);
+				}
+				a.getMutator().setValueCount(500);
+				b.getMutator().setValueCount(500);
+				try (ColumnBatch columns = new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(a, b))) {
+					writer.writeBatch(columns);
+				}
+			}
+		}
+		try (CompressedColumnReader reader = CompressedColumnReader.open(data.toPath());
+				BatchCache cache = new BatchCache(allocator, "file", 1 << 20, EvictionPolicy.W_TINY_LFU)) {
+			for (int round = 0; round < 2; round++) {
+				for (int batch = 0; batch < 3; batch++) {
+					try (CachedVector b = cache.get(data.toPath(), reader, batch, 1)) {
+						assertEquals(new BatchKey(data.toPath(), "b", batch), b.getKey());
+						BigIntVector vector = b.getVector(BigIntVector.class);
+						assertEquals(500, vector.getAccessor().getValueCount());
+						assertEquals(-batch * 1000L - 499, vector.getAccessor().get(499));
+					}
+				}
+			}
+			assertEquals(3, cache.getMissCount());
+			assertEquals(3, cache.getHitCount());
+			cache.invalidateFile(data.toPath());
+			assertEquals(0, cache.getEntryCount());
+			assertEquals(0, cache.getAllocatedBytes());
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.pipeline.BatchConsumer;
+import my.org.apache.arrow.samples.pipeline.BatchPipeline;
+import my.org.apache.arrow.samples.pipeline.BatchProducer;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test streaming batches through a bounded pipeline
+ */
+public class TestBatchPipeline {
+
+	private BufferAllocator allocator;
+
+	private Schema schema = new Schema(
+			Arrays.asList(FixedWidthType.BIGINT.toField("id"), FixedWidthType.FLOAT8.toField("value")));
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testBoundedPeakMemory() throws Exception {
+		final long rowCount = 1000003;
+		final long[] sum = new long[1];
+		try (BatchPipeline pipeline = new BatchPipeline(allocator, schema, 1000, 4)) {
+			long rows = pipeline.run(new SequenceProducer(rowCount), new BatchConsumer() {
+				@Override
+				public void consume(ColumnBatch batch) throws Exception {
+					sum[0] += Aggregations.sum(batch.getColumn(0, BigIntVector.class));
+					assertEquals(2 * Aggregations.sum(batch.getColumn(0, BigIntVector.class)),
+							Aggregations.sum(batch.getColumn(1, Float8Vector.class)), 0);
+				}
+			});
+			assertEquals(rowCount, rows);
+			assertEquals(rowCount * (rowCount - 1) / 2, sum[0]);
+			// 6 batches of 1024 longs and 1024 doubles, whatever the input size
+			assertEquals(6 * 2 * 8192, pipeline.getMemoryLimit());
+			assertTrue(pipeline.getPeakMemoryAllocation() <= pipeline.getMemoryLimit());
+		}
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		final SequenceProducer producer = new SequenceProducer(100000);
+		try (BatchPipeline pipeline = new BatchPipeline(allocator, schema, 100, 2)) {
+			pipeline.run(producer, new BatchConsumer() {
+				@Override
+				public void consume(ColumnBatch batch) throws Exception {
+					Thread.sleep(1);
+					long consumed = batch.getColumn(0, BigIntVector.class).getAccessor().get(0) / 100;
+					// this batch, two queued ones and the one waiting to be queued
+					assertTrue(producer.batches - consumed <= 4);
+				}
+			});
+		}
+	}
+
+	@Test
+	public void testProducerFailure() throws Exception {
+		final RuntimeException failure = new RuntimeException("broken feed");
+		try (BatchPipeline pipeline = new BatchPipeline(allocator, schema, 100, 2)) {
+			pipeline.run(new SequenceProducer(10000) {
+				@Override
+				public int produce(List<BaseDataValueVector> columns, int capacity) throws Exception {
+					if (batches == 10) {
+						throw failure;
+					}
+					return super.produce(columns, capacity);
+				}
+			}, new BatchConsumer() {
+				@Override
+				public void consume(ColumnBatch batch) throws Exception {
+				}
+			});
+			fail("Producer failure not reported");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+
+	@Test
+	public void testConsumerFailure() throws Exception {
+		final IllegalStateException failure = new IllegalStateException("sink closed");
+		try (BatchPipeline pipeline = new BatchPipeline(allocator, schema, 100, 2)) {
+			pipeline.run(new SequenceProducer(Long.MAX_VALUE), new BatchConsumer() {
+				@Override
+				public void consume(ColumnBatch batch) throws Exception {
+					throw failure;
+				}
+			});
+			fail("Consumer failure not reported");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+
+	/**
+	 * The consumer fails while the queue is full and the producer is blocked in
+	 * produce; the producer ends with the interrupt it was sent
+	 */
+	@Test(timeout = 10000)
+	public void testConsumerFailureWithFullQueue() throws Exception {
+		final IllegalStateException failure = new IllegalStateException("sink closed");
+		try (BatchPipeline pipeline = new BatchPipeline(allocator, schema, 100, 1)) {
+			pipeline.run(new SequenceProducer(Long.MAX_VALUE) {
+				@Override
+				public int produce(List<BaseDataValueVector> columns, int capacity) throws Exception {
+					Thread.sleep(50);
+					return super.produce(columns, capacity);
+				}
+			}, new SlowFailingConsumer(failure));
+			fail("Consumer failure not reported");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+
+	/**
+	 * Like {@link #testConsumerFailureWithFullQueue()} with a producer that
+	 * swallows the interrupt and keeps producing
+	 */
+	@Test(timeout = 10000)
+	public void testConsumerFailureWithInterruptIgnoringProducer() throws Exception {
+		final IllegalStateException failure = new IllegalStateException("sink closed");
+		try (BatchPipeline pipeline = new BatchPipeline(allocator, schema, 100, 1)) {
+			pipeline.run(new SequenceProducer(Long.MAX_VALUE) {
+				@Override
+				public int produce(List<BaseDataValueVector> columns, int capacity) throws Exception {
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+						// keep going
+					}
+					return super.produce(columns, capacity);
+				}
+			}, new SlowFailingConsumer(failure));
+			fail("Consumer failure not reported");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+
+	/**
+	 * Lets the producer fill the queue, then fails
+	 */
+	private static class SlowFailingConsumer implements BatchConsumer {
+
+		private final RuntimeException failure;
+
+		SlowFailingConsumer(RuntimeException failure) {
+			this.failure = failure;
+		}
+
+		@Override
+		public void consume(ColumnBatch batch) throws Exception {
+			Thread.sleep(80);
+			throw failure;
+		}
+	}
+
+	/**
+	 * Emits rows (i, 2 * i) for i in [0, rowCount)
+	 */
+	private static class SequenceProducer implements BatchProducer {
+
+		private final long rowCount;
+		private long next;
+		volatile int batches;
+
+		SequenceProducer(long rowCount) {
+			this.rowCount = rowCount;
+		}
+
+		@Override
+		public int produce(List<BaseDataValueVector> columns, int capacity) throws Exception {
+			BigIntVector ids = (BigIntVector) columns.get(0);
+			Float8Vector values = (Float8Vector) columns.get(1);
+			int rows = (int) Math.min(capacity, rowCount - next);
+			for (int i = 0; i < rows; i++) {
+				ids.getMutator().set(i, next + i);
+				values.getMutator().set(i, 2.0 * (next + i));
+			}
+			next += rows;
+			batches++;
+			return rows;
+		}
+	}
+}
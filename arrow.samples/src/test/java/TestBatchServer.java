@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.flight.BatchClient;
+import my.org.apache.arrow.samples.flight.BatchServer;
+import my.org.apache.arrow.samples.flight.BatchStreamReader;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test streaming batches between a server and clients over loopback
+ */
+public class TestBatchServer {
+
+	private static final Schema SCHEMA = new Schema(
+			Arrays.asList(FixedWidthType.BIGINT.toField("id"), FixedWidthType.FLOAT8.toField("price")));
+
+	private BufferAllocator allocator;
+	private BatchServer server;
+
+	@Before
+	public void init() throws IOException {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		server = new BatchServer(allocator);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		server.close();
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	private ColumnBatch batch(int first, int rowCount) {
+		BigIntVector ids = (BigIntVector) FixedWidthType.BIGINT.allocateVector("id", allocator, rowCount);
+		Float8Vector prices = (Float8Vector) FixedWidthType.FLOAT8.allocateVector("price", allocator, rowCount);
+		for (int i = 0; i < rowCount; i++) {
+			ids.getMutator().set(i, first + i);
+			prices.getMutator().set(i, (first + i) * 0.25);
+		}
+		ids.getMutator().setValueCount(rowCount);
+		prices.getMutator().setValueCount(rowCount);
+		return new ColumnBatch(SCHEMA, Arrays.<BaseDataValueVector> asList(ids, prices));
+	}
+
+	/**
+	 * Reads the whole stream and checks ids are consecutive from 0.
+	 *
+	 * @return number of rows read
+	 */
+	private static int readAll(BatchStreamReader reader) throws IOException {
+		assertEquals(SCHEMA, reader.getSchema());
+		int rows = 0;
+		ColumnBatch batch;
+		while ((batch = reader.next()) != null) {
+			try {
+				BigIntVector ids = batch.getColumn(0, BigIntVector.class);
+				Float8Vector prices = batch.getColumn(1, Float8Vector.class);
+				for (int i = 0; i < batch.getRowCount(); i++) {
+					assertEquals(rows + i, ids.getAccessor().get(i));
+					assertEquals((rows + i) * 0.25, prices.getAccessor().get(i), 0);
+				}
+				rows += batch.getRowCount();
+			} finally {
+				batch.close();
+			}
+		}
+		return rows;
+	}
+
+	@Test
+	public void testGet() throws IOException {
+		server.put("trades", SCHEMA, Arrays.asList(batch(0, 1000), batch(1000, 3), batch(1003, 0), batch(1003, 5000)));
+		try (BatchClient client = BatchClient.connect(server.getPort())) {
+			// several requests over one connection
+			assertEquals(6003, readAll(client.get("trades", allocator)));
+			assertEquals(6003, readAll(client.get("trades", allocator)));
+		}
+		assertEquals(8, server.getBatchesSent());
+	}
+
+	@Test
+	public void testPutThenGet() throws IOException {
+		List<ColumnBatch> batches = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			batches.add(batch(i * 777, 777));
+		}
+		try (BatchClient client = BatchClient.connect(server.getPort())) {
+			assertEquals(10, client.put("uploaded", SCHEMA, batches));
+		} finally {
+			for (ColumnBatch batch : batches) {
+				batch.close();
+			}
+		}
+		assertEquals(10, server.getBatchesReceived());
+		assertEquals(10, server.get("uploaded").size());
+		assertTrue(server.getPaths().contains("uploaded"));
+
+		try (BatchClient client = BatchClient.connect(server.getPort())) {
+			assertEquals(7770, readAll(client.get("uploaded", allocator)));
+		}
+	}
+
+	@Test
+	public void testErrors() throws IOException {
+		server.put("trades", SCHEMA, Arrays.asList(batch(0, 10)));
+		try (BatchClient client = BatchClient.connect(server.getPort())) {
+			try {
+				client.get("missing", allocator);
+				fail();
+			} catch (IOException e) {
+				assertEquals("No dataset at missing", e.getMessage());
+			}
+			try (ColumnBatch batch = batch(0, 10)) {
+				client.put("trades", SCHEMA, Arrays.asList(batch));
+				fail();
+			} catch (IOException e) {
+				assertEquals("Path trades is already in use", e.getMessage());
+			}
+			// the connection survives failed requests
+			BatchStreamReader reader = client.get("trades", allocator);
+			try {
+				client.get("trades", allocator);
+				fail();
+			} catch (IllegalStateException e) {
+				// expected, the first stream is still pending
+			}
+			assertEquals(10, readAll(reader));
+		}
+		assertNull(server.get("missing"));
+	}
+
+	@Test
+	public void testFailedUpload() throws IOException {
+		BufferAllocator serverAllocator = allocator.newChildAllocator("server", 0, 1024);
+		try (BatchServer small = new BatchServer(serverAllocator);
+				BatchClient client = BatchClient.connect(small.getPort());
+				ColumnBatch batch = batch(0, 1000)) {
+			client.put("trades", SCHEMA, Arrays.asList(batch));
+			fail();
+		} catch (IOException e) {
+			// the allocator limit is reported instead of a dropped connection
+			assertTrue(e.getMessage(), e.getMessage().contains("limit"));
+		} finally {
+			serverAllocator.close();
+		}
+	}
+
+	@Test
+	public void testPutAfterClose() throws IOException {
+		server.close();
+		try (ColumnBatch batch = batch(0, 10)) {
+			server.put("trades", SCHEMA, Arrays.asList(batch));
+			fail();
+		} catch (IllegalStateException e) {
+			assertNull(server.get("trades"));
+		}
+	}
+
+	@Test
+	public void testConcurrentClients() throws Exception {
+		server.put("trades", SCHEMA, Arrays.asList(batch(0, 4096), batch(4096, 4096)));
+		final List<Throwable> failures = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try (BatchClient client = BatchClient.connect(server.getPort())) {
+						for (int i = 0; i < 20; i++) {
+							assertEquals(8192, readAll(client.get("trades", allocator)));
+						}
+					} catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(Arrays.asList(), failures);
+		assertEquals(160, server.getBatchesSent());
+	}
+}
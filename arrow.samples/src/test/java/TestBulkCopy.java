@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.NullableFloat8Vector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.BulkCopy;
+
+/**
+ * Test copying ranges and index lists of values between vectors
+ */
+public class TestBulkCopy {
+
+	private BufferAllocator allocator;
+	private SelectionVector indices;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		indices = new SelectionVector(allocator);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		indices.close();
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testCopyRangeAppends() {
+		try (BigIntVector source = new BigIntVector("source", allocator);
+				BigIntVector target = new BigIntVector("target", allocator)) {
+			source.allocateNew(10000);
+			for (int i = 0; i < 10000; i++) {
+				source.getMutator().set(i, i * 3L);
+			}
+			source.getMutator().setValueCount(10000);
+
+			BulkCopy.copyRange(source, 100, target, 0, 5000);
+			BulkCopy.copyRange(source, 0, target, 5000, 10000);
+			assertEquals(15000, target.getAccessor().getValueCount());
+			for (int i = 0; i < 5000; i++) {
+				assertEquals((i + 100) * 3L, target.getAccessor().get(i));
+			}
+			for (int i = 0; i < 10000; i++) {
+				assertEquals(i * 3L, target.getAccessor().get(5000 + i));
+			}
+		}
+	}
+
+	@Test
+	public void testCopyRangeWithNulls() {
+		try (NullableIntVector source = nullableInts(1000);
+				NullableIntVector aligned = new NullableIntVector("aligned", allocator);
+				NullableIntVector unaligned = new NullableIntVector("unaligned", allocator)) {
+			BulkCopy.copyRange(source, 16, aligned, 8, 500);
+			BulkCopy.copyRange(source, 3, unaligned, 5, 777);
+			for (int i = 0; i < 500; i++) {
+				assertEquals(source.getAccessor().getObject(16 + i), aligned.getAccessor().getObject(8 + i));
+			}
+			for (int i = 0; i < 777; i++) {
+				assertEquals(source.getAccessor().getObject(3 + i), unaligned.getAccessor().getObject(5 + i));
+			}
+			assertEquals(508, aligned.getAccessor().getValueCount());
+			assertEquals(782, unaligned.getAccessor().getValueCount());
+		}
+	}
+
+	@Test
+	public void testCompactFilteredBatch() {
+		try (NullableFloat8Vector prices = new NullableFloat8Vector("price", allocator);
+				IntVector quantities = new IntVector("quantity", allocator);
+				NullableFloat8Vector compactedPrices = new NullableFloat8Vector("price", allocator);
+				IntVector compactedQuantities = new IntVector("quantity", allocator)) {
+			prices.allocateNew(100);
+			quantities.allocateNew(100);
+			for (int i = 0; i < 100; i++) {
+				if (i % 7 == 0) {
+					prices.getMutator().setNull(i);
+				} else {
+					prices.getMutator().set(i, i * 1.5);
+				}
+				quantities.getMutator().set(i, i % 10);
+			}
+			prices.getMutator().setValueCount(100);
+			quantities.getMutator().setValueCount(100);
+
+			Filters.compare(quantities, CompareOp.GE, 5, indices);
+			BulkCopy.gather(prices, indices, compactedPrices);
+			BulkCopy.gather(quantities, indices, compactedQuantities);
+			assertEquals(50, compactedPrices.getAccessor().getValueCount());
+			assertEquals(50, compactedQuantities.getAccessor().getValueCount());
+			for (int i = 0; i < 50; i++) {
+				int row = indices.getIndex(i);
+				assertEquals(prices.getAccessor().getObject(row), compactedPrices.getAccessor().getObject(i));
+				assertEquals(row % 10, compactedQuantities.getAccessor().get(i));
+			}
+			assertEquals(7, compactedPrices.getAccessor().getNullCount());
+		}
+	}
+
+	@Test
+	public void testScatterInvertsGather() {
+		try (NullableIntVector source = nullableInts(100);
+				NullableIntVector gathered = new NullableIntVector("gathered", allocator);
+				NullableIntVector scattered = new NullableIntVector("scattered", allocator)) {
+			indices.allocateNew(100);
+			for (int i = 0; i < 100; i++) {
+				indices.setIndex(i, (i * 37) % 100);
+			}
+			indices.setCount(100);
+			BulkCopy.gather(source, indices, gathered);
+			scattered.allocateNew(100);
+			BulkCopy.scatter(gathered, indices, scattered);
+			assertEquals(100, scattered.getAccessor().getValueCount());
+			for (int i = 0; i < 100; i++) {
+				assertEquals(source.getAccessor().getObject(i), scattered.getAccessor().getObject(i));
+			}
+		}
+	}
+
+	@Test
+	public void testOutOfBounds() {
+		try (SmallIntVector source = new SmallIntVector("source", allocator);
+				SmallIntVector target = new SmallIntVector("target", allocator)) {
+			source.allocateNew(10);
+			source.getMutator().setValueCount(10);
+			try {
+				BulkCopy.copyRange(source, 5, target, 0, 6);
+				fail();
+			} catch (IndexOutOfBoundsException e) {
+				assertEquals(0, target.getAccessor().getValueCount());
+			}
+			target.allocateNew(4);
+			indices.allocateNew(1);
+			indices.setIndex(0, target.getValueCapacity());
+			indices.setCount(1);
+			try {
+				BulkCopy.scatter(source, indices, target);
+				fail();
+			} catch (IndexOutOfBoundsException e) {
+				assertFalse(e.getMessage().isEmpty());
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMismatchedTypes() {
+		try (IntVector source = new IntVector("source", allocator);
+				NullableIntVector target = new NullableIntVector("target", allocator)) {
+			source.allocateNew(1);
+			source.getMutator().setValueCount(1);
+			BulkCopy.copyRange(source, 0, (BaseDataValueVector) target, 0, 1);
+		}
+	}
+
+	private NullableIntVector nullableInts(int count) {
+		NullableIntVector vector = new NullableIntVector("source", allocator);
+		vector.allocateNew(count);
+		for (int i = 0; i < count; i++) {
+			if (i % 3 == 0 || i % 11 == 0) {
+				vector.getMutator().setNull(i);
+			} else {
+				vector.getMutator().set(i, i * 10);
+			}
+		}
+		vector.getMutator().setValueCount(count);
+		return vector;
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.vector.ChunkedColumn;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test columns split over several vectors
+ */
+public class TestChunkedColumn {
+
+	private BufferAllocator allocator;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testLongIndexedAccess() {
+		try (ChunkedColumn column = new ChunkedColumn(FixedWidthType.BIGINT, "column", allocator, 1024)) {
+			column.setSize(10000);
+			assertEquals(10, column.getSegmentCount());
+			assertEquals(10240, column.getCapacity());
+			long expected = 0;
+			for (long i = 0; i < 10000; i++) {
+				column.setLong(i, i * i);
+				expected += i * i;
+			}
+			assertEquals(1023L * 1023, column.getLong(1023));
+			assertEquals(1024L * 1024, column.getLong(1024));
+			assertEquals(9999L * 9999, column.getLong(9999));
+
+			long sum = 0;
+			for (int s = 0; s < column.getSegmentCount(); s++) {
+				sum += Aggregations.sum((BigIntVector) column.getSegment(s));
+			}
+			assertEquals(expected, sum);
+			assertEquals(10000 - 9 * 1024, column.getSegment(9).getAccessor().getValueCount());
+			assertEquals(9 * 1024, column.getSegmentStart(9));
+
+			try {
+				column.getLong(10000);
+				fail();
+			} catch (IndexOutOfBoundsException e) {
+				// expected
+			}
+			try {
+				column.getDouble(0);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testForEachRange() {
+		try (ChunkedColumn column = new ChunkedColumn(FixedWidthType.FLOAT8, "column", allocator, 256)) {
+			column.setSize(1000);
+			for (long i = 0; i < 1000; i++) {
+				column.setDouble(i, i * 0.5);
+			}
+			final List<String> ranges = new ArrayList<>();
+			final double[] sum = new double[1];
+			column.forEachRange(100, 900, new ChunkedColumn.SegmentVisitor() {
+				@Override
+				public void visit(BaseDataValueVector segment, int from, int to, long position) {
+					ranges.add(from + "-" + to + "@" + position);
+					Float8Vector values = (Float8Vector) segment;
+					for (int i = from; i < to; i++) {
+						sum[0] += values.getAccessor().get(i);
+					}
+				}
+			});
+			assertEquals(Arrays.asList("100-256@100", "0-256@256", "0-256@512", "0-132@768"), ranges);
+			assertEquals((100 + 899) * 800 / 2 * 0.5, sum[0], 0);
+		}
+	}
+
+	@Test
+	public void testResize() {
+		try (ChunkedColumn column = new ChunkedColumn(FixedWidthType.INT, "column", allocator, 1024)) {
+			column.setSize(5000);
+			for (long i = 0; i < 5000; i++) {
+				column.setInt(i, -1);
+			}
+			assertEquals(5 * 4096, allocator.getAllocatedMemory());
+			column.setSize(1500);
+			assertEquals(2, column.getSegmentCount());
+			assertEquals(2 * 4096, allocator.getAllocatedMemory());
+
+			// values past the size read as zero when it grows again
+			column.setSize(3000);
+			assertEquals(-1, column.getInt(1499));
+			assertEquals(0, column.getInt(1500));
+			assertEquals(0, column.getInt(2999));
+			column.setSize(0);
+			assertEquals(0, allocator.getAllocatedMemory());
+		}
+		try {
+			new ChunkedColumn(FixedWidthType.BIGINT, "column", allocator, 1000);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			new ChunkedColumn(FixedWidthType.BIGINT, "column", allocator, 1 << 28);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected, more than MAX_ALLOCATION_SIZE bytes
+		}
+	}
+}
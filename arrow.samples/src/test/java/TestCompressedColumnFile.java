@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.compress.Codec;
+import my.org.apache.arrow.samples.compress.ColumnEncoding;
+import my.org.apache.arrow.samples.compress.CompressedColumnReader;
+import my.org.apache.arrow.samples.compress.CompressedColumnWriter;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test the lightweight column encodings and the compressed column file
+ */
+public class TestCompressedColumnFile {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BufferAllocator allocator;
+	private Random random;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		random = new Random(7);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testEncodingsRoundTrip() {
+		int count = 5000;
+		for (FixedWidthType type : FixedWidthType.values()) {
+			for (ColumnEncoding encoding : ColumnEncoding.values()) {
+				if (!encoding.supports(type)) {
+					continue;
+				}
+				for (int pattern = 0; pattern < 4; pattern++) {
+					try (BaseDataValueVector vector = fill(type, count, pattern);
+							BaseDataValueVector decoded = type.allocateVector("decoded", allocator, count)) {
+						ArrowBuf encoded = allocator.buffer((int) encoding.maxEncodedSize(type, count));
+						try {
+							long length = encoding.encode(type, vector.getBuffer().memoryAddress(), count,
+									encoded.memoryAddress());
+							assertTrue(length <= encoding.maxEncodedSize(type, count));
+							encoding.decode(type, encoded.memoryAddress(), length, count,
+									decoded.getBuffer().memoryAddress());
+						} finally {
+							encoded.release();
+						}
+						decoded.getMutator().setValueCount(count);
+						for (int i = 0; i < count; i++) {
+							assertEquals(encoding + " " + type + " pattern " + pattern + " at " + i,
+									vector.getAccessor().getObject(i), decoded.getAccessor().getObject(i));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTruncatedInput() {
+		try (BaseDataValueVector vector = fill(FixedWidthType.BIGINT, 100, 3);
+				BaseDataValueVector decoded = FixedWidthType.BIGINT.allocateVector("decoded", allocator, 100)) {
+			ArrowBuf encoded = allocator.buffer(1024);
+			try {
+				long length = ColumnEncoding.DELTA.encode(FixedWidthType.BIGINT, vector.getBuffer().memoryAddress(),
+						100, encoded.memoryAddress());
+				ColumnEncoding.DELTA.decode(FixedWidthType.BIGINT, encoded.memoryAddress(), length - 8, 100,
+						decoded.getBuffer().memoryAddress());
+				fail();
+			} catch (IndexOutOfBoundsException e) {
+				assertTrue(e.getMessage().contains("truncated"));
+			} finally {
+				encoded.release();
+			}
+		}
+	}
+
+	@Test
+	public void testFileRoundTrip() throws IOException {
+		for (Codec codec : Codec.values()) {
+			Path path = folder.newFile(codec + ".arrowz").toPath();
+			List<Field> fields = new ArrayList<>();
+			for (FixedWidthType type : FixedWidthType.values()) {
+				fields.add(type.toField(type.name().toLowerCase()));
+			}
+			Schema schema = new Schema(fields);
+			int[] rowCounts = { 3000, 0, 10 };
+			List<ColumnBatch> written = new ArrayList<>();
+			try {
+				try (CompressedColumnWriter writer = CompressedColumnWriter.create(path, schema, allocator, codec)) {
+					for (int b = 0; b < rowCounts.length; b++) {
+						List<BaseDataValueVector> columns = new ArrayList<>();
+						for (FixedWidthType type : FixedWidthType.values()) {
+							columns.add(fill(type, rowCounts[b], b));
+						}
+						ColumnBatch batch = new ColumnBatch(schema, columns);
+						written.add(batch);
+						writer.writeBatch(batch);
+					}
+					assertTrue(writer.getUncompressedBytes() > 0);
+				}
+
+				try (CompressedColumnReader reader = CompressedColumnReader.open(path)) {
+					assertEquals(schema, reader.getSchema());
+					assertEquals(rowCounts.length, reader.getBatchCount());
+					for (int b = rowCounts.length - 1; b >= 0; b--) {
+						assertEquals(rowCounts[b], reader.getRowCount(b));
+						try (ColumnBatch batch = reader.readBatch(b, allocator)) {
+							assertEquals(rowCounts[b], batch.getRowCount());
+							for (int c = 0; c < batch.getColumnCount(); c++) {
+								for (int i = 0; i < rowCounts[b]; i++) {
+									assertEquals(written.get(b).getColumn(c).getAccessor().getObject(i),
+											batch.getColumn(c).getAccessor().getObject(i));
+								}
+							}
+						}
+					}
+				}
+			} finally {
+				for (ColumnBatch batch : written) {
+					batch.close();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTimestampsCompress() throws IOException {
+		Path path = folder.newFile("timestamps.arrowz").toPath();
+		Schema schema = new Schema(Arrays.asList(FixedWidthType.BIGINT.toField("timestamp"),
+				FixedWidthType.FLOAT8.toField("reading")));
+		int rows = 100000;
+		try (BigIntVector timestamps = new BigIntVector("timestamp", allocator);
+				Float8Vector readings = new Float8Vector("reading", allocator)) {
+			timestamps.allocateNew(rows);
+			readings.allocateNew(rows);
+			long time = 1500000000000L;
+			for (int i = 0; i < rows; i++) {
+				time += 1000 + random.nextInt(10);
+				timestamps.getMutator().set(i, time);
+				readings.getMutator().set(i, 20 + (i / 100) * 0.25);
+			}
+			timestamps.getMutator().setValueCount(rows);
+			readings.getMutator().setValueCount(rows);
+			ColumnBatch batch = new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(timestamps, readings));
+			try (CompressedColumnWriter writer = CompressedColumnWriter.create(path, schema, allocator, Codec.NONE)) {
+				writer.writeBatch(batch);
+				// 4 bits per timestamp delta, a few bits per repeated reading
+				assertTrue(writer.bytesWritten() * 8 < writer.getUncompressedBytes());
+			}
+			try (CompressedColumnReader reader = CompressedColumnReader.open(path);
+					ColumnBatch read = reader.readBatch(0, allocator)) {
+				BigIntVector readTimestamps = read.getColumn(0, BigIntVector.class);
+				Float8Vector readReadings = read.getColumn(1, Float8Vector.class);
+				for (int i = 0; i < rows; i++) {
+					assertEquals(timestamps.getAccessor().get(i), readTimestamps.getAccessor().get(i));
+					assertEquals(readings.getAccessor().get(i), readReadings.getAccessor().get(i), 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pattern 0 is random, 1 constant, 2 ascending with small steps and 3 a
+	 * narrow range with an outlier.
+	 */
+	private BaseDataValueVector fill(FixedWidthType type, int count, int pattern) {
+		BaseDataValueVector vector = type.allocateVector(type.name(), allocator, count);
+		for (int i = 0; i < count; i++) {
+			long value;
+			switch (pattern) {
+			case 0:
+				value = random.nextLong();
+				break;
+			case 1:
+				value = -42;
+				break;
+			case 2:
+				value = i * 3 + random.nextInt(3);
+				break;
+			default:
+				value = i == count / 2 ? Long.MIN_VALUE : 1000 + random.nextInt(100);
+				break;
+			}
+			switch (type) {
+			case SMALLINT:
+				((SmallIntVector) vector).getMutator().set(i, (short) value);
+				break;
+			case INT:
+				((IntVector) vector).getMutator().set(i, (int) value);
+				break;
+			case BIGINT:
+				((BigIntVector) vector).getMutator().set(i, value);
+				break;
+			case FLOAT4:
+				((Float4Vector) vector).getMutator().set(i, pattern == 0 ? random.nextFloat() : value / 8f);
+				break;
+			default:
+				((Float8Vector) vector).getMutator().set(i,
+						pattern == 0 ? Double.longBitsToDouble(value) : value / 8d);
+				break;
+			}
+		}
+		vector.getMutator().setValueCount(count);
+		return vector;
+	}
+}
@@ -0,0 +1,213 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.ingest.ConcurrentBatchBuilder;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test building a batch from several threads at once
+ */
+public class TestConcurrentBatchBuilder {
+
+	private BufferAllocator allocator;
+	private final Schema schema = new Schema(Arrays.asList(FixedWidthType.BIGINT.toField("id"),
+			FixedWidthType.INT.toField("producer"), FixedWidthType.FLOAT8.toField("value")));
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testManyProducers() throws Exception {
+		final int producers = 8;
+		final int rowsPerProducer = 20000;
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		final CountDownLatch start = new CountDownLatch(1);
+		try (final ConcurrentBatchBuilder builder = new ConcurrentBatchBuilder(allocator, schema,
+				producers * rowsPerProducer, 1024)) {
+			Future<?>[] futures = new Future<?>[producers];
+			for (int p = 0; p < producers; p++) {
+				final int producer = p;
+				futures[p] = executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						start.await();
+						int written = 0;
+						while (written < rowsPerProducer) {
+							// ranges of 1 to 100 rows, so some straddle chunks
+							int count = Math.min(rowsPerProducer - written, 1 + (written * 31 + producer) % 100);
+							int first = builder.reserve(count);
+							for (int i = 0; i < count; i++) {
+								long id = (long) producer * rowsPerProducer + written + i;
+								builder.setLong(0, first + i, id);
+								builder.setInt(1, first + i, producer);
+								builder.setDouble(2, first + i, id * 0.5);
+							}
+							builder.commit(count);
+							written += count;
+						}
+						return null;
+					}
+				});
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+
+			try (ColumnBatch batch = builder.seal()) {
+				assertEquals(producers * rowsPerProducer, batch.getRowCount());
+				BigIntVector ids = batch.getColumn(0, BigIntVector.class);
+				IntVector producerIds = batch.getColumn(1, IntVector.class);
+				Float8Vector values = batch.getColumn(2, Float8Vector.class);
+				boolean[] seen = new boolean[producers * rowsPerProducer];
+				long[] lastId = new long[producers];
+				Arrays.fill(lastId, -1);
+				for (int row = 0; row < batch.getRowCount(); row++) {
+					long id = ids.getAccessor().get(row);
+					int producer = producerIds.getAccessor().get(row);
+					assertFalse(seen[(int) id]);
+					seen[(int) id] = true;
+					assertEquals(producer, id / rowsPerProducer);
+					assertEquals(id * 0.5, values.getAccessor().get(row), 0);
+					// every producer's rows keep their order
+					assertTrue(id > lastId[producer]);
+					lastId[producer] = id;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCapacityAndSeal() throws Exception {
+		try (ConcurrentBatchBuilder builder = new ConcurrentBatchBuilder(allocator, schema, 10, 4)) {
+			assertEquals(0, builder.reserve(6));
+			try {
+				builder.reserve(5);
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals(6, builder.getReservedCount());
+			}
+			for (int row = 0; row < 6; row++) {
+				builder.setLong(0, row, row);
+				builder.setInt(1, row, 0);
+				builder.setDouble(2, row, row);
+			}
+			builder.commit(6);
+			try {
+				builder.setInt(0, 0, 1);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// column 0 holds longs
+			}
+
+			try (ColumnBatch batch = builder.seal()) {
+				assertTrue(builder.isSealed());
+				assertEquals(6, batch.getRowCount());
+				assertEquals(5L, batch.getColumn(0, BigIntVector.class).getAccessor().get(5));
+			}
+			try {
+				builder.reserve(1);
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals(6, builder.getReservedCount());
+			}
+		}
+	}
+
+	/**
+	 * Aborted rows are committed as zeros, whether they were partially written,
+	 * share a chunk with written rows or fall in chunks never allocated
+	 */
+	@Test(timeout = 10000)
+	public void testAbort() throws Exception {
+		try (ConcurrentBatchBuilder builder = new ConcurrentBatchBuilder(allocator, schema, 16, 4)) {
+			// partially written, then the producer fails
+			int failed = builder.reserve(3);
+			builder.setLong(0, failed, 42);
+			builder.setDouble(2, failed + 1, 42);
+			builder.abort(failed, 3);
+			int written = builder.reserve(2);
+			for (int row = written; row < written + 2; row++) {
+				builder.setLong(0, row, row);
+				builder.setInt(1, row, 1);
+				builder.setDouble(2, row, row);
+			}
+			builder.commit(2);
+			// rows 5 to 11 straddle the chunk of row 5 and two that are never allocated
+			builder.abort(builder.reserve(7), 7);
+			assertEquals(12, builder.getCommittedCount());
+
+			try (ColumnBatch batch = builder.seal()) {
+				BigIntVector ids = batch.getColumn(0, BigIntVector.class);
+				IntVector producers = batch.getColumn(1, IntVector.class);
+				Float8Vector values = batch.getColumn(2, Float8Vector.class);
+				assertEquals(12, batch.getRowCount());
+				for (int row = 0; row < 12; row++) {
+					boolean isWritten = row == 3 || row == 4;
+					assertEquals(isWritten ? row : 0, ids.getAccessor().get(row));
+					assertEquals(isWritten ? 1 : 0, producers.getAccessor().get(row));
+					assertEquals(isWritten ? row : 0, values.getAccessor().get(row), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCloseDiscardsRows() {
+		ConcurrentBatchBuilder builder = new ConcurrentBatchBuilder(allocator, schema, 100, 16);
+		int first = builder.reserve(40);
+		for (int row = first; row < first + 40; row++) {
+			builder.setLong(0, row, row);
+		}
+		assertTrue(allocator.getAllocatedMemory() > 0);
+		builder.close();
+		assertTrue(builder.isSealed());
+	}
+}
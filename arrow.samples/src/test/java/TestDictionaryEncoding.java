@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.dictionary.DictionaryEncoder;
+import my.org.apache.arrow.samples.dictionary.EncodedColumn;
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+
+/**
+ * Test dictionary encoding and the kernels running on the codes
+ */
+public class TestDictionaryEncoding {
+
+	private BufferAllocator allocator;
+
+	private int testSize = 10000;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		allocator.close();
+	}
+
+	@Test
+	public void testEncodeBigInt() {
+		try (BigIntVector vector = tenantIds(); EncodedColumn column = DictionaryEncoder.encode(vector, allocator)) {
+			assertTrue(column.hasSmallIntCodes());
+			assertEquals(testSize, column.getValueCount());
+			assertEquals(100, column.getDictionarySize());
+			// codes are two bytes instead of eight
+			assertTrue(column.getDataSize() * 3 < (long) testSize * 8);
+			for (int i = 0; i < testSize; i++) {
+				assertEquals(vector.getAccessor().get(i), column.get(i));
+			}
+			for (int code = 1; code < column.getDictionarySize(); code++) {
+				assertTrue(column.getDictionaryValue(code - 1) < column.getDictionaryValue(code));
+			}
+			try (BigIntVector decoded = (BigIntVector) column.decode("decoded", allocator)) {
+				assertEquals(testSize, decoded.getAccessor().getValueCount());
+				assertEquals(Aggregations.sum(vector), Aggregations.sum(decoded));
+			}
+		}
+	}
+
+	@Test
+	public void testEncodeIntWithIntCodes() {
+		try (IntVector vector = new IntVector("IntEncode", allocator)) {
+			int count = 70000;
+			vector.allocateNew(count);
+			for (int i = 0; i < count; i++) {
+				vector.getMutator().set(i, count - i);
+			}
+			vector.getMutator().setValueCount(count);
+			try (EncodedColumn column = DictionaryEncoder.encode(vector, allocator)) {
+				assertFalse(column.hasSmallIntCodes());
+				assertEquals(count, column.getDictionarySize());
+				assertEquals(count - 1, column.getCode(0));
+				assertEquals(count, column.get(0));
+				assertEquals(Aggregations.sum(vector), Aggregations.sum(column));
+				assertEquals(Aggregations.min(vector), Aggregations.min(column));
+				assertEquals(Aggregations.max(vector), Aggregations.max(column));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDictionaryLimit() {
+		try (BigIntVector vector = tenantIds()) {
+			DictionaryEncoder.encode(vector, 99, allocator).close();
+		}
+	}
+
+	@Test
+	public void testAggregationsOnCodes() {
+		try (BigIntVector vector = tenantIds();
+				EncodedColumn column = DictionaryEncoder.encode(vector, allocator);
+				SelectionVector selection = new SelectionVector(allocator)) {
+			assertEquals(Aggregations.sum(vector), Aggregations.sum(column));
+			assertEquals(Aggregations.min(vector), Aggregations.min(column));
+			assertEquals(Aggregations.max(vector), Aggregations.max(column));
+			assertEquals(Aggregations.mean(vector), Aggregations.mean(column), 1e-9);
+			assertEquals(100, Aggregations.countDistinct(column));
+			long[] counts = Aggregations.codeCounts(column);
+			assertEquals(100, counts[0]);
+
+			Filters.compare(vector, CompareOp.GT, 5000L, selection);
+			assertEquals(Aggregations.sum(vector, selection), Aggregations.sum(column, selection));
+		}
+	}
+
+	@Test
+	public void testFiltersOnCodes() {
+		try (BigIntVector vector = tenantIds();
+				EncodedColumn column = DictionaryEncoder.encode(vector, allocator);
+				SelectionVector expected = new SelectionVector(allocator);
+				SelectionVector actual = new SelectionVector(allocator)) {
+			// dictionary holds 1000, 1010, ..., 1990; probe present and missing values
+			long[] probes = { 0, 1000, 1005, 1500, 1990, 1995, 5000 };
+			for (CompareOp op : CompareOp.values()) {
+				for (long probe : probes) {
+					Filters.compare(vector, op, probe, expected);
+					Filters.compare(column, op, probe, actual);
+					assertSelectionEquals(expected, actual);
+				}
+			}
+			Filters.between(vector, 1005, 1500, expected);
+			Filters.between(column, 1005, 1500, actual);
+			assertSelectionEquals(expected, actual);
+
+			long[] values = { 1010, 1011, 1990, 7 };
+			Filters.in(vector, values, expected);
+			Filters.in(column, values, actual);
+			assertSelectionEquals(expected, actual);
+			assertEquals(200, actual.getCount());
+		}
+	}
+
+	/**
+	 * 100 distinct ids, 1000 + 10 * (i % 100)
+	 */
+	private BigIntVector tenantIds() {
+		BigIntVector vector = new BigIntVector("TenantIds", allocator);
+		vector.allocateNew(testSize);
+		for (int i = 0; i < testSize; i++) {
+			vector.getMutator().set(i, 1000 + 10 * (i * 37 % 100));
+		}
+		vector.getMutator().setValueCount(testSize);
+		return vector;
+	}
+
+	private static void assertSelectionEquals(SelectionVector expected, SelectionVector actual) {
+		int[] expectedIndices = new int[expected.getCount()];
+		for (int i = 0; i < expectedIndices.length; i++) {
+			expectedIndices[i] = expected.getIndex(i);
+		}
+		int[] actualIndices = new int[actual.getCount()];
+		for (int i = 0; i < actualIndices.length; i++) {
+			actualIndices[i] = actual.getIndex(i);
+		}
+		assertArrayEquals(expectedIndices, actualIndices);
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.expr.CompiledExpression;
+import my.org.apache.arrow.samples.expr.Expression;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test evaluating arithmetic expressions over batches
+ */
+public class TestExpressions {
+
+	private static final int ROWS = 3000;
+	private static final Schema SCHEMA = new Schema(Arrays.asList(FixedWidthType.FLOAT8.toField("a"),
+			FixedWidthType.FLOAT4.toField("b"), FixedWidthType.INT.toField("c"), FixedWidthType.BIGINT.toField("d")));
+
+	private BufferAllocator allocator;
+	private ColumnBatch batch;
+	private Float8Vector a;
+	private Float4Vector b;
+	private IntVector c;
+	private BigIntVector d;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		a = (Float8Vector) FixedWidthType.FLOAT8.allocateVector("a", allocator, ROWS);
+		b = (Float4Vector) FixedWidthType.FLOAT4.allocateVector("b", allocator, ROWS);
+		c = (IntVector) FixedWidthType.INT.allocateVector("c", allocator, ROWS);
+		d = (BigIntVector) FixedWidthType.BIGINT.allocateVector("d", allocator, ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			a.getMutator().set(i, i * 0.3);
+			b.getMutator().set(i, i % 17 - 8.5f);
+			c.getMutator().set(i, i % 7 + 1);
+			d.getMutator().set(i, i * 1000003L - 5);
+		}
+		for (BaseDataValueVector column : Arrays.<BaseDataValueVector> asList(a, b, c, d)) {
+			column.getMutator().setValueCount(ROWS);
+		}
+		batch = new ColumnBatch(SCHEMA, Arrays.asList(a, b, c, d));
+	}
+
+	@After
+	public void terminate() throws Exception {
+		batch.close();
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testParse() {
+		assertEquals("(((a * 2.0) + b) / c)", Expression.parse("(a * 2.0 + b) / c").toString());
+		assertEquals("((a - -b) - 1.5E-4)", Expression.parse(" a--b-1.5e-4").toString());
+		assertEquals("(d + (c * 3))", Expression.parse("d + c * 3").toString());
+		for (String invalid : Arrays.asList("", "a +", "(a * b", "a b", "1.2.3", "a $ b")) {
+			try {
+				Expression.parse(invalid);
+				fail(invalid);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testDoubleExpression() {
+		CompiledExpression expression = Expression.parse("(a * 2.0 + b) / c").compile(SCHEMA);
+		assertEquals(FixedWidthType.FLOAT8, expression.getResultType());
+		try (Float8Vector result = (Float8Vector) expression.evaluate(batch, "result", allocator)) {
+			assertEquals(ROWS, result.getAccessor().getValueCount());
+			for (int i = 0; i < ROWS; i++) {
+				double expected = (a.getAccessor().get(i) * 2.0 + b.getAccessor().get(i)) / c.getAccessor().get(i);
+				assertEquals(expected, result.getAccessor().get(i), 0);
+			}
+		}
+		// literals on the left and columns used twice
+		expression = Expression.parse("2.0 * a - a / (1 - d)").compile(SCHEMA);
+		try (Float8Vector result = (Float8Vector) expression.evaluate(batch, "result", allocator)) {
+			for (int i = 0; i < ROWS; i++) {
+				double value = a.getAccessor().get(i);
+				assertEquals(2.0 * value - value / (1 - d.getAccessor().get(i)), result.getAccessor().get(i), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testLongExpression() {
+		CompiledExpression expression = Expression.parse("3 * d - d / c + -c").compile(SCHEMA);
+		assertEquals(FixedWidthType.BIGINT, expression.getResultType());
+		try (BigIntVector result = new BigIntVector("result", allocator)) {
+			expression.evaluate(batch, result);
+			for (int i = 0; i < ROWS; i++) {
+				long value = d.getAccessor().get(i);
+				int divisor = c.getAccessor().get(i);
+				assertEquals(3 * value - value / divisor + -divisor, result.getAccessor().get(i));
+			}
+			try {
+				expression.evaluate(batch, a);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected, the result is not a double
+			}
+		}
+		// long arithmetic is done before converting to double
+		Expression overflow = Expression.multiply(Expression.negate(Expression.literal(Long.MIN_VALUE)),
+				Expression.column("a"));
+		try (Float8Vector result = (Float8Vector) overflow.compile(SCHEMA).evaluate(batch, "result", allocator)) {
+			assertEquals(Long.MIN_VALUE * 0.3, result.getAccessor().get(1), 0);
+		}
+	}
+
+	/**
+	 * INT columns are widened to long before they are multiplied
+	 */
+	@Test
+	public void testIntOperandsWidened() {
+		Schema schema = new Schema(Arrays.asList(FixedWidthType.INT.toField("c")));
+		try (IntVector large = (IntVector) FixedWidthType.INT.allocateVector("c", allocator, 1)) {
+			large.getMutator().set(0, Integer.MAX_VALUE);
+			large.getMutator().setValueCount(1);
+			ColumnBatch single = new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(large));
+			try (BigIntVector result = (BigIntVector) Expression.parse("c * c").compile(schema).evaluate(single,
+					"result", allocator)) {
+				assertEquals((long) Integer.MAX_VALUE * Integer.MAX_VALUE, result.getAccessor().get(0));
+			}
+		}
+	}
+
+	@Test
+	public void testDivisionByZero() {
+		try (Float8Vector result = (Float8Vector) Expression.parse("a / 0").compile(SCHEMA).evaluate(batch, "result",
+				allocator)) {
+			assertEquals(Double.POSITIVE_INFINITY, result.getAccessor().get(1), 0);
+		}
+		try {
+			Expression.parse("d / (c - c)").compile(SCHEMA).evaluate(batch, "result", allocator);
+			fail();
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			Expression.parse("a + e").compile(SCHEMA);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+
+/**
+ * Test predicate evaluation into selection vectors
+ */
+public class TestFilters {
+
+	private BufferAllocator allocator;
+	private SelectionVector selection;
+
+	private int testSize = 100;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		selection = new SelectionVector(allocator);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		selection.close();
+		allocator.close();
+	}
+
+	@Test
+	public void testIntCompare() {
+		try (IntVector vector = new IntVector("IntFilter", allocator)) {
+			vector.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				vector.getMutator().set(i, i - 50);
+			}
+			vector.getMutator().setValueCount(testSize);
+
+			Filters.compare(vector, CompareOp.LT, -45, selection);
+			assertSelection(selection, 0, 1, 2, 3, 4);
+			Filters.compare(vector, CompareOp.LE, -45, selection);
+			assertEquals(6, selection.getCount());
+			Filters.compare(vector, CompareOp.GT, 47, selection);
+			assertSelection(selection, 98, 99);
+			Filters.compare(vector, CompareOp.GE, 47, selection);
+			assertSelection(selection, 97, 98, 99);
+			Filters.compare(vector, CompareOp.EQ, 0, selection);
+			assertSelection(selection, 50);
+			Filters.compare(vector, CompareOp.NE, 0, selection);
+			assertEquals(testSize - 1, selection.getCount());
+			assertEquals(51, selection.getIndex(50));
+		}
+	}
+
+	/**
+	 * Comparisons against the extreme values must not overflow
+	 */
+	@Test
+	public void testIntCompareLimits() {
+		try (IntVector vector = new IntVector("IntFilter", allocator)) {
+			vector.allocateNew(2);
+			vector.getMutator().set(0, Integer.MIN_VALUE);
+			vector.getMutator().set(1, Integer.MAX_VALUE);
+			vector.getMutator().setValueCount(2);
+
+			Filters.compare(vector, CompareOp.LT, Integer.MIN_VALUE, selection);
+			assertEquals(0, selection.getCount());
+			Filters.compare(vector, CompareOp.GT, Integer.MAX_VALUE, selection);
+			assertEquals(0, selection.getCount());
+			Filters.compare(vector, CompareOp.GE, Integer.MIN_VALUE, selection);
+			assertSelection(selection, 0, 1);
+		}
+	}
+
+	@Test
+	public void testBigIntBetweenAndIn() {
+		try (BigIntVector vector = new BigIntVector("BigIntFilter", allocator)) {
+			vector.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				vector.getMutator().set(i, i * 1000000000L);
+			}
+			vector.getMutator().setValueCount(testSize);
+
+			Filters.between(vector, 10000000000L, 13000000000L, selection);
+			assertSelection(selection, 10, 11, 12, 13);
+			Filters.in(vector, new long[] { 99000000000L, 5, 0, 42000000000L }, selection);
+			assertSelection(selection, 0, 42, 99);
+			Filters.between(vector, 5, 4, selection);
+			assertEquals(0, selection.getCount());
+		}
+	}
+
+	@Test
+	public void testFloat4Compare() {
+		try (Float4Vector vector = new Float4Vector("Float4Filter", allocator)) {
+			vector.allocateNew(4);
+			vector.getMutator().set(0, -0.0f);
+			vector.getMutator().set(1, 1.5f);
+			vector.getMutator().set(2, Float.NaN);
+			vector.getMutator().set(3, Float.POSITIVE_INFINITY);
+			vector.getMutator().setValueCount(4);
+
+			Filters.compare(vector, CompareOp.LT, 1.5f, selection);
+			assertSelection(selection, 0);
+			Filters.compare(vector, CompareOp.GT, 1.5f, selection);
+			assertSelection(selection, 3);
+			Filters.compare(vector, CompareOp.EQ, 0.0f, selection);
+			assertSelection(selection, 0);
+			Filters.compare(vector, CompareOp.NE, 1.5f, selection);
+			assertSelection(selection, 0, 2, 3);
+			Filters.compare(vector, CompareOp.GT, Float.POSITIVE_INFINITY, selection);
+			assertEquals(0, selection.getCount());
+			Filters.in(vector, new float[] { Float.NaN, 0.0f, Float.POSITIVE_INFINITY }, selection);
+			assertSelection(selection, 0, 3);
+		}
+	}
+
+	@Test
+	public void testFloat8Compare() {
+		try (Float8Vector vector = new Float8Vector("Float8Filter", allocator)) {
+			vector.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				vector.getMutator().set(i, i * 0.25);
+			}
+			vector.getMutator().setValueCount(testSize);
+
+			Filters.compare(vector, CompareOp.LT, 0.75, selection);
+			assertSelection(selection, 0, 1, 2);
+			Filters.compare(vector, CompareOp.LE, 0.75, selection);
+			assertSelection(selection, 0, 1, 2, 3);
+			Filters.between(vector, 24.0, 30.0, selection);
+			assertSelection(selection, 96, 97, 98, 99);
+			Filters.in(vector, new double[] { -0.0, 2.5 }, selection);
+			assertSelection(selection, 0, 10);
+			Filters.compare(vector, CompareOp.LT, Double.NaN, selection);
+			assertEquals(0, selection.getCount());
+		}
+	}
+
+	/**
+	 * Aggregate only the rows selected by a filter
+	 */
+	@Test
+	public void testAggregateSelection() {
+		try (BigIntVector vector = new BigIntVector("BigIntFilter", allocator)) {
+			vector.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				vector.getMutator().set(i, i);
+			}
+			vector.getMutator().setValueCount(testSize);
+
+			Filters.compare(vector, CompareOp.GE, 90, selection);
+			assertEquals(945, Aggregations.sum(vector, selection));
+			assertEquals(90, Aggregations.min(vector, selection));
+			assertEquals(99, Aggregations.max(vector, selection));
+			assertEquals(94.5, Aggregations.mean(vector, selection), 0.0);
+		}
+	}
+
+	/**
+	 * The selection vector grows with the input and is reused otherwise
+	 */
+	@Test
+	public void testSelectionReuse() {
+		try (IntVector vector = new IntVector("IntFilter", allocator)) {
+			vector.allocateNew(testSize);
+			vector.zeroVector();
+			vector.getMutator().setValueCount(testSize);
+
+			Filters.compare(vector, CompareOp.EQ, 0, selection);
+			assertEquals(testSize, selection.getCount());
+			assertTrue(selection.getCapacity() >= testSize);
+
+			vector.getMutator().setValueCount(10);
+			Filters.compare(vector, CompareOp.EQ, 0, selection);
+			assertEquals(10, selection.getCount());
+			assertTrue(selection.getCapacity() >= testSize);
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testSelectionOutOfBounds() {
+		try (IntVector vector = new IntVector("IntFilter", allocator)) {
+			vector.allocateNew(testSize);
+			vector.getMutator().setValueCount(testSize);
+			selection.allocateNew(1);
+			selection.setIndex(0, testSize);
+			selection.setCount(1);
+			Aggregations.sum(vector, selection);
+		}
+	}
+
+	private static void assertSelection(SelectionVector selection, int... expected) {
+		assertEquals(expected.length, selection.getCount());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], selection.getIndex(i));
+		}
+	}
+}
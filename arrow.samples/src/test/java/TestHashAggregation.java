@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.hash.Aggregate;
+import my.org.apache.arrow.samples.hash.HashAggregation;
+import my.org.apache.arrow.samples.hash.LongHashTable;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test grouped aggregation over primitive keys
+ */
+public class TestHashAggregation {
+
+	private BufferAllocator allocator;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testLongHashTable() {
+		try (LongHashTable table = new LongHashTable(allocator, 0)) {
+			int count = 100000;
+			for (int i = 0; i < count; i++) {
+				assertEquals(i, table.add(i * 7919L - 50000));
+			}
+			assertEquals(count, table.size());
+			for (int i = 0; i < count; i++) {
+				assertEquals(i, table.add(i * 7919L - 50000));
+				assertEquals(i, table.find(i * 7919L - 50000));
+				assertEquals(i * 7919L - 50000, table.getKey(i));
+			}
+			assertEquals(-1, table.find(1));
+			assertEquals(count, table.add(Long.MIN_VALUE));
+			assertEquals(count, table.find(Long.MIN_VALUE));
+		}
+	}
+
+	@Test
+	public void testBigIntKeys() {
+		int rows = 5000;
+		Map<Long, double[]> expected = new HashMap<>();
+		try (HashAggregation aggregation = new HashAggregation(allocator, FixedWidthType.BIGINT,
+				Arrays.asList(Aggregate.sum("total", 1), Aggregate.count("n"), Aggregate.min("low", 1),
+						Aggregate.max("high", 1), Aggregate.sum("bytes", 2)))) {
+			for (int batch = 0; batch < 3; batch++) {
+				try (BigIntVector tenants = new BigIntVector("tenant", allocator);
+						Float8Vector amounts = new Float8Vector("amount", allocator);
+						BigIntVector bytes = new BigIntVector("bytes", allocator)) {
+					tenants.allocateNew(rows);
+					amounts.allocateNew(rows);
+					bytes.allocateNew(rows);
+					for (int i = 0; i < rows; i++) {
+						long tenant = (i * 31 + batch) % 97 * 1000000007L;
+						double amount = (i % 13) - 6.5 + batch;
+						tenants.getMutator().set(i, tenant);
+						amounts.getMutator().set(i, amount);
+						bytes.getMutator().set(i, i);
+						double[] e = expected.get(tenant);
+						if (e == null) {
+							e = new double[] { 0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0 };
+							expected.put(tenant, e);
+						}
+						e[0] += amount;
+						e[1]++;
+						e[2] = Math.min(e[2], amount);
+						e[3] = Math.max(e[3], amount);
+						e[4] += i;
+					}
+					tenants.getMutator().setValueCount(rows);
+					amounts.getMutator().setValueCount(rows);
+					bytes.getMutator().setValueCount(rows);
+					aggregation.add(tenants, Arrays.asList(tenants, amounts, bytes));
+				}
+			}
+			assertEquals(expected.size(), aggregation.getGroupCount());
+
+			try (ColumnBatch result = aggregation.getResult(allocator)) {
+				assertEquals(expected.size(), result.getRowCount());
+				assertEquals(FixedWidthType.FLOAT8, result.getType(1));
+				assertEquals(FixedWidthType.BIGINT, result.getType(2));
+				BigIntVector keys = result.getColumn(0, BigIntVector.class);
+				for (int g = 0; g < result.getRowCount(); g++) {
+					double[] e = expected.get(keys.getAccessor().get(g));
+					assertEquals(e[0], result.getColumn(1, Float8Vector.class).getAccessor().get(g), 1e-9);
+					assertEquals((long) e[1], result.getColumn(2, BigIntVector.class).getAccessor().get(g));
+					assertEquals(e[2], result.getColumn(3, Float8Vector.class).getAccessor().get(g), 0);
+					assertEquals(e[3], result.getColumn(4, Float8Vector.class).getAccessor().get(g), 0);
+					assertEquals((long) e[4], result.getColumn(5, BigIntVector.class).getAccessor().get(g));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIntKeysWithFloat4Values() {
+		try (IntVector keys = new IntVector("key", allocator);
+				Float4Vector values = new Float4Vector("value", allocator);
+				HashAggregation aggregation = new HashAggregation(allocator, FixedWidthType.INT,
+						Arrays.asList(Aggregate.max("max", 1), Aggregate.sum("sum", 1)))) {
+			int[] keyData = { 3, -1, 3, 3, -1, Integer.MIN_VALUE };
+			float[] valueData = { 1.5f, 2f, -4f, 0.25f, Float.NaN, 8f };
+			keys.allocateNew(keyData.length);
+			values.allocateNew(keyData.length);
+			for (int i = 0; i < keyData.length; i++) {
+				keys.getMutator().set(i, keyData[i]);
+				values.getMutator().set(i, valueData[i]);
+			}
+			keys.getMutator().setValueCount(keyData.length);
+			values.getMutator().setValueCount(keyData.length);
+			aggregation.add(keys, Arrays.asList(keys, values));
+
+			try (ColumnBatch result = aggregation.getResult(allocator)) {
+				IntVector groups = result.getColumn(0, IntVector.class);
+				Float8Vector max = result.getColumn(1, Float8Vector.class);
+				Float8Vector sum = result.getColumn(2, Float8Vector.class);
+				assertEquals(3, result.getRowCount());
+				assertEquals(3, groups.getAccessor().get(0));
+				assertEquals(1.5, max.getAccessor().get(0), 0);
+				assertEquals(-2.25, sum.getAccessor().get(0), 0);
+				assertEquals(-1, groups.getAccessor().get(1));
+				assertTrue(Double.isNaN(max.getAccessor().get(1)));
+				assertEquals(Integer.MIN_VALUE, groups.getAccessor().get(2));
+				assertEquals(8, sum.getAccessor().get(2), 0);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInputTypeChange() {
+		try (IntVector keys = new IntVector("key", allocator);
+				Float4Vector floats = new Float4Vector("value", allocator);
+				Float8Vector doubles = new Float8Vector("value", allocator);
+				HashAggregation aggregation = new HashAggregation(allocator, FixedWidthType.INT,
+						Arrays.asList(Aggregate.sum("sum", 1)))) {
+			aggregation.add(keys, Arrays.asList(keys, floats));
+			aggregation.add(keys, Arrays.asList(keys, doubles));
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.hash.HashJoin;
+import my.org.apache.arrow.samples.kernels.BulkCopy;
+
+/**
+ * Test joining batches on primitive keys and gathering their payloads
+ */
+public class TestHashJoin {
+
+	private BufferAllocator allocator;
+	private SelectionVector probeIndices;
+	private SelectionVector buildIndices;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		probeIndices = new SelectionVector(allocator);
+		buildIndices = new SelectionVector(allocator);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		probeIndices.close();
+		buildIndices.close();
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testJoinWithDuplicates() {
+		long[] buildData = { 5, 7, 5, 9, 5, 11 };
+		long[] probeData = { 9, 5, 8, 5, 11 };
+		try (BigIntVector build = bigInts("build", buildData);
+				BigIntVector probe = bigInts("probe", probeData);
+				HashJoin join = new HashJoin(allocator, build)) {
+			assertEquals(4, join.getKeyCount());
+			int pairs = join.probe(probe, probeIndices, buildIndices);
+
+			List<String> expected = new ArrayList<>();
+			for (int p = 0; p < probeData.length; p++) {
+				for (int b = 0; b < buildData.length; b++) {
+					if (probeData[p] == buildData[b]) {
+						expected.add(p + "-" + b);
+					}
+				}
+			}
+			List<String> actual = new ArrayList<>();
+			for (int i = 0; i < pairs; i++) {
+				actual.add(probeIndices.getIndex(i) + "-" + buildIndices.getIndex(i));
+			}
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testStreamingProbeWithGather() {
+		int buildSize = 1000;
+		try (IntVector buildKeys = new IntVector("customer", allocator);
+				Float8Vector balances = new Float8Vector("balance", allocator);
+				IntVector probeKeys = new IntVector("order_customer", allocator);
+				SmallIntVector quantities = new SmallIntVector("quantity", allocator);
+				Float8Vector joinedBalances = new Float8Vector("joined_balance", allocator);
+				SmallIntVector joinedQuantities = new SmallIntVector("joined_quantity", allocator)) {
+			buildKeys.allocateNew(buildSize);
+			balances.allocateNew(buildSize);
+			for (int i = 0; i < buildSize; i++) {
+				buildKeys.getMutator().set(i, i * 2);
+				balances.getMutator().set(i, i * 2 + 0.5);
+			}
+			buildKeys.getMutator().setValueCount(buildSize);
+			balances.getMutator().setValueCount(buildSize);
+
+			try (HashJoin join = new HashJoin(allocator, buildKeys)) {
+				for (int batch = 0; batch < 3; batch++) {
+					int probeSize = 500 + batch * 100;
+					probeKeys.allocateNew(probeSize);
+					quantities.allocateNew(probeSize);
+					for (int i = 0; i < probeSize; i++) {
+						probeKeys.getMutator().set(i, i * 3 + batch);
+						quantities.getMutator().set(i, (short) i);
+					}
+					probeKeys.getMutator().setValueCount(probeSize);
+					quantities.getMutator().setValueCount(probeSize);
+
+					int pairs = join.probe(probeKeys, probeIndices, buildIndices);
+					BulkCopy.gather(balances, buildIndices, joinedBalances);
+					BulkCopy.gather(quantities, probeIndices, joinedQuantities);
+					assertEquals(pairs, joinedBalances.getAccessor().getValueCount());
+					assertEquals(pairs, joinedQuantities.getAccessor().getValueCount());
+
+					int expectedPairs = 0;
+					for (int i = 0; i < probeSize; i++) {
+						int key = i * 3 + batch;
+						if (key % 2 == 0 && key < 2 * buildSize) {
+							assertEquals(i, joinedQuantities.getAccessor().get(expectedPairs));
+							assertEquals(key + 0.5, joinedBalances.getAccessor().get(expectedPairs), 0);
+							expectedPairs++;
+						}
+					}
+					assertEquals(expectedPairs, pairs);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNoMatches() {
+		try (BigIntVector build = bigInts("build", new long[0]);
+				BigIntVector probe = bigInts("probe", new long[] { 1, 2, 3 });
+				HashJoin join = new HashJoin(allocator, build)) {
+			assertEquals(0, join.probe(probe, probeIndices, buildIndices));
+			assertEquals(0, probeIndices.getCount());
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGatherOutOfBounds() {
+		try (BigIntVector source = bigInts("source", new long[] { 1, 2 });
+				BigIntVector target = new BigIntVector("target", allocator)) {
+			probeIndices.allocateNew(1);
+			probeIndices.setIndex(0, 2);
+			probeIndices.setCount(1);
+			BulkCopy.gather(source, probeIndices, target);
+		}
+	}
+
+	private BigIntVector bigInts(String name, long[] values) {
+		BigIntVector vector = new BigIntVector(name, allocator);
+		vector.allocateNew(values.length);
+		for (int i = 0; i < values.length; i++) {
+			vector.getMutator().set(i, values[i]);
+		}
+		vector.getMutator().setValueCount(values.length);
+		return vector;
+	}
+}
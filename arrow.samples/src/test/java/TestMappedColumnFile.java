@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.file.ArrowFileReader;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import my.org.apache.arrow.samples.ipc.ColumnFileWriter;
+import my.org.apache.arrow.samples.ipc.MappedColumnFileReader;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test writing column batches to an Arrow file and mapping them back
+ */
+public class TestMappedColumnFile {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BufferAllocator allocator;
+
+	private Schema schema = new Schema(Arrays.asList(FixedWidthType.SMALLINT.toField("small"),
+			FixedWidthType.INT.toField("int"), FixedWidthType.BIGINT.toField("bigint"),
+			FixedWidthType.FLOAT4.toField("float4"), FixedWidthType.FLOAT8.toField("float8")));
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		allocator.close();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		File file = folder.newFile("columns.arrow");
+		int[] rowCounts = { 100, 0, 4097 };
+		try (ColumnFileWriter writer = ColumnFileWriter.create(file.toPath(), schema)) {
+			int start = 0;
+			for (int rowCount : rowCounts) {
+				try (ColumnBatch batch = newBatch(start, rowCount)) {
+					writer.writeBatch(batch);
+				}
+				start += rowCount;
+			}
+			assertEquals(rowCounts.length, writer.getBatchCount());
+		}
+
+		try (MappedColumnFileReader reader = MappedColumnFileReader.open(file.toPath())) {
+			assertEquals(schema, reader.getSchema());
+			assertEquals(rowCounts.length, reader.getBatchCount());
+			// read the batches out of order, mapping is per batch
+			int[] starts = { 0, 100, 100 };
+			for (int b = rowCounts.length - 1; b >= 0; b--) {
+				try (ColumnBatch batch = reader.readBatch(b, allocator)) {
+					assertEquals(rowCounts[b], batch.getRowCount());
+					assertBatch(batch, starts[b]);
+					// the values are not copied into allocator memory
+					assertEquals(0, allocator.getAllocatedMemory());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReadWithArrowFileReader() throws Exception {
+		File file = folder.newFile("interop.arrow");
+		try (ColumnFileWriter writer = ColumnFileWriter.create(file.toPath(), schema);
+				ColumnBatch batch = newBatch(10, 50)) {
+			writer.writeBatch(batch);
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				ArrowFileReader reader = new ArrowFileReader(channel, allocator)) {
+			VectorSchemaRoot root = reader.getVectorSchemaRoot();
+			reader.loadNextBatch();
+			assertEquals(50, root.getRowCount());
+			for (int i = 0; i < 50; i++) {
+				assertEquals((short) (10 + i), root.getVector("small").getAccessor().getObject(i));
+				assertEquals(10 + i, root.getVector("int").getAccessor().getObject(i));
+				assertEquals(10L + i, root.getVector("bigint").getAccessor().getObject(i));
+				assertEquals(10 + i + 0.5f, root.getVector("float4").getAccessor().getObject(i));
+				assertEquals(10 + i + 0.25, root.getVector("float8").getAccessor().getObject(i));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSchemaMismatch() throws Exception {
+		File file = folder.newFile("mismatch.arrow");
+		Schema other = new Schema(Arrays.asList(FixedWidthType.INT.toField("int")));
+		try (ColumnFileWriter writer = ColumnFileWriter.create(file.toPath(), other);
+				ColumnBatch batch = newBatch(0, 10)) {
+			writer.writeBatch(batch);
+		}
+	}
+
+	private ColumnBatch newBatch(int start, int rowCount) {
+		List<BaseDataValueVector> columns = new ArrayList<>();
+		SmallIntVector small = new SmallIntVector("small", allocator);
+		IntVector ints = new IntVector("int", allocator);
+		BigIntVector bigints = new BigIntVector("bigint", allocator);
+		Float4Vector float4s = new Float4Vector("float4", allocator);
+		Float8Vector float8s = new Float8Vector("float8", allocator);
+		columns.addAll(Arrays.<BaseDataValueVector> asList(small, ints, bigints, float4s, float8s));
+		small.allocateNew(rowCount);
+		ints.allocateNew(rowCount);
+		bigints.allocateNew(rowCount);
+		float4s.allocateNew(rowCount);
+		float8s.allocateNew(rowCount);
+		for (int i = 0; i < rowCount; i++) {
+			small.getMutator().set(i, start + i);
+			ints.getMutator().set(i, start + i);
+			bigints.getMutator().set(i, start + i);
+			float4s.getMutator().set(i, start + i + 0.5f);
+			float8s.getMutator().set(i, start + i + 0.25);
+		}
+		small.getMutator().setValueCount(rowCount);
+		ints.getMutator().setValueCount(rowCount);
+		bigints.getMutator().setValueCount(rowCount);
+		float4s.getMutator().setValueCount(rowCount);
+		float8s.getMutator().setValueCount(rowCount);
+		return new ColumnBatch(schema, columns);
+	}
+
+	private void assertBatch(ColumnBatch batch, int start) {
+		SmallIntVector small = batch.getColumn(0, SmallIntVector.class);
+		IntVector ints = batch.getColumn(1, IntVector.class);
+		BigIntVector bigints = batch.getColumn(2, BigIntVector.class);
+		Float4Vector float4s = batch.getColumn(3, Float4Vector.class);
+		Float8Vector float8s = batch.getColumn(4, Float8Vector.class);
+		for (int i = 0; i < batch.getRowCount(); i++) {
+			assertEquals((short) (start + i), small.getAccessor().get(i));
+			assertEquals(start + i, ints.getAccessor().get(i));
+			assertEquals(start + i, bigints.getAccessor().get(i));
+			assertEquals(start + i + 0.5f, float4s.getAccessor().get(i), 0);
+			assertEquals(start + i + 0.25, float8s.getAccessor().get(i), 0);
+		}
+	}
+}
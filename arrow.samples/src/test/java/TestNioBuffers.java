@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.netty.util.internal.PlatformDependent;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+import my.org.apache.arrow.samples.vector.NioBuffers;
+
+/**
+ * Test viewing vector buffers as nio buffers and wrapping nio buffers in
+ * vectors
+ */
+public class TestNioBuffers {
+
+	private BufferAllocator allocator;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testViewsShareMemory() {
+		try (BigIntVector vector = new BigIntVector("vector", allocator)) {
+			vector.allocateNew(1000);
+			for (int i = 0; i < 1000; i++) {
+				vector.getMutator().set(i, i * 7L);
+			}
+			vector.getMutator().setValueCount(1000);
+
+			ByteBuffer bytes = NioBuffers.values(vector);
+			assertTrue(bytes.isDirect());
+			assertTrue(bytes.isReadOnly());
+			assertEquals(ByteOrder.LITTLE_ENDIAN, bytes.order());
+			assertEquals(8000, bytes.remaining());
+			LongBuffer longs = NioBuffers.asLongBuffer(vector);
+			assertEquals(1000, longs.remaining());
+			assertEquals(999 * 7L, longs.get(999));
+
+			// later writes are visible through the view
+			vector.getMutator().set(3, -1L);
+			assertEquals(-1L, longs.get(3));
+			assertEquals(-1L, bytes.getLong(24));
+			try {
+				longs.put(0, 1L);
+				fail();
+			} catch (ReadOnlyBufferException e) {
+				// expected
+			}
+			try {
+				NioBuffers.asDoubleBuffer(vector);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testNullableValidity() {
+		try (NullableIntVector vector = new NullableIntVector("vector", allocator)) {
+			vector.allocateNew(20);
+			for (int i = 0; i < 20; i += 3) {
+				vector.getMutator().set(i, i + 1);
+			}
+			vector.getMutator().setValueCount(20);
+
+			assertEquals(20, NioBuffers.asIntBuffer(vector).remaining());
+			assertEquals(7, NioBuffers.asIntBuffer(vector).get(6));
+			ByteBuffer validity = NioBuffers.validity(vector);
+			assertEquals(3, validity.remaining());
+			assertEquals(0x49, validity.get(0) & 0xFF);
+			assertEquals(0x92, validity.get(1) & 0xFF);
+			assertEquals(0x04, validity.get(2) & 0xFF);
+		}
+		try (IntVector vector = new IntVector("vector", allocator)) {
+			NioBuffers.validity(vector);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testWrapDirectBuffer() {
+		ByteBuffer data = ByteBuffer.allocateDirect(800).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < 100; i++) {
+			data.putDouble(i * 0.5);
+		}
+		data.flip();
+		try (Float8Vector vector = (Float8Vector) NioBuffers.wrap(FixedWidthType.FLOAT8, "vector", data, allocator)) {
+			assertEquals(0, allocator.getAllocatedMemory());
+			assertEquals(100, vector.getAccessor().getValueCount());
+			assertEquals(49.5, vector.getAccessor().get(99), 0);
+			assertEquals(PlatformDependent.directBufferAddress(data), vector.getBuffer().memoryAddress());
+
+			// round trip back to the same memory
+			DoubleBuffer doubles = NioBuffers.asDoubleBuffer(vector);
+			vector.getMutator().set(0, 42.0);
+			assertEquals(42.0, data.getDouble(0), 0);
+			assertEquals(42.0, doubles.get(0), 0);
+		}
+		try {
+			NioBuffers.wrap(FixedWidthType.INT, "vector", ByteBuffer.allocateDirect(6), allocator);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			NioBuffers.wrap(FixedWidthType.INT, "vector", ByteBuffer.allocateDirect(8).asReadOnlyBuffer(), allocator);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected, the vector could write to it
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.kernels.Histogram;
+import my.org.apache.arrow.samples.kernels.ParallelAggregations;
+
+/**
+ * Test that aggregating split vectors on a ForkJoinPool matches the single
+ * threaded kernels
+ */
+public class TestParallelAggregations {
+
+	private BufferAllocator allocator;
+	private ForkJoinPool pool;
+	private ParallelAggregations parallel;
+
+	private int testSize = 100003;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		pool = new ForkJoinPool(4);
+		// small slices so that the test vectors are actually split
+		parallel = new ParallelAggregations(pool, 1000);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		pool.shutdown();
+		allocator.close();
+	}
+
+	@Test
+	public void testFloat8Parallel() {
+		try (Float8Vector vector = new Float8Vector("Float8Parallel", allocator)) {
+			vector.allocateNew(testSize);
+			Float8Vector.Mutator mutator = vector.getMutator();
+			for (int i = 0; i < testSize; i++) {
+				mutator.set(i, Math.cos(i) * i);
+			}
+			mutator.setValueCount(testSize);
+			long allocated = allocator.getAllocatedMemory();
+
+			assertEquals(Aggregations.sum(vector), parallel.sum(vector), 1e-6);
+			assertEquals(Aggregations.min(vector), parallel.min(vector), 0.0);
+			assertEquals(Aggregations.max(vector), parallel.max(vector), 0.0);
+
+			Histogram expected = Aggregations.histogram(vector, -50000, 50000, 16);
+			Histogram actual = parallel.histogram(vector, -50000, 50000, 16);
+			for (int bucket = 0; bucket < 16; bucket++) {
+				assertEquals(expected.getCount(bucket), actual.getCount(bucket));
+			}
+			assertEquals(expected.getUnderflow(), actual.getUnderflow());
+			assertEquals(expected.getOverflow(), actual.getOverflow());
+
+			// slices share the vector's buffer and are released afterwards
+			assertEquals(allocated, allocator.getAllocatedMemory());
+			assertEquals(testSize, vector.getAccessor().getValueCount());
+		}
+	}
+
+	@Test
+	public void testBigIntParallel() {
+		try (BigIntVector vector = new BigIntVector("BigIntParallel", allocator)) {
+			vector.allocateNew(testSize);
+			BigIntVector.Mutator mutator = vector.getMutator();
+			for (int i = 0; i < testSize; i++) {
+				mutator.set(i, (i * 7919L) % 100000 - 50000);
+			}
+			mutator.setValueCount(testSize);
+
+			assertEquals(Aggregations.sum(vector), parallel.sum(vector));
+			assertEquals(Aggregations.min(vector), parallel.min(vector));
+			assertEquals(Aggregations.max(vector), parallel.max(vector));
+			Histogram histogram = parallel.histogram(vector, -50000, 50000, 100);
+			assertEquals(testSize, histogram.getTotalCount());
+			assertEquals(Aggregations.histogram(vector, -50000, 50000, 100).getCount(42), histogram.getCount(42));
+		}
+	}
+
+	/**
+	 * Small vectors are not split
+	 */
+	@Test
+	public void testSmallVector() {
+		try (BigIntVector vector = new BigIntVector("BigIntParallel", allocator)) {
+			vector.allocateNew(10);
+			for (int i = 0; i < 10; i++) {
+				vector.getMutator().set(i, i);
+			}
+			vector.getMutator().setValueCount(10);
+
+			assertEquals(45, parallel.sum(vector));
+			assertEquals(9, parallel.max(vector));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyVectorMin() {
+		try (Float8Vector vector = new Float8Vector("Float8Parallel", allocator)) {
+			vector.allocateNew(10);
+			parallel.min(vector);
+		}
+	}
+}
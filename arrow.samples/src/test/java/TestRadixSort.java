@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.RadixSort;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test sorting fixed-width columns into permutations
+ */
+public class TestRadixSort {
+
+	private static final int VALUE_COUNT = 10000;
+
+	private BufferAllocator allocator;
+	private SelectionVector permutation;
+	private Random random;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+		permutation = new SelectionVector(allocator);
+		random = new Random(42);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		permutation.close();
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testIntegerTypes() {
+		try (SmallIntVector smallInts = new SmallIntVector("smallint", allocator);
+				IntVector ints = new IntVector("int", allocator);
+				BigIntVector bigInts = new BigIntVector("bigint", allocator)) {
+			smallInts.allocateNew(VALUE_COUNT);
+			ints.allocateNew(VALUE_COUNT);
+			bigInts.allocateNew(VALUE_COUNT);
+			for (int i = 0; i < VALUE_COUNT; i++) {
+				smallInts.getMutator().set(i, (short) random.nextInt());
+				ints.getMutator().set(i, random.nextInt() >> random.nextInt(32));
+				bigInts.getMutator().set(i, random.nextLong() >> random.nextInt(64));
+			}
+			smallInts.getMutator().setValueCount(VALUE_COUNT);
+			ints.getMutator().setValueCount(VALUE_COUNT);
+			bigInts.getMutator().setValueCount(VALUE_COUNT);
+
+			RadixSort.sort(smallInts, permutation);
+			assertEquals(VALUE_COUNT, permutation.getCount());
+			Object[] actual = new Object[VALUE_COUNT];
+			for (int i = 0; i < VALUE_COUNT; i++) {
+				actual[i] = smallInts.getAccessor().get(permutation.getIndex(i));
+			}
+			assertArrayEquals(expected(smallInts), actual);
+
+			RadixSort.sort(ints, permutation);
+			for (int i = 0; i < VALUE_COUNT; i++) {
+				actual[i] = ints.getAccessor().get(permutation.getIndex(i));
+			}
+			assertArrayEquals(expected(ints), actual);
+
+			RadixSort.sort(bigInts, permutation);
+			for (int i = 0; i < VALUE_COUNT; i++) {
+				actual[i] = bigInts.getAccessor().get(permutation.getIndex(i));
+			}
+			assertArrayEquals(expected(bigInts), actual);
+		}
+	}
+
+	@Test
+	public void testFloatOrdering() {
+		float[] floats = { 1.5f, -0.0f, Float.NaN, Float.NEGATIVE_INFINITY, 0.0f, -1.5f, Float.POSITIVE_INFINITY,
+				Float.MIN_VALUE, -Float.MAX_VALUE, Float.intBitsToFloat(0xFFC00001) };
+		double[] doubles = new double[floats.length];
+		try (Float4Vector float4 = new Float4Vector("float4", allocator);
+				Float8Vector float8 = new Float8Vector("float8", allocator)) {
+			float4.allocateNew(floats.length);
+			float8.allocateNew(floats.length);
+			for (int i = 0; i < floats.length; i++) {
+				doubles[i] = floats[i];
+				float4.getMutator().set(i, floats[i]);
+				float8.getMutator().set(i, doubles[i]);
+			}
+			float4.getMutator().setValueCount(floats.length);
+			float8.getMutator().setValueCount(floats.length);
+
+			float[] sortedFloats = floats.clone();
+			Arrays.sort(sortedFloats);
+			RadixSort.sort(float4, permutation);
+			for (int i = 0; i < floats.length; i++) {
+				assertEquals(0, Float.compare(sortedFloats[i], float4.getAccessor().get(permutation.getIndex(i))));
+			}
+
+			double[] sortedDoubles = doubles.clone();
+			Arrays.sort(sortedDoubles);
+			RadixSort.sort(float8, permutation);
+			for (int i = 0; i < doubles.length; i++) {
+				assertEquals(0, Double.compare(sortedDoubles[i], float8.getAccessor().get(permutation.getIndex(i))));
+			}
+		}
+	}
+
+	@Test
+	public void testMultipleKeysAreStable() {
+		final IntVector region = new IntVector("region", allocator);
+		final Float8Vector price = new Float8Vector("price", allocator);
+		region.allocateNew(VALUE_COUNT);
+		price.allocateNew(VALUE_COUNT);
+		for (int i = 0; i < VALUE_COUNT; i++) {
+			region.getMutator().set(i, random.nextInt(10) - 5);
+			price.getMutator().set(i, random.nextInt(100) / 4.0 - 10);
+		}
+		region.getMutator().setValueCount(VALUE_COUNT);
+		price.getMutator().setValueCount(VALUE_COUNT);
+		Schema schema = new Schema(Arrays.asList(FixedWidthType.INT.toField("region"),
+				FixedWidthType.FLOAT8.toField("price")));
+
+		Integer[] rows = new Integer[VALUE_COUNT];
+		for (int i = 0; i < VALUE_COUNT; i++) {
+			rows[i] = i;
+		}
+		Arrays.sort(rows, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer left, Integer right) {
+				int byRegion = Integer.compare(region.getAccessor().get(left), region.getAccessor().get(right));
+				return byRegion != 0 ? byRegion
+						: Double.compare(price.getAccessor().get(left), price.getAccessor().get(right));
+			}
+		});
+
+		try (ColumnBatch batch = new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(region, price))) {
+			RadixSort.sort(batch.getColumns(), permutation);
+			for (int i = 0; i < VALUE_COUNT; i++) {
+				assertEquals(rows[i].intValue(), permutation.getIndex(i));
+			}
+
+			try (ColumnBatch sorted = RadixSort.sort(batch, Arrays.asList("region", "price"), allocator)) {
+				assertEquals(VALUE_COUNT, sorted.getRowCount());
+				IntVector sortedRegion = sorted.getColumn(0, IntVector.class);
+				Float8Vector sortedPrice = sorted.getColumn(1, Float8Vector.class);
+				for (int i = 0; i < VALUE_COUNT; i++) {
+					assertEquals(region.getAccessor().get(rows[i]), sortedRegion.getAccessor().get(i));
+					assertEquals(price.getAccessor().get(rows[i]), sortedPrice.getAccessor().get(i), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEmptyAndConstantColumns() {
+		try (BigIntVector vector = new BigIntVector("constant", allocator)) {
+			vector.allocateNew(100);
+			vector.getMutator().setValueCount(0);
+			RadixSort.sort(vector, permutation);
+			assertEquals(0, permutation.getCount());
+
+			for (int i = 0; i < 100; i++) {
+				vector.getMutator().set(i, 7);
+			}
+			vector.getMutator().setValueCount(100);
+			RadixSort.sort(vector, permutation);
+			for (int i = 0; i < 100; i++) {
+				assertEquals(i, permutation.getIndex(i));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeysOfDifferentLengths() {
+		try (IntVector first = new IntVector("first", allocator);
+				IntVector second = new IntVector("second", allocator)) {
+			first.allocateNew(2);
+			first.getMutator().setValueCount(2);
+			second.allocateNew(3);
+			second.getMutator().setValueCount(3);
+			List<IntVector> keys = Arrays.asList(first, second);
+			RadixSort.sort(keys, permutation);
+		}
+	}
+
+	private static Object[] expected(BaseDataValueVector vector) {
+		Object[] values = new Object[vector.getAccessor().getValueCount()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = vector.getAccessor().getObject(i);
+		}
+		Arrays.sort(values);
+		return values;
+	}
+}
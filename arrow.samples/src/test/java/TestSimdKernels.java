@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.expr.ArithmeticOp;
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.kernels.SimdKernels;
+
+/**
+ * Test the SIMD kernels against the scalar ones. Which implementation runs
+ * depends on the JVM; both must give the same results.
+ */
+public class TestSimdKernels {
+
+	private BufferAllocator allocator;
+
+	// not a multiple of any register width, so the tail loops are exercised too
+	private int testSize = 1003;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testAggregations() {
+		Random random = new Random(42);
+		try (IntVector ints = new IntVector("ints", allocator);
+				BigIntVector longs = new BigIntVector("longs", allocator);
+				Float4Vector floats = new Float4Vector("floats", allocator);
+				Float8Vector doubles = new Float8Vector("doubles", allocator)) {
+			ints.allocateNew(testSize);
+			longs.allocateNew(testSize);
+			floats.allocateNew(testSize);
+			doubles.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				ints.getMutator().set(i, random.nextInt());
+				longs.getMutator().set(i, random.nextLong());
+				floats.getMutator().set(i, (float) random.nextGaussian());
+				doubles.getMutator().set(i, random.nextGaussian());
+			}
+			ints.getMutator().setValueCount(testSize);
+			longs.getMutator().setValueCount(testSize);
+			floats.getMutator().setValueCount(testSize);
+			doubles.getMutator().setValueCount(testSize);
+
+			assertEquals(Aggregations.sum(ints), SimdKernels.sum(ints));
+			assertEquals(Aggregations.min(ints), SimdKernels.min(ints));
+			assertEquals(Aggregations.max(ints), SimdKernels.max(ints));
+			assertEquals(Aggregations.sum(longs), SimdKernels.sum(longs));
+			assertEquals(Aggregations.min(longs), SimdKernels.min(longs));
+			assertEquals(Aggregations.max(longs), SimdKernels.max(longs));
+			// floating point sums are added in a different order
+			assertEquals(Aggregations.sum(floats), SimdKernels.sum(floats), 1e-9);
+			assertEquals(Aggregations.min(floats), SimdKernels.min(floats), 0.0);
+			assertEquals(Aggregations.max(floats), SimdKernels.max(floats), 0.0);
+			assertEquals(Aggregations.sum(doubles), SimdKernels.sum(doubles), 1e-9);
+			assertEquals(Aggregations.min(doubles), SimdKernels.min(doubles), 0.0);
+			assertEquals(Aggregations.max(doubles), SimdKernels.max(doubles), 0.0);
+
+			doubles.getMutator().set(testSize - 20, Double.NaN);
+			assertTrue(Double.isNaN(SimdKernels.min(doubles)));
+			assertTrue(Double.isNaN(SimdKernels.max(doubles)));
+
+			ints.getMutator().setValueCount(0);
+			assertEquals(0, SimdKernels.sum(ints));
+			try {
+				SimdKernels.min(ints);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testCompare() {
+		try (IntVector ints = new IntVector("ints", allocator);
+				Float8Vector doubles = new Float8Vector("doubles", allocator);
+				SelectionVector expected = new SelectionVector(allocator);
+				SelectionVector actual = new SelectionVector(allocator)) {
+			ints.allocateNew(testSize);
+			doubles.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				ints.getMutator().set(i, i % 7 - 3);
+				doubles.getMutator().set(i, i % 5 == 0 ? Double.NaN : i % 7 - 3);
+			}
+			ints.getMutator().setValueCount(testSize);
+			doubles.getMutator().setValueCount(testSize);
+
+			for (CompareOp op : CompareOp.values()) {
+				for (int value : new int[] { Integer.MIN_VALUE, -3, 0, 2, Integer.MAX_VALUE }) {
+					assertSameSelection(Filters.compare(ints, op, value, expected),
+							SimdKernels.compare(ints, op, value, actual));
+				}
+				for (double value : new double[] { Double.NEGATIVE_INFINITY, -0.0, 1.5, Double.NaN }) {
+					assertSameSelection(Filters.compare(doubles, op, value, expected),
+							SimdKernels.compare(doubles, op, value, actual));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testApply() {
+		try (BigIntVector left = new BigIntVector("left", allocator);
+				BigIntVector right = new BigIntVector("right", allocator);
+				BigIntVector result = new BigIntVector("result", allocator);
+				Float4Vector x = new Float4Vector("x", allocator);
+				Float4Vector y = new Float4Vector("y", allocator);
+				Float4Vector z = new Float4Vector("z", allocator)) {
+			left.allocateNew(testSize);
+			right.allocateNew(testSize);
+			x.allocateNew(testSize);
+			y.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				left.getMutator().set(i, i * 1000003L);
+				right.getMutator().set(i, i % 9 - 4 == 0 ? 1 : i % 9 - 4);
+				x.getMutator().set(i, i / 3f);
+				y.getMutator().set(i, i % 9 - 4);
+			}
+			left.getMutator().setValueCount(testSize);
+			right.getMutator().setValueCount(testSize);
+			x.getMutator().setValueCount(testSize);
+			y.getMutator().setValueCount(testSize);
+
+			for (ArithmeticOp op : ArithmeticOp.values()) {
+				SimdKernels.apply(op, left, right, result);
+				SimdKernels.apply(op, x, y, z);
+				assertEquals(testSize, result.getAccessor().getValueCount());
+				assertEquals(testSize, z.getAccessor().getValueCount());
+				for (int i = 0; i < testSize; i++) {
+					long a = left.getAccessor().get(i);
+					long b = right.getAccessor().get(i);
+					float c = x.getAccessor().get(i);
+					float d = y.getAccessor().get(i);
+					switch (op) {
+					case ADD:
+						assertEquals(a + b, result.getAccessor().get(i));
+						assertEquals(c + d, z.getAccessor().get(i), 0f);
+						break;
+					case SUBTRACT:
+						assertEquals(a - b, result.getAccessor().get(i));
+						assertEquals(c - d, z.getAccessor().get(i), 0f);
+						break;
+					case MULTIPLY:
+						assertEquals(a * b, result.getAccessor().get(i));
+						assertEquals(c * d, z.getAccessor().get(i), 0f);
+						break;
+					default:
+						assertEquals(a / b, result.getAccessor().get(i));
+						assertEquals(c / d, z.getAccessor().get(i), 0f);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIntegerDivisionByZero() {
+		try (IntVector left = new IntVector("left", allocator);
+				IntVector right = new IntVector("right", allocator);
+				IntVector result = new IntVector("result", allocator)) {
+			left.allocateNew(testSize);
+			right.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				left.getMutator().set(i, i);
+				right.getMutator().set(i, i == 500 ? 0 : 1);
+			}
+			left.getMutator().setValueCount(testSize);
+			right.getMutator().setValueCount(testSize);
+			try {
+				SimdKernels.apply(ArithmeticOp.DIVIDE, left, right, result);
+				fail();
+			} catch (ArithmeticException e) {
+				// expected
+			}
+			try {
+				SimdKernels.apply(ArithmeticOp.ADD, left, result, result);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected, result holds no values
+			}
+		}
+	}
+
+	private static void assertSameSelection(SelectionVector expected, SelectionVector actual) {
+		assertEquals(expected.getCount(), actual.getCount());
+		for (int i = 0; i < expected.getCount(); i++) {
+			assertEquals(expected.getIndex(i), actual.getIndex(i));
+		}
+	}
+}
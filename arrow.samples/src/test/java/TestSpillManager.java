@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.netty.buffer.ArrowBuf;
+import my.org.apache.arrow.samples.spill.SpillManager;
+import my.org.apache.arrow.samples.spill.SpillableBatch;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test spilling batches to disk to stay under a memory limit
+ */
+public class TestSpillManager {
+
+	private static final int ROWS = 8192;
+	/** a BigInt and an Int column of ROWS values */
+	private static final long BATCH_SIZE = ROWS * 12;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BufferAllocator allocator;
+	private final Schema schema = new Schema(
+			Arrays.asList(FixedWidthType.BIGINT.toField("id"), FixedWidthType.INT.toField("value")));
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testSpillAndReload() throws IOException {
+		File directory = folder.newFolder();
+		try (SpillManager manager = new SpillManager(allocator, "sort", 3 * BATCH_SIZE, directory.toPath())) {
+			List<SpillableBatch> batches = new ArrayList<>();
+			for (int b = 0; b < 10; b++) {
+				batches.add(manager.add(newBatch(manager.getAllocator(), b)));
+				assertTrue(manager.getAllocator().getAllocatedMemory() <= 3 * BATCH_SIZE);
+			}
+			assertEquals(10, manager.getBatchCount());
+			assertEquals(3, manager.getResidentBatchCount());
+			assertEquals(7, manager.getSpillCount());
+			assertTrue(batches.get(0).isSpilled());
+			assertFalse(batches.get(9).isSpilled());
+			assertEquals(7, directory.list().length);
+
+			for (int b = 0; b < 10; b++) {
+				ColumnBatch batch = batches.get(b).pin();
+				try {
+					checkBatch(batch, b);
+				} finally {
+					batches.get(b).unpin();
+				}
+			}
+			// reloading the older batches pushed out the newest ones
+			assertEquals(10, manager.getReloadCount());
+			// and every batch was written once
+			assertEquals(10, directory.list().length);
+			assertTrue(manager.getAllocator().getAllocatedMemory() <= 3 * BATCH_SIZE);
+
+			batches.get(0).close();
+			assertEquals(9, manager.getBatchCount());
+			assertEquals(9, directory.list().length);
+		}
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testPinnedBatchesStayInMemory() throws IOException {
+		try (SpillManager manager = new SpillManager(allocator, "join", BATCH_SIZE, folder.newFolder().toPath())) {
+			SpillableBatch first = manager.add(newBatch(manager.getAllocator(), 0));
+			ColumnBatch pinned = first.pin();
+			SpillableBatch second = manager.add(newBatch(manager.getAllocator(), 1));
+			assertFalse(first.isSpilled());
+			assertTrue(second.isSpilled());
+
+			// over the soft limit while everything is pinned
+			second.pin();
+			assertEquals(2, manager.getResidentBatchCount());
+			assertTrue(manager.getAllocator().getAllocatedMemory() > BATCH_SIZE);
+			checkBatch(pinned, 0);
+
+			first.unpin();
+			assertTrue(first.isSpilled());
+			second.unpin();
+		}
+	}
+
+	@Test
+	public void testJobLargerThanHardLimit() throws IOException {
+		long hardLimit = 8 * BATCH_SIZE;
+		long expected = 0;
+		try (BufferAllocator operator = allocator.newChildAllocator("aggregation", 0, hardLimit);
+				SpillManager manager = new SpillManager(operator, "aggregation", hardLimit / 2,
+						folder.newFolder().toPath())) {
+			List<SpillableBatch> batches = new ArrayList<>();
+			for (int b = 0; b < 40; b++) {
+				batches.add(manager.add(newBatch(manager.getAllocator(), b)));
+				expected += (long) b * ROWS;
+			}
+			assertTrue(manager.getSpilledBytes() > hardLimit);
+
+			long sum = 0;
+			for (SpillableBatch spillable : batches) {
+				IntVector values = spillable.pin().getColumn(1, IntVector.class);
+				for (int i = 0; i < ROWS; i++) {
+					sum += values.getAccessor().get(i);
+				}
+				spillable.unpin();
+			}
+			assertEquals(expected, sum);
+		}
+	}
+
+	/**
+	 * Allocations under the soft limit do not wait for a thread holding the
+	 * manager, as one writing a spill file does
+	 */
+	@Test(timeout = 10000)
+	public void testAllocationUnderSoftLimitDoesNotLock() throws Exception {
+		try (final SpillManager manager = new SpillManager(allocator, "scan", 3 * BATCH_SIZE,
+				folder.newFolder().toPath())) {
+			final CountDownLatch locked = new CountDownLatch(1);
+			final CountDownLatch allocated = new CountDownLatch(1);
+			Thread holder = new Thread() {
+				@Override
+				public void run() {
+					synchronized (manager) {
+						locked.countDown();
+						try {
+							allocated.await();
+						} catch (InterruptedException e) {
+							// done holding the lock
+						}
+					}
+				}
+			};
+			holder.start();
+			try {
+				locked.await();
+				ArrowBuf buffer = manager.getAllocator().buffer(1024);
+				buffer.release();
+			} finally {
+				allocated.countDown();
+				holder.join();
+			}
+		}
+	}
+
+	private ColumnBatch newBatch(BufferAllocator batchAllocator, int seed) {
+		BigIntVector ids = new BigIntVector("id", batchAllocator);
+		IntVector values = new IntVector("value", batchAllocator);
+		ids.allocateNew(ROWS);
+		values.allocateNew(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			ids.getMutator().set(i, (long) seed * ROWS + i);
+			values.getMutator().set(i, seed);
+		}
+		ids.getMutator().setValueCount(ROWS);
+		values.getMutator().setValueCount(ROWS);
+		return new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(ids, values));
+	}
+
+	private static void checkBatch(ColumnBatch batch, int seed) {
+		assertEquals(ROWS, batch.getRowCount());
+		BigIntVector ids = batch.getColumn(0, BigIntVector.class);
+		IntVector values = batch.getColumn(1, IntVector.class);
+		for (int i = 0; i < ROWS; i++) {
+			assertEquals((long) seed * ROWS + i, ids.getAccessor().get(i));
+			assertEquals(seed, values.getAccessor().get(i));
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.NullableBigIntVector;
+import org.apache.arrow.vector.NullableFloat8Vector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.filter.Filters;
+import my.org.apache.arrow.samples.filter.SelectionVector;
+import my.org.apache.arrow.samples.kernels.Aggregations;
+import my.org.apache.arrow.samples.kernels.BulkCopy;
+import my.org.apache.arrow.samples.vector.ValidityWords;
+
+/**
+ * Test the null-aware kernels against Accessor.isNull loops, on vectors mixing
+ * words of nulls, words without nulls and words with both
+ */
+public class TestValidityWords {
+
+	private BufferAllocator allocator;
+
+	// the last word is partial
+	private int testSize = 1003;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	/**
+	 * Rows [0, 128) are null, [128, 256) are not, the rest is 90% null.
+	 */
+	private static boolean isNull(int row, Random random) {
+		return row < 128 || (row >= 256 && random.nextInt(10) != 0);
+	}
+
+	private NullableIntVector sparseInts() {
+		Random random = new Random(42);
+		NullableIntVector vector = new NullableIntVector("ints", allocator);
+		vector.allocateNew(testSize);
+		for (int i = 0; i < testSize; i++) {
+			if (!isNull(i, random)) {
+				vector.getMutator().set(i, (i % 2 == 0 ? i : -i) * 7);
+			}
+		}
+		vector.getMutator().setValueCount(testSize);
+		return vector;
+	}
+
+	@Test
+	public void testWords() {
+		try (NullableIntVector vector = sparseInts()) {
+			long address = ValidityWords.address(vector);
+			assertEquals(16, ValidityWords.wordCount(testSize));
+			assertEquals(0, ValidityWords.word(address, 1, testSize));
+			assertEquals(ValidityWords.ALL_VALID, ValidityWords.word(address, 2, testSize));
+			int nulls = 0;
+			for (int i = 0; i < testSize; i++) {
+				nulls += vector.getAccessor().isNull(i) ? 1 : 0;
+			}
+			assertEquals(nulls, ValidityWords.countNulls(vector));
+			assertEquals(testSize - nulls, ValidityWords.countValid(vector));
+			assertEquals(vector.getAccessor().getNullCount(), ValidityWords.countNulls(vector));
+			// the bits past the value count do not belong to the last word
+			long last = ValidityWords.word(address, 15, testSize);
+			assertEquals(0, last >>> (testSize & 63));
+		}
+	}
+
+	@Test
+	public void testAggregations() {
+		try (NullableIntVector ints = sparseInts();
+				NullableFloat8Vector doubles = new NullableFloat8Vector("doubles", allocator)) {
+			doubles.allocateNew(testSize);
+			long sum = 0;
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			int count = 0;
+			double doubleMax = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < testSize; i++) {
+				if (!ints.getAccessor().isNull(i)) {
+					int v = ints.getAccessor().get(i);
+					sum += v;
+					min = Math.min(min, v);
+					max = Math.max(max, v);
+					count++;
+					doubles.getMutator().set(i, v / 3.0);
+					doubleMax = Math.max(doubleMax, v / 3.0);
+				}
+			}
+			doubles.getMutator().setValueCount(testSize);
+
+			assertEquals(sum, Aggregations.sum(ints));
+			assertEquals(min, Aggregations.min(ints));
+			assertEquals(max, Aggregations.max(ints));
+			assertEquals(count, Aggregations.count(ints));
+			assertEquals((double) sum / count, Aggregations.mean(ints), 0.0);
+			assertEquals(sum / 3.0, Aggregations.sum(doubles), 1e-6);
+			assertEquals(doubleMax, Aggregations.max(doubles), 0.0);
+		}
+	}
+
+	/**
+	 * The mean of large longs is accumulated in double precision over full and
+	 * partial words and does not overflow like the long sum
+	 */
+	@Test
+	public void testBigIntMeanOverflow() {
+		try (NullableBigIntVector vector = new NullableBigIntVector("bigints", allocator)) {
+			Random random = new Random(42);
+			vector.allocateNew(testSize);
+			for (int i = 0; i < testSize; i++) {
+				if (!isNull(i, random)) {
+					vector.getMutator().set(i, Long.MAX_VALUE);
+				}
+			}
+			vector.getMutator().setValueCount(testSize);
+
+			assertEquals((double) Long.MAX_VALUE, Aggregations.mean(vector), 1e4);
+		}
+	}
+
+	@Test
+	public void testAllNull() {
+		try (NullableBigIntVector vector = new NullableBigIntVector("nulls", allocator)) {
+			vector.allocateNew(testSize);
+			vector.getMutator().setValueCount(testSize);
+			assertEquals(0, Aggregations.sum(vector));
+			assertEquals(0, Aggregations.count(vector));
+			assertTrue(Double.isNaN(Aggregations.mean(vector)));
+			try {
+				Aggregations.min(vector);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testFilters() {
+		try (NullableIntVector vector = sparseInts();
+				SelectionVector selection = new SelectionVector(allocator)) {
+			for (CompareOp op : CompareOp.values()) {
+				Filters.compare(vector, op, 14, selection);
+				int selected = 0;
+				for (int i = 0; i < testSize; i++) {
+					if (vector.getAccessor().isNull(i)) {
+						continue;
+					}
+					int v = vector.getAccessor().get(i);
+					boolean match = op == CompareOp.LT ? v < 14 : op == CompareOp.LE ? v <= 14
+							: op == CompareOp.GT ? v > 14 : op == CompareOp.GE ? v >= 14
+									: op == CompareOp.EQ ? v == 14 : v != 14;
+					if (match) {
+						assertEquals(i, selection.getIndex(selected++));
+					}
+				}
+				assertEquals(selected, selection.getCount());
+			}
+
+			Filters.isNull(vector, selection);
+			assertEquals(ValidityWords.countNulls(vector), selection.getCount());
+			for (int i = 0; i < selection.getCount(); i++) {
+				assertTrue(vector.getAccessor().isNull(selection.getIndex(i)));
+			}
+			Filters.isNotNull(vector, selection);
+			assertEquals(ValidityWords.countValid(vector), selection.getCount());
+			for (int i = 0; i < selection.getCount(); i++) {
+				assertTrue(!vector.getAccessor().isNull(selection.getIndex(i)));
+			}
+		}
+	}
+
+	@Test
+	public void testGatherNonNull() {
+		try (NullableIntVector vector = sparseInts();
+				NullableIntVector compacted = new NullableIntVector("compacted", allocator);
+				NullableIntVector again = new NullableIntVector("again", allocator);
+				SelectionVector selection = new SelectionVector(allocator)) {
+			Filters.isNotNull(vector, selection);
+			BulkCopy.gather(vector, selection, compacted);
+			assertEquals(selection.getCount(), compacted.getAccessor().getValueCount());
+			assertEquals(0, compacted.getAccessor().getNullCount());
+			for (int i = 0; i < selection.getCount(); i++) {
+				assertEquals(vector.getAccessor().get(selection.getIndex(i)), compacted.getAccessor().get(i));
+			}
+
+			// without nulls in the source, the validity bits are filled in
+			selection.allocateNew(10);
+			for (int i = 0; i < 10; i++) {
+				selection.setIndex(i, 9 - i);
+			}
+			selection.setCount(10);
+			BulkCopy.gather(compacted, selection, again);
+			assertEquals(0, again.getAccessor().getNullCount());
+			assertEquals(compacted.getAccessor().get(9), again.getAccessor().get(0));
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.AllocationListener;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.pool.PooledVector;
+import my.org.apache.arrow.samples.pool.VectorPool;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test recycling vectors through a pool
+ */
+public class TestVectorPool {
+
+	private BufferAllocator allocator;
+	private int allocations;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(new AllocationListener() {
+			@Override
+			public void onAllocation(long size) {
+				allocations++;
+			}
+		}, Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testCapacityClass() {
+		assertEquals(VectorPool.MIN_CAPACITY, VectorPool.capacityClass(0));
+		assertEquals(VectorPool.MIN_CAPACITY, VectorPool.capacityClass(1000));
+		assertEquals(2048, VectorPool.capacityClass(1025));
+		assertEquals(4096, VectorPool.capacityClass(4096));
+	}
+
+	@Test
+	public void testSteadyStateDoesNotAllocate() {
+		try (VectorPool pool = new VectorPool(allocator, 1 << 20)) {
+			for (int round = 0; round < 100; round++) {
+				try (PooledVector ints = pool.acquire(FixedWidthType.INT, 3000);
+						PooledVector doubles = pool.acquire(FixedWidthType.FLOAT8, 3000)) {
+					IntVector intVector = ints.getVector(IntVector.class);
+					Float8Vector doubleVector = doubles.getVector(Float8Vector.class);
+					assertEquals(0, intVector.getAccessor().getValueCount());
+					assertTrue(intVector.getValueCapacity() >= 3000);
+					// recycled vectors come back zeroed
+					assertEquals(0, intVector.getAccessor().get(2999));
+					for (int i = 0; i < 3000; i++) {
+						intVector.getMutator().set(i, round + i);
+						doubleVector.getMutator().set(i, round * i);
+					}
+					intVector.getMutator().setValueCount(3000);
+					doubleVector.getMutator().setValueCount(3000);
+				}
+				if (round == 0) {
+					allocations = 0;
+				}
+			}
+			assertEquals(0, allocations);
+			assertEquals(2, pool.getMisses());
+			assertEquals(198, pool.getHits());
+			assertEquals(2, pool.getIdleCount());
+			assertEquals(4096 * 4 + 4096 * 8, pool.getIdleBytes());
+		}
+	}
+
+	@Test
+	public void testClassesAreSeparate() {
+		try (VectorPool pool = new VectorPool(allocator, 1 << 20)) {
+			PooledVector small = pool.acquire(FixedWidthType.INT, 100);
+			IntVector vector = small.getVector(IntVector.class);
+			small.close();
+			try (PooledVector large = pool.acquire(FixedWidthType.INT, 5000);
+					PooledVector other = pool.acquire(FixedWidthType.FLOAT4, 100)) {
+				assertNotSame(vector, large.getVector());
+				assertNotSame(vector, other.getVector());
+			}
+			try (PooledVector again = pool.acquire(FixedWidthType.INT, 1024)) {
+				assertSame(vector, again.getVector());
+			}
+		}
+	}
+
+	@Test
+	public void testEviction() {
+		// room for two idle 4096 int vectors
+		try (VectorPool pool = new VectorPool(allocator, 2 * 4096 * 4)) {
+			PooledVector first = pool.acquire(FixedWidthType.INT, 4096);
+			PooledVector second = pool.acquire(FixedWidthType.INT, 4096);
+			PooledVector third = pool.acquire(FixedWidthType.INT, 4096);
+			IntVector secondVector = second.getVector(IntVector.class);
+			IntVector thirdVector = third.getVector(IntVector.class);
+			first.close();
+			second.close();
+			third.close();
+			assertEquals(1, pool.getEvictions());
+			assertEquals(2, pool.getIdleCount());
+			assertEquals(2 * 4096 * 4, allocator.getAllocatedMemory());
+
+			// most recently returned first
+			try (PooledVector a = pool.acquire(FixedWidthType.INT, 4096);
+					PooledVector b = pool.acquire(FixedWidthType.INT, 4096)) {
+				assertSame(thirdVector, a.getVector());
+				assertSame(secondVector, b.getVector());
+			}
+		}
+	}
+
+	@Test
+	public void testGrownVectorChangesClass() {
+		try (VectorPool pool = new VectorPool(allocator, 1 << 20)) {
+			PooledVector pooled = pool.acquire(FixedWidthType.INT, 1024);
+			IntVector vector = pooled.getVector(IntVector.class);
+			vector.reAlloc();
+			pooled.close();
+			try (PooledVector again = pool.acquire(FixedWidthType.INT, 2048)) {
+				assertSame(vector, again.getVector());
+			}
+		}
+	}
+
+	@Test
+	public void testReturnAfterClose() {
+		VectorPool pool = new VectorPool(allocator, 1 << 20);
+		PooledVector pooled = pool.acquire(FixedWidthType.BIGINT, 10);
+		pool.close();
+		pooled.close();
+		assertEquals(0, pool.getIdleCount());
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.util.OversizedAllocationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+import my.org.apache.arrow.samples.vector.GrowthPolicy;
+import my.org.apache.arrow.samples.vector.VectorSizing;
+
+/**
+ * Test growing and trimming vectors with growth policies
+ */
+public class TestVectorSizing {
+
+	private BufferAllocator allocator;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testPolicies() {
+		assertEquals(1001, GrowthPolicy.exact().nextCapacity(1000, 1001, 1 << 20));
+		assertEquals(2000, GrowthPolicy.doubling().nextCapacity(1000, 1001, 1 << 20));
+		assertEquals(1500, GrowthPolicy.factor(1.5).nextCapacity(1000, 1001, 1 << 20));
+		assertEquals(3000, GrowthPolicy.factor(1.5).nextCapacity(1000, 3000, 1 << 20));
+		assertEquals(3072, GrowthPolicy.chunked(1024).nextCapacity(1000, 3001, 1 << 20));
+		// capped by the maximum capacity
+		assertEquals(1500, GrowthPolicy.doubling().nextCapacity(1000, 1001, 1500));
+		assertEquals(3050, GrowthPolicy.chunked(1024).nextCapacity(1000, 3001, 3050));
+		try {
+			GrowthPolicy.factor(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testGrowKeepsValues() {
+		try (BigIntVector vector = new BigIntVector("vector", allocator)) {
+			vector.allocateNew(1024);
+			// builders set values before setting the value count
+			for (int i = 0; i < 1024; i++) {
+				vector.getMutator().set(i, i * 3L);
+			}
+			VectorSizing.ensureCapacity(vector, 1025, GrowthPolicy.factor(1.5));
+			assertEquals(2048, vector.getValueCapacity());
+			for (int i = 0; i < 1024; i++) {
+				assertEquals(i * 3L, vector.getAccessor().get(i));
+			}
+			assertEquals(0, vector.getAccessor().get(2047));
+			assertEquals(0, vector.getAccessor().getValueCount());
+
+			vector.getMutator().setValueCount(1024);
+			VectorSizing.ensureCapacity(vector, 100, GrowthPolicy.exact());
+			assertEquals(2048, vector.getValueCapacity());
+			// reAlloc still works and doubles from the new size
+			vector.reAlloc();
+			assertEquals(4096, vector.getValueCapacity());
+			assertEquals(1023 * 3L, vector.getAccessor().get(1023));
+			assertEquals(1024, vector.getAccessor().getValueCount());
+		}
+	}
+
+	@Test
+	public void testLargeVectorsGrowExactly() {
+		// past the allocator chunk size buffers are not rounded to a power of two
+		try (Float4Vector vector = new Float4Vector("vector", allocator)) {
+			vector.allocateNew(4 << 20);
+			vector.getMutator().set((4 << 20) - 1, 1.5f);
+			VectorSizing.ensureCapacity(vector, (4 << 20) + 1, GrowthPolicy.chunked(1 << 20));
+			assertEquals(5 << 20, vector.getValueCapacity());
+			assertEquals(20 << 20, allocator.getAllocatedMemory());
+			assertEquals(1.5f, vector.getAccessor().get((4 << 20) - 1), 0);
+
+			VectorSizing.ensureCapacity(vector, (5 << 20) + 1, GrowthPolicy.factor(1.25));
+			assertEquals(25 << 18, vector.getValueCapacity());
+		}
+	}
+
+	@Test
+	public void testTrimToSize() {
+		try (IntVector vector = new IntVector("vector", allocator)) {
+			vector.allocateNew(8 << 20);
+			for (int i = 0; i < 5 << 20; i++) {
+				vector.getMutator().set(i, i);
+			}
+			vector.getMutator().setValueCount(5 << 20);
+			assertEquals(12 << 20, VectorSizing.trimToSize(vector));
+			assertEquals(5 << 20, vector.getValueCapacity());
+			assertEquals(20 << 20, allocator.getAllocatedMemory());
+			assertEquals((5 << 20) - 1, vector.getAccessor().get((5 << 20) - 1));
+			assertEquals(5 << 20, vector.getAccessor().getValueCount());
+			assertEquals(0, VectorSizing.trimToSize(vector));
+		}
+		try (SmallIntVector vector = new SmallIntVector("vector", allocator)) {
+			vector.allocateNew(4096);
+			vector.getMutator().setValueCount(1000);
+			// small buffers are rounded to a power of two anyway
+			assertEquals(8192 - 2048, VectorSizing.trimToSize(vector));
+			vector.getMutator().setValueCount(999);
+			assertEquals(0, VectorSizing.trimToSize(vector));
+			vector.getMutator().setValueCount(0);
+			assertEquals(2048, VectorSizing.trimToSize(vector));
+			assertEquals(0, allocator.getAllocatedMemory());
+		}
+	}
+
+	@Test
+	public void testOversized() {
+		try (SmallIntVector vector = new SmallIntVector("vector", allocator)) {
+			int max = VectorSizing.maxCapacity(FixedWidthType.SMALLINT);
+			assertEquals(Integer.MAX_VALUE / 2, max);
+			VectorSizing.ensureCapacity(vector, max + 1, GrowthPolicy.exact());
+			fail();
+		} catch (OversizedAllocationException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,387 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseDataValueVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.NullableFloat8Vector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.apache.arrow.vector.file.ArrowFileReader;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import my.org.apache.arrow.samples.compress.Codec;
+import my.org.apache.arrow.samples.compress.CompressedColumnReader;
+import my.org.apache.arrow.samples.compress.CompressedColumnWriter;
+import my.org.apache.arrow.samples.filter.CompareOp;
+import my.org.apache.arrow.samples.ipc.ColumnFileWriter;
+import my.org.apache.arrow.samples.ipc.MappedColumnFileReader;
+import my.org.apache.arrow.samples.stats.ScanPlan;
+import my.org.apache.arrow.samples.stats.ScanPlanner;
+import my.org.apache.arrow.samples.stats.ScanPredicate;
+import my.org.apache.arrow.samples.stats.ZoneMap;
+import my.org.apache.arrow.samples.stats.ZoneMapIndex;
+import my.org.apache.arrow.samples.vector.ColumnBatch;
+import my.org.apache.arrow.samples.vector.FixedWidthType;
+
+/**
+ * Test zone maps, the scan planner and their storage in the column files
+ */
+public class TestZoneMaps {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BufferAllocator allocator;
+
+	private Schema schema = new Schema(Arrays.asList(FixedWidthType.BIGINT.toField("ts"),
+			FixedWidthType.FLOAT8.toField("price"), FixedWidthType.INT.toField("qty")));
+
+	private int batchSize = 1000;
+	private int chunkSize = 256;
+
+	@Before
+	public void init() {
+		allocator = new RootAllocator(Integer.MAX_VALUE);
+	}
+
+	@After
+	public void terminate() throws Exception {
+		assertEquals(0, allocator.getAllocatedMemory());
+		allocator.close();
+	}
+
+	@Test
+	public void testZoneMapOfVector() {
+		try (IntVector vector = new IntVector("ints", allocator)) {
+			vector.allocateNew(10000);
+			for (int i = 0; i < 10000; i++) {
+				// 500 distinct values in [-250, 249]
+				vector.getMutator().set(i, i % 500 - 250);
+			}
+			vector.getMutator().setValueCount(10000);
+			ZoneMap zone = ZoneMap.of(vector);
+			assertEquals(FixedWidthType.INT, zone.getType());
+			assertEquals(10000, zone.getRowCount());
+			assertEquals(0, zone.getNullCount());
+			assertEquals(-250, zone.getLongMin());
+			assertEquals(249, zone.getLongMax());
+			assertEquals(500, zone.getDistinctCount(), 25);
+
+			assertTrue(zone.mayMatch(CompareOp.LT, -249));
+			assertFalse(zone.mayMatch(CompareOp.LT, -250));
+			assertTrue(zone.mayMatch(CompareOp.LE, -250));
+			assertFalse(zone.mayMatch(CompareOp.GT, 249));
+			assertTrue(zone.mayMatch(CompareOp.GE, 249));
+			assertTrue(zone.mayMatch(CompareOp.EQ, 0));
+			assertFalse(zone.mayMatch(CompareOp.EQ, 250));
+			assertTrue(zone.mayMatch(CompareOp.NE, 0));
+			// integers compared to doubles
+			assertFalse(zone.mayMatch(CompareOp.GT, 249.5));
+			assertTrue(zone.mayMatch(CompareOp.GT, 248.5));
+			assertFalse(zone.mayMatch(CompareOp.EQ, Double.NaN));
+
+			ZoneMap range = ZoneMap.of(vector, 10, 5);
+			assertEquals(5, range.getRowCount());
+			assertEquals(-240, range.getLongMin());
+			assertEquals(-236, range.getLongMax());
+			assertEquals(5, range.getDistinctCount());
+
+			ZoneMap single = ZoneMap.of(vector, 10, 1);
+			assertFalse(single.mayMatch(CompareOp.NE, -240));
+			assertTrue(single.mayMatch(CompareOp.NE, -241));
+			assertEquals(-240.0, single.getDoubleMin(), 0);
+			try {
+				ZoneMap.of(vector, 9999, 2);
+				fail();
+			} catch (IndexOutOfBoundsException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testNullsAndNaN() {
+		try (NullableFloat8Vector vector = new NullableFloat8Vector("doubles", allocator);
+				NullableIntVector nulls = new NullableIntVector("nulls", allocator)) {
+			vector.allocateNew(300);
+			for (int i = 0; i < 300; i++) {
+				if (i % 3 == 0) {
+					vector.getMutator().set(i, i == 150 ? Double.NaN : i * 0.5);
+				}
+			}
+			vector.getMutator().setValueCount(300);
+			ZoneMap zone = ZoneMap.of(vector);
+			assertEquals(300, zone.getRowCount());
+			assertEquals(200, zone.getNullCount());
+			assertTrue(zone.hasNaN());
+			assertEquals(0.0, zone.getDoubleMin(), 0);
+			assertEquals(148.5, zone.getDoubleMax(), 0);
+			assertEquals(99, zone.getDistinctCount(), 5);
+			assertFalse(zone.mayMatch(CompareOp.GT, 148.5));
+			assertTrue(zone.mayMatch(CompareOp.EQ, -0.0));
+			assertFalse(zone.mayMatch(CompareOp.EQ, Double.NaN));
+			assertTrue(zone.mayMatch(CompareOp.NE, Double.NaN));
+			try {
+				zone.getLongMin();
+				fail();
+			} catch (IllegalStateException e) {
+				// expected
+			}
+
+			// a range starting and ending within words
+			ZoneMap range = ZoneMap.of(vector, 70, 60);
+			assertEquals(40, range.getNullCount());
+			assertEquals(36.0, range.getDoubleMin(), 0);
+			assertEquals(64.5, range.getDoubleMax(), 0);
+			assertFalse(range.hasNaN());
+
+			nulls.allocateNew(100);
+			nulls.getMutator().setValueCount(100);
+			ZoneMap empty = ZoneMap.of(nulls);
+			assertTrue(empty.isEmpty());
+			assertEquals(100, empty.getNullCount());
+			assertEquals(0, empty.getDistinctCount());
+			for (CompareOp op : CompareOp.values()) {
+				assertFalse(empty.mayMatch(op, 0));
+			}
+		}
+	}
+
+	@Test
+	public void testScanPlan() throws Exception {
+		ZoneMapIndex index = new ZoneMapIndex(schema, chunkSize);
+		for (int b = 0; b < 10; b++) {
+			try (ColumnBatch batch = newBatch(b * batchSize, batchSize)) {
+				index.addBatch(batch);
+			}
+		}
+		assertEquals(10, index.getBatchCount());
+		assertEquals(4, index.getChunkCount(0));
+		assertEquals(3000, index.getBatchZoneMap(3, 0).getLongMin());
+		assertEquals(3999, index.getBatchZoneMap(3, 0).getLongMax());
+		assertEquals(3768, index.getChunkZoneMap(3, 0, 3).getLongMin());
+
+		// rows 3500 to 4100 are in chunks 1 to 3 of batch 3 and 0 of batch 4
+		ScanPlan plan = ScanPlanner.plan(index, ScanPredicate.between("ts", 3500, 4100));
+		assertArrayEquals(new int[] { 3, 4 }, plan.getBatches());
+		assertEquals(8, plan.getSkippedBatchCount());
+		assertArrayEquals(new int[] { 256, 1000 }, plan.getRowRanges(3));
+		assertArrayEquals(new int[] { 0, 256 }, plan.getRowRanges(4));
+		assertArrayEquals(new int[0], plan.getRowRanges(5));
+		assertEquals(10000, plan.getRowCount());
+		assertEquals(1000, plan.getCandidateRowCount());
+
+		// the price of row i is i / 4, so this selects rows 20000 and up
+		plan = ScanPlanner.plan(index, ScanPredicate.compare("price", CompareOp.GE, 5000.0)
+				.and(ScanPredicate.compare("ts", CompareOp.LT, 100L)));
+		assertEquals(0, plan.getBatches().length);
+
+		plan = ScanPlanner.plan(index, ScanPredicate.compare("qty", CompareOp.EQ, 7L));
+		assertEquals(10, plan.getBatches().length);
+		try {
+			ScanPlanner.plan(index, ScanPredicate.compare("missing", CompareOp.EQ, 7L));
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testMappedColumnFile() throws Exception {
+		File file = folder.newFile("zones.arrow");
+		int[] rowCounts = { 1000, 0, 300 };
+		try (ColumnFileWriter writer = ColumnFileWriter.create(file.toPath(), schema, chunkSize)) {
+			int start = 0;
+			for (int rowCount : rowCounts) {
+				try (ColumnBatch batch = newBatch(start, rowCount)) {
+					writer.writeBatch(batch);
+				}
+				start += rowCount;
+			}
+			assertEquals(3, writer.getZoneMaps().getBatchCount());
+		}
+
+		try (MappedColumnFileReader reader = MappedColumnFileReader.open(file.toPath())) {
+			// the zone map offset is not part of the schema
+			assertEquals(schema, reader.getSchema());
+			ZoneMapIndex index = reader.getZoneMaps();
+			assertNotNull(index);
+			assertIndex(index, rowCounts);
+			ScanPlan plan = ScanPlanner.plan(index, ScanPredicate.compare("ts", CompareOp.GE, 1200L));
+			assertArrayEquals(new int[] { 2 }, plan.getBatches());
+			try (ColumnBatch batch = reader.readBatch(2, allocator)) {
+				assertEquals(1299L, ((BigIntVector) batch.getColumn(0)).getAccessor().get(299));
+			}
+		}
+
+		// the regular reader skips the zone maps
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				ArrowFileReader reader = new ArrowFileReader(channel, allocator)) {
+			assertEquals(3, reader.getRecordBlocks().size());
+			reader.loadRecordBatch(reader.getRecordBlocks().get(2));
+			assertEquals(300, reader.getVectorSchemaRoot().getRowCount());
+		}
+
+		File plain = folder.newFile("plain.arrow");
+		try (ColumnFileWriter writer = ColumnFileWriter.create(plain.toPath(), schema);
+				ColumnBatch batch = newBatch(0, 100)) {
+			writer.writeBatch(batch);
+			assertNull(writer.getZoneMaps());
+		}
+		try (MappedColumnFileReader reader = MappedColumnFileReader.open(plain.toPath())) {
+			assertNull(reader.getZoneMaps());
+		}
+	}
+
+	@Test
+	public void testCompressedColumnFile() throws Exception {
+		File file = folder.newFile("zones.arrowz");
+		int[] rowCounts = { 1000, 0, 300 };
+		try (CompressedColumnWriter writer = CompressedColumnWriter.create(file.toPath(), schema, allocator,
+				Codec.DEFLATE, chunkSize)) {
+			int start = 0;
+			for (int rowCount : rowCounts) {
+				try (ColumnBatch batch = newBatch(start, rowCount)) {
+					writer.writeBatch(batch);
+				}
+				start += rowCount;
+			}
+		}
+
+		try (CompressedColumnReader reader = CompressedColumnReader.open(file.toPath())) {
+			assertIndex(reader.getZoneMaps(), rowCounts);
+			// the last batch ends where the zone maps start
+			try (ColumnBatch batch = reader.readBatch(2, allocator)) {
+				assertEquals(1299L, ((BigIntVector) batch.getColumn(0)).getAccessor().get(299));
+			}
+		}
+
+		File plain = folder.newFile("plain.arrowz");
+		try (CompressedColumnWriter writer = CompressedColumnWriter.create(plain.toPath(), schema, allocator,
+				Codec.NONE); ColumnBatch batch = newBatch(0, 100)) {
+			writer.writeBatch(batch);
+		}
+		try (CompressedColumnReader reader = CompressedColumnReader.open(plain.toPath())) {
+			assertNull(reader.getZoneMaps());
+			try (ColumnBatch batch = reader.readBatch(0, allocator)) {
+				assertEquals(100, batch.getRowCount());
+			}
+		}
+	}
+
+	/**
+	 * Column data ending like a zone map block is not taken for one.
+	 */
+	@Test
+	public void testDataLookingLikeZoneMaps() throws Exception {
+		Schema single = new Schema(Arrays.asList(FixedWidthType.BIGINT.toField("v")));
+		// "ZONEMAP1" read as a little-endian long
+		long[] values = { 16, 0x3150414D454E4F5AL };
+		File compressed = folder.newFile("lookalike.arrowz");
+		try (CompressedColumnWriter writer = CompressedColumnWriter.create(compressed.toPath(), single, allocator,
+				Codec.NONE); ColumnBatch batch = newBatch(single, values)) {
+			writer.writeBatch(batch);
+		}
+		try (CompressedColumnReader reader = CompressedColumnReader.open(compressed.toPath());
+				ColumnBatch batch = reader.readBatch(0, allocator)) {
+			assertNull(reader.getZoneMaps());
+			assertEquals(values[1], ((BigIntVector) batch.getColumn(0)).getAccessor().get(1));
+		}
+
+		File mapped = folder.newFile("lookalike.arrow");
+		try (ColumnFileWriter writer = ColumnFileWriter.create(mapped.toPath(), single);
+				ColumnBatch batch = newBatch(single, values)) {
+			writer.writeBatch(batch);
+		}
+		try (MappedColumnFileReader reader = MappedColumnFileReader.open(mapped.toPath());
+				ColumnBatch batch = reader.readBatch(0, allocator)) {
+			assertNull(reader.getZoneMaps());
+			assertEquals(values[1], ((BigIntVector) batch.getColumn(0)).getAccessor().get(1));
+		}
+	}
+
+	private ColumnBatch newBatch(Schema single, long[] values) {
+		BigIntVector vector = new BigIntVector("v", allocator);
+		vector.allocateNew(values.length);
+		for (int i = 0; i < values.length; i++) {
+			vector.getMutator().set(i, values[i]);
+		}
+		vector.getMutator().setValueCount(values.length);
+		return new ColumnBatch(single, Arrays.<BaseDataValueVector> asList(vector));
+	}
+
+	private void assertIndex(ZoneMapIndex index, int[] rowCounts) {
+		assertEquals(rowCounts.length, index.getBatchCount());
+		assertEquals(chunkSize, index.getChunkSize());
+		int start = 0;
+		for (int b = 0; b < rowCounts.length; b++) {
+			assertEquals(rowCounts[b], index.getRowCount(b));
+			ZoneMap ts = index.getBatchZoneMap(b, 0);
+			assertEquals(rowCounts[b] == 0, ts.isEmpty());
+			if (rowCounts[b] > 0) {
+				assertEquals(start, ts.getLongMin());
+				assertEquals(start + rowCounts[b] - 1, ts.getLongMax());
+				assertEquals(start / 4.0, index.getBatchZoneMap(b, 1).getDoubleMin(), 0);
+				int lastChunk = index.getChunkCount(b) - 1;
+				assertEquals(start + lastChunk * chunkSize, index.getChunkZoneMap(b, 0, lastChunk).getLongMin());
+			}
+			start += rowCounts[b];
+		}
+	}
+
+	/**
+	 * Row i holds ts = i, price = i / 4 and qty = i % 10.
+	 */
+	private ColumnBatch newBatch(int start, int rowCount) {
+		BigIntVector ts = new BigIntVector("ts", allocator);
+		Float8Vector price = new Float8Vector("price", allocator);
+		IntVector qty = new IntVector("qty", allocator);
+		ts.allocateNew(rowCount);
+		price.allocateNew(rowCount);
+		qty.allocateNew(rowCount);
+		for (int i = 0; i < rowCount; i++) {
+			ts.getMutator().set(i, start + i);
+			price.getMutator().set(i, (start + i) / 4.0);
+			qty.getMutator().set(i, (start + i) % 10);
+		}
+		ts.getMutator().setValueCount(rowCount);
+		price.getMutator().setValueCount(rowCount);
+		qty.getMutator().setValueCount(rowCount);
+		return new ColumnBatch(schema, Arrays.<BaseDataValueVector> asList(ts, price, qty));
+	}
+}